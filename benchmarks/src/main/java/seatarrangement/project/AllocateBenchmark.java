@@ -0,0 +1,64 @@
+package seatarrangement.project;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@code allocateStudentsAndInvigilators} on fresh rooms, with the original
+ * sequential filling and with interleaved seating.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx2g" })
+public class AllocateBenchmark {
+
+    @Param({ "10000", "100000", "1000000" })
+    public int students;
+
+    private ArrayList<Student> roster;
+    private ArrayList<Building> template;
+    private ArrayList<Invigilator> invigilators;
+    private ArrayList<Building> buildings;
+
+    @Setup
+    public void setUp() {
+        Path dir = BenchmarkData.dataset(students);
+        roster = ExamSystemExcelPDF.readStudentsCSV(dir.resolve("students.csv").toString());
+        template = ExamSystemExcelPDF.readBuildingsCSV(dir.resolve("buildings.csv").toString());
+        invigilators = ExamSystemExcelPDF.readInvigilatorsCSV(dir.resolve("invigilators.csv").toString());
+    }
+
+    // Rooms collect students, so every invocation needs empty ones
+    @Setup(Level.Invocation)
+    public void freshRooms() {
+        buildings = BenchmarkData.copy(template);
+    }
+
+    @Benchmark
+    public Object sequential() {
+        return ExamSystemExcelPDF.allocateStudentsAndInvigilators(buildings, roster, invigilators);
+    }
+
+    @Benchmark
+    public Object interleaved() {
+        return ExamSystemExcelPDF.allocateStudentsAndInvigilators(buildings, roster, invigilators,
+                new InterleavedSeating());
+    }
+}
@@ -0,0 +1,112 @@
+package seatarrangement.project;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link AllocationServer} under sixteen concurrent clients: request latency
+ * (sampled, so the report carries p50 and p99) for seat lookups, one day's
+ * seat maps and one day's branch report, all from the cached timetable. A
+ * million students make thousands of sittings, so that size is left out.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx2g" })
+@Threads(16)
+public class AllocationServerBenchmark {
+
+    private static final String PRN = "\"prn\":\"";
+
+    @Param({ "10000", "100000" })
+    public int students;
+
+    private Path dir;
+    private AllocationServer server;
+    private HttpClient client;
+    private String[] prns;
+    private String day;
+
+    @Setup
+    public void setUp() throws Exception {
+        // The server leaves its snapshot next to the CSVs, so it gets its own copy of them
+        Path data = BenchmarkData.dataset(students);
+        dir = Files.createTempDirectory("server-bench");
+        for (String f : new String[] { "students.csv", "buildings.csv", "subjects.csv", "invigilators.csv" }) {
+            Files.copy(data.resolve(f), dir.resolve(f));
+        }
+        Subject first = ExamSystemExcelPDF.readSubjectsCSV(dir.resolve("subjects.csv").toString()).get(0);
+        day = ExamTimetable.parseStart(first).format(DateTimeFormatter.ofPattern("dd-MM-uuuu"));
+
+        server = new AllocationServer(dir, 0);
+        server.start();
+        client = HttpClient.newHttpClient();
+        // Schedules the timetable once, outside the measurement; students without a paper have no seat to ask for
+        String map = new String(get("/allocation"), StandardCharsets.UTF_8);
+        Set<String> seated = new LinkedHashSet<>();
+        for (int at = map.indexOf(PRN); at >= 0; at = map.indexOf(PRN, at + 1)) {
+            int from = at + PRN.length();
+            seated.add(map.substring(from, map.indexOf('"', from)));
+        }
+        prns = seated.toArray(new String[0]);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        server.stop();
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path p : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) Files.delete(p);
+        }
+    }
+
+    private byte[] get(String path) throws Exception {
+        HttpRequest req = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + path)).build();
+        HttpResponse<byte[]> r = client.send(req, HttpResponse.BodyHandlers.ofByteArray());
+        if (r.statusCode() != 200) throw new IllegalStateException(path + " -> " + r.statusCode());
+        return r.body();
+    }
+
+    @Benchmark
+    public byte[] seat() throws Exception {
+        return get("/seat?prn=" + prns[ThreadLocalRandom.current().nextInt(prns.length)]);
+    }
+
+    @Benchmark
+    public byte[] allocation() throws Exception {
+        return get("/allocation?date=" + day);
+    }
+
+    @Benchmark
+    public byte[] report() throws Exception {
+        return get("/report/branch.pdf?date=" + day);
+    }
+}
@@ -0,0 +1,126 @@
+package seatarrangement.project;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Synthetic data sets in the schema of the shipped CSVs, scaled by student
+ * count. For {@code n} students it writes:
+ * <ul>
+ *   <li>students.csv: {@code n} rows in branch blocks, years FE..BE;</li>
+ *   <li>buildings.csv: enough 20-bench rooms to seat them, five per building;</li>
+ *   <li>subjects.csv: {@code n / 100} rows (at least the shipped 19),
+ *       one Common and one paper per branch for each exam day;</li>
+ *   <li>invigilators.csv: one per room, with the shipped junk first line.</li>
+ * </ul>
+ * Sets are written once to {@code ${java.io.tmpdir}/examhall-bench/<n>} and
+ * reused by later forks and runs.
+ */
+final class BenchmarkData {
+
+    static final String[] BRANCHES = {
+            "Civil", "Computer Science", "Electrical", "Information Technology", "Mechanical"
+    };
+    static final String[] BRANCH_TYPES = {
+            "Civil Engineering", "Computer Science", "Electrical Engineering",
+            "Information Technology", "Mechanical Engineering"
+    };
+    static final String[] PREFIXES = { "CI", "CO", "EN", "IT", "ME" };
+    static final String[] YEARS = { "FE", "SE", "TE", "BE" };
+    static final String[] CLASSES = { "First Year", "Second Year", "Third Year", "Final Year" };
+
+    private static final String[] FIRST = {
+            "Aarav", "Jahnvi", "Kiaan", "Krishna", "Rutuja", "Karan", "Neelam", "Devendra",
+            "Aishwarya", "Raghav", "Anjali", "Pooja", "Shreya", "Ayaan", "Kunal", "Kyra"
+    };
+    private static final String[] LAST = {
+            "Reddy", "Malhotra", "Joshi", "Singh", "Patil", "Jha", "Gaur", "Rao",
+            "Desai", "Kapoor", "Sharma", "Verma", "Sethi", "Raut", "Nair", "Iyer"
+    };
+
+    private BenchmarkData() { }
+
+    /** Directory holding the four CSVs for {@code students} students, written on first use. */
+    static synchronized Path dataset(int students) {
+        Path dir = Paths.get(System.getProperty("java.io.tmpdir"), "examhall-bench", Integer.toString(students));
+        Path done = dir.resolve(".complete");
+        if (Files.exists(done)) return dir;
+        try {
+            Files.createDirectories(dir);
+            writeStudents(dir.resolve("students.csv"), students);
+            int rooms = (students + 19) / 20;
+            writeBuildings(dir.resolve("buildings.csv"), rooms);
+            writeSubjects(dir.resolve("subjects.csv"), Math.max(19, students / 100));
+            writeInvigilators(dir.resolve("invigilators.csv"), rooms);
+            Files.createFile(done);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return dir;
+    }
+
+    static void writeStudents(Path file, int count) throws IOException {
+        try (BufferedWriter w = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            w.write("PRN_Number,Student_Name,Branch,Year\n");
+            int perBranch = (count + BRANCHES.length - 1) / BRANCHES.length;
+            for (int i = 0; i < count; i++) {
+                int b = i / perBranch;
+                w.write(PREFIXES[b] + (250000 + i + 1) + ',' + FIRST[i % FIRST.length] + ' '
+                        + LAST[(i / FIRST.length) % LAST.length] + ',' + BRANCHES[b] + ','
+                        + YEARS[(i / 7) % YEARS.length] + '\n');
+            }
+        }
+    }
+
+    static void writeBuildings(Path file, int rooms) throws IOException {
+        try (BufferedWriter w = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            w.write("Building_Number,Room_Number,Benches_In_A_Class\n");
+            for (int r = 0; r < rooms; r++) {
+                int building = r / 5 + 1;
+                w.write(building + "," + (building * 100 + r % 5 + 1) + ",20\n");
+            }
+        }
+    }
+
+    static void writeSubjects(Path file, int count) throws IOException {
+        try (BufferedWriter w = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            w.write("Subject,branchType,Exam_Date,Class,Duration\n");
+            int perDay = BRANCH_TYPES.length + 1;
+            for (int i = 0; i < count; i++) {
+                int day = i / perDay;
+                int k = i % perDay;
+                String type = k == 0 ? "Common" : BRANCH_TYPES[k - 1];
+                String date = String.format("%02d-%02d-%04d 0.00", day % 28 + 1, day / 28 % 12 + 1, 2025 + day / 336);
+                w.write("Paper " + i + ',' + type + ',' + date + ',' + CLASSES[day % CLASSES.length] + ",3 hours\n");
+            }
+        }
+    }
+
+    static void writeInvigilators(Path file, int count) throws IOException {
+        try (BufferedWriter w = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            w.write("```,\n");
+            for (int i = 0; i < count; i++) {
+                w.write("Prof. " + FIRST[i % FIRST.length] + ' ' + LAST[(i / FIRST.length) % LAST.length] + ' ' + i
+                        + ',' + BRANCH_TYPES[i % BRANCH_TYPES.length] + '\n');
+            }
+        }
+    }
+
+    /** Fresh, empty copies of the rooms, so every allocation starts from scratch. */
+    static ArrayList<Building> copy(List<Building> buildings) {
+        ArrayList<Building> out = new ArrayList<>(buildings.size());
+        for (Building b : buildings) {
+            Building c = new Building(b.getBuildingNumber());
+            for (Room r : b.getRooms()) c.addRoom(new Room(r.getRoomNumber(), r.getBenches()));
+            out.add(c);
+        }
+        return out;
+    }
+}
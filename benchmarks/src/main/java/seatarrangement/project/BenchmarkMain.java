@@ -0,0 +1,30 @@
+package seatarrangement.project;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of {@code benchmarks.jar}. Takes the usual JMH command line
+ * (benchmark regex, {@code -p students=...}, {@code -f}, ...) and adds the GC
+ * profiler (allocation rate, bytes per op, GC count/time) and a JSON result
+ * file, {@code jmh-result.json} unless {@code -rff} names another, so runs of
+ * different builds can be compared with any JMH result viewer or a diff.
+ */
+public final class BenchmarkMain {
+
+    private BenchmarkMain() { }
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions cli = new CommandLineOptions(args);
+        OptionsBuilder builder = new OptionsBuilder();
+        builder.parent(cli).addProfiler(GCProfiler.class);
+        if (!cli.getResultFormat().hasValue()) builder.resultFormat(ResultFormatType.JSON);
+        if (!cli.getResult().hasValue()) builder.result("jmh-result.json");
+        Options options = builder.build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,66 @@
+package seatarrangement.project;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link CapacityPlanner#plan} for a share of the campus' seats. The campus
+ * is the data set's buildings with every room resized to 10..80 benches, so
+ * the planner has rooms of mixed sizes to choose from.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx2g" })
+public class CapacityPlannerBenchmark {
+
+    @Param({ "10000", "100000", "1000000" })
+    public int students;
+
+    @Param({ "0.01", "0.33", "0.95" })
+    public double share;
+
+    private List<Building> campus;
+    private int headcount;
+    private final CapacityPlanner planner = new CapacityPlanner();
+
+    @Setup
+    public void setUp() {
+        Path dir = BenchmarkData.dataset(students);
+        Random random = new Random(3);
+        campus = new ArrayList<>();
+        long seats = 0;
+        for (Building b : ExamSystemExcelPDF.readBuildingsCSV(dir.resolve("buildings.csv").toString())) {
+            Building resized = new Building(b.getBuildingNumber());
+            for (Room r : b.getRooms()) {
+                int benches = 10 + random.nextInt(71);
+                resized.addRoom(new Room(r.getRoomNumber(), benches));
+                seats += benches;
+            }
+            campus.add(resized);
+        }
+        headcount = (int) (seats * share);
+    }
+
+    @Benchmark
+    public Object plan() {
+        return planner.plan(campus, headcount);
+    }
+}
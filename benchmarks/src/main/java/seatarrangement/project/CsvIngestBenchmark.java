@@ -0,0 +1,139 @@
+package seatarrangement.project;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The student loader before {@link CsvEngine} (a BufferedReader and a line
+ * parser, kept here as the baseline) against the engine, sequential and in
+ * chunks on every core. Rows per second are {@code students} over the score;
+ * bytes per row are the GC profiler's {@code gc.alloc.rate.norm} over
+ * {@code students}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx2g" })
+public class CsvIngestBenchmark {
+
+    @Param({ "10000", "100000", "1000000" })
+    public int students;
+
+    private String file;
+    private final int threads = Runtime.getRuntime().availableProcessors();
+
+    @Setup
+    public void setUp() throws IOException {
+        Path dir = BenchmarkData.dataset(students);
+        file = dir.resolve("students.csv").toString();
+        if (legacy().size() != students || engine().size() != students || engineChunked().size() != students) {
+            throw new IllegalStateException("a loader lost rows");
+        }
+    }
+
+    @Benchmark
+    public List<Student> legacy() throws IOException {
+        return legacyReadStudents(file);
+    }
+
+    @Benchmark
+    public List<Student> engine() {
+        return ExamSystemExcelPDF.readStudentsCSV(file);
+    }
+
+    @Benchmark
+    public List<Student> engineChunked() {
+        return ExamSystemExcelPDF.readStudentsCSV(file, threads);
+    }
+
+    // ------------------- Baseline -------------------
+
+    private static ArrayList<Student> legacyReadStudents(String filePath) throws IOException {
+        ArrayList<Student> students = new ArrayList<>();
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(new FileInputStream(filePath),
+                StandardCharsets.UTF_8))) {
+            String line;
+            br.readLine();
+            while ((line = br.readLine()) != null) {
+                if (line.trim().isEmpty()) continue;
+                List<String> cols = legacyParseCsvLine(line);
+                String PRN = legacySafeGet(cols, 0);
+                String name = legacySafeGet(cols, 1);
+                String branch = legacySafeGet(cols, 2);
+                String yearStr = legacySafeGet(cols, 3);
+                if (name.isEmpty() || PRN.isEmpty()) continue;
+
+                int year = 0;
+                String y = yearStr.trim().toUpperCase(Locale.ROOT);
+                if (y.startsWith("F")) year = 1;
+                else if (y.startsWith("S") && y.contains("E")) year = 2;
+                else if (y.startsWith("T")) year = 3;
+                else if (y.startsWith("B")) year = 4;
+                try {
+                    year = Integer.parseInt(yearStr.trim());
+                } catch (Exception ignore) {
+                    // keep mapped value
+                }
+                students.add(new Student(name, PRN, branch, year));
+            }
+        }
+        return students;
+    }
+
+    private static List<String> legacyParseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder sb = new StringBuilder();
+        boolean inQuotes = false;
+        for (int i = 0; i < line.length(); i++) {
+            char ch = line.charAt(i);
+            if (ch == '"') {
+                if (inQuotes && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    sb.append('"');
+                    i++;
+                } else {
+                    inQuotes = !inQuotes;
+                }
+            } else if (ch == ',' && !inQuotes) {
+                fields.add(sb.toString());
+                sb.setLength(0);
+            } else {
+                sb.append(ch);
+            }
+        }
+        fields.add(sb.toString());
+        return fields;
+    }
+
+    private static String legacySafeGet(List<String> row, int idx) {
+        if (idx >= row.size()) return "";
+        String v = row.get(idx);
+        if (v == null) return "";
+        v = v.trim();
+        if (v.startsWith("\"") && v.endsWith("\"") && v.length() >= 2) {
+            v = v.substring(1, v.length() - 1);
+        }
+        return v.trim();
+    }
+}
@@ -0,0 +1,78 @@
+package seatarrangement.project;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link DataValidation} of the four CSVs on {@code threads} workers, with a
+ * thousand duplicate PRNs planted at the end of the roster.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx2g" })
+public class DataValidationBenchmark {
+
+    private static final int DUPLICATES = 1000;
+
+    @Param({ "10000", "100000", "1000000" })
+    public int students;
+
+    @Param({ "1", "4" })
+    public int threads;
+
+    private Path dir;
+    private Path roster;
+    private DataValidation validation;
+
+    @Setup
+    public void setUp() throws IOException {
+        dir = BenchmarkData.dataset(students);
+        roster = Files.createTempFile("validation-bench", ".csv");
+        Files.copy(dir.resolve("students.csv"), roster, StandardCopyOption.REPLACE_EXISTING);
+        try (BufferedWriter w = Files.newBufferedWriter(roster, StandardCharsets.UTF_8, StandardOpenOption.APPEND)) {
+            // The first branch block starts at CI250001 in every data set, so these all repeat a real PRN
+            for (int i = 0; i < DUPLICATES; i++) {
+                w.write(BenchmarkData.PREFIXES[0] + (250000 + i + 1) + ",Copy,"
+                        + BenchmarkData.BRANCHES[0] + ",FE\n");
+            }
+        }
+        validation = new DataValidation(threads);
+        DataValidation.Report report = validate();
+        if (report.getIssues(DataValidation.Code.DUPLICATE_PRN).size() != DUPLICATES) {
+            throw new IllegalStateException("missed duplicates: " + report.summary());
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(roster);
+    }
+
+    @Benchmark
+    public DataValidation.Report validate() {
+        return validation.validate(roster, dir.resolve("buildings.csv"), dir.resolve("subjects.csv"),
+                dir.resolve("invigilators.csv"));
+    }
+}
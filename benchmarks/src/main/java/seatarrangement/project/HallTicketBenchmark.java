@@ -0,0 +1,86 @@
+package seatarrangement.project;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link HallTicketBatchWriter} writing every slip and door sheet of one
+ * allocation, per fsync mode and pool size; files per second are a slip per
+ * student plus a sheet per room over the score. Each call writes into an empty
+ * directory, since the checkpoint would skip finished rooms, and {@code dir}
+ * puts it on the disk you care about ({@code -p dir=/mnt/exams}). A hundred
+ * thousand slips take a while on a synced disk, so that size is opt-in:
+ * {@code -p students=100000}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx2g" })
+public class HallTicketBenchmark {
+
+    @Param({ "10000" })
+    public int students;
+
+    @Param({ "NONE", "PER_FILE", "PER_ROOM" })
+    public String fsync;
+
+    @Param({ "1", "4", "8" })
+    public int threads;
+
+    @Param({ "" })
+    public String dir;
+
+    private AllocationIndex index;
+    private HallTicketBatchWriter.Fsync mode;
+    private Path out;
+
+    @Setup
+    public void setUp() {
+        Path data = BenchmarkData.dataset(students);
+        ArrayList<Building> buildings = ExamSystemExcelPDF.readBuildingsCSV(data.resolve("buildings.csv").toString());
+        ArrayList<ExamHall> halls = ExamSystemExcelPDF.allocateStudentsAndInvigilators(buildings,
+                ExamSystemExcelPDF.readStudentRoster(data.resolve("students.csv").toString()),
+                ExamSystemExcelPDF.readInvigilatorsCSV(data.resolve("invigilators.csv").toString()));
+        index = AllocationIndex.build(buildings, halls);
+        mode = HallTicketBatchWriter.Fsync.valueOf(fsync);
+    }
+
+    @Setup(Level.Invocation)
+    public void emptyOutput() throws IOException {
+        out = dir.isEmpty() ? Files.createTempDirectory("tickets-bench")
+                : Files.createTempDirectory(Path.of(dir), "tickets-bench");
+    }
+
+    @TearDown(Level.Invocation)
+    public void deleteOutput() throws IOException {
+        try (Stream<Path> files = Files.walk(out)) {
+            for (Path p : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) Files.delete(p);
+        }
+    }
+
+    @Benchmark
+    public long write() throws IOException {
+        return new HallTicketBatchWriter(out, threads, 64, mode).write(index).getFiles();
+    }
+}
@@ -0,0 +1,109 @@
+package seatarrangement.project;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * One roster or room change applied by {@link IncrementalAllocation} against
+ * running the whole allocation again (interleaved seating and the index), on
+ * 25-bench rooms with 2% spare benches. The deltas alternate a withdrawal and
+ * a late addition, with a bench change every thousandth, on one allocation
+ * that keeps changing for the whole run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx2g" })
+public class IncrementalBenchmark {
+
+    @Param({ "10000", "100000", "1000000" })
+    public int students;
+
+    private List<Student> roster;
+    private int rooms;
+    private IncrementalAllocation allocation;
+    private List<String> seated;
+    private SplittableRandom random;
+    private int delta;
+    private int late;
+
+    @Setup
+    public void setUp() {
+        roster = new ArrayList<>(students);
+        for (int i = 0; i < students; i++) {
+            int b = i * BenchmarkData.BRANCHES.length / students;
+            roster.add(new Student("Student " + i, BenchmarkData.PREFIXES[b] + (250000 + i),
+                    BenchmarkData.BRANCHES[b], 1 + (i / 7) % 4));
+        }
+        rooms = (int) Math.ceil(students * 1.02 / 25);
+        allocation = new IncrementalAllocation(ExamSystemExcelPDF.allocateStudentsAndInvigilators(buildings(rooms),
+                roster, new ArrayList<>(), new InterleavedSeating()));
+        seated = new ArrayList<>();
+        for (Student s : roster) seated.add(s.getPRN());
+        random = new SplittableRandom(7);
+        late = students;
+    }
+
+    /** Only the full recompute takes these, so the deltas run without a per-call setup. */
+    @State(Scope.Thread)
+    public static class Rooms {
+        ArrayList<Building> buildings;
+
+        // Rooms collect students, so every invocation needs empty ones
+        @Setup(Level.Invocation)
+        public void freshRooms(IncrementalBenchmark bench) {
+            buildings = buildings(bench.rooms);
+        }
+    }
+
+    @Benchmark
+    public AllocationIndex fullRecompute(Rooms rooms) {
+        return AllocationIndex.build(rooms.buildings, ExamSystemExcelPDF.allocateStudentsAndInvigilators(
+                rooms.buildings, roster, new ArrayList<>(), new InterleavedSeating()));
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<IncrementalAllocation.SeatChange> delta() {
+        int d = delta++;
+        if (d % 1000 == 999) {
+            return allocation.changeBenches(1 + random.nextInt(rooms), 20 + random.nextInt(10));
+        }
+        if (d % 2 == 0) {
+            int i = random.nextInt(seated.size());
+            String prn = seated.get(i);
+            seated.set(i, seated.get(seated.size() - 1));
+            seated.remove(seated.size() - 1);
+            return allocation.removeStudent(prn);
+        }
+        String prn = "LATE" + late++;
+        seated.add(prn);
+        return allocation.addStudent(new Student("Late", prn, "Civil", 1));
+    }
+
+    private static ArrayList<Building> buildings(int rooms) {
+        ArrayList<Building> buildings = new ArrayList<>();
+        for (int r = 0; r < rooms; r++) {
+            if (r % 5 == 0) buildings.add(new Building(r / 5 + 1));
+            buildings.get(buildings.size() - 1).addRoom(new Room(r + 1, 25));
+        }
+        return buildings;
+    }
+}
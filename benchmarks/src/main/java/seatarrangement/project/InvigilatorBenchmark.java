@@ -0,0 +1,58 @@
+package seatarrangement.project;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link InvigilatorAssignment} over every sitting of the data set's
+ * timetable at once, with one invigilator per room of the campus from the
+ * same departments as the students. The timetable is seated once, without
+ * invigilators; a million students make thousands of sittings, so that size
+ * is left out.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx2g" })
+public class InvigilatorBenchmark {
+
+    @Param({ "10000", "100000" })
+    public int students;
+
+    private List<InvigilatorAssignment.Session> sessions;
+    private ArrayList<Invigilator> invigilators;
+
+    @Setup
+    public void setUp() {
+        Path dir = BenchmarkData.dataset(students);
+        List<ExamTimetable.Sitting> timetable = new ExamTimetable().schedule(
+                ExamSystemExcelPDF.readBuildingsCSV(dir.resolve("buildings.csv").toString()),
+                ExamSystemExcelPDF.readStudentsCSV(dir.resolve("students.csv").toString()),
+                SubjectCatalog.of(ExamSystemExcelPDF.readSubjectsCSV(dir.resolve("subjects.csv").toString())),
+                new ArrayList<>());
+        sessions = new ArrayList<>(timetable.size());
+        for (ExamTimetable.Sitting s : timetable) sessions.add(InvigilatorAssignment.Session.of(s));
+        invigilators = ExamSystemExcelPDF.readInvigilatorsCSV(dir.resolve("invigilators.csv").toString());
+    }
+
+    @Benchmark
+    public Object assign() {
+        return new InvigilatorAssignment().assign(sessions, invigilators);
+    }
+}
@@ -0,0 +1,75 @@
+package seatarrangement.project;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * The CSV stage: the raw tokenizer and each loader. The line parser the
+ * loaders used to share is gone; {@link #tokenize} measures its replacement,
+ * {@link CsvEngine}, visiting every field without building objects.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx2g" })
+public class LoadBenchmark {
+
+    @Param({ "10000", "100000", "1000000" })
+    public int students;
+
+    private Path dir;
+    private final CsvEngine engine = new CsvEngine(true);
+
+    @Setup
+    public void setUp() {
+        dir = BenchmarkData.dataset(students);
+    }
+
+    @Benchmark
+    public long tokenize(Blackhole bh) throws IOException {
+        return engine.read(dir.resolve("students.csv"), row -> {
+            for (int i = 0; i < row.size(); i++) bh.consume(row.length(i));
+        });
+    }
+
+    @Benchmark
+    public Object readStudentsCSV() {
+        return ExamSystemExcelPDF.readStudentsCSV(dir.resolve("students.csv").toString());
+    }
+
+    @Benchmark
+    public Object readStudentRoster() {
+        return ExamSystemExcelPDF.readStudentRoster(dir.resolve("students.csv").toString());
+    }
+
+    @Benchmark
+    public Object readBuildingsCSV() {
+        return ExamSystemExcelPDF.readBuildingsCSV(dir.resolve("buildings.csv").toString());
+    }
+
+    @Benchmark
+    public Object readSubjectsCSV() {
+        return ExamSystemExcelPDF.readSubjectsCSV(dir.resolve("subjects.csv").toString());
+    }
+
+    @Benchmark
+    public Object readInvigilatorsCSV() {
+        return ExamSystemExcelPDF.readInvigilatorsCSV(dir.resolve("invigilators.csv").toString());
+    }
+}
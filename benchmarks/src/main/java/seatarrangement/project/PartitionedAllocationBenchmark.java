@@ -0,0 +1,76 @@
+package seatarrangement.project;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link PartitionedAllocation} with interleaved seating on a pool of
+ * {@code workers} threads, per partitioning; the scaling curve is the score
+ * across worker counts. {@link AllocateBenchmark#interleaved} is the
+ * single-piece baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx2g" })
+public class PartitionedAllocationBenchmark {
+
+    @Param({ "10000", "100000", "1000000" })
+    public int students;
+
+    @Param({ "BUILDING", "COHORT" })
+    public String partitioning;
+
+    @Param({ "1", "2", "4" })
+    public int workers;
+
+    private ArrayList<Student> roster;
+    private ArrayList<Building> template;
+    private ArrayList<Building> buildings;
+    private PartitionedAllocation.Partitioning mode;
+    private ForkJoinPool pool;
+
+    @Setup
+    public void setUp() {
+        Path dir = BenchmarkData.dataset(students);
+        roster = ExamSystemExcelPDF.readStudentsCSV(dir.resolve("students.csv").toString());
+        template = ExamSystemExcelPDF.readBuildingsCSV(dir.resolve("buildings.csv").toString());
+        mode = PartitionedAllocation.Partitioning.valueOf(partitioning);
+        pool = new ForkJoinPool(workers);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    // Rooms collect students, so every invocation needs empty ones
+    @Setup(Level.Invocation)
+    public void freshRooms() {
+        buildings = BenchmarkData.copy(template);
+    }
+
+    @Benchmark
+    public Object allocate() {
+        return new PartitionedAllocation(mode, InterleavedSeating::new, pool)
+                .allocate(buildings, roster, new ArrayList<>());
+    }
+}
@@ -0,0 +1,102 @@
+package seatarrangement.project;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Both branches of {@code generatePDFWithSubjects}: the common report (every
+ * hall) and the branch-only report (index lookups per branch), one after the
+ * other, against {@link ParallelReportRenderer} producing the pair at once
+ * ({@code bothParallel} against {@code bothSerial}). One render of
+ * a million students takes minutes, so that size is opt-in:
+ * {@code -p students=1000000}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx2g" })
+public class RenderBenchmark {
+
+    @Param({ "10000", "100000" })
+    public int students;
+
+    private ArrayList<ExamHall> halls;
+    private List<Subject> commonSubjects;
+    private List<Subject> branchSubjects;
+    private SubjectCatalog catalog;
+    private AllocationIndex index;
+    private Path out;
+    private Path branchOut;
+
+    @Setup
+    public void setUp() throws IOException {
+        Path dir = BenchmarkData.dataset(students);
+        halls = ExamSystemExcelPDF.allocateStudentsAndInvigilators(
+                ExamSystemExcelPDF.readBuildingsCSV(dir.resolve("buildings.csv").toString()),
+                ExamSystemExcelPDF.readStudentsCSV(dir.resolve("students.csv").toString()),
+                ExamSystemExcelPDF.readInvigilatorsCSV(dir.resolve("invigilators.csv").toString()));
+        commonSubjects = new ArrayList<>();
+        branchSubjects = new ArrayList<>();
+        for (Subject s : ExamSystemExcelPDF.readSubjectsCSV(dir.resolve("subjects.csv").toString())) {
+            (s.getBranchType().equalsIgnoreCase("Common") ? commonSubjects : branchSubjects).add(s);
+        }
+        catalog = SubjectCatalog.of(ExamSystemExcelPDF.readSubjectsCSV(dir.resolve("subjects.csv").toString()));
+        index = AllocationIndex.build(halls);
+        out = Files.createTempFile("render-bench", ".pdf");
+        branchOut = Files.createTempFile("render-bench", ".pdf");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(out);
+        Files.deleteIfExists(branchOut);
+    }
+
+    @Benchmark
+    public long commonReport() throws IOException {
+        ExamSystemExcelPDF.generatePDFWithSubjects(out.toString(), halls, commonSubjects,
+                "Exam Hall Allocation — Common Subjects", false);
+        return Files.size(out);
+    }
+
+    @Benchmark
+    public long branchReport() throws IOException {
+        ExamSystemExcelPDF.generatePDFWithSubjects(out.toString(), halls, branchSubjects,
+                "Exam Hall Allocation — Branch Only Subjects", true);
+        return Files.size(out);
+    }
+
+    @Benchmark
+    public long bothSerial() throws IOException {
+        ExamSystemExcelPDF.generatePDFWithSubjects(out.toString(), halls, commonSubjects,
+                "Exam Hall Allocation — Common Subjects", false, index);
+        ExamSystemExcelPDF.generatePDFWithSubjects(branchOut.toString(), halls, branchSubjects,
+                "Exam Hall Allocation — Branch Only Subjects", true, index);
+        return Files.size(out) + Files.size(branchOut);
+    }
+
+    @Benchmark
+    public long bothParallel() throws Exception {
+        new ParallelReportRenderer().renderBoth(out.toString(), branchOut.toString(), halls, catalog, index);
+        return Files.size(out) + Files.size(branchOut);
+    }
+}
@@ -0,0 +1,111 @@
+package seatarrangement.project;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import com.itextpdf.text.DocumentException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The common report through {@link RenderCache} against a full
+ * {@link ParallelReportRenderer} pass over the same allocation: with nothing
+ * changed, and after {@code changed} of the students were replaced by
+ * newcomers in random rooms (every invocation brings new ones, so those rooms
+ * always miss).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx2g" })
+public class RenderCacheBenchmark {
+
+    @Param({ "10000", "100000" })
+    public int students;
+
+    @Param({ "0.05" })
+    public double changed;
+
+    private ArrayList<ExamHall> halls;
+    private SubjectCatalog catalog;
+    private Path cacheDir;
+    private RenderCache cache;
+    private final Random random = new Random(42);
+    private int newcomers;
+
+    @Setup
+    public void setUp() throws IOException, DocumentException {
+        Path dir = BenchmarkData.dataset(students);
+        halls = ExamSystemExcelPDF.allocateStudentsAndInvigilators(
+                ExamSystemExcelPDF.readBuildingsCSV(dir.resolve("buildings.csv").toString()),
+                ExamSystemExcelPDF.readStudentsCSV(dir.resolve("students.csv").toString()),
+                ExamSystemExcelPDF.readInvigilatorsCSV(dir.resolve("invigilators.csv").toString()));
+        catalog = SubjectCatalog.of(ExamSystemExcelPDF.readSubjectsCSV(dir.resolve("subjects.csv").toString()));
+        cacheDir = Files.createTempDirectory("render-cache-bench");
+        cache = new RenderCache(cacheDir, Long.MAX_VALUE);
+        cache.render(OutputStream.nullOutputStream(), halls, catalog, "Common", false, null);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(cacheDir)) {
+            for (Path p : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) Files.delete(p);
+        }
+    }
+
+    void replaceStudents() {
+        int swaps = (int) (students * changed);
+        for (int i = 0; i < swaps; i++) {
+            ArrayList<Student> seated = halls.get(random.nextInt(halls.size())).getRoom().getStudents();
+            if (seated.isEmpty()) continue;
+            int bench = random.nextInt(seated.size());
+            Student old = seated.get(bench);
+            seated.set(bench, new Student("New Student " + newcomers, "NW" + newcomers++, old.getBranch(),
+                    old.getYear()));
+        }
+    }
+
+    @Benchmark
+    public void fullRender() throws IOException, DocumentException {
+        new ParallelReportRenderer().render(OutputStream.nullOutputStream(), halls, catalog, "Common", false, null);
+    }
+
+    @Benchmark
+    public void cacheUnchanged() throws IOException, DocumentException {
+        cache.render(OutputStream.nullOutputStream(), halls, catalog, "Common", false, null);
+    }
+
+    @Benchmark
+    public void cacheAfterChange(Changes changes) throws IOException, DocumentException {
+        cache.render(OutputStream.nullOutputStream(), halls, catalog, "Common", false, null);
+    }
+
+    /** Replaces the students before every {@link #cacheAfterChange} invocation. */
+    @State(Scope.Thread)
+    public static class Changes {
+        @Setup(Level.Invocation)
+        public void change(RenderCacheBenchmark bench) {
+            bench.replaceStudents();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package seatarrangement.project;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Retained heap of a loaded roster, {@code ArrayList<Student>} against
+ * {@link StudentRoster}, reported as the {@code retainedBytes} and
+ * {@code bytesPerStudent} counters. Each call forces collections before and
+ * after the load to settle the heap, so the time score is not the loader's;
+ * {@link LoadBenchmark} times that.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx2g" })
+public class RosterHeapBenchmark {
+
+    @Param({ "100000", "1000000" })
+    public int students;
+
+    @Param({ "objects", "roster" })
+    public String layout;
+
+    private String file;
+
+    /** Read by JMH after every iteration; one load per iteration. */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+        public long retainedBytes;
+        public double bytesPerStudent;
+    }
+
+    @Setup
+    public void setUp() {
+        Path dir = BenchmarkData.dataset(students);
+        file = dir.resolve("students.csv").toString();
+    }
+
+    @Benchmark
+    public Object load(Footprint footprint) throws InterruptedException {
+        long base = usedHeap();
+        Object loaded;
+        int rows;
+        if (layout.equals("roster")) {
+            StudentRoster roster = ExamSystemExcelPDF.readStudentRoster(file);
+            rows = roster.size();
+            loaded = roster;
+        } else {
+            List<Student> objects = ExamSystemExcelPDF.readStudentsCSV(file);
+            rows = objects.size();
+            loaded = objects;
+        }
+        footprint.retainedBytes = usedHeap() - base;
+        footprint.bytesPerStudent = footprint.retainedBytes / (double) rows;
+        return loaded;
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        return rt.totalMemory() - rt.freeMemory();
+    }
+}
@@ -0,0 +1,109 @@
+package seatarrangement.project;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The help-desk index of {@link SeatLookupIndex} over every sitting of the
+ * data set's timetable: building it, then lookups per second for single PRNs,
+ * batches of PRNs and name prefixes, all days. A million students make
+ * thousands of sittings, so that size is left out.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx2g" })
+public class SeatLookupBenchmark {
+
+    private static final int BATCH = 1000;
+
+    @Param({ "10000", "100000" })
+    public int students;
+
+    private List<ExamTimetable.Sitting> timetable;
+    private SubjectCatalog catalog;
+    private Path file;
+    private SeatLookupIndex.Lookup lookup;
+    private String[] prns;
+    private String[] prefixes;
+    private final Random random = new Random(7);
+
+    @Setup
+    public void setUp() throws IOException {
+        Path dir = BenchmarkData.dataset(students);
+        ArrayList<Student> roster = ExamSystemExcelPDF.readStudentsCSV(dir.resolve("students.csv").toString());
+        catalog = SubjectCatalog.of(ExamSystemExcelPDF.readSubjectsCSV(dir.resolve("subjects.csv").toString()));
+        timetable = new ExamTimetable().schedule(
+                ExamSystemExcelPDF.readBuildingsCSV(dir.resolve("buildings.csv").toString()), roster, catalog,
+                ExamSystemExcelPDF.readInvigilatorsCSV(dir.resolve("invigilators.csv").toString()));
+        file = Files.createTempFile("lookup-bench", ".idx");
+        SeatLookupIndex.write(file, timetable, catalog);
+        lookup = SeatLookupIndex.open(file);
+
+        prns = new String[roster.size()];
+        prefixes = new String[roster.size()];
+        for (int i = 0; i < roster.size(); i++) {
+            prns[i] = roster.get(i).getPRN();
+            String name = roster.get(i).getName();
+            prefixes[i] = name.substring(0, Math.min(name.length(), 8));
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        lookup.close();
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public long write() throws IOException {
+        Path out = Files.createTempFile("lookup-bench", ".idx");
+        try {
+            SeatLookupIndex.write(out, timetable, catalog);
+            return Files.size(out);
+        } finally {
+            Files.delete(out);
+        }
+    }
+
+    @Benchmark
+    public Object findPrn() {
+        return lookup.find(prns[random.nextInt(prns.length)], null);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public Object findBatch() {
+        int from = random.nextInt(prns.length - BATCH + 1);
+        return lookup.findAll(Arrays.asList(prns).subList(from, from + BATCH), null);
+    }
+
+    @Benchmark
+    public Object findByName() {
+        return lookup.findByName(prefixes[random.nextInt(prefixes.length)], null, 20);
+    }
+}
@@ -0,0 +1,83 @@
+package seatarrangement.project;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link SeatMapExport}: writing all three formats of one allocation, and
+ * random PRN lookups on the binary file (lookups per second).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx2g" })
+public class SeatMapExportBenchmark {
+
+    @Param({ "10000", "100000", "1000000" })
+    public int students;
+
+    private ArrayList<ExamHall> halls;
+    private AllocationIndex index;
+    private Path out;
+    private String[] prns;
+    private SeatMapExport.Lookup lookup;
+    private final Random random = new Random(7);
+
+    @Setup
+    public void setUp() throws IOException {
+        Path dir = BenchmarkData.dataset(students);
+        ArrayList<Building> buildings = ExamSystemExcelPDF.readBuildingsCSV(dir.resolve("buildings.csv").toString());
+        halls = ExamSystemExcelPDF.allocateStudentsAndInvigilators(buildings,
+                ExamSystemExcelPDF.readStudentsCSV(dir.resolve("students.csv").toString()), new ArrayList<>());
+        index = AllocationIndex.build(buildings, halls);
+        out = Files.createTempDirectory("seatmap-bench");
+
+        SeatMapExport.writeAll(out, "lookup", halls, index);
+        lookup = SeatMapExport.Lookup.open(out.resolve("lookup.seats"));
+        ArrayList<String> seated = new ArrayList<>();
+        for (ExamHall eh : halls) for (Student s : eh.getRoom().getStudents()) seated.add(s.getPRN());
+        prns = seated.toArray(new String[0]);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        lookup.close();
+        try (Stream<Path> files = Files.walk(out)) {
+            for (Path p : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) Files.delete(p);
+        }
+    }
+
+    @Benchmark
+    public long writeAll() throws IOException {
+        SeatMapExport.writeAll(out, "map", halls, index);
+        return Files.size(out.resolve("map.seats"));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public Object lookup() {
+        return lookup.find(prns[random.nextInt(prns.length)]);
+    }
+}
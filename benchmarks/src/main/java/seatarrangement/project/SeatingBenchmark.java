@@ -0,0 +1,85 @@
+package seatarrangement.project;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Solve time of each seating strategy on 25-bench rooms, with the same-paper
+ * neighbour pairs left behind as the {@code conflicts} counter. The mixed
+ * roster has the 5 branches x 4 years of the data sets; the two-cohort roster
+ * on 4-wide rows is the case where plain interleaving lines the same paper up
+ * front to back. Local search stops after one second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx2g" })
+public class SeatingBenchmark {
+
+    @Param({ "5000", "50000", "200000" })
+    public int students;
+
+    @Param({ "sequential", "interleaved", "localSearch" })
+    public String strategy;
+
+    @Param({ "mixed", "twoCohorts" })
+    public String roster;
+
+    private List<Student> seated;
+    private int rowWidth;
+    private List<Room> rooms;
+
+    /** Read by JMH after every iteration; one seating per iteration. */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Quality {
+        public long conflicts;
+    }
+
+    @Setup
+    public void setUp() {
+        int branches = roster.equals("mixed") ? BenchmarkData.BRANCHES.length : 2;
+        int years = roster.equals("mixed") ? 4 : 1;
+        rowWidth = roster.equals("mixed") ? 0 : 4;
+        seated = new ArrayList<>(students);
+        for (int i = 0; i < students; i++) {
+            int b = i * branches / students;
+            seated.add(new Student("Student " + i, BenchmarkData.PREFIXES[b] + (250000 + i),
+                    BenchmarkData.BRANCHES[b], 1 + (i / 7) % years));
+        }
+    }
+
+    // Rooms collect students, so every invocation needs empty ones
+    @Setup(Level.Invocation)
+    public void freshRooms() {
+        rooms = new ArrayList<>();
+        for (int r = 0; r < (students + 24) / 25; r++) rooms.add(new Room(r + 1, 25));
+    }
+
+    @Benchmark
+    public List<Room> seat(Quality quality) {
+        SeatingStrategy s = strategy.equals("sequential") ? SeatingStrategy.sequential()
+                : strategy.equals("interleaved") ? new InterleavedSeating()
+                : new LocalSearchSeating(rowWidth, 1000);
+        s.seat(rooms, seated);
+        quality.conflicts = LocalSearchSeating.countConflicts(rooms, rowWidth);
+        return rooms;
+    }
+}
@@ -0,0 +1,73 @@
+package seatarrangement.project;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link MasterDataSnapshot#load}: cold start (validate and parse the four
+ * CSVs and write the snapshot) against warm start (check the fingerprints and
+ * map the snapshot).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx2g" })
+public class SnapshotBenchmark {
+
+    @Param({ "10000", "100000", "1000000" })
+    public int students;
+
+    private Path dir;
+    private Path cold;
+    private Path warm;
+
+    @Setup
+    public void setUp() throws IOException {
+        dir = BenchmarkData.dataset(students);
+        cold = Files.createTempFile("snapshot-bench", ".snapshot");
+        warm = Files.createTempFile("snapshot-bench", ".snapshot");
+        Files.delete(warm);
+        if (load(warm).isFromSnapshot()) throw new IllegalStateException("no snapshot was written");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(cold);
+        Files.deleteIfExists(warm);
+    }
+
+    @Benchmark
+    public Object coldStart() throws IOException {
+        Files.deleteIfExists(cold);
+        return load(cold);
+    }
+
+    @Benchmark
+    public Object warmStart() {
+        MasterDataSnapshot.Data data = load(warm);
+        if (!data.isFromSnapshot()) throw new IllegalStateException("snapshot not used");
+        return data;
+    }
+
+    private MasterDataSnapshot.Data load(Path snapshot) {
+        return MasterDataSnapshot.load(dir.resolve("students.csv"), dir.resolve("buildings.csv"),
+                dir.resolve("subjects.csv"), dir.resolve("invigilators.csv"), snapshot);
+    }
+}
@@ -0,0 +1,98 @@
+package seatarrangement.project;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Per-student subject filtering over the whole roster, with the string rules
+ * the reports and the timetable used before {@link SubjectCatalog} against the
+ * compiled catalog:
+ * <ul>
+ *   <li>branch report membership: how many students are in each report branch?</li>
+ *   <li>papers: how many subjects of the sheet does every student write?</li>
+ * </ul>
+ * The catalog benchmarks compile it on every call, so its build is included.
+ * The data set has a subject per hundred students, so the string rules grow
+ * with the square of the roster and a million students are left out.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx2g" })
+public class SubjectCatalogBenchmark {
+
+    @Param({ "10000", "100000" })
+    public int students;
+
+    private ArrayList<Student> roster;
+    private ArrayList<Subject> subjects;
+
+    @Setup
+    public void setUp() {
+        Path dir = BenchmarkData.dataset(students);
+        roster = ExamSystemExcelPDF.readStudentsCSV(dir.resolve("students.csv").toString());
+        subjects = ExamSystemExcelPDF.readSubjectsCSV(dir.resolve("subjects.csv").toString());
+    }
+
+    @Benchmark
+    public long branchMembershipStrings() {
+        long members = 0;
+        for (String branch : BenchmarkData.BRANCH_TYPES) {
+            String key = branch.toLowerCase(Locale.ROOT).split(" ")[0];
+            for (Student s : roster) if (s.getBranch().toLowerCase(Locale.ROOT).contains(key)) members++;
+        }
+        return members;
+    }
+
+    @Benchmark
+    public long branchMembershipCatalog() {
+        SubjectCatalog catalog = SubjectCatalog.of(subjects);
+        long members = 0;
+        for (int b = 0; b < catalog.getBranchCount(); b++) {
+            for (Student s : roster) if (catalog.branchOf(s.getBranch()) == b) members++;
+        }
+        return members;
+    }
+
+    @Benchmark
+    public long papersStrings() {
+        long papers = 0;
+        for (Student st : roster) {
+            for (Subject s : subjects) {
+                if (s.getYear() == st.getYear() && legacyBranchMatches(st.getBranch(), s.getBranchType())) papers++;
+            }
+        }
+        return papers;
+    }
+
+    @Benchmark
+    public long papersCatalog() {
+        SubjectCatalog catalog = SubjectCatalog.of(subjects);
+        long papers = 0;
+        for (Student st : roster) papers += catalog.getPapers(catalog.branchOf(st.getBranch()), st.getYear()).cardinality();
+        return papers;
+    }
+
+    /** The first-word rule of the timetable and the branch-only report before the catalog. */
+    private static boolean legacyBranchMatches(String studentBranch, String branchType) {
+        if (branchType.equalsIgnoreCase("Common")) return true;
+        String key = branchType.toLowerCase(Locale.ROOT).split(" ")[0];
+        return studentBranch.toLowerCase(Locale.ROOT).contains(key);
+    }
+}
@@ -0,0 +1,79 @@
+package seatarrangement.project;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Wall time to seat a semester of exam slots with {@link ExamTimetable} on
+ * {@code threads} workers: one common paper per year in the morning and the
+ * five branch papers in the afternoon, day after day. Every slot seats the
+ * whole year group, so a million students are left out.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx2g" })
+public class TimetableBenchmark {
+
+    @Param({ "10000", "100000" })
+    public int students;
+
+    @Param({ "300" })
+    public int slots;
+
+    @Param({ "1", "4" })
+    public int threads;
+
+    private ArrayList<Building> buildings;
+    private ArrayList<Student> roster;
+    private SubjectCatalog catalog;
+
+    @Setup
+    public void setUp() {
+        Path dir = BenchmarkData.dataset(students);
+        buildings = ExamSystemExcelPDF.readBuildingsCSV(dir.resolve("buildings.csv").toString());
+        roster = ExamSystemExcelPDF.readStudentsCSV(dir.resolve("students.csv").toString());
+        catalog = SubjectCatalog.of(subjects(slots));
+    }
+
+    // Every slot seats fresh copies of the rooms, so the buildings are reused
+    @Benchmark
+    public List<ExamTimetable.Sitting> schedule() {
+        return new ExamTimetable(InterleavedSeating::new, threads).schedule(buildings, roster, catalog,
+                new ArrayList<>());
+    }
+
+    /** Alternates a year-wide common paper (morning) with branch papers (afternoon). */
+    private static List<Subject> subjects(int slots) {
+        List<Subject> out = new ArrayList<>();
+        for (int s = 0; s < slots; s++) {
+            int day = s / 2;
+            String date = String.format(Locale.ROOT, "%02d-%02d-2025 %s", day % 28 + 1, day / 28 % 12 + 1,
+                    s % 2 == 0 ? "0.00" : "14.00");
+            int year = day % 4 + 1;
+            if (s % 2 == 0) {
+                out.add(new Subject("Common " + s, "Common", date, year, "3 hours"));
+            } else {
+                for (String t : BenchmarkData.BRANCH_TYPES) out.add(new Subject(t + " " + s, t, date, year, "3 hours"));
+            }
+        }
+        return out;
+    }
+}
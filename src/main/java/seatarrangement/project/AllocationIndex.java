@@ -0,0 +1,180 @@
+package seatarrangement.project;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Lookup tables over one allocation result, built once after
+ * {@link ExamSystemExcelPDF#allocateStudentsAndInvigilators} so later stages do
+ * not have to rescan every hall and every seat:
+ * <ul>
+ *   <li>building number -> rooms, and room number -> hall / building</li>
+ *   <li>branch -> (hall, seat range) runs in seating order</li>
+ *   <li>PRN -> seat</li>
+ * </ul>
+ * The index is a snapshot; rebuild it after the halls change.
+ */
+final class AllocationIndex {
+
+    private final List<ExamHall> halls;
+    private final Map<Integer, Building> buildingsByNumber = new LinkedHashMap<>();
+    private final Map<Integer, Integer> hallByRoom = new HashMap<>();
+    private final Map<Integer, Integer> buildingByRoom = new HashMap<>();
+    private final Map<String, List<SeatRange>> rangesByBranch = new LinkedHashMap<>();
+    private final Map<String, Seat> seatByPrn;
+
+    private AllocationIndex(List<ExamHall> halls, int seats) {
+        this.halls = halls;
+        this.seatByPrn = new HashMap<>(Math.max(16, seats * 4 / 3 + 1));
+    }
+
+    /** Index without building information, for callers that only have the halls. */
+    public static AllocationIndex build(List<ExamHall> halls) {
+        return build(Collections.emptyList(), halls);
+    }
+
+    public static AllocationIndex build(List<Building> buildings, List<ExamHall> halls) {
+        int seats = 0;
+        for (ExamHall eh : halls) seats += eh.getRoom().getStudents().size();
+
+        AllocationIndex index = new AllocationIndex(halls, seats);
+        for (Building b : buildings) {
+            index.buildingsByNumber.put(b.getBuildingNumber(), b);
+            for (Room r : b.getRooms()) index.buildingByRoom.put(r.getRoomNumber(), b.getBuildingNumber());
+        }
+
+        for (int h = 0; h < halls.size(); h++) {
+            ExamHall eh = halls.get(h);
+            index.hallByRoom.put(eh.getRoom().getRoomNumber(), h);
+
+            ArrayList<Student> students = eh.getRoom().getStudents();
+            int runStart = 0;
+            for (int i = 0; i < students.size(); i++) {
+                Student st = students.get(i);
+                index.seatByPrn.put(st.getPRN(), new Seat(eh, h, i));
+                // Close the current run when the next seat changes branch
+                boolean last = i + 1 == students.size();
+                if (last || !sameBranch(st, students.get(i + 1))) {
+                    String branch = st.getBranch() == null ? "" : st.getBranch();
+                    index.rangesByBranch.computeIfAbsent(branch, k -> new ArrayList<>())
+                            .add(new SeatRange(eh, h, runStart, i + 1));
+                    runStart = i + 1;
+                }
+            }
+        }
+        return index;
+    }
+
+    private static boolean sameBranch(Student a, Student b) {
+        return a.getBranch() == null ? b.getBranch() == null : a.getBranch().equals(b.getBranch());
+    }
+
+    // ------------------- Buildings and rooms -------------------
+
+    public List<ExamHall> getHalls() { return halls; }
+
+    public Building getBuilding(int buildingNumber) { return buildingsByNumber.get(buildingNumber); }
+
+    public List<Room> getRooms(int buildingNumber) {
+        Building b = buildingsByNumber.get(buildingNumber);
+        return b == null ? Collections.emptyList() : b.getRooms();
+    }
+
+    /** Hall for a room number, or null when the room was not allocated. */
+    public ExamHall getHall(int roomNumber) {
+        Integer h = hallByRoom.get(roomNumber);
+        return h == null ? null : halls.get(h);
+    }
+
+    /** Building number that owns the room, or -1 when the index was built without buildings. */
+    public int getBuildingNumber(int roomNumber) {
+        Integer b = buildingByRoom.get(roomNumber);
+        return b == null ? -1 : b;
+    }
+
+    // ------------------- Branches and seats -------------------
+
+    /** Distinct student branch names, in first-seated order. */
+    public Set<String> getBranches() { return rangesByBranch.keySet(); }
+
+    /** Seat runs of one exact branch name, in hall and bench order. */
+    public List<SeatRange> getRanges(String branch) {
+        List<SeatRange> r = rangesByBranch.get(branch);
+        return r == null ? Collections.emptyList() : r;
+    }
+
+    /**
+     * Seat runs of every student branch the catalog resolves to {@code branch}
+     * ("Civil" for "Civil Engineering"), merged back into hall and bench
+     * order. Resolved once per distinct branch name, not per seat.
+     */
+    public List<SeatRange> getRanges(SubjectCatalog catalog, int branch) {
+        List<SeatRange> out = new ArrayList<>();
+        int matched = 0;
+        for (Map.Entry<String, List<SeatRange>> e : rangesByBranch.entrySet()) {
+            if (catalog.branchOf(e.getKey()) == branch) {
+                out.addAll(e.getValue());
+                matched++;
+            }
+        }
+        if (matched > 1) {
+            out.sort((a, b) -> a.hallIndex != b.hallIndex
+                    ? Integer.compare(a.hallIndex, b.hallIndex)
+                    : Integer.compare(a.from, b.from));
+        }
+        return out;
+    }
+
+    /** Seat of a student, or null when the PRN is not seated. */
+    public Seat getSeat(String prn) { return seatByPrn.get(prn); }
+
+    public int getSeatCount() { return seatByPrn.size(); }
+
+    // ------------------- Value types -------------------
+
+    /** One student's place: the hall and the 0-based bench inside its room. */
+    static final class Seat {
+        private final ExamHall hall;
+        private final int hallIndex;
+        private final int bench;
+
+        Seat(ExamHall hall, int hallIndex, int bench) {
+            this.hall = hall;
+            this.hallIndex = hallIndex;
+            this.bench = bench;
+        }
+
+        public ExamHall getHall() { return hall; }
+        public int getHallIndex() { return hallIndex; }
+        public int getBench() { return bench; }
+    }
+
+    /** Benches [from, to) of one hall that are all taken by the same branch. */
+    static final class SeatRange {
+        private final ExamHall hall;
+        private final int hallIndex;
+        private final int from;
+        private final int to;
+
+        SeatRange(ExamHall hall, int hallIndex, int from, int to) {
+            this.hall = hall;
+            this.hallIndex = hallIndex;
+            this.from = from;
+            this.to = to;
+        }
+
+        public ExamHall getHall() { return hall; }
+        public int getHallIndex() { return hallIndex; }
+        public int getFrom() { return from; }
+        public int getTo() { return to; }
+
+        public List<Student> getStudents() {
+            return hall.getRoom().getStudents().subList(from, to);
+        }
+    }
+}
@@ -0,0 +1,301 @@
+package seatarrangement.project;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Long-running allocation service: keeps the parsed master data and the
+ * exam timetable seated from it in memory and serves them over HTTP. The
+ * timetable is the one the command line prints: every sitting seats only the
+ * students writing a paper in that slot.
+ * <ul>
+ *   <li>{@code GET /allocation?date=dd-MM-yyyy&time=HH:mm} - JSON seat maps of the sittings</li>
+ *   <li>{@code GET /seat?prn=CO25001&date=dd-MM-yyyy} - one student's seats as JSON</li>
+ *   <li>{@code GET /report/common.pdf}, {@code /report/branch.pdf} - the two reports</li>
+ *   <li>{@code GET /health}</li>
+ * </ul>
+ * {@code date} keeps the sittings of that day and {@code time} the one
+ * starting at that time; without them every sitting is served. All of them
+ * take {@code strategy=sequential|interleaved}, interleaved by default.
+ *
+ * Every request runs on its own virtual thread. JSON is streamed with
+ * chunked encoding as it is produced; a report is rendered in full first, so
+ * a failed render is a 500 and never a cut-off PDF.
+ *
+ * The cache is keyed by source version: the size and mtime of the four
+ * CSVs, checked on every request (four stat calls). When the version moves,
+ * the data is reloaded (through {@link MasterDataSnapshot}, so unchanged
+ * files are not re-parsed) and every timetable of the old version is
+ * dropped. Timetables are scheduled once per (version, strategy) and then
+ * only read, so any number of requests can share them.
+ */
+final class AllocationServer {
+
+    private static final String[] SOURCES = { "students.csv", "buildings.csv", "subjects.csv", "invigilators.csv" };
+
+    private final Path dataDir;
+    private final HttpServer server;
+    private final ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final Object loadLock = new Object();
+    private volatile Version current;
+
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("dd-MM-uuuu");
+
+    /** Master data of one source version and the timetables seated from it. */
+    private static final class Version {
+        final String key;
+        final MasterDataSnapshot.Data data;
+        final SubjectCatalog catalog;
+        final Map<String, List<ExamTimetable.Sitting>> timetables = new ConcurrentHashMap<>();
+
+        Version(String key, MasterDataSnapshot.Data data) {
+            this.key = key;
+            this.data = data;
+            this.catalog = SubjectCatalog.of(data.getSubjects());
+        }
+    }
+
+    AllocationServer(Path dataDir, int port) throws IOException {
+        this.dataDir = dataDir;
+        this.server = HttpServer.create(new InetSocketAddress(port), 128);
+        server.setExecutor(workers);
+        server.createContext("/health", handler(this::health));
+        server.createContext("/allocation", handler(this::allocation));
+        server.createContext("/seat", handler(this::seat));
+        server.createContext("/report/", handler(this::report));
+    }
+
+    public void start() { server.start(); }
+
+    public void stop() {
+        server.stop(0);
+        workers.close();
+    }
+
+    /** The bound port; useful when started on port 0. */
+    public int getPort() { return server.getAddress().getPort(); }
+
+    // ------------------- Cache -------------------
+
+    private String sourceVersion() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (String s : SOURCES) {
+            Path p = dataDir.resolve(s);
+            sb.append(Files.size(p)).append(':').append(Files.getLastModifiedTime(p).toMillis()).append(';');
+        }
+        return sb.toString();
+    }
+
+    private Version version() throws IOException {
+        String key = sourceVersion();
+        Version v = current;
+        if (v != null && v.key.equals(key)) return v;
+        synchronized (loadLock) {
+            v = current;
+            if (v != null && v.key.equals(key)) return v;
+            MasterDataSnapshot.Data data = MasterDataSnapshot.load(dataDir.resolve(SOURCES[0]),
+                    dataDir.resolve(SOURCES[1]), dataDir.resolve(SOURCES[2]), dataDir.resolve(SOURCES[3]),
+                    dataDir.resolve("master-data.snapshot"));
+            v = new Version(key, data);
+            current = v;    // the old version and its timetables become garbage
+            return v;
+        }
+    }
+
+    private static List<ExamTimetable.Sitting> timetable(Version v, String strategy) {
+        return v.timetables.computeIfAbsent(strategy, s -> {
+            Supplier<SeatingStrategy> seating = s.equals("interleaved")
+                    ? InterleavedSeating::new : SeatingStrategy::sequential;
+            // Every sitting seats its own copies of the rooms, so the cached buildings stay empty
+            return new ExamTimetable(seating, Runtime.getRuntime().availableProcessors())
+                    .schedule(v.data.getBuildings(), v.data.getStudents(), v.catalog, v.data.getInvigilators());
+        });
+    }
+
+    /** The sittings picked by {@code date} and {@code time}; all of them when neither is given. */
+    private static List<ExamTimetable.Sitting> sittings(Version v, Map<String, String> query) {
+        LocalDate day = null;
+        LocalTime time = null;
+        try {
+            if (query.containsKey("date")) day = LocalDate.parse(query.get("date"), DATE);
+            if (query.containsKey("time")) time = LocalTime.parse(query.get("time"));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("date must be dd-MM-yyyy and time HH:mm");
+        }
+        if (time != null && day == null) throw new IllegalArgumentException("time needs a date");
+        List<ExamTimetable.Sitting> out = new ArrayList<>();
+        for (ExamTimetable.Sitting s : timetable(v, strategy(query))) {
+            LocalDateTime start = s.getSlot().getStart();
+            if (day != null && !start.toLocalDate().equals(day)) continue;
+            if (time != null && !start.toLocalTime().equals(time)) continue;
+            out.add(s);
+        }
+        return out;
+    }
+
+    // ------------------- Handlers -------------------
+
+    @FunctionalInterface
+    private interface Handler {
+        void handle(HttpExchange ex, Map<String, String> query) throws Exception;
+    }
+
+    private static HttpHandler handler(Handler h) {
+        return ex -> {
+            // Not try-with-resources: the exchange must stay open for the error responses
+            try {
+                if (!"GET".equals(ex.getRequestMethod())) {
+                    error(ex, 405, "GET only");
+                    return;
+                }
+                h.handle(ex, query(ex));
+            } catch (IllegalArgumentException e) {
+                error(ex, 400, e.getMessage());
+            } catch (Exception e) {
+                e.printStackTrace();
+                error(ex, 500, String.valueOf(e.getMessage()));
+            } finally {
+                ex.close();
+            }
+        };
+    }
+
+    private void health(HttpExchange ex, Map<String, String> query) throws IOException {
+        Version v = version();
+        try (Writer w = begin(ex, 200, "application/json")) {
+            w.write("{\"status\":\"ok\",\"students\":" + v.data.getStudents().size()
+                    + ",\"fromSnapshot\":" + v.data.isFromSnapshot() + "}");
+        }
+    }
+
+    private void allocation(HttpExchange ex, Map<String, String> query) throws IOException {
+        List<ExamTimetable.Sitting> sittings = sittings(version(), query);
+        try (Writer w = begin(ex, 200, "application/json")) {
+            w.write("{\"sittings\":[");
+            for (int i = 0; i < sittings.size(); i++) {
+                if (i > 0) w.write(',');
+                SeatMapJson.writeSitting(w, sittings.get(i));
+            }
+            w.write("]}");
+        }
+    }
+
+    private void seat(HttpExchange ex, Map<String, String> query) throws IOException {
+        String prn = query.get("prn");
+        if (prn == null) throw new IllegalArgumentException("prn is required");
+        List<ExamTimetable.Sitting> sittings = new ArrayList<>();
+        List<AllocationIndex.Seat> seats = new ArrayList<>();
+        for (ExamTimetable.Sitting s : sittings(version(), query)) {
+            AllocationIndex.Seat seat = s.getIndex().getSeat(prn);
+            if (seat == null) continue;
+            sittings.add(s);
+            seats.add(seat);
+        }
+        if (seats.isEmpty()) {
+            error(ex, 404, "not seated: " + prn);
+            return;
+        }
+        try (Writer w = begin(ex, 200, "application/json")) {
+            w.write("{\"prn\":\"" + SeatMapJson.escape(prn) + "\",\"seats\":[");
+            for (int i = 0; i < seats.size(); i++) {
+                if (i > 0) w.write(',');
+                SeatMapJson.writeSeat(w, sittings.get(i), seats.get(i));
+            }
+            w.write("]}");
+        }
+    }
+
+    private void report(HttpExchange ex, Map<String, String> query) throws Exception {
+        String path = ex.getRequestURI().getPath();
+        boolean branch;
+        if (path.equals("/report/common.pdf")) branch = false;
+        else if (path.equals("/report/branch.pdf")) branch = true;
+        else {
+            error(ex, 404, "unknown report: " + path);
+            return;
+        }
+        Version v = version();
+        List<ExamTimetable.Sitting> sittings = sittings(v, query);
+        if (sittings.isEmpty()) {
+            error(ex, 404, "no sitting matches");
+            return;
+        }
+        // Rendered before the headers go out: once a 200 is sent, a failure could only cut the PDF short
+        ByteArrayOutputStream pdf = new ByteArrayOutputStream(1 << 20);
+        new ParallelReportRenderer().render(pdf, sittings, v.catalog,
+                branch ? ParallelReportRenderer.BRANCH_TITLE : ParallelReportRenderer.COMMON_TITLE, branch);
+        ex.getResponseHeaders().set("Content-Type", "application/pdf");
+        ex.sendResponseHeaders(200, pdf.size());
+        try (OutputStream out = ex.getResponseBody()) {
+            pdf.writeTo(out);
+        }
+    }
+
+    // ------------------- HTTP helpers -------------------
+
+    private static String strategy(Map<String, String> query) {
+        String s = query.getOrDefault("strategy", "interleaved");
+        if (!s.equals("interleaved") && !s.equals("sequential")) {
+            throw new IllegalArgumentException("strategy must be sequential or interleaved");
+        }
+        return s;
+    }
+
+    private static Map<String, String> query(HttpExchange ex) {
+        Map<String, String> out = new HashMap<>();
+        String q = ex.getRequestURI().getRawQuery();
+        if (q == null) return out;
+        for (String pair : q.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq <= 0) continue;
+            out.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                    URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+        }
+        return out;
+    }
+
+    /** Sends headers for a chunked response and returns a buffered writer over the body. */
+    private static Writer begin(HttpExchange ex, int status, String contentType) throws IOException {
+        ex.getResponseHeaders().set("Content-Type", contentType + "; charset=utf-8");
+        ex.sendResponseHeaders(status, 0);
+        return new BufferedWriter(new OutputStreamWriter(ex.getResponseBody(), StandardCharsets.UTF_8), 64 * 1024);
+    }
+
+    private static void error(HttpExchange ex, int status, String message) {
+        try {
+            byte[] body = ("{\"error\":\"" + SeatMapJson.escape(message) + "\"}").getBytes(StandardCharsets.UTF_8);
+            ex.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            ex.sendResponseHeaders(status, body.length);
+            ex.getResponseBody().write(body);
+        } catch (IOException e) {
+            // headers already sent or client gone; nothing left to tell it
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package seatarrangement.project;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Decides which rooms to open for a headcount, instead of filling rooms in
+ * {@code buildings.csv} order until everybody is seated.
+ *
+ * The plan minimises {@code rooms + buildingCost * buildings} (each room
+ * needs an invigilator, each building its own staff) and then the empty
+ * seats:
+ * <ol>
+ *   <li>Buildings are taken largest first. For every count from the fewest
+ *       that can hold the headcount upwards, the rooms needed are the largest
+ *       rooms of those buildings; the cheapest count wins.</li>
+ *   <li>Within the chosen buildings the fewest rooms are again the largest;
+ *       then each, from the largest down, is swapped for the smallest
+ *       unchosen room that still covers the headcount (best fit), which
+ *       trims the empty seats without opening more rooms.</li>
+ * </ol>
+ * Everything is sorts, a histogram walk per building count and a tree-map
+ * pass, so tens of thousands of rooms plan in milliseconds. It is a
+ * heuristic: the building count is minimal when {@code buildingCost} is
+ * large, the room count when it is 0.
+ *
+ * With more than one student per bench the planned rooms count seats:
+ * a room of 30 benches at two per bench is planned as a room of 60.
+ */
+final class CapacityPlanner {
+
+    /** What opening one more building is worth, in rooms. */
+    static final int DEFAULT_BUILDING_COST = 5;
+
+    private final int studentsPerBench;
+    private final int buildingCost;
+
+    CapacityPlanner() {
+        this(1, DEFAULT_BUILDING_COST);
+    }
+
+    CapacityPlanner(int studentsPerBench) {
+        this(studentsPerBench, DEFAULT_BUILDING_COST);
+    }
+
+    CapacityPlanner(int studentsPerBench, int buildingCost) {
+        if (studentsPerBench < 1) throw new IllegalArgumentException("studentsPerBench < 1: " + studentsPerBench);
+        this.studentsPerBench = studentsPerBench;
+        this.buildingCost = Math.max(0, buildingCost);
+    }
+
+    /** The rooms to open, and what is left over. */
+    static final class Plan {
+        private final ArrayList<Building> buildings;
+        private final int headcount;
+        private final int seats;
+        private final int rooms;
+        private final long totalSeats;
+        private final int totalRooms;
+        private final int totalBuildings;
+
+        Plan(ArrayList<Building> buildings, int headcount, int seats, int rooms,
+             long totalSeats, int totalRooms, int totalBuildings) {
+            this.buildings = buildings;
+            this.headcount = headcount;
+            this.seats = seats;
+            this.rooms = rooms;
+            this.totalSeats = totalSeats;
+            this.totalRooms = totalRooms;
+            this.totalBuildings = totalBuildings;
+        }
+
+        /** Fresh copies of the opened buildings and rooms, in the original order; benches count seats. */
+        public ArrayList<Building> getBuildings() { return buildings; }
+        public int getHeadcount() { return headcount; }
+        public int getSeats() { return seats; }
+        public int getRoomCount() { return rooms; }
+        public int getBuildingCount() { return buildings.size(); }
+        /** Empty seats in the opened rooms. */
+        public int getHeadroom() { return Math.max(0, seats - headcount); }
+        /** Students who do not fit even with every room open. */
+        public int getShortfall() { return Math.max(0, headcount - seats); }
+        /** Seats in rooms left closed. */
+        public long getSpareSeats() { return totalSeats - seats; }
+
+        public String report() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format(Locale.ROOT, "headcount %d: %d of %d rooms in %d of %d buildings, %d seats%n",
+                    headcount, rooms, totalRooms, buildings.size(), totalBuildings, seats));
+            sb.append(String.format(Locale.ROOT, "headroom %d seats (%.1f%%), %d more seats in closed rooms",
+                    getHeadroom(), seats == 0 ? 0.0 : 100.0 * getHeadroom() / seats, getSpareSeats()));
+            if (getShortfall() > 0) sb.append(String.format(Locale.ROOT, ", SHORT by %d", getShortfall()));
+            return sb.toString();
+        }
+    }
+
+    public Plan plan(List<Building> buildings, int headcount) {
+        PipelineMetrics.Stage stage = PipelineMetrics.begin("plan.capacity");
+
+        // Flatten: room r sits in building owner[r] at position slot[r]
+        int n = 0;
+        for (Building b : buildings) n += b.getRooms().size();
+        int[] seats = new int[n];
+        int[] owner = new int[n];
+        int[] slot = new int[n];
+        long total = 0;
+        int r = 0;
+        for (int b = 0; b < buildings.size(); b++) {
+            List<Room> rooms = buildings.get(b).getRooms();
+            for (int i = 0; i < rooms.size(); i++, r++) {
+                seats[r] = Math.max(0, rooms.get(i).getBenches()) * studentsPerBench;
+                owner[r] = b;
+                slot[r] = i;
+                total += seats[r];
+            }
+        }
+
+        boolean[] open = new boolean[n];
+        if (headcount >= total) {
+            Arrays.fill(open, true);     // everything, and the shortfall is reported
+        } else if (headcount > 0) {
+            int[] bySize = bySizeDescending(seats);
+
+            // Buildings by capacity, largest first; rooms of each, largest first
+            long[] capacity = new long[buildings.size()];
+            int[] count = new int[buildings.size()];
+            for (r = 0; r < n; r++) {
+                capacity[owner[r]] += seats[r];
+                count[owner[r]]++;
+            }
+            long[] keys = new long[buildings.size()];
+            for (int b = 0; b < keys.length; b++) keys[b] = (capacity[b] << 20) | (0xFFFFF - b);
+            Arrays.sort(keys);
+            int[] order = new int[keys.length];
+            for (int i = 0; i < keys.length; i++) order[i] = (int) (0xFFFFF - (keys[keys.length - 1 - i] & 0xFFFFF));
+            int[][] roomsOf = new int[buildings.size()][];
+            for (int b = 0; b < roomsOf.length; b++) roomsOf[b] = new int[count[b]];
+            int[] fill = new int[buildings.size()];
+            for (int room : bySize) roomsOf[owner[room]][fill[owner[room]]++] = room;
+
+            int[] choice = chooseBuildings(order, roomsOf, seats, headcount);
+            chooseRooms(bySize, seats, owner, buildings.size(), Arrays.copyOf(order, choice[0]), choice[1],
+                    headcount, open);
+        }
+
+        // Copies of what is open, in the original order
+        ArrayList<Building> out = new ArrayList<>();
+        int opened = 0;
+        int openSeats = 0;
+        Building current = null;
+        for (r = 0; r < n; r++) {
+            if (!open[r]) continue;
+            Building source = buildings.get(owner[r]);
+            if (current == null || current.getBuildingNumber() != source.getBuildingNumber()) {
+                current = new Building(source.getBuildingNumber());
+                out.add(current);
+            }
+            current.addRoom(new Room(source.getRooms().get(slot[r]).getRoomNumber(), seats[r]));
+            opened++;
+            openSeats += seats[r];
+        }
+        stage.rows(n).end();
+        return new Plan(out, headcount, openSeats, opened, total, n, buildings.size());
+    }
+
+    /** Room ids, largest first; equal rooms keep their file order. */
+    private static int[] bySizeDescending(int[] seats) {
+        long[] keys = new long[seats.length];
+        for (int r = 0; r < seats.length; r++) keys[r] = ((long) seats[r] << 32) | (0xFFFFFFFFL - r);
+        Arrays.sort(keys);
+        int[] out = new int[seats.length];
+        for (int i = 0; i < keys.length; i++) out[i] = (int) (0xFFFFFFFFL - (keys[keys.length - 1 - i] & 0xFFFFFFFFL));
+        return out;
+    }
+
+    /**
+     * Tries the b largest buildings for every b from the fewest that can hold
+     * the headcount upwards, and keeps the b with the lowest
+     * {@code rooms + buildingCost * b}. The rooms needed by b buildings come
+     * from a histogram of room sizes, walked from the largest size down, so
+     * trying one more building costs one walk rather than a sort. Returns
+     * {@code {b, rooms}}; the buildings are the first b of {@code order}.
+     */
+    private int[] chooseBuildings(int[] order, int[][] roomsOf, int[] seats, int headcount) {
+        int[] sizes = seats.clone();
+        Arrays.sort(sizes);
+        int distinct = 0;
+        for (int i = sizes.length - 1; i >= 0; i--) {
+            if (distinct == 0 || sizes[distinct - 1] != sizes[i]) sizes[distinct++] = sizes[i];
+        }
+        int[] values = Arrays.copyOf(sizes, distinct);      // largest first
+        int[] count = new int[distinct];
+
+        long pool = 0;
+        int bestBuildings = -1;
+        int bestRooms = 0;
+        long bestCost = Long.MAX_VALUE;
+        for (int b = 0; b < order.length; b++) {
+            if ((long) buildingCost * (b + 1) >= bestCost) break;     // more buildings can only cost more
+            for (int r : roomsOf[order[b]]) {
+                count[position(values, seats[r])]++;
+                pool += seats[r];
+            }
+            if (pool < headcount) continue;
+
+            long left = headcount;
+            int rooms = 0;
+            for (int v = 0; v < distinct && left > 0 && values[v] > 0; v++) {
+                long take = Math.min(count[v], (left + values[v] - 1) / values[v]);
+                rooms += (int) take;
+                left -= take * values[v];
+            }
+            long cost = rooms + (long) buildingCost * (b + 1);
+            if (cost < bestCost) {
+                bestCost = cost;
+                bestBuildings = b + 1;
+                bestRooms = rooms;
+            }
+        }
+        return new int[] { bestBuildings, bestRooms };
+    }
+
+    /** Index of {@code value} in the descending {@code values}. */
+    private static int position(int[] values, int value) {
+        int lo = 0;
+        int hi = values.length - 1;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (values[mid] > value) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /** Opens k rooms of the chosen buildings that hold the headcount with as few empty seats as the swap pass finds. */
+    private static void chooseRooms(int[] bySize, int[] seats, int[] owner, int buildingCount, int[] chosenBuildings,
+                                    int k, int headcount, boolean[] open) {
+        boolean[] inPlan = new boolean[buildingCount];
+        for (int b : chosenBuildings) inPlan[b] = true;
+
+        // Start from the k largest rooms of the chosen buildings
+        int[] pick = new int[k];
+        int picked = 0;
+        long sum = 0;
+        for (int r : bySize) {
+            if (picked == k) break;
+            if (!inPlan[owner[r]]) continue;
+            pick[picked++] = r;
+            sum += seats[r];
+        }
+
+        // Candidates: unchosen rooms of buildings that already have a chosen room
+        int[] perBuilding = new int[buildingCount];
+        for (int r : pick) perBuilding[owner[r]]++;
+        TreeMap<Integer, ArrayDeque<Integer>> spare = new TreeMap<>();
+        boolean[] isPicked = new boolean[owner.length];
+        for (int r : pick) isPicked[r] = true;
+        for (int r : bySize) {
+            if (!isPicked[r] && inPlan[owner[r]] && perBuilding[owner[r]] > 0) {
+                spare.computeIfAbsent(seats[r], x -> new ArrayDeque<>()).addLast(r);
+            }
+        }
+
+        // Best fit: swap each room, largest first, for the smallest that still covers the headcount
+        for (int i = 0; i < k && !spare.isEmpty(); i++) {
+            int r = pick[i];
+            long slack = sum - headcount;
+            Map.Entry<Integer, ArrayDeque<Integer>> fit = spare.ceilingEntry((int) Math.max(0, seats[r] - slack));
+            if (fit == null || fit.getKey() >= seats[r]) continue;
+            int swap = fit.getValue().pollFirst();
+            if (fit.getValue().isEmpty()) spare.remove(fit.getKey());
+            spare.computeIfAbsent(seats[r], x -> new ArrayDeque<>()).addLast(r);
+            sum += seats[swap] - seats[r];
+            pick[i] = swap;
+        }
+        for (int r : pick) open[r] = true;
+    }
+}
@@ -0,0 +1,295 @@
+package seatarrangement.project;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Shared CSV reader for all loaders.
+ *
+ * Reads the file through a {@link FileChannel} into one reusable byte buffer
+ * and tokenizes RFC-4180 records in place: fields are byte ranges, quotes and
+ * surrounding whitespace are stripped the same way the old safeGet did, and
+ * {@code ""} inside quotes is only unescaped if the field is actually decoded.
+ *
+ * {@link #readParallel} splits big files into newline-aligned chunks and runs
+ * one handler per chunk. Chunks are cut at the first line break after each
+ * split point, so quoted fields must not contain line breaks in that mode.
+ */
+final class CsvEngine {
+
+    static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+    private static final int MAX_CHUNK_SIZE = 1 << 28;
+
+    private final boolean skipHeader;
+    private final int bufferSize;
+
+    CsvEngine(boolean skipHeader) {
+        this(skipHeader, DEFAULT_BUFFER_SIZE);
+    }
+
+    CsvEngine(boolean skipHeader, int bufferSize) {
+        this.skipHeader = skipHeader;
+        this.bufferSize = Math.max(16, bufferSize);
+    }
+
+    // ------------------- Sequential mode -------------------
+
+    /** Streams every record of the file to {@code handler}; returns the number of records delivered. */
+    public long read(Path path, CsvRowHandler handler) throws IOException {
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            Tokenizer tk = new Tokenizer(new byte[bufferSize]);
+            ByteBuffer bb = ByteBuffer.wrap(tk.buf);
+            int pos = 0;
+            int limit = 0;
+            long base = 0;
+            long line = 1;
+            long delivered = 0;
+            boolean eof = false;
+            boolean first = true;
+            boolean skip = skipHeader;
+
+            while (!eof) {
+                // Move the unfinished tail to the front and top the buffer up
+                if (pos > 0) {
+                    System.arraycopy(tk.buf, pos, tk.buf, 0, limit - pos);
+                    base += pos;
+                    limit -= pos;
+                    pos = 0;
+                }
+                if (limit == tk.buf.length) {
+                    tk.buf = Arrays.copyOf(tk.buf, tk.buf.length * 2);
+                    bb = ByteBuffer.wrap(tk.buf);
+                }
+                bb.limit(tk.buf.length).position(limit);
+                int n = ch.read(bb);
+                if (n < 0) eof = true;
+                else limit += n;
+
+                if (first) {
+                    pos = skipBom(tk.buf, 0, limit);
+                    first = false;
+                }
+
+                while (pos < limit) {
+                    int next = tk.parse(pos, limit, eof, base, line);
+                    if (next < 0) break;
+                    line += 1 + tk.embeddedLines;
+                    pos = next;
+                    if (skip) {
+                        skip = false;   // the header is always the first record, whatever it contains
+                        continue;
+                    }
+                    handler.onRow(tk.row);
+                    delivered++;
+                }
+            }
+            return delivered;
+        }
+    }
+
+    // ------------------- Chunked parallel mode -------------------
+
+    /**
+     * Splits the file into newline-aligned chunks and parses them on
+     * {@code parallelism} threads. Each chunk gets its own handler from
+     * {@code handlers}; the handlers are returned in file order so callers can
+     * concatenate their results deterministically. {@link CsvRow#line()} is
+     * counted from the start of each chunk in this mode.
+     */
+    public <H extends CsvRowHandler> List<H> readParallel(Path path, int parallelism, Supplier<H> handlers)
+            throws IOException {
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = ch.size();
+            long[] bounds = chunkBounds(ch, size, Math.max(1, parallelism));
+            int chunks = bounds.length - 1;
+
+            List<H> out = new ArrayList<>(chunks);
+            for (int i = 0; i < chunks; i++) out.add(handlers.get());
+            if (chunks == 1 || parallelism <= 1) {
+                for (int i = 0; i < chunks; i++) readChunk(ch, bounds[i], bounds[i + 1], i == 0, out.get(i));
+                return out;
+            }
+
+            ExecutorService pool = Executors.newFixedThreadPool(Math.min(parallelism, chunks));
+            try {
+                List<Future<?>> futures = new ArrayList<>(chunks);
+                for (int i = 0; i < chunks; i++) {
+                    final int c = i;
+                    futures.add(pool.submit(() -> {
+                        readChunk(ch, bounds[c], bounds[c + 1], c == 0, out.get(c));
+                        return null;
+                    }));
+                }
+                for (Future<?> f : futures) f.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while reading " + path, e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException) throw (IOException) cause;
+                if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+                throw new IOException(cause);
+            } finally {
+                pool.shutdownNow();
+            }
+            return out;
+        }
+    }
+
+    private long[] chunkBounds(FileChannel ch, long size, int parallelism) throws IOException {
+        // A chunk is never smaller than one read buffer; small files stay in one piece
+        long target = size / (parallelism * 4L);
+        target = Math.max(bufferSize, Math.min(MAX_CHUNK_SIZE, target));
+
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(0L);
+        ByteBuffer probe = ByteBuffer.allocate(8192);
+        long at = target;
+        while (at < size) {
+            long nl = nextLineStart(ch, at, size, probe);
+            if (nl >= size) break;
+            bounds.add(nl);
+            at = nl + target;
+        }
+        bounds.add(size);
+
+        long[] out = new long[bounds.size()];
+        for (int i = 0; i < out.length; i++) out[i] = bounds.get(i);
+        return out;
+    }
+
+    private static long nextLineStart(FileChannel ch, long from, long size, ByteBuffer probe) throws IOException {
+        long p = from;
+        while (p < size) {
+            probe.clear();
+            int n = ch.read(probe, p);
+            if (n <= 0) break;
+            for (int i = 0; i < n; i++) {
+                if (probe.get(i) == '\n') return p + i + 1;
+            }
+            p += n;
+        }
+        return size;
+    }
+
+    private void readChunk(FileChannel ch, long from, long to, boolean firstChunk, CsvRowHandler handler)
+            throws IOException {
+        int len = (int) (to - from);
+        Tokenizer tk = new Tokenizer(new byte[len]);
+        ByteBuffer bb = ByteBuffer.wrap(tk.buf);
+        while (bb.hasRemaining()) {
+            if (ch.read(bb, from + bb.position()) < 0) break;
+        }
+
+        int pos = firstChunk ? skipBom(tk.buf, 0, len) : 0;
+        long line = 1;
+        boolean skip = firstChunk && skipHeader;
+        while (pos < len) {
+            pos = tk.parse(pos, len, true, from, line);
+            line += 1 + tk.embeddedLines;
+            if (skip) {
+                skip = false;
+                continue;
+            }
+            handler.onRow(tk.row);
+        }
+    }
+
+    private static int skipBom(byte[] b, int pos, int limit) {
+        if (limit - pos >= 3 && (b[pos] & 0xFF) == 0xEF && (b[pos + 1] & 0xFF) == 0xBB && (b[pos + 2] & 0xFF) == 0xBF) {
+            return pos + 3;
+        }
+        return pos;
+    }
+
+    // ------------------- Tokenizer -------------------
+
+    private static final class Tokenizer {
+        byte[] buf;
+        final CsvRow row = new CsvRow();
+        int embeddedLines;
+
+        Tokenizer(byte[] buf) { this.buf = buf; }
+
+        /**
+         * Parses one record starting at {@code pos}. Returns the index just past
+         * the record terminator, or -1 when more input is needed.
+         */
+        int parse(int pos, int limit, boolean eof, long base, long line) {
+            byte[] b = buf;
+            row.reset(b, base + pos, line);
+            embeddedLines = 0;
+            int p = pos;
+
+            while (true) {
+                while (p < limit && (b[p] == ' ' || b[p] == '\t')) p++;
+
+                if (p < limit && b[p] == '"') {
+                    int cs = ++p;
+                    boolean esc = false;
+                    int ce;
+                    while (true) {
+                        if (p >= limit) {
+                            if (!eof) return -1;
+                            ce = limit;       // unterminated quote: take the rest
+                            break;
+                        }
+                        byte c = b[p];
+                        if (c == '"') {
+                            if (p + 1 >= limit && !eof) return -1;
+                            if (p + 1 < limit && b[p + 1] == '"') {
+                                esc = true;
+                                p += 2;
+                                continue;
+                            }
+                            ce = p++;
+                            break;
+                        }
+                        if (c == '\n') embeddedLines++;
+                        p++;
+                    }
+                    // Anything between the closing quote and the delimiter is dropped
+                    while (p < limit && b[p] != ',' && b[p] != '\n' && b[p] != '\r') p++;
+                    addTrimmed(b, cs, ce, esc);
+                } else {
+                    int fs = p;
+                    while (p < limit && b[p] != ',' && b[p] != '\n' && b[p] != '\r') p++;
+                    if (p >= limit && !eof) return -1;
+                    addTrimmed(b, fs, p, false);
+                }
+
+                if (p >= limit) {
+                    if (!eof) return -1;
+                    return limit;
+                }
+                byte c = b[p];
+                if (c == ',') {
+                    p++;
+                    continue;
+                }
+                if (c == '\r') {
+                    if (p + 1 >= limit && !eof) return -1;
+                    return (p + 1 < limit && b[p + 1] == '\n') ? p + 2 : p + 1;
+                }
+                return p + 1;
+            }
+        }
+
+        private void addTrimmed(byte[] b, int s, int e, boolean esc) {
+            while (s < e && b[s] >= 0 && b[s] <= ' ') s++;
+            while (e > s && b[e - 1] >= 0 && b[e - 1] <= ' ') e--;
+            row.addField(s, e, esc);
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package seatarrangement.project;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A reusable, allocation-free view of one CSV record.
+ *
+ * Fields are kept as byte offsets into the engine's read buffer; nothing is
+ * decoded until a caller asks for it. The view is only valid inside the
+ * {@link CsvRowHandler#onRow(CsvRow)} call that received it.
+ */
+final class CsvRow {
+
+    private byte[] buf;
+    private int[] starts = new int[8];
+    private int[] ends = new int[8];
+    private boolean[] escaped = new boolean[8];
+    private int size;
+    private long offset;
+    private long line;
+
+    // ------------------- Engine side -------------------
+
+    void reset(byte[] buf, long offset, long line) {
+        this.buf = buf;
+        this.offset = offset;
+        this.line = line;
+        this.size = 0;
+    }
+
+    void addField(int start, int end, boolean hasEscapedQuotes) {
+        if (size == starts.length) {
+            int n = size * 2;
+            starts = java.util.Arrays.copyOf(starts, n);
+            ends = java.util.Arrays.copyOf(ends, n);
+            escaped = java.util.Arrays.copyOf(escaped, n);
+        }
+        starts[size] = start;
+        ends[size] = end;
+        escaped[size] = hasEscapedQuotes;
+        size++;
+    }
+
+    // ------------------- Caller side -------------------
+
+    /** Number of fields in this record. */
+    public int size() { return size; }
+
+    /** Byte offset of the record start in the source file. */
+    public long offset() { return offset; }
+
+    /** 1-based physical line number of the record start; counted from the start of the chunk when read in parallel. */
+    public long line() { return line; }
+
+    /** True when every field is empty, i.e. the source line was blank. */
+    public boolean isBlank() {
+        for (int i = 0; i < size; i++) {
+            if (ends[i] > starts[i]) return false;
+        }
+        return true;
+    }
+
+    public boolean isEmpty(int idx) {
+        return idx >= size || ends[idx] == starts[idx];
+    }
+
+    /** Length of the trimmed field in bytes (escaped quotes still doubled). */
+    public int length(int idx) {
+        return idx >= size ? 0 : ends[idx] - starts[idx];
+    }
+
+    public byte byteAt(int idx, int pos) {
+        return buf[starts[idx] + pos];
+    }
+
+    /** Decodes the field as UTF-8; missing fields read as "" just like the old safeGet. */
+    public String getString(int idx) {
+        if (isEmpty(idx)) return "";
+        int s = starts[idx];
+        int e = ends[idx];
+        if (!escaped[idx]) {
+            return new String(buf, s, e - s, StandardCharsets.UTF_8);
+        }
+        byte[] tmp = new byte[e - s];
+        int n = 0;
+        for (int i = s; i < e; i++) {
+            tmp[n++] = buf[i];
+            if (buf[i] == '"' && i + 1 < e && buf[i + 1] == '"') i++;
+        }
+        return new String(tmp, 0, n, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Parses the field as a decimal int without creating a String.
+     *
+     * @return {@code dflt} when the field is empty
+     * @throws NumberFormatException when the field is not a valid int
+     */
+    public int getInt(int idx, int dflt) {
+        if (isEmpty(idx)) return dflt;
+        int s = starts[idx];
+        int e = ends[idx];
+        boolean neg = false;
+        if (buf[s] == '-' || buf[s] == '+') {
+            neg = buf[s] == '-';
+            s++;
+            if (s == e) throw new NumberFormatException("For input string: \"" + getString(idx) + "\"");
+        }
+        long v = 0;
+        for (int i = s; i < e; i++) {
+            int d = buf[i] - '0';
+            if (d < 0 || d > 9) throw new NumberFormatException("For input string: \"" + getString(idx) + "\"");
+            v = v * 10 + d;
+            if (v > (long) Integer.MAX_VALUE + 1) throw new NumberFormatException("For input string: \"" + getString(idx) + "\"");
+        }
+        if (neg) v = -v;
+        if (v > Integer.MAX_VALUE || v < Integer.MIN_VALUE) {
+            throw new NumberFormatException("For input string: \"" + getString(idx) + "\"");
+        }
+        return (int) v;
+    }
+
+    /** True when the field is a plain unsigned run of ASCII digits. */
+    public boolean isDigits(int idx) {
+        if (isEmpty(idx)) return false;
+        for (int i = starts[idx]; i < ends[idx]; i++) {
+            if (buf[i] < '0' || buf[i] > '9') return false;
+        }
+        return true;
+    }
+
+    /** Compares the field with an ASCII literal without decoding it. */
+    public boolean equalsAscii(int idx, String s) {
+        int len = length(idx);
+        if (len != s.length()) return false;
+        int base = starts[idx];
+        for (int i = 0; i < len; i++) {
+            if (buf[base + i] != (byte) s.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Maps FE/SE/TE/BE (or "First Year", "2", ...) to a numeric year, with the
+     * same rules the loaders have always used: a plain number wins, otherwise
+     * the first letter decides.
+     */
+    public int getYear(int idx) {
+        if (isEmpty(idx)) return 0;
+        if (isDigits(idx) && length(idx) < 10) return getInt(idx, 0);
+        int s = starts[idx];
+        int e = ends[idx];
+        int first = upper(buf[s]);
+        if (first == 'F') return 1;
+        if (first == 'S') {
+            for (int i = s; i < e; i++) {
+                if (upper(buf[i]) == 'E') return 2;
+            }
+            return 0;
+        }
+        if (first == 'T') return 3;
+        if (first == 'B') return 4;
+        return 0;
+    }
+
+    private static int upper(byte b) {
+        return (b >= 'a' && b <= 'z') ? b - 32 : b;
+    }
+
+    int start(int idx) { return starts[idx]; }
+    int end(int idx) { return ends[idx]; }
+    boolean hasEscapedQuotes(int idx) { return escaped[idx]; }
+    byte[] buffer() { return buf; }
+}
@@ -0,0 +1,10 @@
+package seatarrangement.project;
+
+/**
+ * Typed row callback for {@link CsvEngine}. The row view is reused for the
+ * next record, so copy out whatever needs to outlive the call.
+ */
+@FunctionalInterface
+interface CsvRowHandler {
+    void onRow(CsvRow row);
+}
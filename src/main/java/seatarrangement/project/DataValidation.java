@@ -0,0 +1,569 @@
+package seatarrangement.project;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Checks the four input files before anything is allocated and collects
+ * every problem as a structured {@link Issue} (file, line, column, code)
+ * instead of a stack trace.
+ * <ul>
+ *   <li>per row: missing fields, non-numeric numbers, unknown years, exam
+ *       dates and durations that do not parse, and header rows in the middle
+ *       of the data;</li>
+ *   <li>per file: a first line that is not the expected header, duplicate
+ *       PRNs, duplicate room numbers;</li>
+ *   <li>across files: more students than benches.</li>
+ * </ul>
+ * An {@link Severity#ERROR} is a row the loaders drop or a problem that
+ * spoils the run; a {@link Severity#WARNING} is loaded as it is but is
+ * probably not what was meant. The loaders in {@link ExamSystemExcelPDF}
+ * apply the same row rules ({@link #isBuildingRow}, {@link #isHeaderRow}),
+ * so a bad row is skipped rather than ending the load.
+ *
+ * Files are read with {@link CsvEngine#readParallel}: every chunk is checked
+ * on its own thread, PRNs are compared as 64-bit hashes in one sort, and only
+ * hash collisions are confirmed on the strings. Line numbers assume one
+ * record per line, which chunked reading requires anyway.
+ */
+final class DataValidation {
+
+    enum Severity { ERROR, WARNING }
+
+    enum Code {
+        UNREADABLE_FILE, UNEXPECTED_HEADER, HEADER_ROW, MISSING_FIELD, NOT_A_NUMBER, NOT_POSITIVE,
+        UNKNOWN_YEAR, BAD_DATE, BAD_DURATION, DUPLICATE_PRN, DUPLICATE_ROOM, OVER_CAPACITY
+    }
+
+    static final String[] STUDENT_COLUMNS = { "PRN_Number", "Student_Name", "Branch", "Year" };
+    static final String[] BUILDING_COLUMNS = { "Building_Number", "Room_Number", "Benches_In_A_Class" };
+    static final String[] SUBJECT_COLUMNS = { "Subject", "branchType", "Exam_Date", "Class", "Duration" };
+    static final String[] INVIGILATOR_COLUMNS = { "Invigilator_Name", "Department" };
+
+    private final int parallelism;
+    private final CsvEngine csv;
+
+    DataValidation() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    DataValidation(int parallelism) {
+        this(parallelism, CsvEngine.DEFAULT_BUFFER_SIZE);
+    }
+
+    /** A smaller buffer gives smaller chunks; for tests. */
+    DataValidation(int parallelism, int bufferSize) {
+        this.parallelism = Math.max(1, parallelism);
+        this.csv = new CsvEngine(false, bufferSize);     // the header is checked too
+    }
+
+    // ------------------- Results -------------------
+
+    /** One problem; line 0 and a null column mean it concerns the whole file or run. */
+    static final class Issue {
+        private final String file;
+        private final long line;
+        private final String column;
+        private final Code code;
+        private final Severity severity;
+        private final String value;
+        private final String message;
+
+        Issue(String file, long line, String column, Code code, Severity severity, String value, String message) {
+            this.file = file;
+            this.line = line;
+            this.column = column;
+            this.code = code;
+            this.severity = severity;
+            this.value = value;
+            this.message = message;
+        }
+
+        Issue atLine(long line) {
+            return new Issue(file, line, column, code, severity, value, message);
+        }
+
+        public String getFile() { return file; }
+        public long getLine() { return line; }
+        public String getColumn() { return column; }
+        public Code getCode() { return code; }
+        public Severity getSeverity() { return severity; }
+        /** The offending text as found, or null. */
+        public String getValue() { return value; }
+        public String getMessage() { return message; }
+
+        @Override
+        public String toString() {
+            return (file == null ? "" : file + (line > 0 ? ":" + line : "") + ": ") + severity + " " + code
+                    + (column == null ? "" : " [" + column + "]") + " " + message;
+        }
+    }
+
+    /** Everything found in one validation, in file and line order. */
+    static final class Report {
+        private final List<Issue> issues;
+        private final Map<String, long[]> rows;     // file -> {records, accepted}
+
+        Report(List<Issue> issues, Map<String, long[]> rows) {
+            this.issues = Collections.unmodifiableList(issues);
+            this.rows = rows;
+        }
+
+        public List<Issue> getIssues() { return issues; }
+
+        public List<Issue> getIssues(Code code) {
+            List<Issue> out = new ArrayList<>();
+            for (Issue i : issues) if (i.code == code) out.add(i);
+            return out;
+        }
+
+        public long getErrorCount() { return count(Severity.ERROR); }
+        public long getWarningCount() { return count(Severity.WARNING); }
+        public boolean hasErrors() { return getErrorCount() > 0; }
+
+        /** The files that could be read, in validation order. */
+        public Set<String> getFiles() { return Collections.unmodifiableSet(rows.keySet()); }
+
+        /** Data rows of a file, header and blank lines not counted. */
+        public long getRecords(String file) { return rows.getOrDefault(file, new long[2])[0]; }
+
+        /** Data rows of a file that the loaders keep: they pass the row checks and are no duplicate. */
+        public long getAccepted(String file) { return rows.getOrDefault(file, new long[2])[1]; }
+
+        private long count(Severity s) {
+            long n = 0;
+            for (Issue i : issues) if (i.severity == s) n++;
+            return n;
+        }
+
+        public String summary() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format(Locale.ROOT, "validation: %d error(s), %d warning(s)", getErrorCount(),
+                    getWarningCount()));
+            for (Map.Entry<String, long[]> e : rows.entrySet()) {
+                sb.append(String.format(Locale.ROOT, "%n  %s: %d of %d rows usable", e.getKey(), e.getValue()[1],
+                        e.getValue()[0]));
+            }
+            return sb.toString();
+        }
+
+        /**
+         * <pre>
+         * {"errors":1,"warnings":2,
+         *  "files":{"students.csv":{"records":500,"accepted":498}, ...},
+         *  "issues":[{"file":"invigilators.csv","line":17,"column":null,"code":"HEADER_ROW",
+         *             "severity":"WARNING","value":"Invigilator_Name,Department","message":"..."}, ...]}
+         * </pre>
+         */
+        public String toJson() {
+            StringBuilder sb = new StringBuilder();
+            sb.append("{\"errors\":").append(getErrorCount()).append(",\"warnings\":").append(getWarningCount());
+            sb.append(",\"files\":{");
+            boolean first = true;
+            for (Map.Entry<String, long[]> e : rows.entrySet()) {
+                if (!first) sb.append(',');
+                first = false;
+                string(sb, e.getKey());
+                sb.append(":{\"records\":").append(e.getValue()[0]).append(",\"accepted\":").append(e.getValue()[1])
+                        .append('}');
+            }
+            sb.append("},\"issues\":[");
+            for (int i = 0; i < issues.size(); i++) {
+                Issue is = issues.get(i);
+                if (i > 0) sb.append(',');
+                sb.append("{\"file\":");
+                string(sb, is.file);
+                sb.append(",\"line\":").append(is.line).append(",\"column\":");
+                string(sb, is.column);
+                sb.append(",\"code\":\"").append(is.code).append("\",\"severity\":\"").append(is.severity)
+                        .append("\",\"value\":");
+                string(sb, is.value);
+                sb.append(",\"message\":");
+                string(sb, is.message);
+                sb.append('}');
+            }
+            return sb.append("]}").toString();
+        }
+
+        private static void string(StringBuilder sb, String s) {
+            if (s == null) sb.append("null");
+            else sb.append('"').append(SeatMapJson.escape(s)).append('"');
+        }
+    }
+
+    // ------------------- Validation -------------------
+
+    public Report validate(Path students, Path buildings, Path subjects, Path invigilators) {
+        List<Issue> issues = new ArrayList<>();
+        Map<String, long[]> rows = new LinkedHashMap<>();
+
+        List<StudentCheck> s = check(students, StudentCheck::new, issues, rows);
+        List<BuildingCheck> b = check(buildings, BuildingCheck::new, issues, rows);
+        check(subjects, SubjectCheck::new, issues, rows);
+        check(invigilators, InvigilatorCheck::new, issues, rows);
+
+        long seated = s == null ? 0 : duplicatePrns(students, s, issues, rows.get(students.getFileName().toString()));
+        long seats = b == null ? 0 : duplicateRooms(buildings, b, issues, rows.get(buildings.getFileName().toString()));
+        if (s != null && b != null && seated > seats) {
+            issues.add(new Issue(null, 0, null, Code.OVER_CAPACITY, Severity.ERROR, null, String.format(Locale.ROOT,
+                    "%d students but %d benches; %d would not be seated", seated, seats, seated - seats)));
+        }
+        return new Report(issues, rows);
+    }
+
+    /** Reads one file in chunks and moves its issues to {@code issues} with file line numbers. */
+    private <C extends Check> List<C> check(Path path, Supplier<C> checks, List<Issue> issues,
+                                            Map<String, long[]> rows) {
+        PipelineMetrics.Stage stage = PipelineMetrics.begin("validate." + stem(path));
+        String file = path.getFileName().toString();
+        List<C> chunks;
+        try {
+            chunks = csv.readParallel(path, parallelism, () -> {
+                C c = checks.get();
+                c.file = file;
+                return c;
+            });
+        } catch (IOException | RuntimeException e) {
+            issues.add(new Issue(file, 0, null, Code.UNREADABLE_FILE, Severity.ERROR, null, String.valueOf(e)));
+            stage.end();
+            return null;
+        }
+        long lineBase = 0;
+        long[] counts = new long[2];
+        for (C c : chunks) {
+            c.lineBase = lineBase;
+            for (Issue i : c.issues) issues.add(i.atLine(lineBase + i.line));
+            lineBase += c.lastLine;
+            counts[0] += c.records;
+            counts[1] += c.accepted;
+        }
+        rows.put(file, counts);
+        stage.read(path).rows(counts[0]).end();
+        return chunks;
+    }
+
+    private static String stem(Path path) {
+        String name = path.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot < 0 ? name : name.substring(0, dot);
+    }
+
+    /**
+     * Every PRN after its first appearance is an error and not counted as
+     * accepted in {@code counts}. Returns the number of distinct PRNs. Equal
+     * hashes are grouped by one sort; only their rows are read again to
+     * compare the actual PRNs.
+     */
+    private static long duplicatePrns(Path path, List<StudentCheck> chunks, List<Issue> issues, long[] counts) {
+        int n = 0;
+        for (StudentCheck c : chunks) n += c.size;
+        long[] all = new long[n];
+        int k = 0;
+        for (StudentCheck c : chunks) {
+            System.arraycopy(c.hashes, 0, all, k, c.size);
+            k += c.size;
+        }
+        long[] sorted = all.clone();
+        Arrays.sort(sorted);
+        long[] repeated = new long[16];
+        int r = 0;
+        for (int i = 1; i < n; i++) {
+            if (sorted[i] == sorted[i - 1] && (r == 0 || repeated[r - 1] != sorted[i])) {
+                if (r == repeated.length) repeated = Arrays.copyOf(repeated, r * 2);
+                repeated[r++] = sorted[i];
+            }
+        }
+        if (r == 0) return n;
+
+        // Lines of the rows whose hash repeats, then their PRNs from the file
+        repeated = Arrays.copyOf(repeated, r);
+        List<Long> lines = new ArrayList<>();
+        for (StudentCheck c : chunks) {
+            for (int i = 0; i < c.size; i++) {
+                if (Arrays.binarySearch(repeated, c.hashes[i]) >= 0) lines.add(c.lineBase + c.lines[i]);
+            }
+        }
+        Map<Long, String> prnAt = new HashMap<>();
+        try {
+            new CsvEngine(false).read(path, row -> {
+                if (Collections.binarySearch(lines, row.line()) >= 0) prnAt.put(row.line(), row.getString(0));
+            });
+        } catch (IOException e) {
+            issues.add(new Issue(path.getFileName().toString(), 0, null, Code.UNREADABLE_FILE, Severity.ERROR, null,
+                    String.valueOf(e)));
+            return n;
+        }
+        Map<String, Long> firstLine = new HashMap<>();
+        long duplicates = 0;
+        for (long line : lines) {
+            String prn = prnAt.get(line);
+            Long first = firstLine.putIfAbsent(prn, line);
+            if (first != null) {
+                duplicates++;
+                issues.add(new Issue(path.getFileName().toString(), line, STUDENT_COLUMNS[0], Code.DUPLICATE_PRN,
+                        Severity.ERROR, prn, "PRN already on line " + first + ", row skipped"));
+            }
+        }
+        sortIssues(issues);
+        counts[1] -= duplicates;
+        return n - duplicates;
+    }
+
+    /**
+     * Every room number after its first appearance is an error and not counted
+     * as accepted in {@code counts}. Returns the benches of the rooms.
+     */
+    private static long duplicateRooms(Path path, List<BuildingCheck> chunks, List<Issue> issues, long[] counts) {
+        Map<Integer, Long> firstLine = new HashMap<>();
+        long seats = 0;
+        for (BuildingCheck c : chunks) {
+            for (int i = 0; i < c.size; i++) {
+                long line = c.lineBase + c.lines[i];
+                Long first = firstLine.putIfAbsent(c.rooms[i], line);
+                if (first != null) {
+                    issues.add(new Issue(path.getFileName().toString(), line, BUILDING_COLUMNS[1],
+                            Code.DUPLICATE_ROOM, Severity.ERROR, Integer.toString(c.rooms[i]),
+                            "room number already on line " + first + ", row skipped"));
+                    counts[1]--;
+                } else {
+                    seats += Math.max(0, c.benches[i]);
+                }
+            }
+        }
+        sortIssues(issues);
+        return seats;
+    }
+
+    /** Files keep their order; within a file, lines ascend. */
+    private static void sortIssues(List<Issue> issues) {
+        Map<String, Integer> fileOrder = new HashMap<>();
+        for (Issue i : issues) fileOrder.putIfAbsent(i.file, fileOrder.size());
+        issues.sort(Comparator.<Issue>comparingInt(i -> fileOrder.get(i.file)).thenComparingLong(i -> i.line));
+    }
+
+    // ------------------- Row rules -------------------
+
+    /** A repeated header line, e.g. "Invigilator_Name,Department" in the middle of the file. */
+    static boolean isHeaderRow(CsvRow row, String[] columns) {
+        return row.equalsAscii(0, columns[0]);
+    }
+
+    /** Building, room and bench count are all whole numbers. */
+    static boolean isBuildingRow(CsvRow row) {
+        return isInt(row, 0) && isInt(row, 1) && isInt(row, 2);
+    }
+
+    /** The timetable can place it: the exam date and the duration both parse. */
+    static boolean isSchedulable(Subject s) {
+        return isDate(s) && isDuration(s);
+    }
+
+    private static boolean isDate(Subject s) {
+        try {
+            ExamTimetable.parseStart(s);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static boolean isDuration(Subject s) {
+        try {
+            ExamTimetable.parseDuration(s);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static boolean isInt(CsvRow row, int idx) {
+        if (row.isEmpty(idx)) return false;
+        try {
+            row.getInt(idx, 0);
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /** Per-chunk checks; line numbers are chunk-relative until {@link #check} shifts them. */
+    private abstract static class Check implements CsvRowHandler {
+        String file;
+        final List<Issue> issues = new ArrayList<>();
+        long lastLine;
+        long lineBase;
+        long records;
+        long accepted;
+        private final String[] columns;
+
+        Check(String[] columns) {
+            this.columns = columns;
+        }
+
+        @Override
+        public final void onRow(CsvRow row) {
+            lastLine = row.line();
+            if (row.line() == 1 && row.offset() <= 3) {         // the first line of the file
+                header(row);
+                return;
+            }
+            if (row.isBlank()) return;
+            records++;
+            if (isHeaderRow(row, columns)) {
+                issue(row, -1, Code.HEADER_ROW, Severity.WARNING, text(row), "header line inside the data, skipped");
+                return;
+            }
+            if (check(row)) accepted++;
+        }
+
+        private void header(CsvRow row) {
+            boolean ok = row.size() >= columns.length;
+            for (int i = 0; ok && i < columns.length; i++) ok = row.getString(i).equalsIgnoreCase(columns[i]);
+            if (!ok) {
+                issue(row, -1, Code.UNEXPECTED_HEADER, Severity.WARNING, text(row),
+                        "expected header " + String.join(",", columns) + "; the first line is skipped either way");
+            }
+        }
+
+        /** Returns whether the loaders keep the row. */
+        abstract boolean check(CsvRow row);
+
+        final void issue(CsvRow row, int column, Code code, Severity severity, String value, String message) {
+            issues.add(new Issue(file, row.line(), column < 0 ? null : columns[column], code, severity, value,
+                    message));
+        }
+
+        final boolean require(CsvRow row, int column, Severity severity) {
+            if (!row.isEmpty(column)) return true;
+            issue(row, column, Code.MISSING_FIELD, severity, null,
+                    severity == Severity.ERROR ? "missing, row skipped" : "missing");
+            return false;
+        }
+
+        final boolean number(CsvRow row, int column) {
+            if (!require(row, column, Severity.ERROR)) return false;
+            if (isInt(row, column)) return true;
+            issue(row, column, Code.NOT_A_NUMBER, Severity.ERROR, row.getString(column), "not a whole number, row skipped");
+            return false;
+        }
+
+        static String text(CsvRow row) {
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < row.size(); i++) {
+                if (i > 0) sb.append(',');
+                sb.append(row.getString(i));
+            }
+            return sb.toString();
+        }
+    }
+
+    private static final class StudentCheck extends Check {
+        long[] hashes = new long[1024];
+        long[] lines = new long[1024];
+        int size;
+
+        StudentCheck() { super(STUDENT_COLUMNS); }
+
+        @Override
+        boolean check(CsvRow row) {
+            boolean prn = require(row, 0, Severity.ERROR);
+            boolean name = require(row, 1, Severity.ERROR);
+            if (!prn || !name) return false;
+            require(row, 2, Severity.WARNING);
+            if (row.getYear(3) == 0) {
+                issue(row, 3, Code.UNKNOWN_YEAR, Severity.WARNING, row.getString(3), "not a year; sits no paper");
+            }
+            if (size == hashes.length) {
+                hashes = Arrays.copyOf(hashes, size * 2);
+                lines = Arrays.copyOf(lines, size * 2);
+            }
+            hashes[size] = hash(row, 0);
+            lines[size++] = row.line();
+            return true;
+        }
+
+        /** 64-bit FNV-1a over the field bytes. */
+        private static long hash(CsvRow row, int idx) {
+            long h = 0xcbf29ce484222325L;
+            for (int i = 0, n = row.length(idx); i < n; i++) {
+                h ^= row.byteAt(idx, i) & 0xFF;
+                h *= 0x100000001b3L;
+            }
+            return h;
+        }
+    }
+
+    private static final class BuildingCheck extends Check {
+        int[] rooms = new int[64];
+        int[] benches = new int[64];
+        long[] lines = new long[64];
+        int size;
+
+        BuildingCheck() { super(BUILDING_COLUMNS); }
+
+        @Override
+        boolean check(CsvRow row) {
+            boolean ok = number(row, 0);
+            ok &= number(row, 1);
+            ok &= number(row, 2);
+            if (!ok) return false;
+            int b = row.getInt(2, 0);
+            if (b <= 0) issue(row, 2, Code.NOT_POSITIVE, Severity.WARNING, row.getString(2), "room seats nobody");
+            if (size == rooms.length) {
+                rooms = Arrays.copyOf(rooms, size * 2);
+                benches = Arrays.copyOf(benches, size * 2);
+                lines = Arrays.copyOf(lines, size * 2);
+            }
+            rooms[size] = row.getInt(1, 0);
+            benches[size] = b;
+            lines[size++] = row.line();
+            return true;
+        }
+    }
+
+    private static final class SubjectCheck extends Check {
+        SubjectCheck() { super(SUBJECT_COLUMNS); }
+
+        @Override
+        boolean check(CsvRow row) {
+            if (!require(row, 0, Severity.ERROR)) return false;
+            require(row, 1, Severity.WARNING);
+            Subject s = new Subject(row.getString(0), row.getString(1), row.getString(2), row.getYear(3),
+                    row.getString(4));
+            if (s.getYear() == 0) {
+                issue(row, 3, Code.UNKNOWN_YEAR, Severity.WARNING, row.getString(3), "not a year; nobody sits it");
+            }
+            boolean date = isDate(s);
+            boolean duration = isDuration(s);
+            if (!date) {
+                issue(row, 2, Code.BAD_DATE, Severity.ERROR, s.getExamDate(), "expected dd-MM-yyyy [hh.mm], row skipped");
+            }
+            if (!duration) {
+                issue(row, 4, Code.BAD_DURATION, Severity.ERROR, s.getDuration(), "expected e.g. \"3 hours\", row skipped");
+            }
+            return date && duration;
+        }
+    }
+
+    private static final class InvigilatorCheck extends Check {
+        InvigilatorCheck() { super(INVIGILATOR_COLUMNS); }
+
+        @Override
+        boolean check(CsvRow row) {
+            if (!require(row, 0, Severity.ERROR)) return false;
+            require(row, 1, Severity.WARNING);
+            return true;
+        }
+    }
+}
@@ -1,530 +1,640 @@
-package seatarrangement.project;
-
-import java.io.*;
-import java.nio.charset.StandardCharsets;
-import java.util.*;
-
-import com.itextpdf.text.Document;
-import com.itextpdf.text.Element;
-import com.itextpdf.text.Font;
-import com.itextpdf.text.ListItem;
-import com.itextpdf.text.Paragraph;
-import com.itextpdf.text.pdf.PdfWriter;
-
-// ------------------- 1. OOP Classes -------------------
-
-class Student {
-    private final String name;
-    private final String PRN;
-    private final String branch;
-    private final int year;
-
-    public Student(String name, String PRN, String branch, int year) {
-        this.name = name;
-        this.PRN = PRN;
-        this.branch = branch;
-        this.year = year;
-    }
-
-    public String getName() { return name; }
-    public String getPRN() { return PRN; }
-    public String getBranch() { return branch; }
-    public int getYear() { return year; }
-}
-
-class Room {
-    private int roomNumber;
-    private int benches;
-    private ArrayList<Student> students;
-
-    public Room(int roomNumber, int benches) {
-        this.roomNumber = roomNumber;
-        this.benches = benches;
-        this.students = new ArrayList<>();
-    }
-
-    public int getRoomNumber() { return roomNumber; }
-    public int getBenches() { return benches; }
-    public ArrayList<Student> getStudents() { return students; }
-    public void addStudent(Student s) { students.add(s); }
-}
-
-class Building {
-    private final int buildingNumber;
-    private final ArrayList<Room> rooms;
-
-    public Building(int buildingNumber) {
-        this.buildingNumber = buildingNumber;
-        this.rooms = new ArrayList<>();
-    }
-
-    public int getBuildingNumber() { return buildingNumber; }
-    public ArrayList<Room> getRooms() { return rooms; }
-    public void addRoom(Room r) { rooms.add(r); }
-}
-
-class Subject {
-    private final String name;
-    private final String branchType;  // Common/Branch Name
-    private final String examDate;
-    private final int year;
-    private final String duration;
-
-    public Subject(String name, String branchType, String examDate, int year, String duration) {
-        this.name = name;
-        this.branchType = branchType;
-        this.examDate = examDate;
-        this.year = year;
-        this.duration = duration;
-    }
-
-    public String getName() { return name; }
-    public String getBranchType() { return branchType; }
-    public String getExamDate() { return examDate; }
-    public int getYear() { return year; }
-    public String getDuration() { return duration; }
-}
-
-
-class Invigilator {
-    private final String name;
-    private final String department;
-
-    public Invigilator(String name, String department) {
-        this.name = name;
-        this.department = department;
-    }
-
-    public String getName() { return name; }
-    public String getDepartment() { return department; }
-}
-
-class ExamHall {
-    private final Room room;
-    private final Invigilator invigilator;
-
-    public ExamHall(Room room, Invigilator invigilator) {
-        this.room = room;
-        this.invigilator = invigilator;
-    }
-
-    public Room getRoom() { return room; }
-    public Invigilator getInvigilator() { return invigilator; }
-}
-
-// ------------------- 2. Main Program -------------------
-
-public class ExamSystemExcelPDF {
-
-    // Common subjects across all branches
-    private static Set<String> commonSubjectNames() {
-        return new HashSet<>(Arrays.asList(
-                "Mathematics", "Physics", "Chemistry",
-                "Engineering Mechanics", "Basic Electrical Engineering",
-                "Computer Programming", "Engineering Graphics",
-                "Environmental Studies", "Workshop Practice"
-        ));
-    }
-
-
-    // Branch-specific subject mapping
-    private static Map<String, List<String>> getBranchSpecificSubjects() {
-        Map<String, List<String>> map = new HashMap<>();
-
-        map.put("Civil Engineering", Arrays.asList("Structural Mechanics", "Surveying"));
-        map.put("Mechanical Engineering", Arrays.asList("Thermodynamics", "Machine Design"));
-        map.put("Electrical Engineering", Arrays.asList("Circuit Theory", "Power Systems"));
-        map.put("Information Technology", Arrays.asList("Data Structures", "Web Technologies"));
-        map.put("Computer Science", Arrays.asList("Operating Systems", "Database Management Systems"));
-
-        return map;
-    }
-
-    // Filter subjects by name set
-    private static List<Subject> filterSubjectsByNames(List<Subject> all, Set<String> names, boolean include) {
-        List<Subject> out = new ArrayList<>();
-        for (Subject s : all) {
-            boolean has = names.contains(s.getName());
-            if ((include && has) || (!include && !has)) {
-                out.add(s);
-            }
-        }
-        return out;
-    }
-
-    public static void main(String[] args) {
-
-        ArrayList<Student> students = readStudentsCSV("C:\\Users\\ADMIN\\OneDrive\\Coding Language\\java project\\exam-allocation\\examhall-allocation\\students.csv");
-        ArrayList<Building> buildings = readBuildingsCSV("C:\\Users\\ADMIN\\OneDrive\\Coding Language\\java project\\exam-allocation\\examhall-allocation\\buildings.csv");
-        ArrayList<Subject> allSubjects = readSubjectsCSV("C:\\Users\\ADMIN\\OneDrive\\Coding Language\\java project\\exam-allocation\\examhall-allocation\\subjects.csv");
-        ArrayList<Invigilator> invigilators = readInvigilatorsCSV("C:\\Users\\ADMIN\\OneDrive\\Coding Language\\java project\\exam-allocation\\examhall-allocation\\invigilators.csv");
-
-        // Debug: Print loaded data
-        System.out.println("Loaded " + students.size() + " students:");
-        for (int i = 0; i < Math.min(5, students.size()); i++) {
-            Student s = students.get(i);
-            System.out.println(s.getName() + " | " + s.getPRN() + " | " + s.getBranch());
-        }
-        for (Building b : buildings) {
-            for (Room r : b.getRooms()) {
-                System.out.println("Room " + r.getRoomNumber() + " benches=" + r.getBenches());
-            }
-        }
-
-        // Build subject groups
-        Set<String> common = commonSubjectNames();
-        List<Subject> commonSubjects = filterSubjectsByNames(allSubjects, common, true);
-        List<Subject> branchOnlySubjects = filterSubjectsByNames(allSubjects, common, false);
-
-        // Allocate students to rooms
-        ArrayList<ExamHall> examHalls = allocateStudentsAndInvigilators(buildings, students, invigilators);
-
-        // Generate two PDFs
-        generatePDFWithSubjects("ExamAllocation-Common-Subjects.pdf",
-                examHalls,
-                commonSubjects,
-                "Exam Hall Allocation — Common Subjects",
-                false);
-
-        generatePDFWithSubjects("ExamAllocation-Branch-Only-Subjects.pdf",
-                examHalls,
-                branchOnlySubjects,
-                "Exam Hall Allocation — Branch Only Subjects",
-                true);
-    }
-
-    // ------------------- CSV Utilities -------------------
-
-    private static List<String> parseCsvLine(String line) {
-        List<String> fields = new ArrayList<>();
-        if (line == null) return fields;
-
-        StringBuilder sb = new StringBuilder();
-        boolean inQuotes = false;
-
-        for (int i = 0; i < line.length(); i++) {
-            char ch = line.charAt(i);
-
-            if (ch == '\"') {
-                if (inQuotes && i + 1 < line.length() && line.charAt(i + 1) == '\"') {
-                    sb.append('\"');
-                    i++;
-                } else {
-                    inQuotes = !inQuotes;
-                }
-            } else if (ch == ',' && !inQuotes) {
-                fields.add(sb.toString());
-                sb.setLength(0);
-            } else {
-                sb.append(ch);
-            }
-        }
-        fields.add(sb.toString());
-        return fields;
-    }
-
-    private static BufferedReader openCsv(String filePath) throws IOException {
-        return new BufferedReader(new InputStreamReader(new FileInputStream(filePath), StandardCharsets.UTF_8));
-    }
-
-    private static String safeGet(List<String> row, int idx) {
-        if (idx >= row.size()) return "";
-        String v = row.get(idx);
-        if (v == null) return "";
-        v = v.trim();
-        if (v.startsWith("\"") && v.endsWith("\"") && v.length() >= 2) {
-            v = v.substring(1, v.length()-1);
-        }
-        return v.trim();
-    }
-
-    // ------------------- 3. Read CSV Methods -------------------
-
-    public static ArrayList<Student> readStudentsCSV(String filePath) {
-        ArrayList<Student> students = new ArrayList<>();
-        try (BufferedReader br = openCsv(filePath)) {
-            String line;
-            br.readLine(); // skip header
-            while ((line = br.readLine()) != null) {
-                if (line.trim().isEmpty()) continue;
-                List<String> cols = parseCsvLine(line);
-                String PRN = safeGet(cols, 0);
-                String name = safeGet(cols, 1);
-                String branch = safeGet(cols, 2);
-                String yearStr = safeGet(cols, 3);
-
-                if (name.isEmpty() || PRN.isEmpty()) continue;
-
-                // Map FE/SE/TE/BE strings to numeric years
-                int year = 0;
-                String y = yearStr == null ? "" : yearStr.trim().toUpperCase(Locale.ROOT);
-                if (y.startsWith("F")) year = 1;
-                else if (y.startsWith("S") && y.contains("E")) year = 2;
-                else if (y.startsWith("T")) year = 3;
-                else if (y.startsWith("B")) year = 4;
-                try {
-                    year = Integer.parseInt(yearStr.trim());
-                } catch (Exception ignore) {
-                    // keep mapped value
-                }
-
-                students.add(new Student(name, PRN, branch, year));
-            }
-        } catch (Exception e) { e.printStackTrace(); }
-        return students;
-    }
-
-    public static ArrayList<Building> readBuildingsCSV(String filePath) {
-        ArrayList<Building> buildings = new ArrayList<>();
-        try (BufferedReader br = openCsv(filePath)) {
-            String line;
-            br.readLine(); // skip header
-            while ((line = br.readLine()) != null) {
-                if (line.trim().isEmpty()) continue;
-                List<String> cols = parseCsvLine(line);
-                String buildingNoStr = safeGet(cols, 0);
-                String roomNoStr = safeGet(cols, 1);
-                String benchesStr = safeGet(cols, 2);
-                if (buildingNoStr.isEmpty() || roomNoStr.isEmpty()) continue;
-
-                int buildingNo = Integer.parseInt(buildingNoStr);
-                int roomNo = Integer.parseInt(roomNoStr);
-                int benches = benchesStr.isEmpty() ? 0 : Integer.parseInt(benchesStr);
-
-                Room room = new Room(roomNo, benches);
-
-                Building b = null;
-                for (Building bd : buildings) {
-                    if (bd.getBuildingNumber() == buildingNo) {
-                        b = bd;
-                        break;
-                    }
-                }
-                if (b == null) {
-                    b = new Building(buildingNo);
-                    buildings.add(b);
-                }
-                b.addRoom(room);
-            }
-        } catch (Exception e) { e.printStackTrace(); }
-        return buildings;
-    }
-
-    public static ArrayList<Subject> readSubjectsCSV(String filePath) {
-        ArrayList<Subject> subjects = new ArrayList<>();
-        try (BufferedReader br = openCsv(filePath)) {
-            String line;
-            br.readLine(); // skip header
-            while ((line = br.readLine()) != null) {
-                if (line.trim().isEmpty()) continue;
-                List<String> cols = parseCsvLine(line);
-
-                String name = safeGet(cols, 0);
-                String branchType = safeGet(cols, 1);
-                String date = safeGet(cols, 2);
-                String yearStr = safeGet(cols, 3);
-                String duration = safeGet(cols, 4);
-
-                if (name.isEmpty()) continue;
-
-                // ------------------- YEH FIX HAI -------------------
-                // Puraani line ko delete karein:
-                // int year = yearStr.isEmpty() ? 0 : Integer.parseInt(yearStr);
-
-                // Aur yeh naya logic add karein (aapke readStudentsCSV se):
-                int year = 0;
-                String y = yearStr == null ? "" : yearStr.trim().toUpperCase(Locale.ROOT);
-                if (y.startsWith("F")) year = 1;
-                else if (y.startsWith("S") && y.contains("E")) year = 2;
-                else if (y.startsWith("T")) year = 3;
-                else if (y.startsWith("B")) year = 4;
-                try {
-                    // Agar "1", "2" jaisa number hai, toh use parse karega
-                    year = Integer.parseInt(yearStr.trim());
-                } catch (Exception ignore) {
-                    // Agar "First Year" jaisa text hai, toh upar map ki hui value (1) use karega
-                }
-                // ----------------------------------------------------
-
-                subjects.add(new Subject(name, branchType, date, year, duration));
-            }
-        } catch (Exception e) { e.printStackTrace(); }
-        return subjects;
-    }
-
-    private static List<Subject> filterSubjectsByBranchType(List<Subject> all, String type) {
-        List<Subject> out = new ArrayList<>();
-        for (Subject s : all) {
-            if (s.getBranchType().equalsIgnoreCase(type)) {
-                out.add(s);
-            }
-        }
-        return out;
-    }
-
-
-    public static ArrayList<Invigilator> readInvigilatorsCSV(String filePath) {
-        ArrayList<Invigilator> invigilators = new ArrayList<>();
-        try (BufferedReader br = openCsv(filePath)) {
-            String line;
-            br.readLine(); // skip header
-            while ((line = br.readLine()) != null) {
-                if (line.trim().isEmpty()) continue;
-                List<String> cols = parseCsvLine(line);
-                String name = safeGet(cols, 0);
-                String dept = safeGet(cols, 1);
-                if (name.isEmpty()) continue;
-                invigilators.add(new Invigilator(name, dept));
-            }
-        } catch (Exception e) { e.printStackTrace(); }
-        return invigilators;
-    }
-
-    // ------------------- 4. Allocation Logic -------------------
-
-    public static ArrayList<ExamHall> allocateStudentsAndInvigilators(ArrayList<Building> buildings,
-                                                                      ArrayList<Student> students,
-                                                                      ArrayList<Invigilator> invigilators) {
-        ArrayList<ExamHall> examHalls = new ArrayList<>();
-        int studentIndex = 0;
-        int invIndex = 0;
-
-        for (Building b : buildings) {
-            for (Room r : b.getRooms()) {
-                for (int i = 0; i < r.getBenches() && studentIndex < students.size(); i++) {
-                    r.addStudent(students.get(studentIndex));
-                    studentIndex++;
-                }
-                Invigilator inv = null;
-                if (invIndex < invigilators.size()) {
-                    inv = invigilators.get(invIndex);
-                    invIndex++;
-                }
-                examHalls.add(new ExamHall(r, inv));
-            }
-        }
-        return examHalls;
-    }
-
-    // ------------------- 5. PDF Generation -------------------
-
-    public static void generatePDFWithSubjects(String outputName,
-                                               ArrayList<ExamHall> examHalls,
-                                               List<Subject> subjects,
-                                               String titleText,
-                                               boolean isBranchSpecific) {
-        try {
-            Document document = new Document();
-            PdfWriter.getInstance(document, new FileOutputStream(outputName));
-            document.open();
-
-            Font titleFont = new Font(Font.FontFamily.TIMES_ROMAN, 18, Font.BOLD);
-            Paragraph title = new Paragraph(titleText, titleFont);
-            title.setAlignment(Element.ALIGN_CENTER);
-            document.add(title);
-            document.add(new Paragraph(" "));
-
-            Font subTitleFont = new Font(Font.FontFamily.TIMES_ROMAN, 14, Font.BOLD);
-
-            // Branch-specific vs Common subjects display
-            if (isBranchSpecific) {
-                Map<String, List<String>> branchMap = getBranchSpecificSubjects();
-
-                for (Map.Entry<String, List<String>> entry : branchMap.entrySet()) {
-                    String branchName = entry.getKey();
-                    List<String> subjNames = entry.getValue();
-
-                    Paragraph branchHeader = new Paragraph(branchName + ":", subTitleFont);
-                    document.add(branchHeader);
-
-                    com.itextpdf.text.List subList = new com.itextpdf.text.List(com.itextpdf.text.List.UNORDERED);
-
-                    for (String subjName : subjNames) {
-                        for (Subject s : subjects) {
-                            // Match subject name AND branchType
-                            if (s.getName().equals(subjName) && s.getBranchType().equalsIgnoreCase(branchName)) {
-                                // Use formatted date here
-                                String prettyDate = s.getExamDate().replace(" 0.00", " 09:00 AM");
-                                subList.add(new ListItem(s.getName() + " — " + s.getDuration() + " — " + prettyDate));
-                            }
-                        }
-                    }
-
-                    document.add(subList);
-                    document.add(new Paragraph(" "));
-
-                    // Branch-specific students seating
-                    for (ExamHall eh : examHalls) {
-                        List<Student> roomBranchStudents = new ArrayList<>();
-                        for (Student st : eh.getRoom().getStudents()) {
-                            if (st.getBranch() != null &&
-                                    st.getBranch().toLowerCase(Locale.ROOT).contains(branchName.toLowerCase(Locale.ROOT).split(" ")[0])) {
-                                roomBranchStudents.add(st);
-                            }
-                        }
-                        if (roomBranchStudents.isEmpty()) continue;
-
-                        Paragraph roomPara = new Paragraph(
-                                "Room " + eh.getRoom().getRoomNumber() +
-                                        " | Invigilator: " + (eh.getInvigilator() != null ? eh.getInvigilator().getName() : "N/A"),
-                                subTitleFont
-                        );
-                        document.add(roomPara);
-
-                        com.itextpdf.text.pdf.PdfPTable table = new com.itextpdf.text.pdf.PdfPTable(3);
-                        table.addCell("Name");
-                        table.addCell("PRN");
-                        table.addCell("Branch");
-                        for (Student st : roomBranchStudents) {
-                            table.addCell(st.getName());
-                            table.addCell(st.getPRN());
-                            table.addCell(st.getBranch());
-                        }
-                        document.add(table);
-                        document.add(new Paragraph("--------------------------------------------------"));
-                    }
-
-                    document.add(new Paragraph(" "));
-                }
-            } else {
-                // Common subjects simple ordered list
-                Paragraph subHeader = new Paragraph("Subjects Included:", subTitleFont);
-                document.add(subHeader);
-                com.itextpdf.text.List subjList = new com.itextpdf.text.List(com.itextpdf.text.List.ORDERED);
-                for (Subject s : subjects) {
-                    String prettyDate = s.getExamDate().replace(" 0.00", " 09:00 AM");
-                    subjList.add(new ListItem(s.getName() + " — " + s.getDuration() + " — " + prettyDate));
-                }
-                document.add(subjList);
-                document.add(new Paragraph(" "));
-
-                // Unified seating for common subjects
-                for (ExamHall eh : examHalls) {
-                    Paragraph roomPara = new Paragraph(
-                            "Room " + eh.getRoom().getRoomNumber() +
-                                    " | Invigilator: " + (eh.getInvigilator() != null ? eh.getInvigilator().getName() : "N/A"),
-                            subTitleFont
-                    );
-                    document.add(roomPara);
-
-                    com.itextpdf.text.pdf.PdfPTable table = new com.itextpdf.text.pdf.PdfPTable(3);
-                    table.addCell("Name");
-                    table.addCell("PRN");
-                    table.addCell("Branch");
-                    for (Student st : eh.getRoom().getStudents()) {
-                        table.addCell(st.getName());
-                        table.addCell(st.getPRN());
-                        table.addCell(st.getBranch());
-                    }
-                    document.add(table);
-                    document.add(new Paragraph("--------------------------------------------------"));
-                }
-            }
-
-            document.close();
-            System.out.println("PDF generated: " + outputName);
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-    }
-}
+package seatarrangement.project;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.itextpdf.text.Document;
+import com.itextpdf.text.pdf.PdfWriter;
+
+// ------------------- 1. OOP Classes -------------------
+
+class Student {
+    private final String name;
+    private final String PRN;
+    private final String branch;
+    private final int year;
+
+    public Student(String name, String PRN, String branch, int year) {
+        this.name = name;
+        this.PRN = PRN;
+        this.branch = branch;
+        this.year = year;
+    }
+
+    public String getName() { return name; }
+    public String getPRN() { return PRN; }
+    public String getBranch() { return branch; }
+    public int getYear() { return year; }
+}
+
+class Room {
+    private int roomNumber;
+    private int benches;
+    private ArrayList<Student> students;
+
+    public Room(int roomNumber, int benches) {
+        this.roomNumber = roomNumber;
+        this.benches = benches;
+        this.students = new ArrayList<>();
+    }
+
+    public int getRoomNumber() { return roomNumber; }
+    public int getBenches() { return benches; }
+    public void setBenches(int benches) { this.benches = benches; }
+    public ArrayList<Student> getStudents() { return students; }
+    public void addStudent(Student s) { students.add(s); }
+}
+
+class Building {
+    private final int buildingNumber;
+    private final ArrayList<Room> rooms;
+
+    public Building(int buildingNumber) {
+        this.buildingNumber = buildingNumber;
+        this.rooms = new ArrayList<>();
+    }
+
+    public int getBuildingNumber() { return buildingNumber; }
+    public ArrayList<Room> getRooms() { return rooms; }
+    public void addRoom(Room r) { rooms.add(r); }
+}
+
+class Subject {
+    private final String name;
+    private final String branchType;  // Common/Branch Name
+    private final String examDate;
+    private final int year;
+    private final String duration;
+
+    public Subject(String name, String branchType, String examDate, int year, String duration) {
+        this.name = name;
+        this.branchType = branchType;
+        this.examDate = examDate;
+        this.year = year;
+        this.duration = duration;
+    }
+
+    public String getName() { return name; }
+    public String getBranchType() { return branchType; }
+    public String getExamDate() { return examDate; }
+    public int getYear() { return year; }
+    public String getDuration() { return duration; }
+}
+
+
+class Invigilator {
+    private final String name;
+    private final String department;
+
+    public Invigilator(String name, String department) {
+        this.name = name;
+        this.department = department;
+    }
+
+    public String getName() { return name; }
+    public String getDepartment() { return department; }
+}
+
+class ExamHall {
+    private final Room room;
+    private final Invigilator invigilator;
+
+    public ExamHall(Room room, Invigilator invigilator) {
+        this.room = room;
+        this.invigilator = invigilator;
+    }
+
+    public Room getRoom() { return room; }
+    public Invigilator getInvigilator() { return invigilator; }
+}
+
+// ------------------- 2. Main Program -------------------
+
+public class ExamSystemExcelPDF {
+
+    /** Above this many students both reports are streamed into one document each instead of parallel parts. */
+    static final int STREAMING_STUDENTS = 200_000;
+
+    /**
+     * {@code [--render-cache dir] [--partitioned building|cohort] [--hall-tickets dir] [dataDir]}
+     * runs one allocation and writes both PDFs, reusing the room tables a
+     * previous run left in the cache directory when one is given, and seating
+     * every session in partitions on a fork-join pool when asked to ({@code cohort}
+     * seats each branch and year on consecutive benches, so it gives up the
+     * interleaving that keeps same-paper students apart). With
+     * {@code --hall-tickets} it also writes a door sheet per room and a seat
+     * slip per student of every sitting into that directory, resuming from its
+     * checkpoint;
+     * {@code --serve [port] [dataDir]} starts {@link AllocationServer} instead.
+     * The data directory holds the four CSVs and defaults to the working directory.
+     * {@code --lookup index [--date dd-MM-yyyy] [PRN or name...]} answers
+     * seat queries from the index a run leaves behind, for today unless a date
+     * is given; without queries it reads one per line from standard input.
+     */
+    public static void main(String[] args) {
+
+        if (args.length > 0 && args[0].equals("--lookup")) {
+            lookup(args);
+            return;
+        }
+
+        if (args.length > 0 && args[0].equals("--serve")) {
+            int port = args.length > 1 ? Integer.parseInt(args[1]) : 8080;
+            Path dir = Paths.get(args.length > 2 ? args[2] : ".");
+            try {
+                AllocationServer server = new AllocationServer(dir, port);
+                server.start();
+                System.out.println("Serving " + dir.toAbsolutePath() + " on port " + server.getPort());
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            return;
+        }
+
+        Path dataDir = Paths.get(".");
+        Path renderCache = null;
+        Path hallTickets = null;
+        PartitionedAllocation.Partitioning partitioning = null;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--render-cache") && i + 1 < args.length) {
+                renderCache = Paths.get(args[++i]);
+            } else if (args[i].equals("--hall-tickets") && i + 1 < args.length) {
+                hallTickets = Paths.get(args[++i]);
+            } else if (args[i].equals("--partitioned") && i + 1 < args.length) {
+                partitioning = PartitionedAllocation.Partitioning.valueOf(args[++i].toUpperCase(Locale.ROOT));
+            } else {
+                dataDir = Paths.get(args[i]);
+            }
+        }
+
+        // Parsed once; later runs load the binary snapshot until one of the CSVs changes
+        MasterDataSnapshot.Data data = MasterDataSnapshot.load(dataDir.resolve("students.csv"),
+                dataDir.resolve("buildings.csv"), dataDir.resolve("subjects.csv"),
+                dataDir.resolve("invigilators.csv"), dataDir.resolve("master-data.snapshot"));
+
+        // Every bad row, duplicate and the capacity check in one report, made when the CSVs were parsed.
+        // The rows it rejects (errors on a line) are not in the data; the run goes on with the rest.
+        DataValidation.Report validation = data.getValidation();
+        System.out.println(validation.summary());
+        if (data.isFromSnapshot()) System.out.println("  (from the snapshot; the CSVs have not changed since)");
+        for (DataValidation.Issue issue : validation.getIssues()) {
+            if (issue.getSeverity() == DataValidation.Severity.ERROR) System.out.println("  " + issue);
+        }
+        try {
+            Files.write(Paths.get("ExamAllocation-Validation.json"),
+                    validation.toJson().getBytes(StandardCharsets.UTF_8));
+            System.out.println("Validation report generated: ExamAllocation-Validation.json");
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+
+        StudentRoster students = data.getStudents();
+        ArrayList<Building> buildings = data.getBuildings();
+        ArrayList<Subject> allSubjects = data.getSubjects();
+        ArrayList<Invigilator> invigilators = data.getInvigilators();
+
+        // Debug: Print loaded data
+        System.out.println("Loaded " + students.size() + " students:");
+        for (int i = 0; i < Math.min(5, students.size()); i++) {
+            System.out.println(students.name(i) + " | " + students.prn(i) + " | " + students.branch(i));
+        }
+        for (Building b : buildings) {
+            for (Room r : b.getRooms()) {
+                System.out.println("Room " + r.getRoomNumber() + " benches=" + r.getBenches());
+            }
+        }
+
+        // Which subjects are common and which belong to a branch, compiled once for every step below
+        SubjectCatalog catalog = SubjectCatalog.of(allSubjects);
+
+        // How many rooms the whole roster really needs, and what is left over
+        System.out.println(new CapacityPlanner().plan(buildings, students.size()).report());
+
+        // Seat each exam session separately: only the students who write a paper in that slot, same-paper
+        // students kept off neighbouring benches. Every report, seat map and the lookup index below come
+        // from these sittings. Nobody supervises their own department's students while somebody else is free.
+        List<ExamTimetable.Sitting> timetable = new ExamTimetable(InterleavedSeating::new,
+                Runtime.getRuntime().availableProcessors(), InvigilatorAssignment.DEFAULT_MAX_ROOMS_PER_DAY,
+                partitioning).schedule(buildings, students, catalog, invigilators);
+        int uncovered = 0;
+        for (ExamTimetable.Sitting sitting : timetable) {
+            uncovered += sitting.getUncovered();
+            System.out.println(sitting.getSlot().getStart() + " " + sitting.getSlot().getSubjects().size()
+                    + " subject(s), " + sitting.getStudentCount() + " students in " + sitting.getHalls().size()
+                    + " rooms" + (sitting.getUnseated() > 0 ? ", " + sitting.getUnseated() + " unseated" : "")
+                    + (sitting.getUncovered() > 0 ? ", " + sitting.getUncovered() + " without invigilator" : ""));
+        }
+        if (uncovered > 0) System.out.println(uncovered + " room(s) without an invigilator");
+
+        // The help-desk index: PRN or name -> building, room, bench, invigilator and papers of every sitting
+        try {
+            SeatLookupIndex.write(Paths.get("ExamAllocation-Seats.idx"), timetable, catalog);
+            System.out.println("Lookup index generated: ExamAllocation-Seats.idx");
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+
+        // Generate both PDFs at the same time from the timetable, sitting by sitting, each rendered
+        // in parallel parts, and the machine-readable seat maps of every sitting alongside them
+        try (ExecutorService exports = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<?> seatMap = exports.submit(() -> {
+                SeatMapExport.writeAll(Paths.get("ExamAllocation-SeatMaps"), timetable);
+                return null;
+            });
+            if (renderCache != null) {
+                new RenderCache(renderCache, RenderCache.DEFAULT_MAX_BYTES).renderBoth("ExamAllocation-Common-Subjects.pdf",
+                        "ExamAllocation-Branch-Only-Subjects.pdf", timetable, catalog);
+            } else if (students.size() > STREAMING_STUDENTS) {
+                new StreamingReportWriter().writeBoth("ExamAllocation-Common-Subjects.pdf",
+                        "ExamAllocation-Branch-Only-Subjects.pdf", timetable, catalog);
+            } else {
+                new ParallelReportRenderer().renderBoth("ExamAllocation-Common-Subjects.pdf",
+                        "ExamAllocation-Branch-Only-Subjects.pdf",
+                        timetable,
+                        catalog);
+            }
+            System.out.println("PDF generated: ExamAllocation-Common-Subjects.pdf");
+            System.out.println("PDF generated: ExamAllocation-Branch-Only-Subjects.pdf");
+            seatMap.get();
+            System.out.println("Seat maps generated: ExamAllocation-SeatMaps/<date-time>.ndjson, .csv, .seats");
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+
+        // Door sheets and seat slips, one directory per sitting; rooms finished by an earlier run are skipped
+        if (hallTickets != null) {
+            try {
+                HallTicketBatchWriter.Result r = new HallTicketBatchWriter(hallTickets).write(timetable);
+                System.out.println("Hall tickets generated: " + r.getFiles() + " file(s) for " + r.getRoomsWritten()
+                        + " room(s), " + r.getRoomsSkipped() + " unchanged, in " + hallTickets + "/<date-time>/");
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+
+        // -Dexamhall.metrics=metrics.json (or .prom) writes the per-stage numbers of this run
+        PipelineMetrics.dumpIfEnabled();
+    }
+
+    /** {@code --lookup index [--date dd-MM-yyyy] [query...]}: PRNs are answered in one batch, the rest as name prefixes. */
+    private static void lookup(String[] args) {
+        if (args.length < 2) {
+            System.err.println("usage: --lookup index [--date dd-MM-yyyy] [PRN or name...]");
+            return;
+        }
+        java.time.LocalDate day = java.time.LocalDate.now();
+        int first = 2;
+        if (args.length > 3 && args[2].equals("--date")) {
+            day = java.time.LocalDate.parse(args[3], java.time.format.DateTimeFormatter.ofPattern("dd-MM-uuuu"));
+            first = 4;
+        }
+        List<String> queries = new ArrayList<>(Arrays.asList(args).subList(first, args.length));
+        try (SeatLookupIndex.Lookup index = SeatLookupIndex.open(Paths.get(args[1]))) {
+            if (queries.isEmpty()) {
+                BufferedReader in = new BufferedReader(new InputStreamReader(System.in));
+                for (String line; (line = in.readLine()) != null; ) {
+                    if (!line.isBlank()) queries.add(line.trim());
+                }
+            }
+            List<List<SeatLookupIndex.Seat>> answers = index.findAll(queries, day);
+            for (int i = 0; i < queries.size(); i++) {
+                List<SeatLookupIndex.Seat> seats = answers.get(i);
+                if (seats.isEmpty()) seats = index.findByName(queries.get(i), day, 20);
+                if (seats.isEmpty()) System.out.println(queries.get(i) + ": no seat on " + day);
+                for (SeatLookupIndex.Seat seat : seats) System.out.println(seat);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // ------------------- CSV Utilities -------------------
+
+    // All four files carry a header line that is skipped whatever it contains
+    private static final CsvEngine CSV = new CsvEngine(true);
+
+    /** Turns student rows into {@link Student}s; one instance per file or per parallel chunk. */
+    private static final class StudentRows implements CsvRowHandler {
+        final ArrayList<Student> students = new ArrayList<>();
+        private final StringDictionary branches = new StringDictionary();
+
+        @Override
+        public void onRow(CsvRow row) {
+            if (row.isBlank()) return;
+            if (row.isEmpty(0) || row.isEmpty(1)) return;
+            if (DataValidation.isHeaderRow(row, DataValidation.STUDENT_COLUMNS)) return;
+
+            String PRN = row.getString(0);
+            String name = row.getString(1);
+            String branch = branches.value(branches.code(row, 2));
+            int year = row.getYear(3);
+
+            students.add(new Student(name, PRN, branch, year));
+        }
+    }
+
+    /** Same filtering as StudentRows, but copies the row straight into roster columns. */
+    private static final class RosterRows implements CsvRowHandler {
+        final StudentRoster roster = new StudentRoster();
+
+        @Override
+        public void onRow(CsvRow row) {
+            if (row.isBlank()) return;
+            if (row.isEmpty(0) || row.isEmpty(1)) return;
+            if (DataValidation.isHeaderRow(row, DataValidation.STUDENT_COLUMNS)) return;
+            roster.add(row);
+        }
+    }
+
+    // ------------------- 3. Read CSV Methods -------------------
+
+    public static ArrayList<Student> readStudentsCSV(String filePath) {
+        PipelineMetrics.Stage stage = PipelineMetrics.begin("load.students");
+        StudentRows rows = new StudentRows();
+        try {
+            CSV.read(Paths.get(filePath), rows);
+        } catch (Exception e) { e.printStackTrace(); }
+        ArrayList<Student> students = firstOfEachPrn(rows.students);
+        stage.read(Paths.get(filePath)).rows(students.size()).end();
+        return students;
+    }
+
+    /** Chunked variant for very large rosters; the result keeps file order. */
+    public static ArrayList<Student> readStudentsCSV(String filePath, int parallelism) {
+        PipelineMetrics.Stage stage = PipelineMetrics.begin("load.students");
+        ArrayList<Student> students = new ArrayList<>();
+        try {
+            List<StudentRows> chunks = CSV.readParallel(Paths.get(filePath), parallelism, StudentRows::new);
+            int total = 0;
+            for (StudentRows c : chunks) total += c.students.size();
+            students.ensureCapacity(total);
+            for (StudentRows c : chunks) students.addAll(c.students);
+        } catch (Exception e) { e.printStackTrace(); }
+        students = firstOfEachPrn(students);
+        stage.read(Paths.get(filePath)).rows(students.size()).end();
+        return students;
+    }
+
+    /** Loads students.csv into a column store instead of one object per row. */
+    public static StudentRoster readStudentRoster(String filePath) {
+        PipelineMetrics.Stage stage = PipelineMetrics.begin("load.students");
+        RosterRows rows = new RosterRows();
+        try {
+            CSV.read(Paths.get(filePath), rows);
+        } catch (Exception e) { e.printStackTrace(); }
+        StudentRoster roster = firstOfEachPrn(rows.roster);
+        roster.trimToSize();
+        stage.read(Paths.get(filePath)).rows(roster.size()).end();
+        return roster;
+    }
+
+    public static StudentRoster readStudentRoster(String filePath, int parallelism) {
+        return readStudentRoster(filePath, parallelism, CSV);
+    }
+
+    /** A smaller buffer gives smaller chunks; for tests. */
+    static StudentRoster readStudentRoster(String filePath, int parallelism, int bufferSize) {
+        return readStudentRoster(filePath, parallelism, new CsvEngine(true, bufferSize));
+    }
+
+    private static StudentRoster readStudentRoster(String filePath, int parallelism, CsvEngine csv) {
+        PipelineMetrics.Stage stage = PipelineMetrics.begin("load.students");
+        StudentRoster roster = new StudentRoster();
+        try {
+            List<RosterRows> chunks = csv.readParallel(Paths.get(filePath), parallelism, RosterRows::new);
+            for (RosterRows c : chunks) roster.addAll(c.roster);
+        } catch (Exception e) { e.printStackTrace(); }
+        roster = firstOfEachPrn(roster);
+        roster.trimToSize();
+        stage.read(Paths.get(filePath)).rows(roster.size()).end();
+        return roster;
+    }
+
+    /**
+     * Keeps the first row of every PRN. DataValidation reports the later ones
+     * as DUPLICATE_PRN, and seat lookups are keyed by PRN, so they are dropped.
+     */
+    private static ArrayList<Student> firstOfEachPrn(ArrayList<Student> students) {
+        Set<String> seen = new HashSet<>(students.size() * 2);
+        ArrayList<Student> out = null;
+        for (int i = 0; i < students.size(); i++) {
+            Student s = students.get(i);
+            if (!seen.add(s.getPRN())) {
+                if (out == null) out = new ArrayList<>(students.subList(0, i));
+            } else if (out != null) {
+                out.add(s);
+            }
+        }
+        return out == null ? students : out;
+    }
+
+    private static StudentRoster firstOfEachPrn(StudentRoster roster) {
+        Set<String> seen = new HashSet<>(roster.size() * 2);
+        BitSet repeated = new BitSet();
+        for (int i = 0; i < roster.size(); i++) {
+            if (!seen.add(roster.prn(i))) repeated.set(i);
+        }
+        if (repeated.isEmpty()) return roster;
+        StudentRoster out = new StudentRoster();
+        for (int i = 0; i < roster.size(); i++) {
+            if (!repeated.get(i)) out.add(roster.name(i), roster.prn(i), roster.branch(i), roster.year(i));
+        }
+        return out;
+    }
+
+    public static ArrayList<Building> readBuildingsCSV(String filePath) {
+        PipelineMetrics.Stage stage = PipelineMetrics.begin("load.buildings");
+        ArrayList<Building> buildings = new ArrayList<>();
+        Map<Integer, Building> byNumber = new HashMap<>();
+        Set<Integer> roomNumbers = new HashSet<>();
+        try {
+            CSV.read(Paths.get(filePath), row -> {
+                if (row.isBlank()) return;
+                // A row with a missing or non-numeric number is dropped, not the rest of the file
+                if (!DataValidation.isBuildingRow(row)) return;
+
+                int buildingNo = row.getInt(0, 0);
+                int roomNo = row.getInt(1, 0);
+                int benches = row.getInt(2, 0);
+                // Room numbers are unique across buildings; a repeat is a DUPLICATE_ROOM and dropped
+                if (!roomNumbers.add(roomNo)) return;
+
+                Room room = new Room(roomNo, benches);
+
+                Building b = byNumber.get(buildingNo);
+                if (b == null) {
+                    b = new Building(buildingNo);
+                    byNumber.put(buildingNo, b);
+                    buildings.add(b);
+                }
+                b.addRoom(room);
+            });
+        } catch (Exception e) { e.printStackTrace(); }
+        long rooms = 0;
+        for (Building b : buildings) rooms += b.getRooms().size();
+        stage.read(Paths.get(filePath)).rows(rooms).end();
+        return buildings;
+    }
+
+    public static ArrayList<Subject> readSubjectsCSV(String filePath) {
+        PipelineMetrics.Stage stage = PipelineMetrics.begin("load.subjects");
+        ArrayList<Subject> subjects = new ArrayList<>();
+        try {
+            CSV.read(Paths.get(filePath), row -> {
+                if (row.isBlank()) return;
+                if (row.isEmpty(0)) return;
+                if (DataValidation.isHeaderRow(row, DataValidation.SUBJECT_COLUMNS)) return;
+
+                String name = row.getString(0);
+                String branchType = row.getString(1);
+                String date = row.getString(2);
+                // "First Year" and "1" both map to 1, same as for students
+                int year = row.getYear(3);
+                String duration = row.getString(4);
+
+                // A paper the timetable cannot place is reported by DataValidation and left out
+                Subject subject = new Subject(name, branchType, date, year, duration);
+                if (DataValidation.isSchedulable(subject)) subjects.add(subject);
+            });
+        } catch (Exception e) { e.printStackTrace(); }
+        stage.read(Paths.get(filePath)).rows(subjects.size()).end();
+        return subjects;
+    }
+
+    private static List<Subject> filterSubjectsByBranchType(List<Subject> all, String type) {
+        List<Subject> out = new ArrayList<>();
+        for (Subject s : all) {
+            if (s.getBranchType().equalsIgnoreCase(type)) {
+                out.add(s);
+            }
+        }
+        return out;
+    }
+
+
+    public static ArrayList<Invigilator> readInvigilatorsCSV(String filePath) {
+        PipelineMetrics.Stage stage = PipelineMetrics.begin("load.invigilators");
+        ArrayList<Invigilator> invigilators = new ArrayList<>();
+        try {
+            CSV.read(Paths.get(filePath), row -> {
+                if (row.isBlank()) return;
+                if (row.isEmpty(0)) return;
+                if (DataValidation.isHeaderRow(row, DataValidation.INVIGILATOR_COLUMNS)) return;
+                invigilators.add(new Invigilator(row.getString(0), row.getString(1)));
+            });
+        } catch (Exception e) { e.printStackTrace(); }
+        stage.read(Paths.get(filePath)).rows(invigilators.size()).end();
+        return invigilators;
+    }
+
+    // ------------------- 4. Allocation Logic -------------------
+
+    public static ArrayList<ExamHall> allocateStudentsAndInvigilators(ArrayList<Building> buildings,
+                                                                      ArrayList<Student> students,
+                                                                      ArrayList<Invigilator> invigilators) {
+        return allocateStudentsAndInvigilators(buildings, students, invigilators, SeatingStrategy.sequential());
+    }
+
+    /** Lets the strategy decide who sits where; invigilators are still handed out room by room. */
+    public static ArrayList<ExamHall> allocateStudentsAndInvigilators(ArrayList<Building> buildings,
+                                                                      List<Student> students,
+                                                                      ArrayList<Invigilator> invigilators,
+                                                                      SeatingStrategy strategy) {
+        PipelineMetrics.Stage stage = PipelineMetrics.begin("allocate");
+        List<Room> rooms = new ArrayList<>();
+        for (Building b : buildings) rooms.addAll(b.getRooms());
+        strategy.seat(rooms, students);
+
+        ArrayList<ExamHall> examHalls = new ArrayList<>();
+        int invIndex = 0;
+
+        for (Building b : buildings) {
+            for (Room r : b.getRooms()) {
+                Invigilator inv = null;
+                if (invIndex < invigilators.size()) {
+                    inv = invigilators.get(invIndex);
+                    invIndex++;
+                }
+                examHalls.add(new ExamHall(r, inv));
+            }
+        }
+        stage.rows(students.size()).end();
+        PipelineMetrics.recordFill(examHalls);
+        return examHalls;
+    }
+
+    /**
+     * Same bench-filling order as above, reading straight from the roster
+     * columns; a {@link Student} is only created when the strategy reads it.
+     */
+    public static ArrayList<ExamHall> allocateStudentsAndInvigilators(ArrayList<Building> buildings,
+                                                                      StudentRoster roster,
+                                                                      ArrayList<Invigilator> invigilators) {
+        return allocateStudentsAndInvigilators(buildings, roster.asList(), invigilators, SeatingStrategy.sequential());
+    }
+
+    public static ArrayList<ExamHall> allocateStudentsAndInvigilators(ArrayList<Building> buildings,
+                                                                      StudentRoster roster,
+                                                                      ArrayList<Invigilator> invigilators,
+                                                                      SeatingStrategy strategy) {
+        return allocateStudentsAndInvigilators(buildings, roster.asList(), invigilators, strategy);
+    }
+
+    // ------------------- 5. PDF Generation -------------------
+
+    public static void generatePDFWithSubjects(String outputName,
+                                               ArrayList<ExamHall> examHalls,
+                                               List<Subject> subjects,
+                                               String titleText,
+                                               boolean isBranchSpecific) {
+        AllocationIndex index = isBranchSpecific ? AllocationIndex.build(examHalls) : null;
+        generatePDFWithSubjects(outputName, examHalls, subjects, titleText, isBranchSpecific, index);
+    }
+
+    public static void generatePDFWithSubjects(String outputName,
+                                               ArrayList<ExamHall> examHalls,
+                                               List<Subject> subjects,
+                                               String titleText,
+                                               boolean isBranchSpecific,
+                                               AllocationIndex index) {
+        generatePDFWithSubjects(outputName, examHalls, SubjectCatalog.of(subjects), titleText, isBranchSpecific,
+                index);
+    }
+
+    /** Renders with an index built once after allocation; the branch-only report reads its seats from it. */
+    public static void generatePDFWithSubjects(String outputName,
+                                               ArrayList<ExamHall> examHalls,
+                                               SubjectCatalog catalog,
+                                               String titleText,
+                                               boolean isBranchSpecific,
+                                               AllocationIndex index) {
+        PipelineMetrics.Stage stage = PipelineMetrics.begin(isBranchSpecific ? "render.branch" : "render.common");
+        try {
+            Document document = new Document();
+            PdfWriter.getInstance(document, new FileOutputStream(outputName));
+            document.open();
+
+            // Branch-specific vs Common subjects display
+            ReportSections.Fonts fonts = new ReportSections.Fonts();
+            for (List<ReportSections.Section> part : ReportSections.plan(
+                    examHalls, catalog, titleText, isBranchSpecific, index, Integer.MAX_VALUE)) {
+                for (ReportSections.Section section : part) section.write(document, fonts);
+            }
+
+            document.close();
+            System.out.println("PDF generated: " + outputName);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        long rows = 0;
+        for (ExamHall eh : examHalls) rows += eh.getRoom().getStudents().size();
+        stage.rows(rows).written(Paths.get(outputName)).end();
+    }
+}
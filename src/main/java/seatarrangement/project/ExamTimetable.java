@@ -0,0 +1,291 @@
+package seatarrangement.project;
+
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Seats every exam session of a timetable instead of one seating for the
+ * whole roster.
+ *
+ * Subjects are grouped into slots by their parsed start ({@code examDate})
+ * and length: a paper that starts before the running slot ends joins it, and
+ * the slot lasts until the last of its papers ends. Papers that overlap in
+ * time therefore share one seating, so nobody is seated twice and no room is
+ * given out twice at the same time. A student sits a slot when one of its subjects is among
+ * the papers {@link SubjectCatalog} compiles for the student's (branch, year)
+ * cohort: the common papers of the year and the branch's own ("Civil
+ * Engineering" papers for "Civil" students).
+ *
+ * The roster is bucketed by (year, branch) once, so working out a slot's
+ * sitters costs one check per bucket rather than per student. Every slot gets
+ * fresh copies of the rooms chosen by {@link CapacityPlanner}: as few rooms
+ * and buildings as its sitters need. Slots are independent and are seated
+ * concurrently; results come back in timetable order. Invigilators are then matched to the rooms of
+ * all slots together by {@link InvigilatorAssignment}, so the daily caps and
+ * the load balance see the whole timetable.
+ */
+final class ExamTimetable {
+
+    /** "0.00" in the sheet means no time was entered; the reports print it as 09:00 AM. */
+    static final LocalTime DEFAULT_START = LocalTime.of(9, 0);
+
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("dd-MM-uuuu", Locale.ROOT);
+
+    private final Supplier<SeatingStrategy> strategies;
+    private final int parallelism;
+    private final int maxRoomsPerDay;
+    private final PartitionedAllocation.Partitioning partitioning;
+    private final CapacityPlanner planner = new CapacityPlanner();
+
+    ExamTimetable() {
+        this(SeatingStrategy::sequential, Runtime.getRuntime().availableProcessors());
+    }
+
+    /** Strategies may keep state between calls, so every slot gets its own. */
+    ExamTimetable(Supplier<SeatingStrategy> strategies, int parallelism) {
+        this(strategies, parallelism, InvigilatorAssignment.DEFAULT_MAX_ROOMS_PER_DAY);
+    }
+
+    ExamTimetable(Supplier<SeatingStrategy> strategies, int parallelism, int maxRoomsPerDay) {
+        this(strategies, parallelism, maxRoomsPerDay, null);
+    }
+
+    /** With a partitioning, every slot is seated by {@link PartitionedAllocation}; {@code null} seats it in one piece. */
+    ExamTimetable(Supplier<SeatingStrategy> strategies, int parallelism, int maxRoomsPerDay,
+                  PartitionedAllocation.Partitioning partitioning) {
+        this.strategies = strategies;
+        this.parallelism = Math.max(1, parallelism);
+        this.maxRoomsPerDay = maxRoomsPerDay;
+        this.partitioning = partitioning;
+    }
+
+    // ------------------- Value types -------------------
+
+    /** One exam session: start, length and the subjects written in it. */
+    static final class Slot {
+        private final LocalDateTime start;
+        private final Duration duration;
+        private final List<Subject> subjects;
+
+        Slot(LocalDateTime start, Duration duration, List<Subject> subjects) {
+            this.start = start;
+            this.duration = duration;
+            this.subjects = subjects;
+        }
+
+        public LocalDateTime getStart() { return start; }
+        public LocalDateTime getEnd() { return start.plus(duration); }
+        public Duration getDuration() { return duration; }
+        public List<Subject> getSubjects() { return subjects; }
+    }
+
+    /** The seating of one slot. */
+    static final class Sitting {
+        private final Slot slot;
+        private final ArrayList<Building> buildings;
+        private final ArrayList<ExamHall> halls;
+        private final AllocationIndex index;
+        private final int students;
+        private final int unseated;
+        private final int uncovered;
+
+        Sitting(Slot slot, ArrayList<Building> buildings, ArrayList<ExamHall> halls, AllocationIndex index,
+                int students, int unseated, int uncovered) {
+            this.slot = slot;
+            this.buildings = buildings;
+            this.halls = halls;
+            this.index = index;
+            this.students = students;
+            this.unseated = unseated;
+            this.uncovered = uncovered;
+        }
+
+        public Slot getSlot() { return slot; }
+        public ArrayList<Building> getBuildings() { return buildings; }
+        public ArrayList<ExamHall> getHalls() { return halls; }
+        public AllocationIndex getIndex() { return index; }
+        /** Students who sit this slot, seated or not. */
+        public int getStudentCount() { return students; }
+        /** Sitters that did not fit into the rooms. */
+        public int getUnseated() { return unseated; }
+        /** Rooms left without an invigilator. */
+        public int getUncovered() { return uncovered; }
+    }
+
+    // ------------------- Slots -------------------
+
+    /** Groups subjects into slots of overlapping papers, in timetable order. */
+    static List<Slot> slots(List<Subject> subjects) {
+        TreeMap<LocalDateTime, List<Subject>> byStart = new TreeMap<>();
+        for (Subject s : subjects) {
+            byStart.computeIfAbsent(parseStart(s), k -> new ArrayList<>()).add(s);
+        }
+        List<Slot> out = new ArrayList<>(byStart.size());
+        LocalDateTime start = null;
+        LocalDateTime end = null;
+        List<Subject> papers = null;
+        for (Map.Entry<LocalDateTime, List<Subject>> e : byStart.entrySet()) {
+            if (start != null && !e.getKey().isBefore(end)) {
+                out.add(new Slot(start, Duration.between(start, end), Collections.unmodifiableList(papers)));
+                start = null;
+            }
+            if (start == null) {
+                start = e.getKey();
+                end = start;
+                papers = new ArrayList<>();
+            }
+            for (Subject s : e.getValue()) {
+                LocalDateTime until = e.getKey().plus(parseDuration(s));
+                if (until.isAfter(end)) end = until;
+                papers.add(s);
+            }
+        }
+        if (start != null) out.add(new Slot(start, Duration.between(start, end), Collections.unmodifiableList(papers)));
+        return out;
+    }
+
+    /** "10-06-2025 0.00" and "10-06-2025 14.30" (or "14:30"). */
+    static LocalDateTime parseStart(Subject s) {
+        String text = s.getExamDate().trim();
+        int space = text.indexOf(' ');
+        String datePart = space < 0 ? text : text.substring(0, space);
+        String timePart = space < 0 ? "" : text.substring(space + 1).trim();
+        try {
+            LocalDate date = LocalDate.parse(datePart, DATE);
+            LocalTime time = DEFAULT_START;
+            if (!timePart.isEmpty()) {
+                String[] hm = timePart.split("[.:]");
+                int h = Integer.parseInt(hm[0]);
+                int m = hm.length > 1 ? Integer.parseInt(hm[1]) : 0;
+                if (h != 0 || m != 0) time = LocalTime.of(h, m);
+            }
+            return LocalDateTime.of(date, time);
+        } catch (DateTimeException | NumberFormatException e) {
+            throw new IllegalArgumentException("Bad exam date for " + s.getName() + ": " + s.getExamDate(), e);
+        }
+    }
+
+    /** "3 hours", "1.5 hrs", "90 minutes"; a bare number is hours. */
+    static Duration parseDuration(Subject s) {
+        String text = s.getDuration().trim().toLowerCase(Locale.ROOT);
+        int i = 0;
+        while (i < text.length() && (Character.isDigit(text.charAt(i)) || text.charAt(i) == '.')) i++;
+        try {
+            double amount = Double.parseDouble(text.substring(0, i));
+            String unit = text.substring(i).trim();
+            long minutes = unit.startsWith("m") ? Math.round(amount) : Math.round(amount * 60);
+            return Duration.ofMinutes(minutes);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Bad duration for " + s.getName() + ": " + s.getDuration(), e);
+        }
+    }
+
+    // ------------------- Scheduling -------------------
+
+    public List<Sitting> schedule(List<Building> buildings, StudentRoster roster,
+                                  SubjectCatalog catalog, List<Invigilator> invigilators) {
+        return schedule(buildings, roster.asList(), catalog, invigilators);
+    }
+
+    public List<Sitting> schedule(List<Building> buildings, List<Student> students,
+                                  SubjectCatalog catalog, List<Invigilator> invigilators) {
+        List<Slot> slots = slots(catalog.getSubjects());
+        Map<Integer, Map<String, List<Student>>> cohorts = cohorts(students);
+        ExecutorService workers = Executors.newFixedThreadPool(Math.min(parallelism, Math.max(1, slots.size())));
+        try {
+            List<Future<Sitting>> futures = new ArrayList<>(slots.size());
+            for (Slot slot : slots) {
+                futures.add(workers.submit(() -> seat(slot, buildings, cohorts, catalog)));
+            }
+            List<Sitting> seated = new ArrayList<>(slots.size());
+            for (Future<Sitting> f : futures) seated.add(f.get());
+            return withInvigilators(seated, invigilators);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while scheduling", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            throw new IllegalStateException(cause);
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    /** year -> branch -> students, each list in roster order. */
+    private static Map<Integer, Map<String, List<Student>>> cohorts(List<Student> students) {
+        Map<Integer, Map<String, List<Student>>> out = new TreeMap<>();
+        for (Student s : students) {
+            out.computeIfAbsent(s.getYear(), k -> new LinkedHashMap<>())
+                    .computeIfAbsent(s.getBranch(), k -> new ArrayList<>())
+                    .add(s);
+        }
+        return out;
+    }
+
+    /** Sitters of a slot: whole (year, branch) buckets, one bitset test each. */
+    static List<Student> sitters(Slot slot, Map<Integer, Map<String, List<Student>>> cohorts,
+                                 SubjectCatalog catalog) {
+        BitSet papers = catalog.idsOf(slot.getSubjects());
+        List<List<Student>> taken = new ArrayList<>();
+        int total = 0;
+        for (Map.Entry<Integer, Map<String, List<Student>>> year : cohorts.entrySet()) {
+            for (Map.Entry<String, List<Student>> branch : year.getValue().entrySet()) {
+                if (catalog.writesAny(catalog.branchOf(branch.getKey()), year.getKey(), papers)) {
+                    taken.add(branch.getValue());
+                    total += branch.getValue().size();
+                }
+            }
+        }
+        List<Student> out = new ArrayList<>(total);
+        for (List<Student> l : taken) out.addAll(l);
+        return out;
+    }
+
+    private Sitting seat(Slot slot, List<Building> buildings, Map<Integer, Map<String, List<Student>>> cohorts,
+                         SubjectCatalog catalog) {
+        List<Student> sitters = sitters(slot, cohorts, catalog);
+
+        // Fresh rooms for this slot: the fewest rooms in the fewest buildings that hold its sitters
+        ArrayList<Building> copies = planner.plan(buildings, sitters.size()).getBuildings();
+
+        ArrayList<ExamHall> halls = partitioning != null
+                ? new PartitionedAllocation(partitioning, strategies).allocate(copies, sitters, new ArrayList<>())
+                : ExamSystemExcelPDF.allocateStudentsAndInvigilators(copies, sitters, new ArrayList<>(), strategies.get());
+        int seated = 0;
+        for (ExamHall eh : halls) seated += eh.getRoom().getStudents().size();
+        return new Sitting(slot, copies, halls, null, sitters.size(), sitters.size() - seated, halls.size());
+    }
+
+    private List<Sitting> withInvigilators(List<Sitting> seated, List<Invigilator> invigilators) {
+        List<InvigilatorAssignment.Session> sessions = new ArrayList<>(seated.size());
+        for (Sitting s : seated) sessions.add(InvigilatorAssignment.Session.of(s));
+        InvigilatorAssignment.Result assigned = new InvigilatorAssignment(maxRoomsPerDay).assign(sessions, invigilators);
+        List<Sitting> out = new ArrayList<>(seated.size());
+        for (int i = 0; i < seated.size(); i++) {
+            Sitting s = seated.get(i);
+            // The index is built once, over the final halls
+            ArrayList<ExamHall> halls = assigned.getHalls(i);
+            out.add(new Sitting(s.slot, s.buildings, halls, AllocationIndex.build(s.buildings, halls), s.students,
+                    s.unseated, assigned.getUncovered(i)));
+        }
+        return out;
+    }
+}
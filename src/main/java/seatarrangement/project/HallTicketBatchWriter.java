@@ -0,0 +1,377 @@
+package seatarrangement.project;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.itextpdf.text.Document;
+import com.itextpdf.text.DocumentException;
+import com.itextpdf.text.Element;
+import com.itextpdf.text.Font;
+import com.itextpdf.text.PageSize;
+import com.itextpdf.text.Paragraph;
+import com.itextpdf.text.pdf.PdfPTable;
+import com.itextpdf.text.pdf.PdfWriter;
+
+/**
+ * Writes one door sheet per room and one seat slip per student, sharded as
+ * {@code <out>/building-<n>/room-<r>/door-sheet.pdf} and
+ * {@code <out>/building-<n>/room-<r>/<PRN>.pdf}. A timetable gets one more
+ * level in front, the sitting's start as {@code uuuu-MM-dd-HHmm}, because the
+ * same room is used again in later sittings:
+ * {@code <out>/2025-06-10-0900/building-<n>/room-<r>/...}.
+ *
+ * Rooms are the unit of work. They are rendered on a fixed pool of writer
+ * threads behind a bounded queue (the submitting thread renders itself when
+ * the queue is full), so memory stays flat however many rooms there are.
+ * Every file is written under a temporary name and moved into place, and a
+ * room is appended to {@code checkpoint.txt} only after all of its files are
+ * in place; a rerun skips the rooms listed there, so a crash part-way
+ * through costs at most the rooms that were in flight. Checkpoint entries are
+ * keyed by the sitting, the room number and a hash of everything the room's
+ * files print,
+ * so after a re-allocation only the rooms whose content is unchanged are
+ * skipped; a rewritten room also loses the slips of students no longer in it.
+ */
+final class HallTicketBatchWriter {
+
+    /** How hard to push written files to disk. */
+    enum Fsync {
+        /** Leave it to the OS page cache: fastest, a crash may lose recent files. */
+        NONE,
+        /** force() every file before it is moved into place, and the checkpoint after each room. */
+        PER_FILE,
+        /** force() a room's files together once they are all written, then its checkpoint entry. */
+        PER_ROOM
+    }
+
+    static final String CHECKPOINT = "checkpoint.txt";
+
+    /** Directory name and checkpoint key of a sitting; the same form as the seat-map exports. */
+    static final DateTimeFormatter SITTING = DateTimeFormatter.ofPattern("uuuu-MM-dd-HHmm", Locale.ROOT);
+    private static final DateTimeFormatter SLIP_TIME = DateTimeFormatter.ofPattern("dd-MM-uuuu HH:mm", Locale.ROOT);
+
+    private final Path outputDir;
+    private final int threads;
+    private final int queueCapacity;
+    private final Fsync fsync;
+
+    HallTicketBatchWriter(Path outputDir) {
+        this(outputDir, Runtime.getRuntime().availableProcessors(), 64, Fsync.PER_ROOM);
+    }
+
+    HallTicketBatchWriter(Path outputDir, int threads, int queueCapacity, Fsync fsync) {
+        this.outputDir = outputDir;
+        this.threads = Math.max(1, threads);
+        this.queueCapacity = Math.max(1, queueCapacity);
+        this.fsync = fsync;
+    }
+
+    /** Counters of one run. */
+    static final class Result {
+        private final long files;
+        private final int roomsWritten;
+        private final int roomsSkipped;
+        private final long nanos;
+
+        Result(long files, int roomsWritten, int roomsSkipped, long nanos) {
+            this.files = files;
+            this.roomsWritten = roomsWritten;
+            this.roomsSkipped = roomsSkipped;
+            this.nanos = nanos;
+        }
+
+        public long getFiles() { return files; }
+        public int getRoomsWritten() { return roomsWritten; }
+        public int getRoomsSkipped() { return roomsSkipped; }
+        public long getNanos() { return nanos; }
+        public double getFilesPerSecond() { return nanos == 0 ? 0 : files / (nanos / 1e9); }
+    }
+
+    /** One allocation, without a sitting level. */
+    public Result write(AllocationIndex index) throws IOException {
+        return writeParts(Collections.singletonList(new Part(null, null, index)));
+    }
+
+    /** Every sitting of a timetable, each under its own directory. */
+    public Result write(List<ExamTimetable.Sitting> sittings) throws IOException {
+        List<Part> parts = new ArrayList<>(sittings.size());
+        for (ExamTimetable.Sitting s : sittings) parts.add(new Part(SITTING.format(s.getSlot().getStart()),
+                s.getSlot().getStart().format(SLIP_TIME) + " - " + s.getSlot().getEnd().toLocalTime(), s.getIndex()));
+        return writeParts(parts);
+    }
+
+    /** The rooms of one sitting; {@code sitting} is null for a single allocation. */
+    private static final class Part {
+        final String sitting;
+        final String when;
+        final AllocationIndex index;
+
+        Part(String sitting, String when, AllocationIndex index) {
+            this.sitting = sitting;
+            this.when = when;
+            this.index = index;
+        }
+    }
+
+    private Result writeParts(List<Part> parts) throws IOException {
+        long t0 = System.nanoTime();
+        Files.createDirectories(outputDir);
+        Path checkpoint = outputDir.resolve(CHECKPOINT);
+        Set<String> done = readCheckpoint(checkpoint);
+
+        AtomicLong files = new AtomicLong();
+        int written = 0;
+        int skipped = 0;
+        List<Future<?>> futures = new ArrayList<>();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new ThreadPoolExecutor.CallerRunsPolicy());
+        try (FileChannel log = FileChannel.open(checkpoint, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            for (Part part : parts) {
+                for (ExamHall eh : part.index.getHalls()) {
+                    int roomNo = eh.getRoom().getRoomNumber();
+                    int building = part.index.getBuildingNumber(roomNo);
+                    String entry = checkpointEntry(part.sitting, part.when, eh, building);
+                    if (done.contains(entry)) {
+                        skipped++;
+                        continue;
+                    }
+                    written++;
+                    futures.add(pool.submit(() -> {
+                        List<Path> paths = writeRoom(part, eh, building);
+                        if (fsync == Fsync.PER_ROOM) force(paths);
+                        files.addAndGet(paths.size());
+                        markDone(log, entry);
+                        return null;
+                    }));
+                    // Drop finished futures so the list does not grow with the roster;
+                    // a failed room still fails the run
+                    if (futures.size() > queueCapacity * 4) {
+                        for (Iterator<Future<?>> it = futures.iterator(); it.hasNext(); ) {
+                            Future<?> f = it.next();
+                            if (f.isDone()) {
+                                f.get();
+                                it.remove();
+                            }
+                        }
+                    }
+                }
+            }
+            for (Future<?> f : futures) f.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while writing hall tickets", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) throw (IOException) cause;
+            throw new IOException(cause);
+        } finally {
+            pool.shutdownNow();
+        }
+        return new Result(files.get(), written, skipped, System.nanoTime() - t0);
+    }
+
+    // ------------------- Checkpoint -------------------
+
+    private static Set<String> readCheckpoint(Path checkpoint) throws IOException {
+        Set<String> done = new HashSet<>();
+        if (!Files.exists(checkpoint)) return done;
+        byte[] bytes = Files.readAllBytes(checkpoint);
+        int end = bytes.length;
+        while (end > 0 && bytes[end - 1] != '\n') end--;
+        // A torn last line from a crash is not a finished room; cut it so new entries start on a fresh line
+        if (end < bytes.length) {
+            try (FileChannel ch = FileChannel.open(checkpoint, StandardOpenOption.WRITE)) {
+                ch.truncate(end);
+            }
+        }
+        for (String line : new String(bytes, 0, end, StandardCharsets.US_ASCII).split("\n")) {
+            if (line.isBlank()) continue;
+            done.add(line.trim());
+        }
+        return done;
+    }
+
+    /**
+     * {@code [<sitting> ]<room> <sha-256>} over the sitting, the building, the
+     * room, the invigilator and the ordered (PRN, name, branch) rows:
+     * everything the room's files print.
+     */
+    static String checkpointEntry(String sitting, String when, ExamHall eh, int building) {
+        MessageDigest md;
+        try {
+            md = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        StringBuilder content = new StringBuilder();
+        if (when != null) content.append(when).append('\n');
+        content.append(building).append('\n').append(eh.getRoom().getRoomNumber()).append('\n')
+                .append(eh.getInvigilator() != null ? eh.getInvigilator().getName() : "N/A").append('\n');
+        for (Student st : eh.getRoom().getStudents()) {
+            content.append(st.getPRN()).append('\t').append(st.getName()).append('\t').append(st.getBranch())
+                    .append('\n');
+        }
+        byte[] d = md.digest(content.toString().getBytes(StandardCharsets.UTF_8));
+        StringBuilder sb = new StringBuilder();
+        if (sitting != null) sb.append(sitting).append(' ');
+        sb.append(eh.getRoom().getRoomNumber()).append(' ');
+        for (byte x : d) sb.append(Character.forDigit((x >> 4) & 0xF, 16)).append(Character.forDigit(x & 0xF, 16));
+        return sb.toString();
+    }
+
+    private void markDone(FileChannel log, String entry) throws IOException {
+        byte[] line = (entry + "\n").getBytes(StandardCharsets.US_ASCII);
+        synchronized (log) {
+            log.write(ByteBuffer.wrap(line));
+            if (fsync != Fsync.NONE) log.force(false);
+        }
+    }
+
+    // ------------------- Rendering -------------------
+
+    Path roomDir(int building, int roomNo) {
+        return roomDir(null, building, roomNo);
+    }
+
+    Path roomDir(String sitting, int building, int roomNo) {
+        String b = building < 0 ? "building-unknown" : "building-" + building;
+        return (sitting == null ? outputDir : outputDir.resolve(sitting)).resolve(b).resolve("room-" + roomNo);
+    }
+
+    /** Returns the files written, door sheet first. */
+    private List<Path> writeRoom(Part part, ExamHall eh, int building) throws IOException, DocumentException {
+        Room room = eh.getRoom();
+        Path dir = roomDir(part.sitting, building, room.getRoomNumber());
+        Files.createDirectories(dir);
+        List<Path> written = new ArrayList<>(room.getStudents().size() + 1);
+        String invigilator = eh.getInvigilator() != null ? eh.getInvigilator().getName() : "N/A";
+        Font heading = new Font(Font.FontFamily.TIMES_ROMAN, 16, Font.BOLD);
+        Font body = new Font(Font.FontFamily.TIMES_ROMAN, 12);
+
+        written.add(writeAtomically(dir.resolve("door-sheet.pdf"), out -> {
+            Document document = new Document(PageSize.A4);
+            PdfWriter.getInstance(document, out);
+            document.open();
+            Paragraph title = new Paragraph("Room " + room.getRoomNumber(), heading);
+            title.setAlignment(Element.ALIGN_CENTER);
+            document.add(title);
+            if (part.when != null) document.add(new Paragraph("Exam: " + part.when, body));
+            document.add(new Paragraph((building < 0 ? "" : "Building " + building + " | ")
+                    + "Invigilator: " + invigilator, body));
+            document.add(new Paragraph(" "));
+            PdfPTable table = new PdfPTable(new float[] { 1, 4, 3, 3 });
+            table.setHeaderRows(1);
+            table.addCell("Bench");
+            table.addCell("Name");
+            table.addCell("PRN");
+            table.addCell("Branch");
+            List<Student> students = room.getStudents();
+            for (int i = 0; i < students.size(); i++) {
+                Student st = students.get(i);
+                table.addCell(Integer.toString(i + 1));
+                table.addCell(st.getName());
+                table.addCell(st.getPRN());
+                table.addCell(st.getBranch());
+            }
+            document.add(table);
+            document.close();
+        }));
+
+        List<Student> students = room.getStudents();
+        for (int i = 0; i < students.size(); i++) {
+            Student st = students.get(i);
+            int bench = i + 1;
+            written.add(writeAtomically(dir.resolve(fileName(st.getPRN()) + ".pdf"), out -> {
+                Document document = new Document(PageSize.A6);
+                PdfWriter.getInstance(document, out);
+                document.open();
+                document.add(new Paragraph("Seat Slip", heading));
+                document.add(new Paragraph(st.getName(), body));
+                document.add(new Paragraph("PRN: " + st.getPRN(), body));
+                document.add(new Paragraph("Branch: " + st.getBranch(), body));
+                if (part.when != null) document.add(new Paragraph("Exam: " + part.when, body));
+                if (building >= 0) document.add(new Paragraph("Building: " + building, body));
+                document.add(new Paragraph("Room: " + room.getRoomNumber() + " | Bench: " + bench, body));
+                document.add(new Paragraph("Invigilator: " + invigilator, body));
+                document.close();
+            }));
+        }
+
+        // Slips of students who were in this room in an earlier allocation
+        Set<Path> current = new HashSet<>(written);
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir, "*.pdf")) {
+            for (Path p : ds) {
+                if (!current.contains(p)) Files.delete(p);
+            }
+        }
+        return written;
+    }
+
+    /** PRNs become file names; anything outside [A-Za-z0-9_-] is replaced. */
+    static String fileName(String prn) {
+        StringBuilder sb = new StringBuilder(prn.length());
+        for (int i = 0; i < prn.length(); i++) {
+            char c = prn.charAt(i);
+            boolean ok = (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '_' || c == '-';
+            sb.append(ok ? c : '_');
+        }
+        return sb.length() == 0 ? "_" : sb.toString();
+    }
+
+    private interface PdfBody {
+        void write(OutputStream out) throws DocumentException;
+    }
+
+    private Path writeAtomically(Path target, PdfBody body) throws IOException, DocumentException {
+        Path tmp = target.resolveSibling(target.getFileName() + ".part");
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            OutputStream out = new BufferedOutputStream(Channels.newOutputStream(ch), 32 * 1024) {
+                @Override
+                public void close() throws IOException {
+                    flush();    // the channel is closed by the try block, after the optional force()
+                }
+            };
+            body.write(out);
+            out.flush();
+            if (fsync == Fsync.PER_FILE) ch.force(false);
+        }
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return target;
+    }
+
+    private static void force(List<Path> paths) throws IOException {
+        for (Path p : paths) {
+            try (FileChannel ch = FileChannel.open(p, StandardOpenOption.WRITE)) {
+                ch.force(false);
+            }
+        }
+    }
+}
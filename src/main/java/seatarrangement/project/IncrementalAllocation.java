@@ -0,0 +1,264 @@
+package seatarrangement.project;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Applies late roster and room changes to an existing allocation without
+ * re-seating everybody.
+ *
+ * The halls passed in are edited in place. Every change touches only the
+ * rooms involved and returns the seats that changed:
+ * <ul>
+ *   <li>{@link #addStudent} takes the first free bench in hall order, an
+ *       emptied bench before the end of the room;</li>
+ *   <li>{@link #removeStudent} leaves the freed bench empty, so nobody else
+ *       moves, then lets a waiting student in if the room has room again;</li>
+ *   <li>{@link #closeRoom} and {@link #changeBenches} re-seat only the
+ *       displaced students, on free benches elsewhere.</li>
+ * </ul>
+ * Benches are tracked here, one array per hall with {@code null} for an empty
+ * bench; {@link #getBench} and {@link SeatChange} report those stable bench
+ * numbers. The room's own student list stays the seated students in bench
+ * order without gaps, so reports, indexes and exports, which number seats by
+ * list position, renumber the room after a withdrawal.
+ * Students that fit nowhere go to a waiting list and are seated first as
+ * benches free up. Free rooms are tracked in a bit set and students in a PRN
+ * map, so each change costs O(students moved) plus a bit-set scan and a
+ * rebuild of the rooms it touched.
+ * Anti-adjacency is not re-optimised for the moved students; run the full
+ * allocation again when that matters more than stable seats.
+ */
+final class IncrementalAllocation {
+
+    /** One student's seat before and after a change; room -1 means not seated. */
+    static final class SeatChange {
+        private final String prn;
+        private final int fromRoom;
+        private final int fromBench;
+        private final int toRoom;
+        private final int toBench;
+
+        SeatChange(String prn, int fromRoom, int fromBench, int toRoom, int toBench) {
+            this.prn = prn;
+            this.fromRoom = fromRoom;
+            this.fromBench = fromBench;
+            this.toRoom = toRoom;
+            this.toBench = toBench;
+        }
+
+        public String getPrn() { return prn; }
+        public int getFromRoom() { return fromRoom; }
+        /** 0-based, -1 when not seated before. */
+        public int getFromBench() { return fromBench; }
+        public int getToRoom() { return toRoom; }
+        /** 0-based, -1 when not seated after. */
+        public int getToBench() { return toBench; }
+
+        @Override
+        public String toString() {
+            return prn + ": " + fromRoom + "/" + fromBench + " -> " + toRoom + "/" + toBench;
+        }
+    }
+
+    /** Where a seated student is: hall position and bench. */
+    private static final class Place {
+        int hall;
+        int bench;
+
+        Place(int hall, int bench) {
+            this.hall = hall;
+            this.bench = bench;
+        }
+    }
+
+    private final List<ExamHall> halls;
+    private final Map<Integer, Integer> hallByRoom = new HashMap<>();
+    private final Map<String, Place> placeByPrn;
+    private final BitSet open = new BitSet();      // halls with a free bench
+    private final BitSet closed = new BitSet();
+    private final List<Student[]> benches;         // hall -> student per bench, null when empty
+    private final ArrayDeque<Student> waiting = new ArrayDeque<>();
+
+    IncrementalAllocation(List<ExamHall> halls) {
+        this.halls = halls;
+        int seats = 0;
+        for (ExamHall eh : halls) seats += eh.getRoom().getStudents().size();
+        placeByPrn = new HashMap<>(Math.max(16, seats * 4 / 3 + 1));
+        benches = new ArrayList<>(halls.size());
+        for (int h = 0; h < halls.size(); h++) {
+            Room r = halls.get(h).getRoom();
+            hallByRoom.put(r.getRoomNumber(), h);
+            List<Student> students = r.getStudents();
+            Student[] row = new Student[Math.max(r.getBenches(), students.size())];
+            for (int b = 0; b < students.size(); b++) {
+                row[b] = students.get(b);
+                placeByPrn.put(row[b].getPRN(), new Place(h, b));
+            }
+            benches.add(row);
+            if (students.size() < r.getBenches()) open.set(h);
+        }
+    }
+
+    // ------------------- Changes -------------------
+
+    public List<SeatChange> addStudent(Student s) {
+        if (placeByPrn.containsKey(s.getPRN()) || isWaiting(s.getPRN())) {
+            throw new IllegalArgumentException("PRN already allocated: " + s.getPRN());
+        }
+        List<SeatChange> changes = new ArrayList<>(1);
+        seat(s, -1, -1, changes);
+        return changes;
+    }
+
+    /** Withdraws a student, seated or waiting; unknown PRNs change nothing. */
+    public List<SeatChange> removeStudent(String prn) {
+        List<SeatChange> changes = new ArrayList<>(3);
+        Place p = placeByPrn.remove(prn);
+        if (p == null) {
+            waiting.removeIf(w -> w.getPRN().equals(prn));
+            return changes;
+        }
+        Room room = halls.get(p.hall).getRoom();
+        int roomNo = room.getRoomNumber();
+        changes.add(new SeatChange(prn, roomNo, p.bench, -1, -1));
+
+        benches.get(p.hall)[p.bench] = null;
+        sync(p.hall);
+        if (!closed.get(p.hall)) open.set(p.hall);
+        admitWaiting(changes);
+        return changes;
+    }
+
+    /** Takes a room out of use and re-seats its students elsewhere. */
+    public List<SeatChange> closeRoom(int roomNumber) {
+        int h = hall(roomNumber);
+        closed.set(h);
+        open.clear(h);
+        return evict(h, 0);
+    }
+
+    /**
+     * Changes a room's bench count. Shrinking moves only the students on the
+     * benches that disappear; growing seats waiting students. A closed room
+     * given benches is opened again.
+     */
+    public List<SeatChange> changeBenches(int roomNumber, int benches) {
+        if (benches < 0) throw new IllegalArgumentException("benches < 0: " + benches);
+        int h = hall(roomNumber);
+        Room room = halls.get(h).getRoom();
+        room.setBenches(benches);
+        closed.clear(h);
+        List<SeatChange> changes = evict(h, benches);
+        if (freeBench(h) >= 0) {
+            open.set(h);
+            admitWaiting(changes);
+        } else {
+            open.clear(h);
+        }
+        return changes;
+    }
+
+    // ------------------- State -------------------
+
+    /** Halls still in use, in the original order. */
+    public List<ExamHall> getHalls() {
+        List<ExamHall> out = new ArrayList<>(halls.size());
+        for (int h = 0; h < halls.size(); h++) {
+            if (!closed.get(h)) out.add(halls.get(h));
+        }
+        return out;
+    }
+
+    public List<Student> getWaiting() { return new ArrayList<>(waiting); }
+
+    /** Room number of a seated student, -1 if not seated. */
+    public int getRoom(String prn) {
+        Place p = placeByPrn.get(prn);
+        return p == null ? -1 : halls.get(p.hall).getRoom().getRoomNumber();
+    }
+
+    /** 0-based bench of a seated student, -1 if not seated. */
+    public int getBench(String prn) {
+        Place p = placeByPrn.get(prn);
+        return p == null ? -1 : p.bench;
+    }
+
+    // ------------------- Internals -------------------
+
+    private int hall(int roomNumber) {
+        Integer h = hallByRoom.get(roomNumber);
+        if (h == null) throw new IllegalArgumentException("Unknown room: " + roomNumber);
+        return h;
+    }
+
+    private boolean isWaiting(String prn) {
+        for (Student w : waiting) {
+            if (w.getPRN().equals(prn)) return true;
+        }
+        return false;
+    }
+
+    /** Moves everybody from bench {@code keep} onwards out of hall {@code h}; the hall ends up with {@code keep} benches. */
+    private List<SeatChange> evict(int h, int keep) {
+        Student[] row = benches.get(h);
+        int roomNo = halls.get(h).getRoom().getRoomNumber();
+        List<SeatChange> changes = new ArrayList<>();
+        benches.set(h, Arrays.copyOf(row, keep));
+        sync(h);
+        open.clear(h);      // nothing may come straight back in
+        for (int b = keep; b < row.length; b++) {
+            Student s = row[b];
+            if (s == null) continue;
+            placeByPrn.remove(s.getPRN());
+            seat(s, roomNo, b, changes);
+        }
+        return changes;
+    }
+
+    /** First empty bench of hall {@code h}, -1 when it is full. */
+    private int freeBench(int h) {
+        Student[] row = benches.get(h);
+        for (int b = 0; b < row.length; b++) {
+            if (row[b] == null) return b;
+        }
+        return -1;
+    }
+
+    /** Rebuilds the room's student list from the benches: seated students in bench order, no gaps. */
+    private void sync(int h) {
+        ArrayList<Student> students = halls.get(h).getRoom().getStudents();
+        students.clear();
+        for (Student s : benches.get(h)) {
+            if (s != null) students.add(s);
+        }
+    }
+
+    /** Seats a student on the first free bench, or queues them. */
+    private void seat(Student s, int fromRoom, int fromBench, List<SeatChange> changes) {
+        int h = open.nextSetBit(0);
+        if (h < 0) {
+            waiting.add(s);
+            changes.add(new SeatChange(s.getPRN(), fromRoom, fromBench, -1, -1));
+            return;
+        }
+        Room room = halls.get(h).getRoom();
+        int bench = freeBench(h);
+        benches.get(h)[bench] = s;
+        sync(h);
+        placeByPrn.put(s.getPRN(), new Place(h, bench));
+        if (freeBench(h) < 0) open.clear(h);
+        changes.add(new SeatChange(s.getPRN(), fromRoom, fromBench, room.getRoomNumber(), bench));
+    }
+
+    private void admitWaiting(List<SeatChange> changes) {
+        while (!waiting.isEmpty() && !open.isEmpty()) {
+            seat(waiting.poll(), -1, -1, changes);
+        }
+    }
+}
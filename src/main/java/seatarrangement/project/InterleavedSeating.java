@@ -0,0 +1,59 @@
+package seatarrangement.project;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Fast default for the anti-adjacency policy: students are bucketed by cohort
+ * (branch + year, i.e. the paper they sit) and dealt out round-robin, always
+ * taking the fullest bucket that differs from the one just placed. When one
+ * cohort holds no more than half the students this leaves no two neighbouring
+ * benches with the same paper; otherwise the surplus is seated as late as
+ * possible. O(n log k) for k cohorts.
+ */
+final class InterleavedSeating implements SeatingStrategy {
+
+    @Override
+    public void seat(List<Room> rooms, List<Student> students) {
+        List<Student> order = interleave(students);
+        SeatingStrategy.sequential().seat(rooms, order);
+    }
+
+    static List<Student> interleave(List<Student> students) {
+        List<List<Student>> buckets = new ArrayList<>();
+        Map<String, Map<Integer, Integer>> ids = new HashMap<>();
+        for (Student s : students) {
+            int id = ids.computeIfAbsent(s.getBranch(), k -> new HashMap<>())
+                    .computeIfAbsent(s.getYear(), k -> buckets.size());
+            if (id == buckets.size()) buckets.add(new ArrayList<>());
+            buckets.get(id).add(s);
+        }
+
+        // Larger remainder first; earlier bucket breaks ties so the result is deterministic
+        int[] next = new int[buckets.size()];
+        PriorityQueue<Integer> queue = new PriorityQueue<>((a, b) -> {
+            int ra = buckets.get(a).size() - next[a];
+            int rb = buckets.get(b).size() - next[b];
+            return ra != rb ? Integer.compare(rb, ra) : Integer.compare(a, b);
+        });
+        for (int i = 0; i < buckets.size(); i++) queue.add(i);
+
+        List<Student> out = new ArrayList<>(students.size());
+        int previous = -1;
+        while (!queue.isEmpty()) {
+            int b = queue.poll();
+            if (b == previous && !queue.isEmpty()) {
+                int other = queue.poll();
+                queue.add(b);
+                b = other;
+            }
+            out.add(buckets.get(b).get(next[b]++));
+            if (next[b] < buckets.get(b).size()) queue.add(b);
+            previous = b;
+        }
+        return out;
+    }
+}
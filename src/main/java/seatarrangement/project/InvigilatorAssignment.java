@@ -0,0 +1,532 @@
+package seatarrangement.project;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Puts invigilators into rooms, session by session, as a min-cost matching
+ * instead of handing them out in list order.
+ * <ul>
+ *   <li>Supervising a room that holds students of one's own department costs
+ *       {@link #CONFLICT_COST}, so it only happens where nobody else is left;
+ *       department and branch match by {@link SubjectCatalog#sameBranch}, as in
+ *       the branch-only report ("Civil Engineering" and "Civil"). Every room
+ *       gets somebody if anybody is free, and the number of such pairings is
+ *       counted in the {@link Result}.</li>
+ *   <li>Nobody takes more than {@code maxRoomsPerDay} rooms a day, nor two
+ *       sessions whose times overlap.</li>
+ *   <li>Among the allowed pairings the cheapest wins: a building change since
+ *       the invigilator's last room that day costs {@link #HOP_COST}, and every
+ *       room already supervised in the run costs 1, which spreads the load.</li>
+ * </ul>
+ * Rooms that cannot be covered keep a {@code null} invigilator (printed as
+ * "N/A") and are counted in the {@link Result}. Should the matching ever
+ * cover fewer rooms than handing the free invigilators out in list order
+ * would, the rest are handed out that way, so coverage never falls below the
+ * plain list-order assignment.
+ *
+ * Invigilators and rooms that cost the same are interchangeable, so each
+ * session is solved on classes rather than people: invigilators grouped by
+ * (department, last building today, load) and rooms by (building, departments
+ * in conflict). The min-cost max-flow runs on a graph whose size depends on
+ * departments, buildings and load levels but not on the number of rooms or
+ * people, and the flow is then handed out to the members of each class in
+ * list order. Sessions are solved in time order, each seeing the load and
+ * position the earlier ones left behind, so the result is greedy across
+ * sessions and optimal within each.
+ */
+final class InvigilatorAssignment {
+
+    static final int DEFAULT_MAX_ROOMS_PER_DAY = 2;
+
+    /** Cost of one building change, in rooms of extra load. */
+    static final int HOP_COST = 3;
+
+    /** Cost of supervising one's own department; above any load or hop cost a run can reach. */
+    static final int CONFLICT_COST = 1 << 20;
+
+    private final int maxRoomsPerDay;
+
+    InvigilatorAssignment() {
+        this(DEFAULT_MAX_ROOMS_PER_DAY);
+    }
+
+    InvigilatorAssignment(int maxRoomsPerDay) {
+        this.maxRoomsPerDay = Math.max(1, maxRoomsPerDay);
+    }
+
+    // ------------------- Value types -------------------
+
+    /** One exam session: its time and the rooms in use, with their buildings. */
+    static final class Session {
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+        private final List<ExamHall> halls;
+        private final int[] buildings;
+
+        Session(LocalDateTime start, LocalDateTime end, List<ExamHall> halls, int[] buildings) {
+            if (halls.size() != buildings.length) throw new IllegalArgumentException("one building per hall");
+            this.start = start;
+            this.end = end;
+            this.halls = halls;
+            this.buildings = buildings;
+        }
+
+        static Session of(LocalDateTime start, LocalDateTime end, List<Building> buildings, List<ExamHall> halls) {
+            Map<Room, Integer> buildingOf = new HashMap<>();
+            for (Building b : buildings) {
+                for (Room r : b.getRooms()) buildingOf.put(r, b.getBuildingNumber());
+            }
+            int[] numbers = new int[halls.size()];
+            for (int h = 0; h < halls.size(); h++) numbers[h] = buildingOf.getOrDefault(halls.get(h).getRoom(), -1);
+            return new Session(start, end, halls, numbers);
+        }
+
+        static Session of(ExamTimetable.Sitting sitting) {
+            return of(sitting.getSlot().getStart(), sitting.getSlot().getEnd(), sitting.getBuildings(), sitting.getHalls());
+        }
+
+        public LocalDateTime getStart() { return start; }
+        public LocalDateTime getEnd() { return end; }
+        public List<ExamHall> getHalls() { return halls; }
+    }
+
+    /** The halls of every session with invigilators filled in, plus what it cost. */
+    static final class Result {
+        private final List<ArrayList<ExamHall>> halls;
+        private final int[] uncovered;
+        private final int hops;
+        private final int conflicts;
+        private final int[] load;
+
+        Result(List<ArrayList<ExamHall>> halls, int[] uncovered, int hops, int conflicts, int[] load) {
+            this.halls = halls;
+            this.uncovered = uncovered;
+            this.hops = hops;
+            this.conflicts = conflicts;
+            this.load = load;
+        }
+
+        /** Same rooms in the same order as the session, each with its invigilator or null. */
+        public ArrayList<ExamHall> getHalls(int session) { return halls.get(session); }
+
+        public int getUncovered(int session) { return uncovered[session]; }
+
+        public int getUncovered() {
+            int total = 0;
+            for (int u : uncovered) total += u;
+            return total;
+        }
+
+        /** Building changes between an invigilator's consecutive rooms on a day. */
+        public int getHops() { return hops; }
+
+        /** Rooms supervised by somebody of a department with students in the room. */
+        public int getConflicts() { return conflicts; }
+
+        /** Rooms supervised by the i-th invigilator of the input list. */
+        public int getLoad(int invigilator) { return load[invigilator]; }
+
+        public int getMaxLoad() {
+            int max = 0;
+            for (int l : load) max = Math.max(max, l);
+            return max;
+        }
+    }
+
+    // ------------------- Assignment -------------------
+
+    public Result assign(List<Session> sessions, List<Invigilator> invigilators) {
+        PipelineMetrics.Stage stage = PipelineMetrics.begin("assign.invigilators");
+        int n = invigilators.size();
+        Departments departments = new Departments(invigilators);
+
+        int[] load = new int[n];
+        int[] todayCount = new int[n];
+        int[] lastBuilding = new int[n];
+        LocalDate[] day = new LocalDate[n];
+        LocalDateTime[] busyUntil = new LocalDateTime[n];
+        Arrays.fill(lastBuilding, -1);
+
+        // Solved in time order; results go back in the caller's order
+        Integer[] order = new Integer[sessions.size()];
+        for (int s = 0; s < order.length; s++) order[s] = s;
+        Arrays.sort(order, Comparator.comparing(s -> sessions.get(s).getStart()));
+
+        List<ArrayList<ExamHall>> out = new ArrayList<>(Collections.nCopies(sessions.size(), null));
+        int[] uncovered = new int[sessions.size()];
+        int hops = 0;
+        int conflicts = 0;
+        long rooms = 0;
+
+        for (int s : order) {
+            Session session = sessions.get(s);
+            LocalDate today = session.start.toLocalDate();
+            rooms += session.halls.size();
+
+            // Invigilator classes: (department, last building today, load)
+            Map<Long, List<Integer>> invClasses = new LinkedHashMap<>();
+            List<Integer> free = new ArrayList<>();
+            for (int i = 0; i < n; i++) {
+                if (!today.equals(day[i])) {
+                    day[i] = today;
+                    todayCount[i] = 0;
+                    lastBuilding[i] = -1;
+                }
+                if (todayCount[i] >= maxRoomsPerDay) continue;
+                if (busyUntil[i] != null && busyUntil[i].isAfter(session.start)) continue;
+                free.add(i);
+                long key = ((long) departments.of(i) << 48) | ((long) (lastBuilding[i] + 1) << 24) | load[i];
+                invClasses.computeIfAbsent(key, k -> new ArrayList<>()).add(i);
+            }
+
+            // Room classes: (building, departments in conflict)
+            Map<RoomClass, List<Integer>> roomClasses = new LinkedHashMap<>();
+            BitSet[] roomConflicts = new BitSet[session.halls.size()];
+            for (int h = 0; h < session.halls.size(); h++) {
+                roomConflicts[h] = departments.conflicts(session.halls.get(h).getRoom());
+                RoomClass rc = new RoomClass(session.buildings[h], roomConflicts[h]);
+                roomClasses.computeIfAbsent(rc, k -> new ArrayList<>()).add(h);
+            }
+
+            int[] chosen = new int[session.halls.size()];
+            Arrays.fill(chosen, -1);
+            hops += match(invClasses, roomClasses, departments.size(), chosen,
+                    session, lastBuilding, todayCount, load, busyUntil);
+            hops += fallback(free, chosen, session, lastBuilding, todayCount, load, busyUntil);
+
+            ArrayList<ExamHall> halls = new ArrayList<>(session.halls.size());
+            for (int h = 0; h < session.halls.size(); h++) {
+                if (chosen[h] < 0) {
+                    uncovered[s]++;
+                    halls.add(new ExamHall(session.halls.get(h).getRoom(), null));
+                    continue;
+                }
+                if (roomConflicts[h].get(departments.of(chosen[h]))) conflicts++;
+                halls.add(new ExamHall(session.halls.get(h).getRoom(), invigilators.get(chosen[h])));
+            }
+            out.set(s, halls);
+        }
+        stage.rows(rooms).end();
+        return new Result(out, uncovered, hops, conflicts, load);
+    }
+
+    /**
+     * List order over the invigilators free for the session: the i-th
+     * uncovered room gets the i-th free invigilator the matching left unused.
+     * The matching is a maximum flow over the same invigilators, so this only
+     * fills in if it somehow covered fewer rooms. Returns the hops made.
+     */
+    private static int fallback(List<Integer> free, int[] chosen, Session session,
+                                int[] lastBuilding, int[] todayCount, int[] load, LocalDateTime[] busyUntil) {
+        int covered = 0;
+        BitSet taken = new BitSet();
+        for (int inv : chosen) {
+            if (inv < 0) continue;
+            covered++;
+            taken.set(inv);
+        }
+        if (covered >= Math.min(free.size(), chosen.length)) return 0;
+
+        int hops = 0;
+        int next = 0;
+        for (int h = 0; h < chosen.length; h++) {
+            if (chosen[h] >= 0) continue;
+            while (next < free.size() && taken.get(free.get(next))) next++;
+            if (next == free.size()) break;
+            int inv = free.get(next++);
+            chosen[h] = inv;
+            hops += take(inv, h, session, lastBuilding, todayCount, load, busyUntil);
+        }
+        return hops;
+    }
+
+    /** Books invigilator {@code inv} into hall {@code h}; returns 1 for a building change. */
+    private static int take(int inv, int h, Session session,
+                            int[] lastBuilding, int[] todayCount, int[] load, LocalDateTime[] busyUntil) {
+        int building = session.buildings[h];
+        int hop = lastBuilding[inv] >= 0 && lastBuilding[inv] != building ? 1 : 0;
+        lastBuilding[inv] = building;
+        todayCount[inv]++;
+        load[inv]++;
+        busyUntil[inv] = session.end;
+        return hop;
+    }
+
+    /** Single session: one seating with no timetable behind it. */
+    public ArrayList<ExamHall> assign(List<Building> buildings, List<ExamHall> halls, List<Invigilator> invigilators) {
+        LocalDateTime now = LocalDateTime.of(LocalDate.of(2000, 1, 1), ExamTimetable.DEFAULT_START);
+        return assign(List.of(Session.of(now, now, buildings, halls)), invigilators).getHalls(0);
+    }
+
+    /**
+     * Solves one session on the class graph and applies the result. Instead of
+     * an edge for every (invigilator class, room class) pair, invigilators
+     * reach rooms through hubs: "stay" for their department in the building
+     * they were last in (load cost only), "any" for their department anywhere
+     * (load plus a hop). Hubs connect to the rooms their department may
+     * supervise, at {@link #CONFLICT_COST} extra where the room holds their
+     * own department, which keeps the graph linear in the number of classes.
+     * Fills {@code chosen} with invigilator indexes and returns the number of
+     * building hops made.
+     */
+    private static int match(Map<Long, List<Integer>> invClasses, Map<RoomClass, List<Integer>> roomClasses,
+                             int departments, int[] chosen, Session session,
+                             int[] lastBuilding, int[] todayCount, int[] load, LocalDateTime[] busyUntil) {
+        List<Long> invKeys = new ArrayList<>(invClasses.keySet());
+        List<RoomClass> roomKeys = new ArrayList<>(roomClasses.keySet());
+        Map<Integer, List<Integer>> roomKeysByBuilding = new HashMap<>();
+        for (int b = 0; b < roomKeys.size(); b++) {
+            roomKeysByBuilding.computeIfAbsent(roomKeys.get(b).building, k -> new ArrayList<>()).add(b);
+        }
+
+        int src = 0;
+        int sink = 1;
+        int firstInv = 2;
+        int firstRoom = firstInv + invKeys.size();
+        int firstAny = firstRoom + roomKeys.size();
+        int nodes = firstAny + departments;
+        Map<Long, Integer> stayHubs = new HashMap<>();
+        for (long key : invKeys) {
+            int last = (int) ((key >>> 24) & 0xFFFFFF) - 1;
+            if (last >= 0) stayHubs.putIfAbsent(key >>> 24, nodes++);     // (department, last building)
+        }
+
+        MinCostFlow flow = new MinCostFlow(nodes);
+        // hub -> edges into it from invigilator classes, and out of it to room classes
+        List<List<int[]>> into = new ArrayList<>();
+        List<List<int[]>> outOf = new ArrayList<>();
+        for (int v = 0; v < nodes; v++) {
+            into.add(new ArrayList<>());
+            outOf.add(new ArrayList<>());
+        }
+        for (int a = 0; a < invKeys.size(); a++) {
+            long key = invKeys.get(a);
+            int dept = (int) (key >>> 48);
+            int last = (int) ((key >>> 24) & 0xFFFFFF) - 1;
+            int classLoad = (int) (key & 0xFFFFFF);
+            flow.addEdge(src, firstInv + a, invClasses.get(key).size(), 0);
+            int any = firstAny + dept;
+            into.get(any).add(new int[] { a, flow.addEdge(firstInv + a, any, Integer.MAX_VALUE,
+                    classLoad + (last >= 0 ? HOP_COST : 0)) });
+            if (last >= 0) {
+                int stay = stayHubs.get(key >>> 24);
+                into.get(stay).add(new int[] { a, flow.addEdge(firstInv + a, stay, Integer.MAX_VALUE, classLoad) });
+            }
+        }
+        for (int d = 0; d < departments; d++) {
+            for (int b = 0; b < roomKeys.size(); b++) {
+                int edgeCost = roomKeys.get(b).conflicts.get(d) ? CONFLICT_COST : 0;
+                outOf.get(firstAny + d).add(new int[] { b,
+                        flow.addEdge(firstAny + d, firstRoom + b, Integer.MAX_VALUE, edgeCost) });
+            }
+        }
+        for (Map.Entry<Long, Integer> hub : stayHubs.entrySet()) {
+            int dept = (int) (hub.getKey() >>> 24);
+            int building = (int) (hub.getKey() & 0xFFFFFF) - 1;
+            for (int b : roomKeysByBuilding.getOrDefault(building, List.of())) {
+                int edgeCost = roomKeys.get(b).conflicts.get(dept) ? CONFLICT_COST : 0;
+                outOf.get(hub.getValue()).add(new int[] { b,
+                        flow.addEdge(hub.getValue(), firstRoom + b, Integer.MAX_VALUE, edgeCost) });
+            }
+        }
+        for (int b = 0; b < roomKeys.size(); b++) {
+            flow.addEdge(firstRoom + b, sink, roomClasses.get(roomKeys.get(b)).size(), 0);
+        }
+        flow.run(src, sink);
+
+        // Every unit through a hub pairs one invigilator of a class with one room of a class
+        List<ArrayDeque<Integer>> members = new ArrayList<>();
+        for (long key : invKeys) members.add(new ArrayDeque<>(invClasses.get(key)));
+        List<ArrayDeque<Integer>> rooms = new ArrayList<>();
+        for (RoomClass rc : roomKeys) rooms.add(new ArrayDeque<>(roomClasses.get(rc)));
+        int hops = 0;
+        for (int hub = firstAny; hub < nodes; hub++) {
+            List<int[]> in = into.get(hub);
+            List<int[]> out = outOf.get(hub);
+            int i = 0;
+            int o = 0;
+            int inLeft = in.isEmpty() ? 0 : flow.flow(in.get(0)[1]);
+            int outLeft = out.isEmpty() ? 0 : flow.flow(out.get(0)[1]);
+            while (i < in.size() && o < out.size()) {
+                if (inLeft == 0) {
+                    if (++i < in.size()) inLeft = flow.flow(in.get(i)[1]);
+                    continue;
+                }
+                if (outLeft == 0) {
+                    if (++o < out.size()) outLeft = flow.flow(out.get(o)[1]);
+                    continue;
+                }
+                int inv = members.get(in.get(i)[0]).poll();
+                int h = rooms.get(out.get(o)[0]).poll();
+                inLeft--;
+                outLeft--;
+
+                chosen[h] = inv;
+                hops += take(inv, h, session, lastBuilding, todayCount, load, busyUntil);
+            }
+        }
+        return hops;
+    }
+
+    // ------------------- Conflicts -------------------
+
+    private static final class RoomClass {
+        final int building;
+        final BitSet conflicts;
+
+        RoomClass(int building, BitSet conflicts) {
+            this.building = building;
+            this.conflicts = conflicts;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof RoomClass && ((RoomClass) o).building == building
+                    && ((RoomClass) o).conflicts.equals(conflicts);
+        }
+
+        @Override
+        public int hashCode() { return building * 31 + conflicts.hashCode(); }
+    }
+
+    /** Department ids by normalized name, and which of them a branch belongs to. */
+    private static final class Departments {
+        private final List<String> keys = new ArrayList<>();
+        private final int[] ofInvigilator;
+        private final Map<String, BitSet> byBranch = new HashMap<>();
+
+        Departments(List<Invigilator> invigilators) {
+            Map<String, Integer> ids = new HashMap<>();
+            ofInvigilator = new int[invigilators.size()];
+            for (int i = 0; i < invigilators.size(); i++) {
+                String key = SubjectCatalog.normalize(invigilators.get(i).getDepartment());
+                Integer id = ids.get(key);
+                if (id == null) {
+                    id = keys.size();
+                    ids.put(key, id);
+                    keys.add(key);
+                }
+                ofInvigilator[i] = id;
+            }
+        }
+
+        int of(int invigilator) { return ofInvigilator[invigilator]; }
+
+        int size() { return keys.size(); }
+
+        BitSet conflicts(Room room) {
+            BitSet out = new BitSet(keys.size());
+            String previous = null;
+            for (Student s : room.getStudents()) {
+                String branch = s.getBranch();
+                if (branch.equals(previous)) continue;
+                previous = branch;
+                out.or(byBranch.computeIfAbsent(branch, this::departmentsOf));
+            }
+            return out;
+        }
+
+        private BitSet departmentsOf(String branch) {
+            BitSet out = new BitSet(keys.size());
+            for (int d = 0; d < keys.size(); d++) {
+                if (SubjectCatalog.sameBranch(keys.get(d), branch)) out.set(d);
+            }
+            return out;
+        }
+    }
+
+    // ------------------- Min-cost flow -------------------
+
+    /**
+     * Successive shortest paths with Bellman-Ford (queue-based), augmenting
+     * the bottleneck each time. Fine for the class graph: few nodes, and the
+     * number of augmentations is bounded by the number of class pairs used.
+     */
+    private static final class MinCostFlow {
+        private final int nodes;
+        private int[] head;
+        private int[] to = new int[64];
+        private int[] next = new int[64];
+        private int[] cap = new int[64];
+        private int[] cost = new int[64];
+        private int edges;
+
+        MinCostFlow(int nodes) {
+            this.nodes = nodes;
+            head = new int[nodes];
+            Arrays.fill(head, -1);
+        }
+
+        /** Returns the edge id; its residual twin is {@code id ^ 1}. */
+        int addEdge(int from, int target, int capacity, int edgeCost) {
+            int id = edges;
+            link(from, target, capacity, edgeCost);
+            link(target, from, 0, -edgeCost);
+            return id;
+        }
+
+        private void link(int from, int target, int capacity, int edgeCost) {
+            if (edges == to.length) {
+                int len = edges * 2;
+                to = Arrays.copyOf(to, len);
+                next = Arrays.copyOf(next, len);
+                cap = Arrays.copyOf(cap, len);
+                cost = Arrays.copyOf(cost, len);
+            }
+            to[edges] = target;
+            cap[edges] = capacity;
+            cost[edges] = edgeCost;
+            next[edges] = head[from];
+            head[from] = edges++;
+        }
+
+        int flow(int edge) { return cap[edge ^ 1]; }
+
+        void run(int src, int sink) {
+            long[] dist = new long[nodes];
+            int[] via = new int[nodes];
+            boolean[] queued = new boolean[nodes];
+            ArrayDeque<Integer> queue = new ArrayDeque<>();
+            while (true) {
+                Arrays.fill(dist, Long.MAX_VALUE);
+                Arrays.fill(via, -1);
+                dist[src] = 0;
+                queue.add(src);
+                queued[src] = true;
+                while (!queue.isEmpty()) {
+                    int u = queue.poll();
+                    queued[u] = false;
+                    for (int e = head[u]; e >= 0; e = next[e]) {
+                        if (cap[e] > 0 && dist[u] + cost[e] < dist[to[e]]) {
+                            dist[to[e]] = dist[u] + cost[e];
+                            via[to[e]] = e;
+                            if (!queued[to[e]]) {
+                                queued[to[e]] = true;
+                                queue.add(to[e]);
+                            }
+                        }
+                    }
+                }
+                if (via[sink] < 0) return;
+
+                int push = Integer.MAX_VALUE;
+                for (int v = sink; v != src; v = to[via[v] ^ 1]) push = Math.min(push, cap[via[v]]);
+                for (int v = sink; v != src; v = to[via[v] ^ 1]) {
+                    cap[via[v]] -= push;
+                    cap[via[v] ^ 1] += push;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package seatarrangement.project;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+
+/**
+ * Heuristic optimizer for "no two adjacent benches share branch + subject".
+ *
+ * A greedy pass fills the benches one by one, each time taking the cohort
+ * with the most students left that differs from the benches already filled
+ * beside and in front of it (the grid version of {@link InterleavedSeating}).
+ * The remaining conflicts are then repaired with swap moves: pick a bench that has a same-cohort
+ * neighbour, try a handful of random benches anywhere in the allocation and
+ * keep the first swap that lowers the conflict count. Each move is scored
+ * from the two benches' neighbourhoods only, so a swap costs O(1) however
+ * large the allocation is. The search stops when nothing is left to fix or
+ * the wall-clock budget runs out, and the best seating found so far is used.
+ *
+ * Benches are laid out row by row. With {@code benchesPerRow == 0} a room is a
+ * single row (left/right neighbours only); otherwise the bench in front and
+ * behind also count as adjacent. Room capacity is never exceeded: the search
+ * only permutes students among the benches the first pass filled.
+ */
+final class LocalSearchSeating implements SeatingStrategy {
+
+    private static final int CANDIDATES_PER_MOVE = 16;
+
+    private final int benchesPerRow;
+    private final long budgetNanos;
+    private final long seed;
+
+    private int lastConflicts = -1;
+
+    LocalSearchSeating(int benchesPerRow, long budgetMillis) {
+        this(benchesPerRow, budgetMillis, 42L);
+    }
+
+    LocalSearchSeating(int benchesPerRow, long budgetMillis, long seed) {
+        this.benchesPerRow = benchesPerRow;
+        this.budgetNanos = budgetMillis * 1_000_000L;
+        this.seed = seed;
+    }
+
+    /** Conflicting neighbour pairs left by the last {@link #seat} call. */
+    public int getLastConflicts() { return lastConflicts; }
+
+    @Override
+    public void seat(List<Room> rooms, List<Student> students) {
+        long deadline = System.nanoTime() + budgetNanos;
+        // Flatten the benches that will be used: slot -> (room, bench)
+        int slots = 0;
+        for (Room r : rooms) slots += Math.min(r.getBenches(), students.size() - slots);
+        int[] roomOf = new int[slots];
+        int[] benchOf = new int[slots];
+        int[] roomStart = new int[rooms.size()];
+        int[] roomSize = new int[rooms.size()];
+        for (int ri = 0, s = 0; ri < rooms.size() && s < slots; ri++) {
+            int n = Math.min(rooms.get(ri).getBenches(), slots - s);
+            roomStart[ri] = s;
+            roomSize[ri] = n;
+            for (int b = 0; b < n; b++, s++) {
+                roomOf[s] = ri;
+                benchOf[s] = b;
+            }
+        }
+
+        int[] cohort = cohorts(students);
+        Layout layout = new Layout(roomOf, benchOf, roomStart, roomSize, benchesPerRow);
+        int[] seat = greedy(layout, cohort, slots);   // slot -> index into students
+        int[] neigh = new int[4];
+        int conflicts = 0;
+        ArrayDeque<Integer> work = new ArrayDeque<>();
+        for (int s = 0; s < slots; s++) {
+            conflicts += layout.conflictsAfter(s, seat, cohort, neigh);
+            if (layout.conflictsAt(s, seat, cohort, neigh) > 0) work.add(s);
+        }
+
+        // Repair conflicted benches; give up after about four fruitless passes over the work list
+        SplittableRandom rnd = new SplittableRandom(seed);
+        int failures = 0;
+        int sinceCheck = 0;
+        while (conflicts > 0 && slots > 1 && !work.isEmpty() && failures <= work.size() * 4) {
+            if (++sinceCheck == 256) {
+                sinceCheck = 0;
+                if (System.nanoTime() > deadline) break;
+            }
+            int a = work.poll();
+            if (layout.conflictsAt(a, seat, cohort, neigh) == 0) continue;
+
+            boolean improved = false;
+            for (int k = 0; k < CANDIDATES_PER_MOVE; k++) {
+                int b = rnd.nextInt(slots);
+                if (cohort[seat[a]] == cohort[seat[b]]) continue;
+                // Different cohorts, so a and b never conflict with each other and the sums are exact
+                int before = layout.conflictsAt(a, seat, cohort, neigh) + layout.conflictsAt(b, seat, cohort, neigh);
+                swap(seat, a, b);
+                int after = layout.conflictsAt(a, seat, cohort, neigh) + layout.conflictsAt(b, seat, cohort, neigh);
+                if (after < before) {
+                    conflicts -= before - after;
+                    if (layout.conflictsAt(b, seat, cohort, neigh) > 0) work.add(b);
+                    improved = true;
+                    break;
+                }
+                swap(seat, a, b);
+            }
+            if (improved) {
+                failures = 0;
+                if (layout.conflictsAt(a, seat, cohort, neigh) > 0) work.add(a);
+            } else {
+                failures++;
+                work.add(a);
+            }
+        }
+        lastConflicts = conflicts;
+
+        for (int s = 0; s < slots; s++) rooms.get(roomOf[s]).addStudent(students.get(seat[s]));
+    }
+
+    private static int[] greedy(Layout layout, int[] cohort, int slots) {
+        int cohorts = 0;
+        for (int c : cohort) cohorts = Math.max(cohorts, c + 1);
+        int[][] members = new int[cohorts][];
+        int[] count = new int[cohorts];
+        for (int c : cohort) count[c]++;
+        for (int c = 0; c < cohorts; c++) members[c] = new int[count[c]];
+        int[] fill = new int[cohorts];
+        for (int i = 0; i < cohort.length; i++) members[cohort[i]][fill[cohort[i]]++] = i;
+
+        // Fullest cohort first, lower id on ties, so the result is deterministic
+        int[] next = new int[cohorts];
+        PriorityQueue<Integer> queue = new PriorityQueue<>((a, b) -> {
+            int ra = members[a].length - next[a];
+            int rb = members[b].length - next[b];
+            return ra != rb ? Integer.compare(rb, ra) : Integer.compare(a, b);
+        });
+        for (int c = 0; c < cohorts; c++) {
+            if (members[c].length > 0) queue.add(c);
+        }
+
+        int[] seat = new int[slots];
+        int[] neigh = new int[4];
+        int[] held = new int[4];
+        for (int s = 0; s < slots; s++) {
+            int n = layout.neighbours(s, neigh);
+            int heldCount = 0;
+            int pick = -1;
+            while (!queue.isEmpty()) {
+                int c = queue.poll();
+                boolean clash = false;
+                for (int i = 0; i < n; i++) {
+                    if (neigh[i] < s && cohort[seat[neigh[i]]] == c) clash = true;
+                }
+                if (!clash) {
+                    pick = c;
+                    break;
+                }
+                held[heldCount++] = c;
+            }
+            int from = 0;
+            if (pick < 0) pick = held[from++];   // every option clashes: take the fullest
+            for (int i = from; i < heldCount; i++) queue.add(held[i]);
+
+            seat[s] = members[pick][next[pick]++];
+            if (next[pick] < members[pick].length) queue.add(pick);
+        }
+        return seat;
+    }
+
+    private static void swap(int[] a, int i, int j) {
+        int t = a[i];
+        a[i] = a[j];
+        a[j] = t;
+    }
+
+    private static int[] cohorts(List<Student> order) {
+        Map<String, Map<Integer, Integer>> ids = new HashMap<>();
+        int[] out = new int[order.size()];
+        int[] counter = new int[1];
+        for (int i = 0; i < order.size(); i++) {
+            Student s = order.get(i);
+            out[i] = ids.computeIfAbsent(s.getBranch(), k -> new HashMap<>())
+                    .computeIfAbsent(s.getYear(), k -> counter[0]++);
+        }
+        return out;
+    }
+
+    /**
+     * Same-cohort neighbour pairs in an already seated allocation, using the
+     * same adjacency as the optimizer. Used to report policy violations.
+     */
+    public static int countConflicts(List<Room> rooms, int benchesPerRow) {
+        List<Student> all = new ArrayList<>();
+        int[] roomStart = new int[rooms.size()];
+        int[] roomSize = new int[rooms.size()];
+        for (int ri = 0; ri < rooms.size(); ri++) {
+            roomStart[ri] = all.size();
+            roomSize[ri] = rooms.get(ri).getStudents().size();
+            all.addAll(rooms.get(ri).getStudents());
+        }
+        int[] roomOf = new int[all.size()];
+        int[] benchOf = new int[all.size()];
+        for (int ri = 0; ri < rooms.size(); ri++) {
+            for (int b = 0; b < roomSize[ri]; b++) {
+                roomOf[roomStart[ri] + b] = ri;
+                benchOf[roomStart[ri] + b] = b;
+            }
+        }
+        int[] cohort = cohorts(all);
+        int[] seat = new int[all.size()];
+        for (int s = 0; s < seat.length; s++) seat[s] = s;
+
+        Layout layout = new Layout(roomOf, benchOf, roomStart, roomSize, benchesPerRow);
+        int[] scratch = new int[4];
+        int conflicts = 0;
+        for (int s = 0; s < seat.length; s++) conflicts += layout.conflictsAfter(s, seat, cohort, scratch);
+        return conflicts;
+    }
+
+    // ------------------- Bench adjacency -------------------
+
+    private static final class Layout {
+        final int[] roomOf;
+        final int[] benchOf;
+        final int[] roomStart;
+        final int[] roomSize;
+        final int rowWidth;
+
+        Layout(int[] roomOf, int[] benchOf, int[] roomStart, int[] roomSize, int benchesPerRow) {
+            this.roomOf = roomOf;
+            this.benchOf = benchOf;
+            this.roomStart = roomStart;
+            this.roomSize = roomSize;
+            this.rowWidth = benchesPerRow;
+        }
+
+        /** Fills {@code out} with the neighbouring slots of {@code s}; returns how many. */
+        int neighbours(int s, int[] out) {
+            int room = roomOf[s];
+            int bench = benchOf[s];
+            int size = roomSize[room];
+            int base = roomStart[room];
+            int n = 0;
+            boolean rowStart = rowWidth > 0 ? bench % rowWidth == 0 : bench == 0;
+            boolean rowEnd = rowWidth > 0 ? bench % rowWidth == rowWidth - 1 : false;
+            if (!rowStart && bench > 0) out[n++] = base + bench - 1;
+            if (!rowEnd && bench + 1 < size) out[n++] = base + bench + 1;
+            if (rowWidth > 0) {
+                if (bench - rowWidth >= 0) out[n++] = base + bench - rowWidth;
+                if (bench + rowWidth < size) out[n++] = base + bench + rowWidth;
+            }
+            return n;
+        }
+
+        int conflictsAt(int s, int[] seat, int[] cohort, int[] scratch) {
+            int n = neighbours(s, scratch);
+            int c = 0;
+            int mine = cohort[seat[s]];
+            for (int i = 0; i < n; i++) {
+                if (cohort[seat[scratch[i]]] == mine) c++;
+            }
+            return c;
+        }
+
+        /** Pairs counted once: only neighbours after {@code s} (right and behind). */
+        int conflictsAfter(int s, int[] seat, int[] cohort, int[] scratch) {
+            int n = neighbours(s, scratch);
+            int c = 0;
+            int mine = cohort[seat[s]];
+            for (int i = 0; i < n; i++) {
+                if (scratch[i] > s && cohort[seat[scratch[i]]] == mine) c++;
+            }
+            return c;
+        }
+    }
+}
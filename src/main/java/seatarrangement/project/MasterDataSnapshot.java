@@ -0,0 +1,425 @@
+package seatarrangement.project;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * Binary snapshot of the four loaded CSVs, so a restart does not have to
+ * parse them again.
+ *
+ * Layout (little-endian, every variable-length item length-prefixed):
+ * <pre>
+ *   "EXSNAP" u16 version
+ *   4 x source fingerprint: i64 size, i64 mtime millis, i32 CRC32C
+ *   5 x section: i32 tag, i64 length, body
+ * </pre>
+ * The fifth section is the {@link DataValidation} report of the parse, so a
+ * warm start reports the same issues without reading the CSVs again.
+ * Subjects and invigilators are stored as a string dictionary plus int codes
+ * per row; the roster section is the {@link StudentRoster} columns verbatim,
+ * so loading it is a handful of bulk copies out of the memory-mapped file.
+ *
+ * A snapshot is used only if its version matches and every source file still
+ * has the recorded size and mtime. When size or mtime differ the file is
+ * hashed: same CRC32C means only the timestamp moved (a copy or checkout), so
+ * the snapshot is kept and re-stamped; anything else re-parses the CSVs and
+ * writes a new snapshot.
+ */
+final class MasterDataSnapshot {
+
+    static final int VERSION = 4;
+
+    private static final byte[] MAGIC = { 'E', 'X', 'S', 'N', 'A', 'P' };
+    private static final int BUILDINGS = 1, SUBJECTS = 2, INVIGILATORS = 3, STUDENTS = 4, VALIDATION = 5;
+
+    private MasterDataSnapshot() { }
+
+    /** Everything main needs before allocation. */
+    static final class Data {
+        private final StudentRoster students;
+        private final ArrayList<Building> buildings;
+        private final ArrayList<Subject> subjects;
+        private final ArrayList<Invigilator> invigilators;
+        private final DataValidation.Report validation;
+        private final boolean fromSnapshot;
+
+        Data(StudentRoster students, ArrayList<Building> buildings, ArrayList<Subject> subjects,
+             ArrayList<Invigilator> invigilators, DataValidation.Report validation, boolean fromSnapshot) {
+            this.students = students;
+            this.buildings = buildings;
+            this.subjects = subjects;
+            this.invigilators = invigilators;
+            this.validation = validation;
+            this.fromSnapshot = fromSnapshot;
+        }
+
+        public StudentRoster getStudents() { return students; }
+        public ArrayList<Building> getBuildings() { return buildings; }
+        public ArrayList<Subject> getSubjects() { return subjects; }
+        public ArrayList<Invigilator> getInvigilators() { return invigilators; }
+        /** The issues found when the CSVs were last parsed; the rows they reject are not in this data. */
+        public DataValidation.Report getValidation() { return validation; }
+        /** True when the CSVs were not parsed. */
+        public boolean isFromSnapshot() { return fromSnapshot; }
+    }
+
+    /**
+     * Loads from {@code snapshot} when it is still valid for the given CSVs,
+     * otherwise validates and parses them and (re)writes the snapshot. A snapshot that
+     * cannot be read or written is reported and the CSVs are used.
+     */
+    public static Data load(Path students, Path buildings, Path subjects, Path invigilators, Path snapshot) {
+        Path[] sources = { students, buildings, subjects, invigilators };
+        if (Files.exists(snapshot)) {
+            try {
+                Data data = read(snapshot, sources);
+                if (data != null) return data;
+            } catch (Exception e) { e.printStackTrace(); }
+        }
+
+        DataValidation.Report validation = new DataValidation().validate(students, buildings, subjects, invigilators);
+        Data data = new Data(
+                ExamSystemExcelPDF.readStudentRoster(students.toString()),
+                ExamSystemExcelPDF.readBuildingsCSV(buildings.toString()),
+                ExamSystemExcelPDF.readSubjectsCSV(subjects.toString()),
+                ExamSystemExcelPDF.readInvigilatorsCSV(invigilators.toString()),
+                validation, false);
+        try {
+            write(snapshot, sources, data);
+        } catch (Exception e) { e.printStackTrace(); }
+        return data;
+    }
+
+    // ------------------- Fingerprints -------------------
+
+    private static final class Fingerprint {
+        final long size;
+        final long mtime;
+        final int crc;
+
+        Fingerprint(long size, long mtime, int crc) {
+            this.size = size;
+            this.mtime = mtime;
+            this.crc = crc;
+        }
+
+        static Fingerprint of(Path file) throws IOException {
+            return new Fingerprint(Files.size(file), Files.getLastModifiedTime(file).toMillis(), crc(file));
+        }
+    }
+
+    static int crc(Path file) throws IOException {
+        CRC32C crc = new CRC32C();
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = ch.size();
+            for (long pos = 0; pos < size; pos += Integer.MAX_VALUE) {
+                crc.update(ch.map(FileChannel.MapMode.READ_ONLY, pos, Math.min(Integer.MAX_VALUE, size - pos)));
+            }
+        }
+        return (int) crc.getValue();
+    }
+
+    // ------------------- Reading -------------------
+
+    /** Returns null when the snapshot is stale or from another version. */
+    private static Data read(Path snapshot, Path[] sources) throws IOException {
+        MappedByteBuffer in;
+        try (FileChannel ch = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            in = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+        }
+        in.order(ByteOrder.LITTLE_ENDIAN);
+
+        byte[] magic = new byte[MAGIC.length];
+        in.get(magic);
+        if (!Arrays.equals(magic, MAGIC) || (in.getShort() & 0xFFFF) != VERSION) return null;
+
+        boolean restamp = false;
+        for (Path source : sources) {
+            long size = in.getLong();
+            long mtime = in.getLong();
+            int crc = in.getInt();
+            if (Files.size(source) == size && Files.getLastModifiedTime(source).toMillis() == mtime) continue;
+            if (Files.size(source) != size || crc(source) != crc) return null;
+            restamp = true;
+        }
+
+        StudentRoster students = null;
+        ArrayList<Building> buildings = null;
+        ArrayList<Subject> subjects = null;
+        ArrayList<Invigilator> invigilators = null;
+        DataValidation.Report validation = null;
+        while (in.hasRemaining()) {
+            int tag = in.getInt();
+            long length = in.getLong();
+            int end = in.position() + (int) length;
+            switch (tag) {
+                case BUILDINGS: buildings = readBuildings(in); break;
+                case SUBJECTS: subjects = readSubjects(in); break;
+                case INVIGILATORS: invigilators = readInvigilators(in); break;
+                case STUDENTS: students = StudentRoster.read(in); break;
+                case VALIDATION: validation = readValidation(in); break;
+                default: break;     // a section this version does not know
+            }
+            in.position(end);
+        }
+        if (students == null || buildings == null || subjects == null || invigilators == null
+                || validation == null) return null;
+
+        Data data = new Data(students, buildings, subjects, invigilators, validation, true);
+        if (restamp) write(snapshot, sources, data);
+        return data;
+    }
+
+    private static ArrayList<Building> readBuildings(ByteBuffer in) {
+        int count = in.getInt();
+        ArrayList<Building> out = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Building b = new Building(in.getInt());
+            int rooms = in.getInt();
+            for (int r = 0; r < rooms; r++) b.addRoom(new Room(in.getInt(), in.getInt()));
+            out.add(b);
+        }
+        return out;
+    }
+
+    private static ArrayList<Subject> readSubjects(ByteBuffer in) {
+        String[] dict = readStrings(in);
+        int count = in.getInt();
+        ArrayList<Subject> out = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String name = dict[in.getInt()];
+            String branchType = dict[in.getInt()];
+            String date = dict[in.getInt()];
+            int year = in.getInt();
+            out.add(new Subject(name, branchType, date, year, dict[in.getInt()]));
+        }
+        return out;
+    }
+
+    private static ArrayList<Invigilator> readInvigilators(ByteBuffer in) {
+        String[] dict = readStrings(in);
+        int count = in.getInt();
+        ArrayList<Invigilator> out = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) out.add(new Invigilator(dict[in.getInt()], dict[in.getInt()]));
+        return out;
+    }
+
+    private static DataValidation.Report readValidation(ByteBuffer in) {
+        String[] dict = readStrings(in);
+        Map<String, long[]> rows = new LinkedHashMap<>();
+        int files = in.getInt();
+        for (int i = 0; i < files; i++) rows.put(dict[in.getInt()], new long[] { in.getLong(), in.getLong() });
+        int count = in.getInt();
+        List<DataValidation.Issue> issues = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String file = string(dict, in.getInt());
+            long line = in.getLong();
+            String column = string(dict, in.getInt());
+            DataValidation.Code code = DataValidation.Code.values()[in.getInt()];
+            DataValidation.Severity severity = DataValidation.Severity.values()[in.getInt()];
+            String value = string(dict, in.getInt());
+            issues.add(new DataValidation.Issue(file, line, column, code, severity, value, dict[in.getInt()]));
+        }
+        return new DataValidation.Report(issues, rows);
+    }
+
+    /** -1 codes a null. */
+    private static String string(String[] dict, int code) {
+        return code < 0 ? null : dict[code];
+    }
+
+    static String[] readStrings(ByteBuffer in) {
+        String[] out = new String[in.getInt()];
+        for (int i = 0; i < out.length; i++) {
+            byte[] b = new byte[in.getInt()];
+            in.get(b);
+            out[i] = new String(b, StandardCharsets.UTF_8);
+        }
+        return out;
+    }
+
+    // ------------------- Writing -------------------
+
+    /** Written under a temporary name and moved into place, so readers never see half a file. */
+    static void write(Path snapshot, Path[] sources, Data data) throws IOException {
+        Out out = new Out(1 << 16);
+        out.bytes(MAGIC, 0, MAGIC.length);
+        out.ensure(2);
+        out.buf.putShort((short) VERSION);
+        for (Path source : sources) {
+            Fingerprint f = Fingerprint.of(source);
+            out.putLong(f.size);
+            out.putLong(f.mtime);
+            out.putInt(f.crc);
+        }
+
+        int at = out.begin(BUILDINGS);
+        out.putInt(data.buildings.size());
+        for (Building b : data.buildings) {
+            out.putInt(b.getBuildingNumber());
+            out.putInt(b.getRooms().size());
+            for (Room r : b.getRooms()) {
+                out.putInt(r.getRoomNumber());
+                out.putInt(r.getBenches());
+            }
+        }
+        out.end(at);
+
+        at = out.begin(SUBJECTS);
+        StringDictionary dict = new StringDictionary();
+        int[] codes = new int[data.subjects.size() * 4];
+        for (int i = 0; i < data.subjects.size(); i++) {
+            Subject s = data.subjects.get(i);
+            codes[i * 4] = dict.code(s.getName());
+            codes[i * 4 + 1] = dict.code(s.getBranchType());
+            codes[i * 4 + 2] = dict.code(s.getExamDate());
+            codes[i * 4 + 3] = dict.code(s.getDuration());
+        }
+        out.strings(dict);
+        out.putInt(data.subjects.size());
+        for (int i = 0; i < data.subjects.size(); i++) {
+            out.putInt(codes[i * 4]);
+            out.putInt(codes[i * 4 + 1]);
+            out.putInt(codes[i * 4 + 2]);
+            out.putInt(data.subjects.get(i).getYear());
+            out.putInt(codes[i * 4 + 3]);
+        }
+        out.end(at);
+
+        at = out.begin(INVIGILATORS);
+        dict = new StringDictionary();
+        codes = new int[data.invigilators.size() * 2];
+        for (int i = 0; i < data.invigilators.size(); i++) {
+            codes[i * 2] = dict.code(data.invigilators.get(i).getName());
+            codes[i * 2 + 1] = dict.code(data.invigilators.get(i).getDepartment());
+        }
+        out.strings(dict);
+        out.putInt(data.invigilators.size());
+        for (int c : codes) out.putInt(c);
+        out.end(at);
+
+        at = out.begin(STUDENTS);
+        data.students.write(out);
+        out.end(at);
+
+        at = out.begin(VALIDATION);
+        writeValidation(out, data.validation);
+        out.end(at);
+
+        Path tmp = snapshot.resolveSibling(snapshot.getFileName() + ".part");
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer b = out.buf.flip();
+            while (b.hasRemaining()) ch.write(b);
+        }
+        Files.move(tmp, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void writeValidation(Out out, DataValidation.Report report) {
+        StringDictionary dict = new StringDictionary();
+        List<String> files = new ArrayList<>(report.getFiles());
+        for (String f : files) dict.code(f);
+        for (DataValidation.Issue i : report.getIssues()) {
+            if (i.getFile() != null) dict.code(i.getFile());
+            if (i.getColumn() != null) dict.code(i.getColumn());
+            if (i.getValue() != null) dict.code(i.getValue());
+            dict.code(i.getMessage());
+        }
+        out.strings(dict);
+        out.putInt(files.size());
+        for (String f : files) {
+            out.putInt(dict.code(f));
+            out.putLong(report.getRecords(f));
+            out.putLong(report.getAccepted(f));
+        }
+        out.putInt(report.getIssues().size());
+        for (DataValidation.Issue i : report.getIssues()) {
+            out.putInt(i.getFile() == null ? -1 : dict.code(i.getFile()));
+            out.putLong(i.getLine());
+            out.putInt(i.getColumn() == null ? -1 : dict.code(i.getColumn()));
+            out.putInt(i.getCode().ordinal());
+            out.putInt(i.getSeverity().ordinal());
+            out.putInt(i.getValue() == null ? -1 : dict.code(i.getValue()));
+            out.putInt(dict.code(i.getMessage()));
+        }
+    }
+
+    /** Growable little-endian output buffer. */
+    static final class Out {
+        private ByteBuffer buf;
+
+        Out(int capacity) {
+            buf = ByteBuffer.allocate(capacity).order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        void ensure(int n) {
+            if (buf.remaining() >= n) return;
+            long want = Math.max((long) buf.capacity() * 2, (long) buf.position() + n);
+            if (want > Integer.MAX_VALUE - 8) throw new IllegalStateException("Snapshot larger than 2 GB");
+            ByteBuffer next = ByteBuffer.allocate((int) want).order(ByteOrder.LITTLE_ENDIAN);
+            next.put(buf.flip());
+            buf = next;
+        }
+
+        void putInt(int v) {
+            ensure(4);
+            buf.putInt(v);
+        }
+
+        void putLong(long v) {
+            ensure(8);
+            buf.putLong(v);
+        }
+
+        void bytes(byte[] b, int from, int len) {
+            ensure(len);
+            buf.put(b, from, len);
+        }
+
+        void ints(int[] a, int n) {
+            ensure(n * 4);
+            buf.asIntBuffer().put(a, 0, n);
+            buf.position(buf.position() + n * 4);
+        }
+
+        void shorts(short[] a, int n) {
+            ensure(n * 2);
+            buf.asShortBuffer().put(a, 0, n);
+            buf.position(buf.position() + n * 2);
+        }
+
+        void strings(StringDictionary dict) {
+            putInt(dict.size());
+            for (int i = 0; i < dict.size(); i++) {
+                byte[] b = dict.value(i).getBytes(StandardCharsets.UTF_8);
+                putInt(b.length);
+                bytes(b, 0, b.length);
+            }
+        }
+
+        /** Starts a section; returns where its length goes. */
+        int begin(int tag) {
+            putInt(tag);
+            putLong(0);
+            return buf.position();
+        }
+
+        void end(int bodyStart) {
+            buf.putLong(bodyStart - 8, buf.position() - bodyStart);
+        }
+    }
+}
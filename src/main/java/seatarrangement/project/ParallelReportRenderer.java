@@ -0,0 +1,166 @@
+package seatarrangement.project;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.itextpdf.text.Document;
+import com.itextpdf.text.DocumentException;
+import com.itextpdf.text.pdf.PdfCopy;
+import com.itextpdf.text.pdf.PdfReader;
+import com.itextpdf.text.pdf.PdfSmartCopy;
+import com.itextpdf.text.pdf.PdfWriter;
+
+/**
+ * Renders the seating reports in parallel on virtual threads.
+ *
+ * A report is planned into parts ({@link ReportSections#plan}); each part is
+ * rendered into its own small in-memory PDF and the parts are merged in order
+ * with {@link PdfSmartCopy}, which also de-duplicates the shared font
+ * resources. At most {@code maxInFlight} rendered-but-not-yet-merged parts
+ * exist per report, which bounds memory regardless of roster size. Every part
+ * starts on a new page, so the branch-only report gets one page break per
+ * branch and the common report one per {@code hallsPerPart} rooms; a
+ * timetable report also gets one per sitting.
+ */
+final class ParallelReportRenderer {
+
+    static final int DEFAULT_HALLS_PER_PART = 25;
+
+    static final String COMMON_TITLE = "Exam Hall Allocation — Common Subjects";
+    static final String BRANCH_TITLE = "Exam Hall Allocation — Branch Only Subjects";
+
+    private final int hallsPerPart;
+    private final int maxInFlight;
+
+    ParallelReportRenderer() {
+        this(DEFAULT_HALLS_PER_PART, Math.max(2, Runtime.getRuntime().availableProcessors() * 2));
+    }
+
+    ParallelReportRenderer(int hallsPerPart, int maxInFlight) {
+        this.hallsPerPart = Math.max(1, hallsPerPart);
+        this.maxInFlight = Math.max(1, maxInFlight);
+    }
+
+    /** Produces the common and the branch-only report at the same time. */
+    public void renderBoth(String commonOutput, String branchOutput,
+                           List<ExamHall> examHalls, SubjectCatalog catalog,
+                           AllocationIndex index) throws IOException, DocumentException {
+        AllocationIndex built = index == null ? AllocationIndex.build(examHalls) : index;
+        long rows = 0;
+        for (ExamHall eh : examHalls) rows += eh.getRoom().getStudents().size();
+        renderBoth(commonOutput, branchOutput, rows,
+                ReportSections.plan(examHalls, catalog, COMMON_TITLE, false, built, hallsPerPart),
+                ReportSections.plan(examHalls, catalog, BRANCH_TITLE, true, built, hallsPerPart));
+    }
+
+    /** Both reports of a timetable, sitting by sitting. */
+    public void renderBoth(String commonOutput, String branchOutput,
+                           List<ExamTimetable.Sitting> sittings, SubjectCatalog catalog)
+            throws IOException, DocumentException {
+        long rows = 0;
+        for (ExamTimetable.Sitting s : sittings) rows += s.getStudentCount() - s.getUnseated();
+        renderBoth(commonOutput, branchOutput, rows,
+                ReportSections.plan(sittings, catalog, COMMON_TITLE, false, hallsPerPart),
+                ReportSections.plan(sittings, catalog, BRANCH_TITLE, true, hallsPerPart));
+    }
+
+    private void renderBoth(String commonOutput, String branchOutput, long rows,
+                            List<List<ReportSections.Section>> common, List<List<ReportSections.Section>> branchOnly)
+            throws IOException, DocumentException {
+        PipelineMetrics.Stage stage = PipelineMetrics.begin("render.parallel");
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<?> branch = workers.submit(() -> {
+                try (OutputStream out = new FileOutputStream(branchOutput)) {
+                    render(out, branchOnly, workers);
+                }
+                return null;
+            });
+            try (OutputStream out = new FileOutputStream(commonOutput)) {
+                render(out, common, workers);
+            }
+            await(branch);
+        }
+        stage.rows(rows).written(Paths.get(commonOutput)).written(Paths.get(branchOutput)).end();
+    }
+
+    public void render(OutputStream out, List<ExamHall> examHalls, SubjectCatalog catalog,
+                       String titleText, boolean isBranchSpecific, AllocationIndex index)
+            throws IOException, DocumentException {
+        if (isBranchSpecific && index == null) index = AllocationIndex.build(examHalls);
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            render(out, ReportSections.plan(examHalls, catalog, titleText, isBranchSpecific, index, hallsPerPart),
+                    workers);
+        }
+    }
+
+    public void render(OutputStream out, List<ExamTimetable.Sitting> sittings, SubjectCatalog catalog,
+                       String titleText, boolean isBranchSpecific) throws IOException, DocumentException {
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            render(out, ReportSections.plan(sittings, catalog, titleText, isBranchSpecific, hallsPerPart), workers);
+        }
+    }
+
+    private void render(OutputStream out, List<List<ReportSections.Section>> parts, ExecutorService workers)
+            throws IOException, DocumentException {
+        Document merged = new Document();
+        PdfSmartCopy copy = new PdfSmartCopy(merged, out);
+        merged.open();
+
+        // Keep at most maxInFlight parts rendered ahead of the merge
+        ArrayDeque<Future<byte[]>> pending = new ArrayDeque<>();
+        for (List<ReportSections.Section> part : parts) {
+            if (pending.size() == maxInFlight) append(copy, await(pending.poll()));
+            pending.add(workers.submit(() -> renderPart(part)));
+        }
+        while (!pending.isEmpty()) append(copy, await(pending.poll()));
+
+        merged.close();
+    }
+
+    static byte[] renderPart(List<ReportSections.Section> part) throws DocumentException {
+        ByteArrayOutputStream buf = new ByteArrayOutputStream(64 * 1024);
+        Document document = new Document();
+        PdfWriter.getInstance(document, buf);
+        document.open();
+        ReportSections.Fonts fonts = new ReportSections.Fonts();
+        for (ReportSections.Section section : part) section.write(document, fonts);
+        document.close();
+        return buf.toByteArray();
+    }
+
+    static void append(PdfCopy copy, byte[] pdf) throws IOException, DocumentException {
+        PdfReader reader = new PdfReader(pdf);
+        try {
+            for (int p = 1; p <= reader.getNumberOfPages(); p++) {
+                copy.addPage(copy.getImportedPage(reader, p));
+            }
+            copy.freeReader(reader);
+        } finally {
+            reader.close();
+        }
+    }
+
+    static <T> T await(Future<T> f) throws IOException, DocumentException {
+        try {
+            return f.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while rendering", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) throw (IOException) cause;
+            if (cause instanceof DocumentException) throw (DocumentException) cause;
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            throw new IOException(cause);
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package seatarrangement.project;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Supplier;
+
+/**
+ * Seats students in independent partitions on a fork-join pool and stitches
+ * the results back into one {@link ExamHall} list.
+ * <ul>
+ *   <li>{@link Partitioning#BUILDING}: every building is a partition. Buildings
+ *       take students in file order up to their capacity, as the sequential
+ *       allocator does, but each building's share is drawn evenly from every
+ *       (branch, year) cohort, so the strategy still has a mix to interleave.
+ *       Partitions own disjoint rooms and seat them directly.</li>
+ *   <li>{@link Partitioning#COHORT}: every (branch, year) cohort is a
+ *       partition and gets the next run of benches in room order, so each
+ *       cohort sits together and the branch-only report reads one contiguous
+ *       range per room. A room at a cohort boundary is shared: partitions
+ *       seat private copies of their stretch of it and the stitch appends the
+ *       stretches in cohort order. Each partition holds a single cohort, so
+ *       the strategy has nobody to put between its students: students of the
+ *       same branch and year, who write the same papers, sit on neighbouring
+ *       benches whatever the strategy. Use BUILDING when anti-adjacency
+ *       matters.</li>
+ * </ul>
+ * Which students go to which partition depends only on the input, and the
+ * stitch runs in partition order, so identical inputs give identical seats for
+ * any pool size as long as the strategy itself is deterministic
+ * ({@link LocalSearchSeating} stops on a wall-clock budget and is only
+ * repeatable when it converges first). Every partition gets its own strategy
+ * from the supplier. Invigilators are handed out in list order, like
+ * {@link ExamSystemExcelPDF#allocateStudentsAndInvigilators}.
+ */
+final class PartitionedAllocation {
+
+    enum Partitioning { BUILDING, COHORT }
+
+    private final Partitioning partitioning;
+    private final Supplier<SeatingStrategy> strategies;
+    private final ForkJoinPool pool;
+
+    PartitionedAllocation(Partitioning partitioning, Supplier<SeatingStrategy> strategies) {
+        this(partitioning, strategies, ForkJoinPool.commonPool());
+    }
+
+    PartitionedAllocation(Partitioning partitioning, Supplier<SeatingStrategy> strategies, ForkJoinPool pool) {
+        this.partitioning = partitioning;
+        this.strategies = strategies;
+        this.pool = pool;
+    }
+
+    /** One independent piece of work: students for a list of rooms. */
+    private static final class Partition {
+        final List<Room> rooms;
+        final List<Student> students;
+        final int[] targets;        // for room copies: the real room each one stands for
+
+        Partition(List<Room> rooms, List<Student> students, int[] targets) {
+            this.rooms = rooms;
+            this.students = students;
+            this.targets = targets;
+        }
+    }
+
+    public ArrayList<ExamHall> allocate(ArrayList<Building> buildings, List<Student> students,
+                                        ArrayList<Invigilator> invigilators) {
+        PipelineMetrics.Stage stage = PipelineMetrics.begin("allocate.partitioned");
+        List<List<Student>> cohorts = cohorts(students);
+
+        List<Partition> partitions;
+        List<Room> targets = null;
+        if (partitioning == Partitioning.BUILDING) {
+            partitions = byBuilding(buildings, cohorts, students.size());
+        } else {
+            targets = new ArrayList<>();
+            for (Building b : buildings) targets.addAll(b.getRooms());
+            partitions = byCohort(targets, cohorts);
+        }
+
+        pool.invoke(new Solve(partitions, 0, partitions.size()));
+
+        if (targets != null) {
+            // Stitch the private room copies back, partition by partition
+            for (Partition p : partitions) {
+                for (int c = 0; c < p.rooms.size(); c++) {
+                    targets.get(p.targets[c]).getStudents().addAll(p.rooms.get(c).getStudents());
+                }
+            }
+        }
+
+        ArrayList<ExamHall> examHalls = new ArrayList<>();
+        int invIndex = 0;
+        for (Building b : buildings) {
+            for (Room r : b.getRooms()) {
+                examHalls.add(new ExamHall(r, invIndex < invigilators.size() ? invigilators.get(invIndex++) : null));
+            }
+        }
+        stage.rows(students.size()).end();
+        PipelineMetrics.recordFill(examHalls);
+        return examHalls;
+    }
+
+    public ArrayList<ExamHall> allocate(ArrayList<Building> buildings, StudentRoster roster,
+                                        ArrayList<Invigilator> invigilators) {
+        return allocate(buildings, roster.asList(), invigilators);
+    }
+
+    /** Halves the partition range until one is left, so idle workers can steal the other half. */
+    private final class Solve extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final transient List<Partition> partitions;     // never serialized: the task only runs in this pool
+        private final int from;
+        private final int to;
+
+        Solve(List<Partition> partitions, int from, int to) {
+            this.partitions = partitions;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                Partition p = partitions.get(from);
+                if (!p.students.isEmpty()) strategies.get().seat(p.rooms, p.students);
+            } else if (to - from > 1) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new Solve(partitions, from, mid), new Solve(partitions, mid, to));
+            }
+        }
+    }
+
+    // ------------------- Partitioning -------------------
+
+    /** (branch, year) cohorts in order of first appearance, each in roster order. */
+    static List<List<Student>> cohorts(List<Student> students) {
+        Map<String, Map<Integer, List<Student>>> byBranch = new LinkedHashMap<>();
+        List<List<Student>> out = new ArrayList<>();
+        for (Student s : students) {
+            List<Student> cohort = byBranch.computeIfAbsent(s.getBranch(), k -> new LinkedHashMap<>())
+                    .get(s.getYear());
+            if (cohort == null) {
+                cohort = new ArrayList<>();
+                byBranch.get(s.getBranch()).put(s.getYear(), cohort);
+                out.add(cohort);
+            }
+            cohort.add(s);
+        }
+        return out;
+    }
+
+    /**
+     * Buildings fill in order to capacity. The seated students, cohort after
+     * cohort, are dealt to the buildings by smooth weighted round robin with
+     * each building's quota as its weight, so every cohort is spread over the
+     * buildings in proportion and every building gets exactly its quota.
+     */
+    private static List<Partition> byBuilding(List<Building> buildings, List<List<Student>> cohorts, int total) {
+        int[] quota = new int[buildings.size()];
+        int left = total;
+        for (int b = 0; b < buildings.size(); b++) {
+            int capacity = 0;
+            for (Room r : buildings.get(b).getRooms()) capacity += r.getBenches();
+            quota[b] = Math.min(capacity, left);
+            left -= quota[b];
+        }
+
+        List<List<Student>> shares = new ArrayList<>(buildings.size());
+        for (int q : quota) shares.add(new ArrayList<>(q));
+        // Next building: smallest (given + 0.5) / quota; ties to the earlier building
+        PriorityQueue<long[]> next = new PriorityQueue<>((x, y) -> {
+            int c = Long.compare((2 * x[1] + 1) * quota[(int) y[0]], (2 * y[1] + 1) * quota[(int) x[0]]);
+            return c != 0 ? c : Long.compare(x[0], y[0]);
+        });
+        for (int b = 0; b < quota.length; b++) {
+            if (quota[b] > 0) next.add(new long[] { b, 0 });
+        }
+        for (List<Student> cohort : cohorts) {
+            for (Student s : cohort) {
+                if (next.isEmpty()) break;      // every building is full; the rest stay unseated
+                long[] top = next.poll();
+                shares.get((int) top[0]).add(s);
+                if (++top[1] < quota[(int) top[0]]) next.add(top);
+            }
+        }
+
+        List<Partition> out = new ArrayList<>(buildings.size());
+        for (int b = 0; b < buildings.size(); b++) {
+            out.add(new Partition(buildings.get(b).getRooms(), shares.get(b), null));
+        }
+        return out;
+    }
+
+    /** Cohort after cohort on consecutive benches; copies of every room a cohort touches. */
+    private static List<Partition> byCohort(List<Room> rooms, List<List<Student>> cohorts) {
+        List<Partition> out = new ArrayList<>(cohorts.size());
+        int room = 0;
+        int used = 0;       // benches of rooms.get(room) already given to earlier cohorts
+        for (List<Student> cohort : cohorts) {
+            List<Room> copies = new ArrayList<>();
+            List<Integer> targets = new ArrayList<>();
+            int need = cohort.size();
+            int seated = 0;
+            while (need > 0 && room < rooms.size()) {
+                Room r = rooms.get(room);
+                int take = Math.min(need, r.getBenches() - used);
+                if (take > 0) {
+                    copies.add(new Room(r.getRoomNumber(), take));
+                    targets.add(room);
+                    need -= take;
+                    seated += take;
+                    used += take;
+                }
+                if (used >= r.getBenches()) {
+                    room++;
+                    used = 0;
+                }
+            }
+            int[] t = new int[targets.size()];
+            for (int i = 0; i < t.length; i++) t[i] = targets.get(i);
+            out.add(new Partition(copies, cohort.subList(0, seated), t));
+        }
+        return out;
+    }
+}
@@ -0,0 +1,358 @@
+package seatarrangement.project;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.ToLongFunction;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Percentage;
+
+/**
+ * Stage-level timings for a run: CSV loading, allocation and rendering.
+ *
+ * Stages are timed at their boundaries only, never per row, so the hot loops
+ * are untouched. Each stage records a latency histogram (power-of-two
+ * buckets in nanoseconds), rows, bytes read and written, and the bytes the
+ * calling thread allocated. Allocation also records how full the rooms are.
+ *
+ * Recording is off unless {@code -Dexamhall.metrics=<file>} is given; the
+ * file is written by {@link #dumpIfEnabled()} as JSON, or in Prometheus text
+ * format when the name ends in {@code .prom} or {@code .txt}. Independently,
+ * every stage is a JFR event ({@code seatarrangement.Stage}) and every
+ * allocation a {@code seatarrangement.Allocation} event while a recording is
+ * running. With both off, {@link #begin} returns a shared no-op stage.
+ */
+final class PipelineMetrics {
+
+    static final String FILE_PROPERTY = "examhall.metrics";
+    static final boolean ENABLED = System.getProperty(FILE_PROPERTY) != null;
+
+    private static final EventType STAGE_EVENT = EventType.getEventType(StageEvent.class);
+    private static final EventType ALLOCATION_EVENT = EventType.getEventType(AllocationEvent.class);
+    private static final Stage NOOP = new Stage(null, null);
+    private static final int BUCKETS = 64;
+
+    private static final Map<String, Stats> STAGES = new TreeMap<>();
+    private static final long[] FILL_BUCKETS = new long[11];     // 0-9%, ..., 90-99%, 100%
+    private static long rooms;
+    private static long benches;
+    private static long seats;
+
+    private PipelineMetrics() { }
+
+    // ------------------- JFR events -------------------
+
+    @Name("seatarrangement.Stage")
+    @Label("Pipeline Stage")
+    @Category({ "Exam Allocation" })
+    @Description("One load, allocate or render step of an allocation run")
+    static final class StageEvent extends Event {
+        @Label("Stage") String stage;
+        @Label("Rows") long rows;
+        @Label("Bytes Read") @DataAmount long bytesRead;
+        @Label("Bytes Written") @DataAmount long bytesWritten;
+        @Label("Allocated") @DataAmount long allocated;
+    }
+
+    @Name("seatarrangement.Allocation")
+    @Label("Room Allocation")
+    @Category({ "Exam Allocation" })
+    static final class AllocationEvent extends Event {
+        @Label("Rooms") long rooms;
+        @Label("Benches") long benches;
+        @Label("Seated") long seats;
+        @Label("Fill Ratio") @Percentage double fill;
+    }
+
+    // ------------------- Recording -------------------
+
+    /** An open stage; close it with {@link #end()} once its work is done. */
+    static final class Stage {
+        private final String name;
+        private final StageEvent event;
+        private final long start;
+        private final long allocatedAtStart;
+        private long rows;
+        private long bytesRead;
+        private long bytesWritten;
+
+        private Stage(String name, StageEvent event) {
+            this.name = name;
+            this.event = event;
+            this.start = name == null ? 0 : System.nanoTime();
+            this.allocatedAtStart = name == null ? 0 : allocatedBytes();
+        }
+
+        Stage rows(long n) {
+            rows += n;
+            return this;
+        }
+
+        /** Counts a file's size as read; the file system is only asked when recording. */
+        Stage read(Path file) {
+            if (name != null) bytesRead += size(file);
+            return this;
+        }
+
+        Stage written(Path file) {
+            if (name != null) bytesWritten += size(file);
+            return this;
+        }
+
+        void end() {
+            if (name == null) return;
+            long nanos = System.nanoTime() - start;
+            long allocated = Math.max(0, allocatedBytes() - allocatedAtStart);
+            if (ENABLED) add(name, nanos, rows, bytesRead, bytesWritten, allocated);
+            if (event != null && event.shouldCommit()) {
+                event.stage = name;
+                event.rows = rows;
+                event.bytesRead = bytesRead;
+                event.bytesWritten = bytesWritten;
+                event.allocated = allocated;
+                event.commit();
+            }
+        }
+    }
+
+    static Stage begin(String stage) {
+        boolean jfr = STAGE_EVENT.isEnabled();
+        if (!ENABLED && !jfr) return NOOP;
+        StageEvent event = null;
+        if (jfr) {
+            event = new StageEvent();
+            event.begin();
+        }
+        return new Stage(stage, event);
+    }
+
+    static void add(String stage, long nanos, long rows, long bytesRead, long bytesWritten, long allocated) {
+        synchronized (STAGES) {
+            STAGES.computeIfAbsent(stage, k -> new Stats()).add(nanos, rows, bytesRead, bytesWritten, allocated);
+        }
+    }
+
+    /** Records how full the rooms of an allocation are. */
+    static void recordFill(List<ExamHall> halls) {
+        boolean jfr = ALLOCATION_EVENT.isEnabled();
+        if (ENABLED) addFill(halls);
+        if (!jfr) return;
+        long b = 0, s = 0;
+        for (ExamHall eh : halls) {
+            b += eh.getRoom().getBenches();
+            s += eh.getRoom().getStudents().size();
+        }
+        AllocationEvent event = new AllocationEvent();
+        event.rooms = halls.size();
+        event.benches = b;
+        event.seats = s;
+        event.fill = b == 0 ? 0 : s / (double) b;
+        event.commit();
+    }
+
+    static void addFill(List<ExamHall> halls) {
+        long r = 0, b = 0, s = 0;
+        long[] buckets = new long[FILL_BUCKETS.length];
+        for (ExamHall eh : halls) {
+            Room room = eh.getRoom();
+            int n = room.getStudents().size();
+            r++;
+            b += room.getBenches();
+            s += n;
+            int pct = room.getBenches() == 0 ? 100 : n * 100 / room.getBenches();
+            buckets[Math.min(10, pct / 10)]++;
+        }
+        synchronized (STAGES) {
+            rooms += r;
+            benches += b;
+            seats += s;
+            for (int i = 0; i < buckets.length; i++) FILL_BUCKETS[i] += buckets[i];
+        }
+    }
+
+    private static long size(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static long allocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getCurrentThreadAllocatedBytes();
+        }
+        return 0;
+    }
+
+    /** Per-stage totals plus a power-of-two latency histogram. */
+    private static final class Stats {
+        final long[] buckets = new long[BUCKETS];
+        long count, nanos, min = Long.MAX_VALUE, max, rows, bytesRead, bytesWritten, allocated;
+
+        void add(long ns, long r, long in, long out, long alloc) {
+            buckets[BUCKETS - 1 - Long.numberOfLeadingZeros(Math.max(1, ns))]++;
+            count++;
+            nanos += ns;
+            min = Math.min(min, ns);
+            max = Math.max(max, ns);
+            rows += r;
+            bytesRead += in;
+            bytesWritten += out;
+            allocated += alloc;
+        }
+
+        /** Upper bound of the bucket holding the q-quantile, capped at the observed max. */
+        long quantile(double q) {
+            long rank = (long) Math.ceil(q * count);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += buckets[i];
+                if (seen >= rank && buckets[i] > 0) return Math.min(max, i >= 62 ? Long.MAX_VALUE : (2L << i) - 1);
+            }
+            return max;
+        }
+
+        double rowsPerSecond() {
+            return nanos == 0 ? 0 : rows / (nanos / 1e9);
+        }
+    }
+
+    // ------------------- Output -------------------
+
+    /** Writes the dump file named by {@code -Dexamhall.metrics}, if any. */
+    static void dumpIfEnabled() {
+        if (!ENABLED) return;
+        try {
+            dump(Paths.get(System.getProperty(FILE_PROPERTY)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static void dump(Path file) throws IOException {
+        String name = file.getFileName().toString();
+        boolean prometheus = name.endsWith(".prom") || name.endsWith(".txt");
+        try (Writer w = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            synchronized (STAGES) {
+                w.write(prometheus ? prometheus() : json());
+            }
+        }
+    }
+
+    static void reset() {
+        synchronized (STAGES) {
+            STAGES.clear();
+            Arrays.fill(FILL_BUCKETS, 0);
+            rooms = benches = seats = 0;
+        }
+    }
+
+    static String json() {
+        StringBuilder sb = new StringBuilder("{\n  \"stages\": {");
+        String sep = "\n";
+        for (Map.Entry<String, Stats> e : STAGES.entrySet()) {
+            Stats s = e.getValue();
+            sb.append(sep).append("    \"").append(e.getKey()).append("\": {")
+                    .append("\"count\": ").append(s.count)
+                    .append(", \"totalNanos\": ").append(s.nanos)
+                    .append(", \"minNanos\": ").append(s.min)
+                    .append(", \"p50Nanos\": ").append(s.quantile(0.5))
+                    .append(", \"p99Nanos\": ").append(s.quantile(0.99))
+                    .append(", \"maxNanos\": ").append(s.max)
+                    .append(", \"rows\": ").append(s.rows)
+                    .append(", \"rowsPerSecond\": ").append(String.format(Locale.ROOT, "%.1f", s.rowsPerSecond()))
+                    .append(", \"bytesRead\": ").append(s.bytesRead)
+                    .append(", \"bytesWritten\": ").append(s.bytesWritten)
+                    .append(", \"allocatedBytes\": ").append(s.allocated)
+                    .append(", \"histogram\": {");
+            String hs = "";
+            for (int i = 0; i < BUCKETS; i++) {
+                if (s.buckets[i] == 0) continue;
+                sb.append(hs).append('"').append(i >= 62 ? "+Inf" : Long.toString(2L << i)).append("\": ")
+                        .append(s.buckets[i]);
+                hs = ", ";
+            }
+            sb.append("}}");
+            sep = ",\n";
+        }
+        sb.append("\n  },\n  \"rooms\": {\"count\": ").append(rooms)
+                .append(", \"benches\": ").append(benches)
+                .append(", \"seated\": ").append(seats)
+                .append(", \"fillRatio\": ").append(String.format(Locale.ROOT, "%.4f", benches == 0 ? 0 : seats / (double) benches))
+                .append(", \"fillHistogram\": {");
+        for (int i = 0; i < FILL_BUCKETS.length; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append('"').append(i == 10 ? "100" : i * 10 + "-" + (i * 10 + 9)).append("\": ").append(FILL_BUCKETS[i]);
+        }
+        sb.append("}}\n}\n");
+        return sb.toString();
+    }
+
+    static String prometheus() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("# TYPE examhall_stage_seconds histogram\n");
+        for (Map.Entry<String, Stats> e : STAGES.entrySet()) {
+            Stats s = e.getValue();
+            String label = "stage=\"" + e.getKey() + "\"";
+            long cumulative = 0;
+            for (int i = 0; i < BUCKETS - 2; i++) {
+                cumulative += s.buckets[i];
+                if (s.buckets[i] == 0) continue;
+                sb.append("examhall_stage_seconds_bucket{").append(label).append(",le=\"")
+                        .append(String.format(Locale.ROOT, "%.9f", (2L << i) / 1e9)).append("\"} ").append(cumulative).append('\n');
+            }
+            sb.append("examhall_stage_seconds_bucket{").append(label).append(",le=\"+Inf\"} ").append(s.count).append('\n');
+            sb.append("examhall_stage_seconds_sum{").append(label).append("} ")
+                    .append(String.format(Locale.ROOT, "%.9f", s.nanos / 1e9)).append('\n');
+            sb.append("examhall_stage_seconds_count{").append(label).append("} ").append(s.count).append('\n');
+        }
+        counter(sb, "examhall_stage_rows_total", s -> s.rows);
+        counter(sb, "examhall_stage_bytes_read_total", s -> s.bytesRead);
+        counter(sb, "examhall_stage_bytes_written_total", s -> s.bytesWritten);
+        counter(sb, "examhall_stage_allocated_bytes_total", s -> s.allocated);
+        sb.append("# TYPE examhall_stage_rows_per_second gauge\n");
+        for (Map.Entry<String, Stats> e : STAGES.entrySet()) {
+            sb.append("examhall_stage_rows_per_second{stage=\"").append(e.getKey()).append("\"} ")
+                    .append(String.format(Locale.ROOT, "%.1f", e.getValue().rowsPerSecond())).append('\n');
+        }
+        sb.append("# TYPE examhall_rooms gauge\nexamhall_rooms ").append(rooms).append('\n');
+        sb.append("# TYPE examhall_benches gauge\nexamhall_benches ").append(benches).append('\n');
+        sb.append("# TYPE examhall_seated gauge\nexamhall_seated ").append(seats).append('\n');
+        sb.append("# TYPE examhall_room_fill_ratio gauge\nexamhall_room_fill_ratio ")
+                .append(String.format(Locale.ROOT, "%.4f", benches == 0 ? 0 : seats / (double) benches)).append('\n');
+        sb.append("# TYPE examhall_rooms_by_fill gauge\n");
+        for (int i = 0; i < FILL_BUCKETS.length; i++) {
+            sb.append("examhall_rooms_by_fill{fill=\"").append(i == 10 ? "100" : i * 10 + "-" + (i * 10 + 9))
+                    .append("\"} ").append(FILL_BUCKETS[i]).append('\n');
+        }
+        return sb.toString();
+    }
+
+    private static void counter(StringBuilder sb, String metric, ToLongFunction<Stats> value) {
+        sb.append("# TYPE ").append(metric).append(" counter\n");
+        for (Map.Entry<String, Stats> e : STAGES.entrySet()) {
+            sb.append(metric).append("{stage=\"").append(e.getKey()).append("\"} ")
+                    .append(value.applyAsLong(e.getValue())).append('\n');
+        }
+    }
+}
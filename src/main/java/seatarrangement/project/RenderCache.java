@@ -0,0 +1,344 @@
+package seatarrangement.project;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.itextpdf.text.Document;
+import com.itextpdf.text.DocumentException;
+import com.itextpdf.text.pdf.PdfSmartCopy;
+
+/**
+ * Renders the seating reports from per-room PDF fragments kept on disk, so a
+ * re-run only renders the rooms whose content changed.
+ *
+ * Every report, for one seating or a timetable sitting by sitting, is walked
+ * by {@link ReportSections#walk} and cut into fragments: everything printed
+ * before a room table (title, sitting heading, subject list, branch header)
+ * and one per room table. A fragment is stored under the SHA-256 of
+ * everything it prints - room number, invigilator, the ordered (PRN, name,
+ * branch) rows, the subject lines - plus {@link #TEMPLATE_VERSION}, so an
+ * unchanged room hits no matter where it sits in the report, and a room
+ * printed identically in both reports is stored once. The document is reassembled from the fragments with
+ * {@link PdfSmartCopy}.
+ *
+ * Unlike the other renderers, every fragment starts on a new page: a room
+ * table never shares a page with its neighbour, which is what makes it
+ * reusable on its own.
+ *
+ * The store is bounded by total bytes and evicts the least recently used
+ * fragments. Recency survives restarts through the files' modification times.
+ */
+final class RenderCache {
+
+    /** Bump whenever {@link ReportSections} changes what a fragment looks like. */
+    static final int TEMPLATE_VERSION = 2;
+
+    /** Size bound of the cache {@code main} runs with. */
+    static final long DEFAULT_MAX_BYTES = 512L << 20;
+
+    private final Path dir;
+    private final long maxBytes;
+    private final int maxInFlight;
+
+    // key -> size in bytes, in access order
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long bytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    RenderCache(Path dir, long maxBytes) throws IOException {
+        this(dir, maxBytes, Math.max(2, Runtime.getRuntime().availableProcessors() * 2));
+    }
+
+    RenderCache(Path dir, long maxBytes, int maxInFlight) throws IOException {
+        this.dir = dir;
+        this.maxBytes = maxBytes;
+        this.maxInFlight = Math.max(1, maxInFlight);
+        Files.createDirectories(dir);
+        load();
+    }
+
+    /** A part of a report, the key of what it prints and the student rows in it. */
+    private static final class Fragment {
+        final String key;
+        final int rows;
+        final List<ReportSections.Section> sections;
+
+        Fragment(String key, int rows, List<ReportSections.Section> sections) {
+            this.key = key;
+            this.rows = rows;
+            this.sections = sections;
+        }
+    }
+
+    // ------------------- Rendering -------------------
+
+    public void render(OutputStream out, List<ExamHall> examHalls, SubjectCatalog catalog,
+                       String titleText, boolean isBranchSpecific, AllocationIndex index)
+            throws IOException, DocumentException {
+        PipelineMetrics.Stage stage = PipelineMetrics.begin("render.cached");
+        if (isBranchSpecific && index == null) index = AllocationIndex.build(examHalls);
+        Fragments fragments = new Fragments();
+        ReportSections.walk(examHalls, index, catalog, titleText, isBranchSpecific, fragments);
+        stage.rows(merge(out, fragments.finish())).end();
+    }
+
+    /** One report of a timetable, sitting by sitting. */
+    public void render(OutputStream out, List<ExamTimetable.Sitting> sittings, SubjectCatalog catalog,
+                       String titleText, boolean isBranchSpecific) throws IOException, DocumentException {
+        PipelineMetrics.Stage stage = PipelineMetrics.begin("render.cached");
+        Fragments fragments = new Fragments();
+        ReportSections.walk(sittings, catalog, titleText, isBranchSpecific, fragments);
+        stage.rows(merge(out, fragments.finish())).end();
+    }
+
+    /** Both reports of a timetable; a room printed the same in both is rendered once. */
+    public void renderBoth(String commonOutput, String branchOutput, List<ExamTimetable.Sitting> sittings,
+                           SubjectCatalog catalog) throws IOException, DocumentException {
+        try (OutputStream out = new FileOutputStream(commonOutput)) {
+            render(out, sittings, catalog, ParallelReportRenderer.COMMON_TITLE, false);
+        }
+        try (OutputStream out = new FileOutputStream(branchOutput)) {
+            render(out, sittings, catalog, ParallelReportRenderer.BRANCH_TITLE, true);
+        }
+    }
+
+    /** Fetches the fragments in parallel and appends them in order; returns the student rows printed. */
+    private long merge(OutputStream out, List<Fragment> fragments) throws IOException, DocumentException {
+        Document merged = new Document();
+        PdfSmartCopy copy = new PdfSmartCopy(merged, out);
+        merged.open();
+        long rows = 0;
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            ArrayDeque<Future<byte[]>> pending = new ArrayDeque<>();
+            for (Fragment f : fragments) {
+                rows += f.rows;
+                if (pending.size() == maxInFlight) {
+                    ParallelReportRenderer.append(copy, ParallelReportRenderer.await(pending.poll()));
+                }
+                pending.add(workers.submit(() -> fetch(f)));
+            }
+            while (!pending.isEmpty()) {
+                ParallelReportRenderer.append(copy, ParallelReportRenderer.await(pending.poll()));
+            }
+        }
+        merged.close();
+        return rows;
+    }
+
+    /**
+     * Cuts a walked report into fragments: everything printed before a room
+     * table (title, sitting heading, subject list, branch header) is one
+     * fragment, and every room table one of its own.
+     */
+    private static final class Fragments implements ReportSections.Visitor {
+        private final List<Fragment> out = new ArrayList<>();
+        private List<ReportSections.Section> header = new ArrayList<>();
+        private Key key = new Key("header");
+
+        @Override
+        public void title(String titleText) {
+            key.add("title").add(titleText);
+            header.add((doc, fonts) -> ReportSections.addTitle(doc, titleText, fonts));
+        }
+
+        @Override
+        public void sitting(ExamTimetable.Slot slot) {
+            key.add("sitting").add(slot.getStart().toString());
+            header.add((doc, fonts) -> ReportSections.addSitting(doc, slot, fonts));
+        }
+
+        @Override
+        public void commonSubjects(List<Subject> subjects) {
+            key.add("common");
+            for (Subject s : subjects) key.add(ReportSections.subjectLine(s));
+            header.add((doc, fonts) -> ReportSections.addCommonSubjects(doc, subjects, fonts));
+        }
+
+        @Override
+        public void branch(String branchName, List<Subject> branchSubjects) {
+            key.add("branch").add(branchName);
+            for (Subject s : branchSubjects) key.add(ReportSections.subjectLine(s));
+            header.add((doc, fonts) -> ReportSections.addBranchSubjects(doc, branchName, branchSubjects, fonts));
+        }
+
+        @Override
+        public void hall(ExamHall eh, List<Student> students) {
+            flushHeader();
+            Key hall = new Key("hall")
+                    .add(eh.getRoom().getRoomNumber())
+                    .add(eh.getInvigilator() != null ? eh.getInvigilator().getName() : "N/A")
+                    .add(students.size());
+            for (Student st : students) hall.add(st.getPRN()).add(st.getName()).add(st.getBranch());
+            out.add(new Fragment(hall.hex(), students.size(),
+                    List.of((doc, fonts) -> ReportSections.addHall(doc, eh, students, fonts))));
+        }
+
+        private void flushHeader() {
+            if (header.isEmpty()) return;
+            out.add(new Fragment(key.hex(), 0, header));
+            header = new ArrayList<>();
+            key = new Key("header");
+        }
+
+        List<Fragment> finish() {
+            flushHeader();
+            return out;
+        }
+    }
+
+    /** The stored fragment, or a freshly rendered and stored one. */
+    private byte[] fetch(Fragment f) throws IOException, DocumentException {
+        if (contains(f.key)) {
+            Path file = file(f.key);
+            try {
+                byte[] pdf = Files.readAllBytes(file);
+                Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+                hits.incrementAndGet();
+                return pdf;
+            } catch (NoSuchFileException e) {
+                // evicted in the meantime; render it again
+                forget(f.key);
+            }
+        }
+        misses.incrementAndGet();
+        byte[] pdf = ParallelReportRenderer.renderPart(f.sections);
+        store(f.key, pdf);
+        return pdf;
+    }
+
+    // ------------------- Store -------------------
+
+    private void load() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir, "*.pdf")) {
+            for (Path p : ds) files.add(p);
+        }
+        // Oldest first, so the access order starts out as the last run left it
+        Map<Path, FileTime> mtimes = new HashMap<>();
+        for (Path p : files) mtimes.put(p, Files.getLastModifiedTime(p));
+        files.sort(Comparator.comparing(mtimes::get));
+        synchronized (this) {
+            for (Path p : files) {
+                String name = p.getFileName().toString();
+                long size = Files.size(p);
+                entries.put(name.substring(0, name.length() - ".pdf".length()), size);
+                bytes += size;
+            }
+            evict();
+        }
+    }
+
+    private synchronized boolean contains(String key) {
+        return entries.get(key) != null;    // get, not containsKey: a lookup counts as a use
+    }
+
+    private synchronized void forget(String key) {
+        Long size = entries.remove(key);
+        if (size != null) bytes -= size;
+    }
+
+    private void store(String key, byte[] pdf) throws IOException {
+        Path target = file(key);
+        Path tmp = dir.resolve(key + "." + Thread.currentThread().threadId() + ".part");
+        Files.write(tmp, pdf);
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        synchronized (this) {
+            Long old = entries.put(key, (long) pdf.length);
+            bytes += pdf.length - (old == null ? 0 : old);
+            evict();
+        }
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<String, Long>> it = entries.entrySet().iterator();
+        while (bytes > maxBytes && it.hasNext()) {
+            Map.Entry<String, Long> eldest = it.next();
+            try {
+                Files.deleteIfExists(file(eldest.getKey()));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            bytes -= eldest.getValue();
+            it.remove();
+        }
+    }
+
+    private Path file(String key) {
+        return dir.resolve(key + ".pdf");
+    }
+
+    // ------------------- Statistics -------------------
+
+    public long getHits() { return hits.get(); }
+    public long getMisses() { return misses.get(); }
+    public synchronized long getBytes() { return bytes; }
+    public synchronized int getFragmentCount() { return entries.size(); }
+
+    public void resetStatistics() {
+        hits.set(0);
+        misses.set(0);
+    }
+
+    // ------------------- Keys -------------------
+
+    /** SHA-256 over length-prefixed fields, so ("ab","c") and ("a","bc") differ. */
+    private static final class Key {
+        private final MessageDigest md;
+
+        Key(String kind) {
+            try {
+                md = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+            add(TEMPLATE_VERSION).add(kind);
+        }
+
+        Key add(String s) {
+            byte[] b = s.getBytes(StandardCharsets.UTF_8);
+            add(b.length);
+            md.update(b);
+            return this;
+        }
+
+        Key add(int v) {
+            md.update((byte) (v >>> 24));
+            md.update((byte) (v >>> 16));
+            md.update((byte) (v >>> 8));
+            md.update((byte) v);
+            return this;
+        }
+
+        String hex() {
+            byte[] d = md.digest();
+            StringBuilder sb = new StringBuilder(d.length * 2);
+            for (byte x : d) sb.append(Character.forDigit((x >> 4) & 0xF, 16)).append(Character.forDigit(x & 0xF, 16));
+            return sb.toString();
+        }
+    }
+}
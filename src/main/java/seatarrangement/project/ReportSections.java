@@ -0,0 +1,318 @@
+package seatarrangement.project;
+
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+
+import com.itextpdf.text.Document;
+import com.itextpdf.text.DocumentException;
+import com.itextpdf.text.Element;
+import com.itextpdf.text.Font;
+import com.itextpdf.text.ListItem;
+import com.itextpdf.text.Paragraph;
+import com.itextpdf.text.pdf.PdfPTable;
+
+/**
+ * The building blocks of both seating reports, shared by the serial
+ * {@link ExamSystemExcelPDF#generatePDFWithSubjects} path and the parallel
+ * {@link ParallelReportRenderer}.
+ *
+ * What a report prints and in which order is decided once, by {@link #walk},
+ * for a single seating or for a timetable sitting by sitting. A report is
+ * planned from that walk as an ordered list of parts; each part is a list of
+ * sections that only read the allocation, so parts can be rendered into
+ * separate documents on different threads and stitched back in order.
+ */
+final class ReportSections {
+
+    private static final DateTimeFormatter SESSION = DateTimeFormatter.ofPattern("dd-MM-uuuu hh:mm a", Locale.ROOT);
+
+    private static final String SEPARATOR = "--------------------------------------------------";
+
+    private ReportSections() { }
+
+    /** Writes one piece of a report into a document. */
+    @FunctionalInterface
+    interface Section {
+        void write(Document document, Fonts fonts) throws DocumentException;
+    }
+
+    /** Fonts are created per document so no iText state is shared between workers. */
+    static final class Fonts {
+        final Font title = new Font(Font.FontFamily.TIMES_ROMAN, 18, Font.BOLD);
+        final Font subTitle = new Font(Font.FontFamily.TIMES_ROMAN, 14, Font.BOLD);
+    }
+
+    // ------------------- Walking -------------------
+
+    /**
+     * What a report prints, in order. {@link #walk} drives it; the renderers
+     * decide how to cut it into parts and where the sections go.
+     */
+    interface Visitor {
+        void title(String titleText) throws DocumentException;
+
+        /** Start of one sitting of a timetable; not called for a report over a single seating. */
+        void sitting(ExamTimetable.Slot slot) throws DocumentException;
+
+        void commonSubjects(List<Subject> subjects) throws DocumentException;
+
+        void branch(String branchName, List<Subject> branchSubjects) throws DocumentException;
+
+        void hall(ExamHall eh, List<Student> students) throws DocumentException;
+    }
+
+    /**
+     * One seating for the whole roster: the common report lists every common
+     * subject and every room, the branch-only report every branch with its
+     * students room by room.
+     */
+    static void walk(List<ExamHall> examHalls, AllocationIndex index, SubjectCatalog catalog,
+                     String titleText, boolean isBranchSpecific, Visitor visitor) throws DocumentException {
+        visitor.title(titleText);
+        visit(examHalls, index, catalog, null, isBranchSpecific, visitor);
+    }
+
+    /**
+     * A timetable, sitting by sitting. The common report takes the sittings
+     * that write a common subject, the branch-only report those that write a
+     * branch subject; each lists only the subjects of its slot.
+     */
+    static void walk(List<ExamTimetable.Sitting> sittings, SubjectCatalog catalog,
+                     String titleText, boolean isBranchSpecific, Visitor visitor) throws DocumentException {
+        visitor.title(titleText);
+        List<Subject> kind = isBranchSpecific ? catalog.getBranchOnlySubjects() : catalog.getCommonSubjects();
+        for (ExamTimetable.Sitting sitting : sittings) {
+            BitSet slot = catalog.idsOf(sitting.getSlot().getSubjects());
+            if (!slot.intersects(catalog.idsOf(kind))) continue;
+            visitor.sitting(sitting.getSlot());
+            visit(sitting.getHalls(), sitting.getIndex(), catalog, slot, isBranchSpecific, visitor);
+        }
+    }
+
+    /** {@code only} limits the subjects listed; null lists them all. */
+    private static void visit(List<ExamHall> examHalls, AllocationIndex index, SubjectCatalog catalog, BitSet only,
+                              boolean isBranchSpecific, Visitor visitor) throws DocumentException {
+        if (isBranchSpecific) {
+            for (int b = 0; b < catalog.getBranchCount(); b++) {
+                List<Subject> branchSubjects = subset(catalog, catalog.getBranchSubjects(b), only);
+                if (branchSubjects.isEmpty()) continue;
+                visitor.branch(catalog.getBranchName(b), branchSubjects);
+
+                List<AllocationIndex.SeatRange> ranges = index.getRanges(catalog, b);
+                for (int r = 0; r < ranges.size(); ) {
+                    ExamHall eh = ranges.get(r).getHall();
+                    List<Student> roomBranchStudents = new ArrayList<>();
+                    for (; r < ranges.size() && ranges.get(r).getHall() == eh; r++) {
+                        roomBranchStudents.addAll(ranges.get(r).getStudents());
+                    }
+                    visitor.hall(eh, roomBranchStudents);
+                }
+            }
+        } else {
+            visitor.commonSubjects(subset(catalog, catalog.getCommonSubjects(), only));
+            for (ExamHall eh : examHalls) visitor.hall(eh, eh.getRoom().getStudents());
+        }
+    }
+
+    private static List<Subject> subset(SubjectCatalog catalog, List<Subject> subjects, BitSet only) {
+        if (only == null) return subjects;
+        List<Subject> out = new ArrayList<>();
+        for (Subject s : subjects) {
+            if (only.get(catalog.getSubjectId(s))) out.add(s);
+        }
+        return out;
+    }
+
+    // ------------------- Planning -------------------
+
+    /**
+     * Splits a report into parts of at most {@code hallsPerPart} room tables.
+     * The branch-only report also starts a new part for every branch. The
+     * common report lists the catalog's common subjects, the branch-only
+     * report its branches.
+     */
+    static List<List<Section>> plan(List<ExamHall> examHalls,
+                                    SubjectCatalog catalog,
+                                    String titleText,
+                                    boolean isBranchSpecific,
+                                    AllocationIndex index,
+                                    int hallsPerPart) throws DocumentException {
+        Planner planner = new Planner(hallsPerPart);
+        walk(examHalls, index, catalog, titleText, isBranchSpecific, planner);
+        return planner.finish();
+    }
+
+    /** The same for a timetable; every sitting also starts a new part. */
+    static List<List<Section>> plan(List<ExamTimetable.Sitting> sittings,
+                                    SubjectCatalog catalog,
+                                    String titleText,
+                                    boolean isBranchSpecific,
+                                    int hallsPerPart) throws DocumentException {
+        Planner planner = new Planner(hallsPerPart);
+        walk(sittings, catalog, titleText, isBranchSpecific, planner);
+        return planner.finish();
+    }
+
+    private static final class Planner implements Visitor {
+        private final int hallsPerPart;
+        private final List<List<Section>> parts = new ArrayList<>();
+        private List<Section> current = new ArrayList<>();
+        private int hallsInPart;
+        private boolean branchOpen;
+
+        Planner(int hallsPerPart) {
+            this.hallsPerPart = hallsPerPart;
+        }
+
+        @Override
+        public void title(String titleText) {
+            current.add((doc, fonts) -> addTitle(doc, titleText, fonts));
+        }
+
+        @Override
+        public void sitting(ExamTimetable.Slot slot) {
+            closeBranch();
+            if (hallsInPart > 0) cut();
+            current.add((doc, fonts) -> addSitting(doc, slot, fonts));
+        }
+
+        @Override
+        public void commonSubjects(List<Subject> subjects) {
+            current.add((doc, fonts) -> addCommonSubjects(doc, subjects, fonts));
+        }
+
+        @Override
+        public void branch(String branchName, List<Subject> branchSubjects) {
+            closeBranch();
+            if (hallsInPart > 0) cut();
+            current.add((doc, fonts) -> addBranchSubjects(doc, branchName, branchSubjects, fonts));
+            branchOpen = true;
+        }
+
+        @Override
+        public void hall(ExamHall eh, List<Student> students) {
+            if (hallsInPart == hallsPerPart) cut();
+            current.add((doc, fonts) -> addHall(doc, eh, students, fonts));
+            hallsInPart++;
+        }
+
+        private void closeBranch() {
+            if (branchOpen) current.add((doc, fonts) -> doc.add(new Paragraph(" ")));
+            branchOpen = false;
+        }
+
+        private void cut() {
+            parts.add(current);
+            current = new ArrayList<>();
+            hallsInPart = 0;
+        }
+
+        List<List<Section>> finish() {
+            closeBranch();
+            parts.add(current);
+            return parts;
+        }
+    }
+
+    // ------------------- Sections -------------------
+
+    static void addTitle(Document document, String titleText, Fonts fonts) throws DocumentException {
+        Paragraph title = new Paragraph(titleText, fonts.title);
+        title.setAlignment(Element.ALIGN_CENTER);
+        document.add(title);
+        document.add(new Paragraph(" "));
+    }
+
+    static void addSitting(Document document, ExamTimetable.Slot slot, Fonts fonts) throws DocumentException {
+        document.add(new Paragraph("Session of " + SESSION.format(slot.getStart()), fonts.subTitle));
+        document.add(new Paragraph(" "));
+    }
+
+    static void addCommonSubjects(Document document, List<Subject> subjects, Fonts fonts) throws DocumentException {
+        // Common subjects simple ordered list
+        Paragraph subHeader = new Paragraph("Subjects Included:", fonts.subTitle);
+        document.add(subHeader);
+        com.itextpdf.text.List subjList = new com.itextpdf.text.List(com.itextpdf.text.List.ORDERED);
+        for (Subject s : subjects) {
+            subjList.add(new ListItem(subjectLine(s)));
+        }
+        document.add(subjList);
+        document.add(new Paragraph(" "));
+    }
+
+    static void addBranchSubjects(Document document, String branchName, List<Subject> branchSubjects,
+                                  Fonts fonts) throws DocumentException {
+        Paragraph branchHeader = new Paragraph(branchName + ":", fonts.subTitle);
+        document.add(branchHeader);
+
+        com.itextpdf.text.List subList = new com.itextpdf.text.List(com.itextpdf.text.List.UNORDERED);
+        for (Subject s : branchSubjects) {
+            subList.add(new ListItem(subjectLine(s)));
+        }
+        document.add(subList);
+        document.add(new Paragraph(" "));
+    }
+
+    static void addHall(Document document, ExamHall eh, List<Student> students, Fonts fonts) throws DocumentException {
+        document.add(roomHeading(eh, fonts));
+
+        PdfPTable table = new PdfPTable(3);
+        table.addCell("Name");
+        table.addCell("PRN");
+        table.addCell("Branch");
+        for (Student st : students) {
+            table.addCell(st.getName());
+            table.addCell(st.getPRN());
+            table.addCell(st.getBranch());
+        }
+        document.add(table);
+        document.add(new Paragraph(SEPARATOR));
+    }
+
+    /**
+     * The same room table in iText's large-table mode: the rows added so far
+     * are laid out and written every {@code flushRows} students, and the
+     * header row repeats when a room runs over a page. Returns the rows written.
+     */
+    static int addHall(Document document, ExamHall eh, List<Student> students, Fonts fonts, int flushRows)
+            throws DocumentException {
+        document.add(roomHeading(eh, fonts));
+
+        PdfPTable table = new PdfPTable(3);
+        table.setComplete(false);
+        table.setHeaderRows(1);
+        table.addCell("Name");
+        table.addCell("PRN");
+        table.addCell("Branch");
+        int pending = 0;
+        for (Student st : students) {
+            table.addCell(st.getName());
+            table.addCell(st.getPRN());
+            table.addCell(st.getBranch());
+            if (++pending == flushRows) {
+                document.add(table);
+                pending = 0;
+            }
+        }
+        table.setComplete(true);
+        document.add(table);
+        document.add(new Paragraph(SEPARATOR));
+        return students.size();
+    }
+
+    private static Paragraph roomHeading(ExamHall eh, Fonts fonts) {
+        return new Paragraph(
+                "Room " + eh.getRoom().getRoomNumber() +
+                        " | Invigilator: " + (eh.getInvigilator() != null ? eh.getInvigilator().getName() : "N/A"),
+                fonts.subTitle
+        );
+    }
+
+    static String subjectLine(Subject s) {
+        String prettyDate = s.getExamDate().replace(" 0.00", " 09:00 AM");
+        return s.getName() + " — " + s.getDuration() + " — " + prettyDate;
+    }
+}
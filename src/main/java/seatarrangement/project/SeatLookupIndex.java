@@ -0,0 +1,444 @@
+package seatarrangement.project;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The help-desk index: where does a student sit, on which day, for which
+ * papers. Built once from the seated timetable, then opened memory-mapped
+ * and queried by PRN or by the start of a name.
+ *
+ * Every (student, sitting) pair is one fixed-size record. Two access paths
+ * sit next to the records:
+ * <ul>
+ *   <li>the record numbers sorted by PRN bytes, searched by bisection; a
+ *       student's sittings are neighbours in it, in timetable order;</li>
+ *   <li>a radix trie over the lower-cased names. The record numbers are also
+ *       stored sorted by name, so every trie node stands for one contiguous
+ *       range of them and a prefix query is a walk of at most the prefix
+ *       length followed by a slice.</li>
+ * </ul>
+ * The file, little-endian:
+ * <pre>
+ * header   "EXSEEK" u16 version, u32 records, u32 trie nodes,
+ *          u64 PRN index, u64 name order, u64 trie, u64 strings (offsets)
+ * records  per record: i64 start (epoch seconds, no zone), i32 building, i32 room,
+ *          i32 bench (1-based), i32 year, u32 minutes, u32 prn, u32 name, u32 branch,
+ *          u32 invigilator (-1 = none), u32 subjects
+ * index    u32 record numbers ordered by PRN bytes
+ * names    u32 record numbers ordered by lower-cased name bytes
+ * trie     per node: u32 label, u16 label length, u16 children, u32 first child,
+ *          u32 from, u32 to (name order range); children are consecutive and
+ *          ordered by their label's first byte; node 0 is the root
+ * strings  u16 length + UTF-8 strings; subject lists as u16 count + u32 string
+ *          offsets; raw trie labels
+ * </pre>
+ * Offsets are ints, which bounds the file to 2 GB (some 20 million records).
+ * A student's papers in a sitting are the slot's subjects that
+ * {@link SubjectCatalog} lists for the student's (branch, year) cohort.
+ */
+final class SeatLookupIndex {
+
+    static final int VERSION = 1;
+    private static final byte[] MAGIC = { 'E', 'X', 'S', 'E', 'E', 'K' };
+    private static final int HEADER = 6 + 2 + 4 + 4 + 4 * 8;
+    private static final int RECORD = 48;
+    private static final int NODE = 20;
+
+    private SeatLookupIndex() { }
+
+    // ------------------- Writing -------------------
+
+    /** {@code catalog} is the one the timetable was scheduled with. */
+    public static void write(Path file, List<ExamTimetable.Sitting> sittings, SubjectCatalog catalog)
+            throws IOException {
+        PipelineMetrics.Stage stage = PipelineMetrics.begin("export.lookup");
+        int n = 0;
+        for (ExamTimetable.Sitting s : sittings) {
+            for (ExamHall eh : s.getHalls()) n += eh.getRoom().getStudents().size();
+        }
+        byte[][] prns = new byte[n][];
+        byte[][] names = new byte[n][];
+        SeatMapExport.Strings strings = new SeatMapExport.Strings(n);
+
+        try (SeatMapExport.Sink out = new SeatMapExport.Sink(file)) {
+            out.skip(HEADER);
+            int r = 0;
+            for (ExamTimetable.Sitting sitting : sittings) {
+                ExamTimetable.Slot slot = sitting.getSlot();
+                long start = slot.getStart().toEpochSecond(ZoneOffset.UTC);
+                int minutes = (int) slot.getDuration().toMinutes();
+                // The papers of this slot, per (branch, year) cohort
+                BitSet slotPapers = catalog.idsOf(slot.getSubjects());
+                Map<Long, Integer> papers = new HashMap<>();
+                for (ExamHall eh : sitting.getHalls()) {
+                    int roomNo = eh.getRoom().getRoomNumber();
+                    int building = sitting.getIndex().getBuildingNumber(roomNo);
+                    int invigilator = eh.getInvigilator() == null ? -1 : strings.shared(eh.getInvigilator().getName());
+                    List<Student> students = eh.getRoom().getStudents();
+                    for (int i = 0; i < students.size(); i++, r++) {
+                        Student st = students.get(i);
+                        int branch = catalog.branchOf(st.getBranch());
+                        long cohort = ((long) branch << 32) | (st.getYear() & 0xFFFFFFFFL);
+                        Integer list = papers.get(cohort);
+                        if (list == null) {
+                            BitSet mine = catalog.getPapers(branch, st.getYear());
+                            mine.and(slotPapers);
+                            list = subjectList(strings, catalog, mine);
+                            papers.put(cohort, list);
+                        }
+                        prns[r] = st.getPRN().getBytes(StandardCharsets.UTF_8);
+                        names[r] = st.getName().toLowerCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8);
+                        out.int64(start).int32(building).int32(roomNo).int32(i + 1).int32(st.getYear())
+                                .int32(minutes).int32(strings.add(prns[r])).int32(strings.add(st.getName()))
+                                .int32(strings.shared(st.getBranch())).int32(invigilator).int32(list);
+                    }
+                }
+            }
+
+            long prnAt = out.position();
+            for (int rec : SeatMapExport.sortedByBytes(prns)) out.int32(rec);
+            long namesAt = out.position();
+            int[] byName = SeatMapExport.sortedByBytes(names);
+            for (int rec : byName) out.int32(rec);
+            long trieAt = out.position();
+            int nodes = writeTrie(out, strings, names, byName);
+            long stringsAt = out.position();
+            out.bytes(strings.buf, strings.size);
+            out.flush();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER).order(ByteOrder.LITTLE_ENDIAN);
+            header.put(MAGIC).putShort((short) VERSION).putInt(n).putInt(nodes)
+                    .putLong(prnAt).putLong(namesAt).putLong(trieAt).putLong(stringsAt).flip();
+            out.channel.write(header, 0);
+            out.commit();
+        }
+        stage.rows(n).written(file).end();
+    }
+
+    private static int subjectList(SeatMapExport.Strings strings, SubjectCatalog catalog, BitSet ids) {
+        int[] refs = new int[ids.cardinality()];
+        for (int i = 0, id = ids.nextSetBit(0); id >= 0; i++, id = ids.nextSetBit(id + 1)) {
+            refs[i] = strings.shared(catalog.getSubject(id).getName());
+        }
+        int ref = strings.raw(new byte[] { (byte) refs.length, (byte) (refs.length >>> 8) }, 0, 2);
+        for (int x : refs) strings.int32(x);
+        return ref;
+    }
+
+    /**
+     * Radix trie over the names in name order, written breadth first so each
+     * node's children are consecutive. A node's label is the longest common
+     * prefix of its range past the parent (the first and last name of a
+     * sorted range share it with all in between); names that end at a node
+     * sort before its children. Returns the node count.
+     */
+    private static int writeTrie(SeatMapExport.Sink out, SeatMapExport.Strings strings, byte[][] names, int[] byName)
+            throws IOException {
+        // from, to, depth past the label, label offset, label length per node
+        IntList from = new IntList();
+        IntList to = new IntList();
+        IntList depth = new IntList();
+        IntList label = new IntList();
+        IntList length = new IntList();
+        from.add(0);
+        to.add(byName.length);
+        depth.add(0);
+        label.add(0);
+        length.add(0);
+        for (int node = 0; node < from.size; node++) {
+            int d = depth.get(node);
+            int i = from.get(node);
+            int end = to.get(node);
+            while (i < end && names[byName[i]].length == d) i++;
+            int first = from.size;
+            while (i < end) {
+                byte b = names[byName[i]][d];
+                int j = i + 1;
+                while (j < end && names[byName[j]][d] == b) j++;
+                byte[] lo = names[byName[i]];
+                int lcp = lcp(lo, names[byName[j - 1]], d + 1);
+                lcp = Math.min(lcp, d + 0xFFFF);
+                from.add(i);
+                to.add(j);
+                depth.add(lcp);
+                label.add(strings.raw(lo, d, lcp - d));
+                length.add(lcp - d);
+                i = j;
+            }
+            out.int32(label.get(node)).int32((length.get(node) & 0xFFFF) | ((from.size - first) << 16))
+                    .int32(first).int32(from.get(node)).int32(to.get(node));
+        }
+        return from.size;
+    }
+
+    private static int lcp(byte[] a, byte[] b, int from) {
+        int n = Math.min(a.length, b.length);
+        int i = from;
+        while (i < n && a[i] == b[i]) i++;
+        return i;
+    }
+
+    /** Growable int array for the trie build. */
+    private static final class IntList {
+        int[] a = new int[1024];
+        int size;
+
+        void add(int v) {
+            if (size == a.length) a = Arrays.copyOf(a, size * 2);
+            a[size++] = v;
+        }
+
+        int get(int i) { return a[i]; }
+    }
+
+    // ------------------- Reading -------------------
+
+    /** One sitting of one student. */
+    static final class Seat {
+        private final LocalDateTime start;
+        private final int minutes;
+        private final int building;
+        private final int room;
+        private final int bench;
+        private final int year;
+        private final String prn;
+        private final String name;
+        private final String branch;
+        private final String invigilator;
+        private final List<String> subjects;
+
+        Seat(LocalDateTime start, int minutes, int building, int room, int bench, int year, String prn,
+             String name, String branch, String invigilator, List<String> subjects) {
+            this.start = start;
+            this.minutes = minutes;
+            this.building = building;
+            this.room = room;
+            this.bench = bench;
+            this.year = year;
+            this.prn = prn;
+            this.name = name;
+            this.branch = branch;
+            this.invigilator = invigilator;
+            this.subjects = subjects;
+        }
+
+        public LocalDateTime getStart() { return start; }
+        public LocalDateTime getEnd() { return start.plusMinutes(minutes); }
+        public int getBuilding() { return building; }
+        public int getRoom() { return room; }
+        /** 1-based. */
+        public int getBench() { return bench; }
+        public int getYear() { return year; }
+        public String getPrn() { return prn; }
+        public String getName() { return name; }
+        public String getBranch() { return branch; }
+        /** Null when the room had none. */
+        public String getInvigilator() { return invigilator; }
+        /** The papers this student writes in this sitting. */
+        public List<String> getSubjects() { return subjects; }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%s %s: %s %s-%s, building %d, room %d, bench %d, invigilator %s, %s",
+                    prn, name, start.toLocalDate(), start.toLocalTime(), getEnd().toLocalTime(), building, room, bench,
+                    invigilator == null ? "N/A" : invigilator, String.join("; ", subjects));
+        }
+    }
+
+    public static Lookup open(Path file) throws IOException {
+        FileChannel ch = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            MappedByteBuffer map = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+            return new Lookup(ch, map.order(ByteOrder.LITTLE_ENDIAN));
+        } catch (IOException | RuntimeException e) {
+            ch.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Queries on an opened index; safe to share between threads. A null day
+     * means every day.
+     */
+    static final class Lookup implements Closeable {
+        private final FileChannel channel;
+        private final ByteBuffer map;
+        private final int records;
+        private final int prnAt;
+        private final int namesAt;
+        private final int trieAt;
+        private final int stringsAt;
+
+        private Lookup(FileChannel channel, ByteBuffer map) throws IOException {
+            this.channel = channel;
+            this.map = map;
+            byte[] magic = new byte[MAGIC.length];
+            map.get(0, magic);
+            if (!Arrays.equals(magic, MAGIC)) throw new IOException("Not a seat lookup index");
+            int version = map.getShort(6) & 0xFFFF;
+            if (version != VERSION) throw new IOException("Unsupported seat lookup index version " + version);
+            this.records = map.getInt(8);
+            this.prnAt = (int) map.getLong(16);
+            this.namesAt = (int) map.getLong(24);
+            this.trieAt = (int) map.getLong(32);
+            this.stringsAt = (int) map.getLong(40);
+        }
+
+        /** Number of (student, sitting) records. */
+        public int size() { return records; }
+
+        public List<Seat> find(String prn, LocalDate day) {
+            byte[] key = prn.getBytes(StandardCharsets.UTF_8);
+            return collect(key, lowerBound(key, 0, records), day);
+        }
+
+        /**
+         * Answers in query order. The queries are looked up in PRN order, each
+         * galloping forward from where the previous one ended, so a batch
+         * walks the index pages once, front to back.
+         */
+        public List<List<Seat>> findAll(List<String> prns, LocalDate day) {
+            byte[][] keys = new byte[prns.size()][];
+            for (int i = 0; i < keys.length; i++) keys[i] = prns.get(i).getBytes(StandardCharsets.UTF_8);
+            List<List<Seat>> out = new ArrayList<>(Collections.nCopies(keys.length, null));
+            int lo = 0;
+            for (int q : SeatMapExport.sortedByBytes(keys)) {
+                int step = 1;
+                int hi = lo;
+                while (hi < records && compare(prnRef(map.getInt(prnAt + hi * 4)), keys[q]) < 0) {
+                    lo = hi + 1;
+                    hi += step;
+                    step <<= 1;
+                }
+                lo = lowerBound(keys[q], lo, Math.min(hi, records));
+                out.set(q, collect(keys[q], lo, day));
+            }
+            return out;
+        }
+
+        /** Students whose name starts with {@code prefix}, ignoring case, in name order; at most {@code limit}. */
+        public List<Seat> findByName(String prefix, LocalDate day, int limit) {
+            byte[] key = prefix.toLowerCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8);
+            int node = 0;
+            int d = 0;
+            while (d < key.length) {
+                node = child(node, key[d]);
+                if (node < 0) return List.of();
+                int at = trieAt + node * NODE;
+                int label = stringsAt + map.getInt(at);
+                int k = Math.min(map.getShort(at + 4) & 0xFFFF, key.length - d);
+                for (int i = 0; i < k; i++) {
+                    if (map.get(label + i) != key[d + i]) return List.of();
+                }
+                d += k;
+            }
+            int at = trieAt + node * NODE;
+            List<Seat> out = new ArrayList<>();
+            for (int i = map.getInt(at + 12), to = map.getInt(at + 16); i < to && out.size() < limit; i++) {
+                int rec = map.getInt(namesAt + i * 4);
+                if (onDay(rec, day)) out.add(seat(rec));
+            }
+            return out;
+        }
+
+        /** The child of {@code node} whose label starts with {@code b}, or -1. */
+        private int child(int node, byte b) {
+            int at = trieAt + node * NODE;
+            int lo = map.getInt(at + 8);
+            int hi = lo + (map.getShort(at + 6) & 0xFFFF) - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                int c = (map.get(stringsAt + map.getInt(trieAt + mid * NODE)) & 0xFF) - (b & 0xFF);
+                if (c < 0) lo = mid + 1;
+                else if (c > 0) hi = mid - 1;
+                else return mid;
+            }
+            return -1;
+        }
+
+        /** First position in the PRN index, in {@code [lo, hi]}, whose PRN is not below {@code key}. */
+        private int lowerBound(byte[] key, int lo, int hi) {
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (compare(prnRef(map.getInt(prnAt + mid * 4)), key) < 0) lo = mid + 1;
+                else hi = mid;
+            }
+            return lo;
+        }
+
+        /** The records of {@code key}, which start at {@code from} in the PRN index if there are any. */
+        private List<Seat> collect(byte[] key, int from, LocalDate day) {
+            List<Seat> out = new ArrayList<>(1);
+            for (int i = from; i < records; i++) {
+                int rec = map.getInt(prnAt + i * 4);
+                if (compare(prnRef(rec), key) != 0) break;
+                if (onDay(rec, day)) out.add(seat(rec));
+            }
+            return out;
+        }
+
+        private boolean onDay(int rec, LocalDate day) {
+            if (day == null) return true;
+            long start = map.getLong(HEADER + rec * RECORD);
+            return Math.floorDiv(start, 86_400L) == day.toEpochDay();
+        }
+
+        private int prnRef(int rec) {
+            return map.getInt(HEADER + rec * RECORD + 28);
+        }
+
+        Seat seat(int rec) {
+            int at = HEADER + rec * RECORD;
+            int list = stringsAt + map.getInt(at + 44);
+            String[] subjects = new String[map.getShort(list) & 0xFFFF];
+            for (int i = 0; i < subjects.length; i++) subjects[i] = string(map.getInt(list + 2 + i * 4));
+            return new Seat(LocalDateTime.ofEpochSecond(map.getLong(at), 0, ZoneOffset.UTC), map.getInt(at + 24),
+                    map.getInt(at + 8), map.getInt(at + 12), map.getInt(at + 16), map.getInt(at + 20),
+                    string(map.getInt(at + 28)), string(map.getInt(at + 32)), string(map.getInt(at + 36)),
+                    string(map.getInt(at + 40)), List.of(subjects));
+        }
+
+        private int compare(int ref, byte[] key) {
+            int at = stringsAt + ref;
+            int len = map.getShort(at) & 0xFFFF;
+            int n = Math.min(len, key.length);
+            for (int i = 0; i < n; i++) {
+                int c = (map.get(at + 2 + i) & 0xFF) - (key[i] & 0xFF);
+                if (c != 0) return c;
+            }
+            return len - key.length;
+        }
+
+        private String string(int ref) {
+            if (ref < 0) return null;
+            int at = stringsAt + ref;
+            byte[] b = new byte[map.getShort(at) & 0xFFFF];
+            map.get(at + 2, b);
+            return new String(b, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,533 @@
+package seatarrangement.project;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Machine-readable seat maps for downstream systems, written in one pass over
+ * the {@link ExamHall} results:
+ * <ul>
+ *   <li>{@code .ndjson}: one JSON object per seat;</li>
+ *   <li>{@code .csv}: {@code Building,Room,Bench,PRN,Name,Branch,Year,Invigilator};</li>
+ *   <li>{@code .seats}: a binary file with a PRN index, read with {@link Lookup}.</li>
+ * </ul>
+ * Every format is encoded byte by byte into a 1 MB direct buffer per file
+ * and written through a {@link FileChannel}; no per-seat Strings are built.
+ * Files are written to {@code .part} and moved into place when complete.
+ * Benches are 1-based, as on the door sheets. A timetable gets one set of
+ * files per sitting, named after its start.
+ *
+ * The binary layout, little-endian:
+ * <pre>
+ * header   "EXSEAT" u16 version, u32 seats, u64 index offset, u64 strings offset
+ * seats    per seat: i32 building, i32 room, i32 bench, i32 year,
+ *                    u32 prn, u32 name, u32 branch, u32 invigilator (string offsets, -1 = none)
+ * index    u32 seat numbers ordered by PRN bytes
+ * strings  per string: u16 length, UTF-8 bytes (branches and invigilators stored once)
+ * </pre>
+ * A lookup is a binary search over the index, O(log n) string compares
+ * straight on the mapped file.
+ */
+final class SeatMapExport {
+
+    static final int VERSION = 1;
+    private static final byte[] MAGIC = { 'E', 'X', 'S', 'E', 'A', 'T' };
+    private static final int HEADER = 6 + 2 + 4 + 8 + 8;
+    private static final int RECORD = 32;
+    private static final String[] EXTENSIONS = { ".ndjson", ".csv", ".seats" };
+    private static final DateTimeFormatter SITTING = DateTimeFormatter.ofPattern("uuuu-MM-dd-HHmm", Locale.ROOT);
+
+    private SeatMapExport() { }
+
+    /**
+     * One set of files per sitting, {@code <yyyy-MM-dd-HHmm>.ndjson|.csv|.seats}, into
+     * {@code dir}; seat maps of sittings no longer in the timetable are removed.
+     * Only names of that form are ever removed, so other files in {@code dir} stay.
+     */
+    static void writeAll(Path dir, List<ExamTimetable.Sitting> sittings) throws IOException {
+        Files.createDirectories(dir);
+        Set<Path> written = new HashSet<>();
+        for (ExamTimetable.Sitting sitting : sittings) {
+            String base = SITTING.format(sitting.getSlot().getStart());
+            writeAll(dir, base, sitting.getHalls(), sitting.getIndex());
+            for (String ext : EXTENSIONS) written.add(dir.resolve(base + ext));
+        }
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir, "*.{ndjson,csv,seats}")) {
+            for (Path p : ds) {
+                if (!written.contains(p) && isSittingFile(p.getFileName().toString())) Files.delete(p);
+            }
+        }
+    }
+
+    /** {@code <yyyy-MM-dd-HHmm>} and one of the three extensions, as {@link #writeAll(Path, List)} names them. */
+    static boolean isSittingFile(String name) {
+        int dot = name.lastIndexOf('.');
+        if (dot < 0 || !Arrays.asList(EXTENSIONS).contains(name.substring(dot))) return false;
+        try {
+            LocalDateTime.parse(name.substring(0, dot), SITTING);
+            return true;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    /** Writes {@code <base>.ndjson}, {@code <base>.csv} and {@code <base>.seats} into {@code dir}. */
+    static void writeAll(Path dir, String base, List<ExamHall> halls, AllocationIndex index) throws IOException {
+        write(halls, index, dir.resolve(base + ".ndjson"), dir.resolve(base + ".csv"), dir.resolve(base + ".seats"));
+    }
+
+    /** Any of the targets may be null to skip that format. */
+    static void write(List<ExamHall> halls, AllocationIndex index, Path ndjson, Path csv, Path binary)
+            throws IOException {
+        PipelineMetrics.Stage stage = PipelineMetrics.begin("export.seatmap");
+        int seats = 0;
+        for (ExamHall eh : halls) seats += eh.getRoom().getStudents().size();
+
+        try (Sink json = ndjson == null ? null : new Sink(ndjson);
+             Sink table = csv == null ? null : new Sink(csv);
+             Sink bin = binary == null ? null : new Sink(binary)) {
+            Strings strings = bin == null ? null : new Strings(seats);
+            byte[][] prns = bin == null ? null : new byte[seats][];
+            if (table != null) table.ascii("Building,Room,Bench,PRN,Name,Branch,Year,Invigilator\n");
+            if (bin != null) bin.skip(HEADER);
+
+            int seat = 0;
+            for (ExamHall eh : halls) {
+                Room room = eh.getRoom();
+                int roomNo = room.getRoomNumber();
+                int building = index == null ? -1 : index.getBuildingNumber(roomNo);
+                String invigilator = eh.getInvigilator() != null ? eh.getInvigilator().getName() : null;
+                int invigilatorRef = bin == null || invigilator == null ? -1 : strings.shared(invigilator);
+                List<Student> students = room.getStudents();
+                for (int i = 0; i < students.size(); i++, seat++) {
+                    Student st = students.get(i);
+                    if (json != null) {
+                        json.ascii("{\"building\":").decimal(building)
+                                .ascii(",\"room\":").decimal(roomNo)
+                                .ascii(",\"bench\":").decimal(i + 1)
+                                .ascii(",\"prn\":").json(st.getPRN())
+                                .ascii(",\"name\":").json(st.getName())
+                                .ascii(",\"branch\":").json(st.getBranch())
+                                .ascii(",\"year\":").decimal(st.getYear())
+                                .ascii(",\"invigilator\":").json(invigilator)
+                                .ascii("}\n");
+                    }
+                    if (table != null) {
+                        table.decimal(building).put(',').decimal(roomNo).put(',').decimal(i + 1).put(',')
+                                .csv(st.getPRN()).put(',').csv(st.getName()).put(',').csv(st.getBranch()).put(',')
+                                .decimal(st.getYear()).put(',').csv(invigilator).put('\n');
+                    }
+                    if (bin != null) {
+                        byte[] prn = st.getPRN().getBytes(StandardCharsets.UTF_8);
+                        prns[seat] = prn;
+                        bin.int32(building).int32(roomNo).int32(i + 1).int32(st.getYear())
+                                .int32(strings.add(prn)).int32(strings.add(st.getName()))
+                                .int32(strings.shared(st.getBranch())).int32(invigilatorRef);
+                    }
+                }
+            }
+
+            if (bin != null) {
+                long indexAt = bin.position();
+                for (int s : sortedByBytes(prns)) bin.int32(s);
+                long stringsAt = bin.position();
+                bin.bytes(strings.buf, strings.size);
+                bin.flush();
+                ByteBuffer header = ByteBuffer.allocate(HEADER).order(ByteOrder.LITTLE_ENDIAN);
+                header.put(MAGIC).putShort((short) VERSION).putInt(seats).putLong(indexAt).putLong(stringsAt).flip();
+                bin.channel.write(header, 0);
+            }
+            if (json != null) json.commit();
+            if (table != null) table.commit();
+            if (bin != null) bin.commit();
+        }
+        stage.rows(seats);
+        if (ndjson != null) stage.written(ndjson);
+        if (csv != null) stage.written(csv);
+        if (binary != null) stage.written(binary);
+        stage.end();
+    }
+
+    /** Positions ordered by their keys' bytes, unsigned; equal keys keep their order. */
+    static int[] sortedByBytes(byte[][] keys) {
+        Integer[] order = new Integer[keys.length];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> {
+            int c = Arrays.compareUnsigned(keys[a], keys[b]);
+            return c != 0 ? c : Integer.compare(a, b);
+        });
+        int[] out = new int[order.length];
+        for (int i = 0; i < out.length; i++) out[i] = order[i];
+        return out;
+    }
+
+    // ------------------- Lookup -------------------
+
+    /** A seat read back from a {@code .seats} file. */
+    static final class Seat {
+        private final int building;
+        private final int room;
+        private final int bench;
+        private final int year;
+        private final String prn;
+        private final String name;
+        private final String branch;
+        private final String invigilator;
+
+        Seat(int building, int room, int bench, int year, String prn, String name, String branch, String invigilator) {
+            this.building = building;
+            this.room = room;
+            this.bench = bench;
+            this.year = year;
+            this.prn = prn;
+            this.name = name;
+            this.branch = branch;
+            this.invigilator = invigilator;
+        }
+
+        public int getBuilding() { return building; }
+        public int getRoom() { return room; }
+        /** 1-based. */
+        public int getBench() { return bench; }
+        public int getYear() { return year; }
+        public String getPrn() { return prn; }
+        public String getName() { return name; }
+        public String getBranch() { return branch; }
+        /** Null when the room had none. */
+        public String getInvigilator() { return invigilator; }
+    }
+
+    /** Memory-mapped reader of a {@code .seats} file; safe to share between threads. */
+    static final class Lookup implements Closeable {
+        private final FileChannel channel;
+        private final ByteBuffer map;
+        private final int seats;
+        private final int indexAt;
+        private final int stringsAt;
+
+        private Lookup(FileChannel channel, ByteBuffer map) throws IOException {
+            this.channel = channel;
+            this.map = map;
+            byte[] magic = new byte[MAGIC.length];
+            map.get(0, magic);
+            if (!Arrays.equals(magic, MAGIC)) throw new IOException("Not a seat map file");
+            int version = map.getShort(6) & 0xFFFF;
+            if (version != VERSION) throw new IOException("Unsupported seat map version " + version);
+            this.seats = map.getInt(8);
+            this.indexAt = (int) map.getLong(12);
+            this.stringsAt = (int) map.getLong(20);
+        }
+
+        static Lookup open(Path file) throws IOException {
+            FileChannel ch = FileChannel.open(file, StandardOpenOption.READ);
+            try {
+                MappedByteBuffer map = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+                return new Lookup(ch, map.order(ByteOrder.LITTLE_ENDIAN));
+            } catch (IOException | RuntimeException e) {
+                ch.close();
+                throw e;
+            }
+        }
+
+        public int size() { return seats; }
+
+        /** The seat of a PRN, or null. */
+        public Seat find(String prn) {
+            int s = indexOf(prn.getBytes(StandardCharsets.UTF_8));
+            return s < 0 ? null : seat(s);
+        }
+
+        /** Seat number of a PRN, or -1; for callers that only need to know it is there. */
+        int indexOf(byte[] prn) {
+            int lo = 0;
+            int hi = seats - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                int s = map.getInt(indexAt + mid * 4);
+                int c = compare(map.getInt(HEADER + s * RECORD + 16), prn);
+                if (c < 0) lo = mid + 1;
+                else if (c > 0) hi = mid - 1;
+                else return s;
+            }
+            return -1;
+        }
+
+        /** The s-th seat in file (room, bench) order. */
+        Seat seat(int s) {
+            int at = HEADER + s * RECORD;
+            return new Seat(map.getInt(at), map.getInt(at + 4), map.getInt(at + 8), map.getInt(at + 12),
+                    string(map.getInt(at + 16)), string(map.getInt(at + 20)), string(map.getInt(at + 24)),
+                    string(map.getInt(at + 28)));
+        }
+
+        private int compare(int ref, byte[] key) {
+            int at = stringsAt + ref;
+            int len = map.getShort(at) & 0xFFFF;
+            int n = Math.min(len, key.length);
+            for (int i = 0; i < n; i++) {
+                int c = (map.get(at + 2 + i) & 0xFF) - (key[i] & 0xFF);
+                if (c != 0) return c;
+            }
+            return len - key.length;
+        }
+
+        private String string(int ref) {
+            if (ref < 0) return null;
+            int at = stringsAt + ref;
+            byte[] b = new byte[map.getShort(at) & 0xFFFF];
+            map.get(at + 2, b);
+            return new String(b, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    // ------------------- Encoding -------------------
+
+    /** String table of the binary formats; branch and invigilator names are stored once. */
+    static final class Strings {
+        byte[] buf;
+        int size;
+        private final Map<String, Integer> shared = new HashMap<>();
+
+        Strings(int seats) {
+            buf = new byte[Math.max(1024, seats * 24)];
+        }
+
+        int shared(String s) {
+            Integer ref = shared.get(s);
+            if (ref == null) {
+                ref = add(s);
+                shared.put(s, ref);
+            }
+            return ref;
+        }
+
+        int add(String s) {
+            return add(s.getBytes(StandardCharsets.UTF_8));
+        }
+
+        int add(byte[] b) {
+            int len = Math.min(b.length, 0xFFFF);
+            reserve(2 + len);
+            int ref = size;
+            buf[size++] = (byte) len;
+            buf[size++] = (byte) (len >>> 8);
+            System.arraycopy(b, 0, buf, size, len);
+            size += len;
+            return ref;
+        }
+
+        /** Bytes without a length, for tables of their own. */
+        int raw(byte[] b, int from, int len) {
+            reserve(len);
+            int ref = size;
+            System.arraycopy(b, from, buf, size, len);
+            size += len;
+            return ref;
+        }
+
+        /** A little-endian int, for tables of their own. */
+        int int32(int v) {
+            reserve(4);
+            int ref = size;
+            buf[size++] = (byte) v;
+            buf[size++] = (byte) (v >>> 8);
+            buf[size++] = (byte) (v >>> 16);
+            buf[size++] = (byte) (v >>> 24);
+            return ref;
+        }
+
+        private void reserve(int n) {
+            if (size + n > buf.length) buf = Arrays.copyOf(buf, Math.max(buf.length * 2, size + n));
+        }
+    }
+
+    /**
+     * Buffered, byte-level writer over a file channel. Bytes go to a
+     * {@code .part} sibling; {@link #commit} moves it into place, and closing
+     * without a commit deletes it, so a failed write never publishes a
+     * truncated file.
+     */
+    static final class Sink implements Closeable {
+        final FileChannel channel;
+        private final Path target;
+        private final Path tmp;
+        private final ByteBuffer buf = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+        private long flushed;
+        private boolean committed;
+
+        Sink(Path target) throws IOException {
+            this.target = target;
+            this.tmp = target.resolveSibling(target.getFileName() + ".part");
+            this.channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+        }
+
+        long position() { return flushed + buf.position(); }
+
+        Sink put(char c) throws IOException {
+            if (!buf.hasRemaining()) flush();
+            buf.put((byte) c);
+            return this;
+        }
+
+        Sink ascii(String s) throws IOException {
+            for (int i = 0; i < s.length(); i++) put(s.charAt(i));
+            return this;
+        }
+
+        Sink decimal(int v) throws IOException {
+            if (buf.remaining() < 11) flush();
+            if (v < 0) {
+                if (v == Integer.MIN_VALUE) return ascii(Integer.toString(v));
+                buf.put((byte) '-');
+                v = -v;
+            }
+            int start = buf.position();
+            do {
+                buf.put((byte) ('0' + v % 10));
+                v /= 10;
+            } while (v != 0);
+            for (int i = start, j = buf.position() - 1; i < j; i++, j--) {
+                byte t = buf.get(i);
+                buf.put(i, buf.get(j));
+                buf.put(j, t);
+            }
+            return this;
+        }
+
+        Sink utf8(String s) throws IOException {
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                if (buf.remaining() < 4) flush();
+                if (c < 0x80) {
+                    buf.put((byte) c);
+                } else if (c < 0x800) {
+                    buf.put((byte) (0xC0 | (c >> 6))).put((byte) (0x80 | (c & 0x3F)));
+                } else if (Character.isHighSurrogate(c) && i + 1 < s.length()
+                        && Character.isLowSurrogate(s.charAt(i + 1))) {
+                    int cp = Character.toCodePoint(c, s.charAt(++i));
+                    buf.put((byte) (0xF0 | (cp >> 18))).put((byte) (0x80 | ((cp >> 12) & 0x3F)))
+                            .put((byte) (0x80 | ((cp >> 6) & 0x3F))).put((byte) (0x80 | (cp & 0x3F)));
+                } else {
+                    buf.put((byte) (0xE0 | (c >> 12))).put((byte) (0x80 | ((c >> 6) & 0x3F)))
+                            .put((byte) (0x80 | (c & 0x3F)));
+                }
+            }
+            return this;
+        }
+
+        Sink json(String s) throws IOException {
+            if (s == null) return ascii("null");
+            put('"');
+            int from = 0;
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                if (c != '"' && c != '\\' && c >= 0x20) continue;
+                utf8(s.substring(from, i));
+                if (c == '"' || c == '\\') {
+                    put('\\').put(c);
+                } else {
+                    ascii("\\u00").put(Character.forDigit(c >> 4, 16)).put(Character.forDigit(c & 0xF, 16));
+                }
+                from = i + 1;
+            }
+            if (from == 0) utf8(s);
+            else utf8(s.substring(from));
+            return put('"');
+        }
+
+        Sink csv(String s) throws IOException {
+            if (s == null) return this;
+            boolean quote = false;
+            for (int i = 0; i < s.length() && !quote; i++) {
+                char c = s.charAt(i);
+                quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!quote) return utf8(s);
+            put('"');
+            int from = 0;
+            for (int i = s.indexOf('"'); i >= 0; i = s.indexOf('"', i + 1)) {
+                utf8(s.substring(from, i + 1)).put('"');
+                from = i + 1;
+            }
+            utf8(s.substring(from));
+            return put('"');
+        }
+
+        Sink int32(int v) throws IOException {
+            if (buf.remaining() < 4) flush();
+            buf.putInt(v);
+            return this;
+        }
+
+        Sink int64(long v) throws IOException {
+            if (buf.remaining() < 8) flush();
+            buf.putLong(v);
+            return this;
+        }
+
+        void skip(int n) throws IOException {
+            for (int i = 0; i < n; i++) put('\0');
+        }
+
+        void bytes(byte[] b, int len) throws IOException {
+            int at = 0;
+            while (at < len) {
+                if (!buf.hasRemaining()) flush();
+                int n = Math.min(buf.remaining(), len - at);
+                buf.put(b, at, n);
+                at += n;
+            }
+        }
+
+        void flush() throws IOException {
+            buf.flip();
+            while (buf.hasRemaining()) flushed += channel.write(buf);
+            buf.clear();
+        }
+
+        /** Writes out the buffer and moves the finished file into place. */
+        void commit() throws IOException {
+            flush();
+            channel.close();
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            committed = true;
+        }
+
+        /** Without a successful {@link #commit} the partial file is dropped and the target left as it was. */
+        @Override
+        public void close() throws IOException {
+            if (committed) return;
+            try {
+                channel.close();
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package seatarrangement.project;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * JSON form of an allocation, written straight to a {@link Writer} so a
+ * large seat map never has to exist as one String:
+ * <pre>
+ * {"rooms":[{"building":1,"room":101,"benches":20,"invigilator":"...",
+ *            "seats":[{"bench":1,"prn":"CO25001","name":"...","branch":"...","year":1}, ...]}, ...]}
+ * </pre>
+ * A sitting of the timetable is the same object with its slot in front:
+ * {@code {"start":"2025-05-12T09:00","end":"2025-05-12T12:00","rooms":[...]}}.
+ * Benches are 1-based, as printed on the door sheets.
+ */
+final class SeatMapJson {
+
+    private SeatMapJson() { }
+
+    static void write(Writer w, List<ExamHall> halls, AllocationIndex index) throws IOException {
+        w.write('{');
+        rooms(w, halls, index);
+        w.write('}');
+    }
+
+    static void writeSitting(Writer w, ExamTimetable.Sitting sitting) throws IOException {
+        w.write('{');
+        slot(w, sitting.getSlot());
+        w.write(',');
+        rooms(w, sitting.getHalls(), sitting.getIndex());
+        w.write('}');
+    }
+
+    private static void rooms(Writer w, List<ExamHall> halls, AllocationIndex index) throws IOException {
+        w.write("\"rooms\":[");
+        for (int h = 0; h < halls.size(); h++) {
+            ExamHall eh = halls.get(h);
+            Room room = eh.getRoom();
+            if (h > 0) w.write(',');
+            w.write("{\"building\":");
+            w.write(Integer.toString(index.getBuildingNumber(room.getRoomNumber())));
+            w.write(",\"room\":");
+            w.write(Integer.toString(room.getRoomNumber()));
+            w.write(",\"benches\":");
+            w.write(Integer.toString(room.getBenches()));
+            w.write(",\"invigilator\":");
+            string(w, eh.getInvigilator() != null ? eh.getInvigilator().getName() : null);
+            w.write(",\"seats\":[");
+            List<Student> students = room.getStudents();
+            for (int i = 0; i < students.size(); i++) {
+                if (i > 0) w.write(',');
+                student(w, i + 1, students.get(i));
+            }
+            w.write("]}");
+        }
+        w.write(']');
+    }
+
+    static void writeSeat(Writer w, ExamTimetable.Sitting sitting, AllocationIndex.Seat seat) throws IOException {
+        ExamHall eh = seat.getHall();
+        int room = eh.getRoom().getRoomNumber();
+        w.write('{');
+        slot(w, sitting.getSlot());
+        w.write(",\"building\":");
+        w.write(Integer.toString(sitting.getIndex().getBuildingNumber(room)));
+        w.write(",\"room\":");
+        w.write(Integer.toString(room));
+        w.write(",\"invigilator\":");
+        string(w, eh.getInvigilator() != null ? eh.getInvigilator().getName() : null);
+        w.write(",\"seat\":");
+        student(w, seat.getBench() + 1, eh.getRoom().getStudents().get(seat.getBench()));
+        w.write('}');
+    }
+
+    private static void slot(Writer w, ExamTimetable.Slot slot) throws IOException {
+        w.write("\"start\":");
+        string(w, slot.getStart().toString());
+        w.write(",\"end\":");
+        string(w, slot.getEnd().toString());
+    }
+
+    private static void student(Writer w, int bench, Student st) throws IOException {
+        w.write("{\"bench\":");
+        w.write(Integer.toString(bench));
+        w.write(",\"prn\":");
+        string(w, st.getPRN());
+        w.write(",\"name\":");
+        string(w, st.getName());
+        w.write(",\"branch\":");
+        string(w, st.getBranch());
+        w.write(",\"year\":");
+        w.write(Integer.toString(st.getYear()));
+        w.write('}');
+    }
+
+    private static void string(Writer w, String s) throws IOException {
+        if (s == null) {
+            w.write("null");
+            return;
+        }
+        w.write('"');
+        w.write(escape(s));
+        w.write('"');
+    }
+
+    static String escape(String s) {
+        StringBuilder sb = null;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            String rep = null;
+            if (c == '"') rep = "\\\"";
+            else if (c == '\\') rep = "\\\\";
+            else if (c == '\n') rep = "\\n";
+            else if (c == '\r') rep = "\\r";
+            else if (c == '\t') rep = "\\t";
+            else if (c < 0x20) rep = String.format("\\u%04x", (int) c);
+            if (rep != null && sb == null) sb = new StringBuilder(s.length() + 8).append(s, 0, i);
+            if (sb != null) {
+                if (rep != null) sb.append(rep);
+                else sb.append(c);
+            }
+        }
+        return sb == null ? s : sb.toString();
+    }
+}
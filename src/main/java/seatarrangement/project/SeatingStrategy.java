@@ -0,0 +1,26 @@
+package seatarrangement.project;
+
+import java.util.List;
+
+/**
+ * Decides which student sits on which bench. Implementations fill the given
+ * rooms in order, never beyond {@link Room#getBenches()}; students that do
+ * not fit stay unseated, as they always have.
+ */
+interface SeatingStrategy {
+
+    void seat(List<Room> rooms, List<Student> students);
+
+    /** Benches filled in roster order: the original behaviour. */
+    static SeatingStrategy sequential() {
+        return (rooms, students) -> {
+            int studentIndex = 0;
+            for (Room r : rooms) {
+                for (int i = 0; i < r.getBenches() && studentIndex < students.size(); i++) {
+                    r.addStudent(students.get(studentIndex));
+                    studentIndex++;
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,136 @@
+package seatarrangement.project;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.List;
+
+import com.itextpdf.text.Document;
+import com.itextpdf.text.DocumentException;
+import com.itextpdf.text.Paragraph;
+import com.itextpdf.text.pdf.PdfWriter;
+
+/**
+ * Bounded-memory variant of the seating reports for very large rosters.
+ *
+ * Sections go straight into one document as {@link ReportSections#walk}
+ * produces them; nothing is rendered ahead or merged afterwards. Each room
+ * table runs in iText's large-table mode: every {@code flushRows} students
+ * the rows already added are laid out and written, and the table keeps only
+ * the unflushed rows. Pages go to the output stream as soon as they are full.
+ * The layout is that of {@link ReportSections}; as in the parallel renderer,
+ * every sitting of a timetable starts on a new page.
+ *
+ * The common report can also be written from an iterator of halls, so the
+ * caller never has to hold the whole allocation.
+ */
+final class StreamingReportWriter {
+
+    static final int DEFAULT_FLUSH_ROWS = 50;
+
+    private final int flushRows;
+
+    StreamingReportWriter() {
+        this(DEFAULT_FLUSH_ROWS);
+    }
+
+    StreamingReportWriter(int flushRows) {
+        this.flushRows = Math.max(1, flushRows);
+    }
+
+    /**
+     * Writes the common report over halls pulled one at a time and returns the
+     * number of student rows written. The output stream is closed when the
+     * document is.
+     */
+    public long write(OutputStream out, String titleText, List<Subject> subjects, Iterator<ExamHall> halls)
+            throws DocumentException {
+        Writer writer = new Writer(out);
+        writer.title(titleText);
+        writer.commonSubjects(subjects);
+        while (halls.hasNext()) {
+            ExamHall eh = halls.next();
+            writer.hall(eh, eh.getRoom().getStudents());
+        }
+        return writer.finish();
+    }
+
+    /** Both reports of a timetable, one after the other, so only one document is open at a time. */
+    public void writeBoth(String commonOutput, String branchOutput, List<ExamTimetable.Sitting> sittings,
+                          SubjectCatalog catalog) throws IOException, DocumentException {
+        PipelineMetrics.Stage stage = PipelineMetrics.begin("render.streaming");
+        long rows;
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(commonOutput))) {
+            rows = write(out, sittings, catalog, ParallelReportRenderer.COMMON_TITLE, false);
+        }
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(branchOutput))) {
+            rows += write(out, sittings, catalog, ParallelReportRenderer.BRANCH_TITLE, true);
+        }
+        stage.rows(rows).written(Paths.get(commonOutput)).written(Paths.get(branchOutput)).end();
+    }
+
+    /** One report of a timetable, sitting by sitting; returns the number of student rows written. */
+    public long write(OutputStream out, List<ExamTimetable.Sitting> sittings, SubjectCatalog catalog,
+                      String titleText, boolean isBranchSpecific) throws DocumentException {
+        Writer writer = new Writer(out);
+        ReportSections.walk(sittings, catalog, titleText, isBranchSpecific, writer);
+        return writer.finish();
+    }
+
+    private final class Writer implements ReportSections.Visitor {
+        private final Document document = new Document();
+        private final ReportSections.Fonts fonts = new ReportSections.Fonts();
+        private boolean pageUsed;
+        private boolean branchOpen;
+        private long rows;
+
+        Writer(OutputStream out) throws DocumentException {
+            PdfWriter.getInstance(document, out);
+            document.open();
+        }
+
+        @Override
+        public void title(String titleText) throws DocumentException {
+            ReportSections.addTitle(document, titleText, fonts);
+        }
+
+        @Override
+        public void sitting(ExamTimetable.Slot slot) throws DocumentException {
+            closeBranch();
+            if (pageUsed) document.newPage();
+            ReportSections.addSitting(document, slot, fonts);
+        }
+
+        @Override
+        public void commonSubjects(List<Subject> subjects) throws DocumentException {
+            ReportSections.addCommonSubjects(document, subjects, fonts);
+        }
+
+        @Override
+        public void branch(String branchName, List<Subject> branchSubjects) throws DocumentException {
+            closeBranch();
+            ReportSections.addBranchSubjects(document, branchName, branchSubjects, fonts);
+            branchOpen = true;
+        }
+
+        @Override
+        public void hall(ExamHall eh, List<Student> students) throws DocumentException {
+            rows += ReportSections.addHall(document, eh, students, fonts, flushRows);
+            pageUsed = true;
+        }
+
+        private void closeBranch() throws DocumentException {
+            if (branchOpen) document.add(new Paragraph(" "));
+            branchOpen = false;
+        }
+
+        long finish() throws DocumentException {
+            closeBranch();
+            document.close();
+            return rows;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package seatarrangement.project;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Small open-addressing dictionary that maps repeated CSV values (branch names,
+ * PRN prefixes, departments) to dense int codes. Lookups from a {@link CsvRow}
+ * hash the raw bytes, so a value that has been seen before costs no allocation.
+ * Not thread-safe.
+ */
+final class StringDictionary {
+
+    private byte[][] keys = new byte[16][];
+    private String[] values = new String[16];
+    private int[] table = new int[32];   // code + 1, 0 = empty slot
+    private int size;
+
+    public int size() { return size; }
+
+    public String value(int code) { return values[code]; }
+
+    public int code(String s) {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        return code(bytes, 0, bytes.length, s);
+    }
+
+    public int code(CsvRow row, int idx) {
+        if (row.hasEscapedQuotes(idx)) return code(row.getString(idx));
+        if (row.isEmpty(idx)) return code(row.buffer(), 0, 0, null);
+        return code(row.buffer(), row.start(idx), row.end(idx), null);
+    }
+
+    /** Looks up or adds the UTF-8 value held in {@code buf[from, to)}. */
+    public int code(byte[] buf, int from, int to) {
+        return code(buf, from, to, null);
+    }
+
+    /** Returns the code of an existing value, or -1 without adding it. */
+    public int find(String s) {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        int mask = table.length - 1;
+        for (int slot = hash(bytes, 0, bytes.length) & mask; ; slot = (slot + 1) & mask) {
+            int c = table[slot];
+            if (c == 0) return -1;
+            if (Arrays.equals(keys[c - 1], bytes)) return c - 1;
+        }
+    }
+
+    private int code(byte[] buf, int from, int to, String decoded) {
+        int h = hash(buf, from, to);
+        int mask = table.length - 1;
+        int slot = h & mask;
+        while (true) {
+            int c = table[slot];
+            if (c == 0) break;
+            if (Arrays.equals(keys[c - 1], 0, keys[c - 1].length, buf, from, to)) return c - 1;
+            slot = (slot + 1) & mask;
+        }
+
+        int code = size++;
+        if (code == keys.length) {
+            keys = Arrays.copyOf(keys, code * 2);
+            values = Arrays.copyOf(values, code * 2);
+        }
+        keys[code] = Arrays.copyOfRange(buf, from, to);
+        values[code] = decoded != null ? decoded : new String(buf, from, to - from, StandardCharsets.UTF_8);
+        table[slot] = code + 1;
+        if (size * 2 > table.length) rehash();
+        return code;
+    }
+
+    private void rehash() {
+        int[] next = new int[table.length * 2];
+        int mask = next.length - 1;
+        for (int code = 0; code < size; code++) {
+            int slot = hash(keys[code], 0, keys[code].length) & mask;
+            while (next[slot] != 0) slot = (slot + 1) & mask;
+            next[slot] = code + 1;
+        }
+        table = next;
+    }
+
+    private static int hash(byte[] buf, int from, int to) {
+        int h = 0x811C9DC5;
+        for (int i = from; i < to; i++) {
+            h = (h ^ buf[i]) * 0x01000193;
+        }
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,310 @@
+package seatarrangement.project;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Column store for the whole student roster.
+ *
+ * Instead of one {@link Student} (plus three Strings) per row, each attribute
+ * lives in its own primitive column:
+ * <ul>
+ *   <li>branch: int code into a {@link StringDictionary}</li>
+ *   <li>year: one byte</li>
+ *   <li>PRN: prefix code + int sequence + digit width, so "CO25001" is 7 bytes of
+ *       primitives instead of a String; anything that does not fit that shape
+ *       is kept verbatim in a side arena</li>
+ *   <li>name: UTF-8 bytes in one shared arena, addressed by end offsets</li>
+ * </ul>
+ * Rows are addressed by index; {@link #student(int)} materializes a Student
+ * only when an API still needs one. Not thread-safe while being filled.
+ */
+final class StudentRoster {
+
+    private static final int IRREGULAR = -1;
+
+    private final StringDictionary branches = new StringDictionary();
+    private final StringDictionary prefixes = new StringDictionary();
+
+    private int[] branch = new int[1024];
+    private byte[] year = new byte[1024];
+    private short[] prnPrefix = new short[1024];
+    private int[] prnNumber = new int[1024];
+    private byte[] prnWidth = new byte[1024];
+    private int[] nameEnd = new int[1024];
+    private byte[] names = new byte[16 * 1024];
+
+    // PRNs that are not <letters><up to 9 digits>
+    private int[] oddPrnEnd = new int[0];
+    private byte[] oddPrns = new byte[0];
+    private int oddCount;
+    private int oddBytes;
+
+    private int size;
+    private int nameBytes;
+
+    public int size() { return size; }
+
+    // ------------------- Filling -------------------
+
+    public int add(String name, String prn, String branchName, int yr) {
+        int i = reserve();
+        branch[i] = branches.code(branchName);
+        year[i] = (byte) yr;
+        putName(name.getBytes(StandardCharsets.UTF_8), 0, -1, i);
+        putPrn(prn.getBytes(StandardCharsets.UTF_8), 0, -1, i);
+        return i;
+    }
+
+    /** Copies a students.csv row (PRN, name, branch, year) without decoding the strings. */
+    public int add(CsvRow row) {
+        int i = reserve();
+        branch[i] = branches.code(row, 2);
+        year[i] = (byte) row.getYear(3);
+        if (row.hasEscapedQuotes(1)) {
+            putName(row.getString(1).getBytes(StandardCharsets.UTF_8), 0, -1, i);
+        } else {
+            putName(row.buffer(), row.start(1), row.end(1), i);
+        }
+        if (row.hasEscapedQuotes(0)) {
+            putPrn(row.getString(0).getBytes(StandardCharsets.UTF_8), 0, -1, i);
+        } else {
+            putPrn(row.buffer(), row.start(0), row.end(0), i);
+        }
+        return i;
+    }
+
+    /** Appends every row of {@code other}, re-coding its branches into this roster. */
+    public void addAll(StudentRoster other) {
+        for (int j = 0; j < other.size; j++) {
+            int i = reserve();
+            branch[i] = branches.code(other.branches.value(other.branch[j]));
+            year[i] = other.year[j];
+            putName(other.names, other.nameStart(j), other.nameEnd[j], i);
+            putPrn(other.prnBytes(j), 0, -1, i);
+        }
+    }
+
+    public static StudentRoster from(List<Student> students) {
+        StudentRoster roster = new StudentRoster();
+        for (Student s : students) roster.add(s.getName(), s.getPRN(), s.getBranch(), s.getYear());
+        roster.trimToSize();
+        return roster;
+    }
+
+    /** Drops the growth slack once loading is done. */
+    public void trimToSize() {
+        branch = Arrays.copyOf(branch, size);
+        year = Arrays.copyOf(year, size);
+        prnPrefix = Arrays.copyOf(prnPrefix, size);
+        prnNumber = Arrays.copyOf(prnNumber, size);
+        prnWidth = Arrays.copyOf(prnWidth, size);
+        nameEnd = Arrays.copyOf(nameEnd, size);
+        names = Arrays.copyOf(names, nameBytes);
+        oddPrnEnd = Arrays.copyOf(oddPrnEnd, oddCount);
+        oddPrns = Arrays.copyOf(oddPrns, oddBytes);
+    }
+
+    private int reserve() {
+        if (size == branch.length) {
+            int n = Math.max(16, size + (size >> 1));
+            branch = Arrays.copyOf(branch, n);
+            year = Arrays.copyOf(year, n);
+            prnPrefix = Arrays.copyOf(prnPrefix, n);
+            prnNumber = Arrays.copyOf(prnNumber, n);
+            prnWidth = Arrays.copyOf(prnWidth, n);
+            nameEnd = Arrays.copyOf(nameEnd, n);
+        }
+        return size++;
+    }
+
+    private void putName(byte[] src, int from, int to, int i) {
+        if (to < 0) to = src.length;
+        int len = to - from;
+        if (nameBytes + len > names.length) {
+            names = Arrays.copyOf(names, Math.max(nameBytes + len, names.length + (names.length >> 1)));
+        }
+        System.arraycopy(src, from, names, nameBytes, len);
+        nameBytes += len;
+        nameEnd[i] = nameBytes;
+    }
+
+    private void putPrn(byte[] src, int from, int to, int i) {
+        if (to < 0) to = src.length;
+        int digitsFrom = to;
+        while (digitsFrom > from && src[digitsFrom - 1] >= '0' && src[digitsFrom - 1] <= '9') digitsFrom--;
+        int width = to - digitsFrom;
+        boolean regular = width > 0 && width <= 9 && prefixes.size() < Short.MAX_VALUE;
+
+        if (regular) {
+            int value = 0;
+            for (int k = digitsFrom; k < to; k++) value = value * 10 + (src[k] - '0');
+            prnPrefix[i] = (short) prefixes.code(src, from, digitsFrom);
+            prnNumber[i] = value;
+            prnWidth[i] = (byte) width;
+            return;
+        }
+
+        int len = to - from;
+        if (oddCount == oddPrnEnd.length) oddPrnEnd = Arrays.copyOf(oddPrnEnd, Math.max(16, oddCount * 2));
+        if (oddBytes + len > oddPrns.length) {
+            oddPrns = Arrays.copyOf(oddPrns, Math.max(oddBytes + len, oddPrns.length * 2));
+        }
+        System.arraycopy(src, from, oddPrns, oddBytes, len);
+        oddBytes += len;
+        oddPrnEnd[oddCount] = oddBytes;
+        prnNumber[i] = oddCount++;
+        prnWidth[i] = IRREGULAR;
+    }
+
+    // ------------------- Snapshot -------------------
+
+    /** Writes the dictionaries and the used part of every column, for {@link MasterDataSnapshot}. */
+    void write(MasterDataSnapshot.Out out) {
+        out.strings(branches);
+        out.strings(prefixes);
+        out.putInt(size);
+        out.ints(branch, size);
+        out.bytes(year, 0, size);
+        out.shorts(prnPrefix, size);
+        out.ints(prnNumber, size);
+        out.bytes(prnWidth, 0, size);
+        out.ints(nameEnd, size);
+        out.putInt(nameBytes);
+        out.bytes(names, 0, nameBytes);
+        out.putInt(oddCount);
+        out.ints(oddPrnEnd, oddCount);
+        out.putInt(oddBytes);
+        out.bytes(oddPrns, 0, oddBytes);
+    }
+
+    /** Reads what {@link #write} wrote; the buffer's byte order must match. */
+    static StudentRoster read(ByteBuffer in) {
+        StudentRoster r = new StudentRoster();
+        for (String b : MasterDataSnapshot.readStrings(in)) r.branches.code(b);
+        for (String p : MasterDataSnapshot.readStrings(in)) r.prefixes.code(p);
+        int n = in.getInt();
+        r.size = n;
+        r.branch = ints(in, n);
+        r.year = bytes(in, n);
+        r.prnPrefix = new short[n];
+        in.asShortBuffer().get(r.prnPrefix);
+        in.position(in.position() + n * 2);
+        r.prnNumber = ints(in, n);
+        r.prnWidth = bytes(in, n);
+        r.nameEnd = ints(in, n);
+        r.nameBytes = in.getInt();
+        r.names = bytes(in, r.nameBytes);
+        r.oddCount = in.getInt();
+        r.oddPrnEnd = ints(in, r.oddCount);
+        r.oddBytes = in.getInt();
+        r.oddPrns = bytes(in, r.oddBytes);
+        return r;
+    }
+
+    private static int[] ints(ByteBuffer in, int n) {
+        int[] a = new int[n];
+        in.asIntBuffer().get(a);
+        in.position(in.position() + n * 4);
+        return a;
+    }
+
+    private static byte[] bytes(ByteBuffer in, int n) {
+        byte[] a = new byte[n];
+        in.get(a);
+        return a;
+    }
+
+    // ------------------- Index accessors -------------------
+
+    public int branchCode(int i) { return branch[i]; }
+    public String branch(int i) { return branches.value(branch[i]); }
+    public int year(int i) { return year[i]; }
+
+    public int branchCount() { return branches.size(); }
+    public String branchName(int code) { return branches.value(code); }
+
+    /** Code of a branch name, or -1 if no student is in it. */
+    public int findBranch(String name) { return branches.find(name); }
+
+    public String name(int i) {
+        int s = nameStart(i);
+        return new String(names, s, nameEnd[i] - s, StandardCharsets.UTF_8);
+    }
+
+    public String prn(int i) {
+        return new String(prnBytes(i), StandardCharsets.UTF_8);
+    }
+
+    /** The packed sequence part of a regular PRN ("CO25001" -> 25001), or -1. */
+    public int prnSequence(int i) {
+        return prnWidth[i] == IRREGULAR ? -1 : prnNumber[i];
+    }
+
+    public Student student(int i) {
+        return new Student(name(i), prn(i), branch(i), year(i));
+    }
+
+    /** Read-only list view; each get() materializes a fresh Student. */
+    public List<Student> asList() {
+        return new AbstractList<Student>() {
+            @Override
+            public Student get(int index) {
+                Objects.checkIndex(index, size);
+                return student(index);
+            }
+
+            @Override
+            public int size() { return size; }
+        };
+    }
+
+    /** Approximate bytes held by the columns, for capacity reporting. */
+    public long footprintBytes() {
+        return (long) branch.length * 4 + year.length + prnPrefix.length * 2L + prnNumber.length * 4L
+                + prnWidth.length + nameEnd.length * 4L + names.length + oddPrnEnd.length * 4L + oddPrns.length;
+    }
+
+    private int nameStart(int i) {
+        return i == 0 ? 0 : nameEnd[i - 1];
+    }
+
+    private byte[] prnBytes(int i) {
+        int width = prnWidth[i];
+        if (width == IRREGULAR) {
+            int k = prnNumber[i];
+            int s = k == 0 ? 0 : oddPrnEnd[k - 1];
+            return Arrays.copyOfRange(oddPrns, s, oddPrnEnd[k]);
+        }
+        byte[] prefix = prefixes.value(prnPrefix[i]).getBytes(StandardCharsets.UTF_8);
+        byte[] out = Arrays.copyOf(prefix, prefix.length + width);
+        int v = prnNumber[i];
+        for (int k = out.length - 1; k >= prefix.length; k--) {
+            out[k] = (byte) ('0' + v % 10);
+            v /= 10;
+        }
+        return out;
+    }
+
+    // ------------------- Cursor -------------------
+
+    public Cursor cursor() { return new Cursor(); }
+
+    /** Forward-only walk over the roster without per-row objects. */
+    final class Cursor {
+        private int i = -1;
+
+        public boolean next() { return ++i < size; }
+        public int index() { return i; }
+        public int branchCode() { return branch[i]; }
+        public int year() { return year[i]; }
+        public String name() { return StudentRoster.this.name(i); }
+        public String prn() { return StudentRoster.this.prn(i); }
+        public String branch() { return StudentRoster.this.branch(i); }
+        public Student student() { return StudentRoster.this.student(i); }
+    }
+}
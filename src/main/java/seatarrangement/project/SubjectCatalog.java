@@ -0,0 +1,199 @@
+package seatarrangement.project;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Which subjects exist, which branch writes which, and which student belongs
+ * to which branch, compiled once from the {@code branchType} and
+ * {@code Class} columns of {@code subjects.csv} instead of hardcoded lists.
+ *
+ * Every subject gets an id (its position in the sheet) and every branch type
+ * other than {@value #COMMON} a branch id (order of first appearance). The
+ * papers of a cohort, (branch, year), are one precompiled {@link BitSet}:
+ * the common papers of that year plus the branch's own.
+ *
+ * Student branches are resolved to branch ids once per distinct spelling and
+ * cached, so per student it is one map lookup. Two branch names match when,
+ * ignoring case and extra spaces, they are equal or one is the other's
+ * leading words: "Civil" is "Civil Engineering", but "Computer Science" is
+ * not "Computer Engineering". A student branch matching no branch type, or
+ * several equally, gets {@link #NO_BRANCH} and writes only the common papers.
+ *
+ * The catalog is immutable and safe to share between threads.
+ */
+final class SubjectCatalog {
+
+    static final String COMMON = "Common";
+    static final int NO_BRANCH = -1;
+
+    private static final BitSet NONE = new BitSet();
+
+    private final List<Subject> subjects;
+    private final Map<Subject, Integer> ids = new IdentityHashMap<>();
+    private final List<Subject> common = new ArrayList<>();
+    private final List<Subject> branchOnly = new ArrayList<>();
+    private final List<String> branches = new ArrayList<>();
+    private final List<String> normalized = new ArrayList<>();
+    private final List<List<Subject>> subjectsOfBranch = new ArrayList<>();
+    private final BitSet[][] papers;        // [branch + 1][year]
+    private final Map<String, Integer> branchOfStudent = new ConcurrentHashMap<>();
+
+    private SubjectCatalog(List<Subject> subjects) {
+        this.subjects = Collections.unmodifiableList(new ArrayList<>(subjects));
+        Map<String, Integer> branchIds = new LinkedHashMap<>();
+        int maxYear = 0;
+        for (Subject s : subjects) {
+            maxYear = Math.max(maxYear, s.getYear());
+            if (isCommon(s)) continue;
+            String key = normalize(s.getBranchType());
+            if (!branchIds.containsKey(key)) {
+                branchIds.put(key, branches.size());
+                branches.add(s.getBranchType().trim());
+                normalized.add(key);
+                subjectsOfBranch.add(new ArrayList<>());
+            }
+        }
+
+        papers = new BitSet[branches.size() + 1][maxYear + 1];
+        for (BitSet[] row : papers) {
+            for (int y = 0; y < row.length; y++) row[y] = new BitSet(subjects.size());
+        }
+        for (int id = 0; id < subjects.size(); id++) {
+            Subject s = subjects.get(id);
+            ids.putIfAbsent(s, id);
+            int year = Math.max(0, s.getYear());
+            if (isCommon(s)) {
+                common.add(s);
+                for (BitSet[] row : papers) row[year].set(id);
+            } else {
+                int b = branchIds.get(normalize(s.getBranchType()));
+                branchOnly.add(s);
+                subjectsOfBranch.get(b).add(s);
+                papers[b + 1][year].set(id);
+            }
+        }
+    }
+
+    public static SubjectCatalog of(List<Subject> subjects) {
+        return new SubjectCatalog(subjects);
+    }
+
+    private static boolean isCommon(Subject s) {
+        return s.getBranchType().trim().equalsIgnoreCase(COMMON);
+    }
+
+    // ------------------- Subjects -------------------
+
+    public List<Subject> getSubjects() { return subjects; }
+
+    /** Position in the sheet, or -1 for a subject that is not in this catalog. */
+    public int getSubjectId(Subject s) {
+        Integer id = ids.get(s);
+        return id == null ? -1 : id;
+    }
+
+    public Subject getSubject(int id) { return subjects.get(id); }
+
+    /** Subjects marked {@value #COMMON}, in sheet order. */
+    public List<Subject> getCommonSubjects() { return Collections.unmodifiableList(common); }
+
+    /** Everything else, in sheet order. */
+    public List<Subject> getBranchOnlySubjects() { return Collections.unmodifiableList(branchOnly); }
+
+    /** Ids of the given subjects; ones not in this catalog are left out. */
+    public BitSet idsOf(Collection<Subject> some) {
+        BitSet out = new BitSet(subjects.size());
+        for (Subject s : some) {
+            int id = getSubjectId(s);
+            if (id >= 0) out.set(id);
+        }
+        return out;
+    }
+
+    // ------------------- Branches -------------------
+
+    public int getBranchCount() { return branches.size(); }
+
+    /** The branch type as the sheet spells it. */
+    public String getBranchName(int branch) { return branches.get(branch); }
+
+    /** The branch's own subjects, in sheet order. */
+    public List<Subject> getBranchSubjects(int branch) {
+        return Collections.unmodifiableList(subjectsOfBranch.get(branch));
+    }
+
+    /** Branch id of a student branch, or {@link #NO_BRANCH}. */
+    public int branchOf(String studentBranch) {
+        if (studentBranch == null) return NO_BRANCH;
+        Integer id = branchOfStudent.get(studentBranch);
+        if (id == null) {
+            id = resolve(studentBranch);
+            branchOfStudent.put(studentBranch, id);
+        }
+        return id;
+    }
+
+    private int resolve(String studentBranch) {
+        String key = normalize(studentBranch);
+        int exact = normalized.indexOf(key);
+        if (exact >= 0) return exact;
+        int found = NO_BRANCH;
+        for (int b = 0; b < normalized.size(); b++) {
+            if (sameBranch(normalized.get(b), key)) {
+                if (found != NO_BRANCH) return NO_BRANCH;     // "Computer" for both "Computer Science" and "Computer Engineering"
+                found = b;
+            }
+        }
+        return found;
+    }
+
+    // ------------------- Cohorts -------------------
+
+    /** Whether a (branch, year) cohort writes any of the given subject ids. */
+    public boolean writesAny(int branch, int year, BitSet subjectIds) {
+        return papersOf(branch, year).intersects(subjectIds);
+    }
+
+    /** Ids of the subjects a (branch, year) cohort writes. */
+    public BitSet getPapers(int branch, int year) {
+        return (BitSet) papersOf(branch, year).clone();
+    }
+
+    private BitSet papersOf(int branch, int year) {
+        if (year < 0 || year >= papers[0].length || branch < NO_BRANCH || branch >= branches.size()) return NONE;
+        return papers[branch + 1][year];
+    }
+
+    // ------------------- Names -------------------
+
+    /** Lower case, single spaces, no padding. */
+    static String normalize(String name) {
+        return name.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Whether two branch or department names stand for the same branch:
+     * equal, or one is the other's leading whole words, ignoring case and
+     * extra spaces.
+     */
+    static boolean sameBranch(String a, String b) {
+        String x = normalize(a);
+        String y = normalize(b);
+        if (x.isEmpty() || y.isEmpty()) return false;
+        if (x.length() > y.length()) {
+            String t = x;
+            x = y;
+            y = t;
+        }
+        return y.equals(x) || y.startsWith(x + " ");
+    }
+}
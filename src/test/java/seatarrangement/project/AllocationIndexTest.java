@@ -0,0 +1,67 @@
+package seatarrangement.project;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class AllocationIndexTest {
+
+    // Report branch (subjects.csv) -> student branch (students.csv)
+    private static final String[][] REPORT_BRANCHES = {
+            { "Civil Engineering", "Civil" }, { "Mechanical Engineering", "Mechanical" },
+            { "Electrical Engineering", "Electrical" }, { "Information Technology", "Information Technology" },
+            { "Computer Science", "Computer Science" }
+    };
+
+    @Test
+    public void branchRangesMatchPerHallFiltering() {
+        ArrayList<Student> students = ExamSystemExcelPDF.readStudentsCSV("students.csv");
+        Collections.shuffle(students, new java.util.Random(7));
+        ArrayList<Building> buildings = ExamSystemExcelPDF.readBuildingsCSV("buildings.csv");
+        ArrayList<ExamHall> halls = ExamSystemExcelPDF.allocateStudentsAndInvigilators(
+                buildings, students, new ArrayList<>());
+        AllocationIndex index = AllocationIndex.build(buildings, halls);
+        SubjectCatalog catalog = SubjectCatalog.of(ExamSystemExcelPDF.readSubjectsCSV("subjects.csv"));
+
+        assertEquals(REPORT_BRANCHES.length, catalog.getBranchCount());
+        for (String[] pair : REPORT_BRANCHES) {
+            int branch = -1;
+            for (int b = 0; b < catalog.getBranchCount(); b++) {
+                if (catalog.getBranchName(b).equals(pair[0])) branch = b;
+            }
+            List<String> expected = new ArrayList<>();
+            for (ExamHall eh : halls) {
+                for (Student st : eh.getRoom().getStudents()) {
+                    if (st.getBranch().equals(pair[1])) expected.add(st.getPRN());
+                }
+            }
+            List<String> actual = new ArrayList<>();
+            for (AllocationIndex.SeatRange r : index.getRanges(catalog, branch)) {
+                for (Student st : r.getStudents()) actual.add(st.getPRN());
+            }
+            assertEquals(pair[0], expected, actual);
+        }
+    }
+
+    @Test
+    public void roomsAndSeatsResolveDirectly() {
+        ArrayList<Building> buildings = ExamSystemExcelPDF.readBuildingsCSV("buildings.csv");
+        ArrayList<ExamHall> halls = ExamSystemExcelPDF.allocateStudentsAndInvigilators(
+                buildings, ExamSystemExcelPDF.readStudentsCSV("students.csv"), new ArrayList<>());
+        AllocationIndex index = AllocationIndex.build(buildings, halls);
+
+        assertEquals(5, index.getRooms(3).size());
+        assertEquals(3, index.getBuildingNumber(index.getRooms(3).get(0).getRoomNumber()));
+        assertEquals(498, index.getSeatCount());
+
+        AllocationIndex.Seat seat = index.getSeat("CO25001");
+        assertNotNull(seat);
+        assertEquals("CO25001", seat.getHall().getRoom().getStudents().get(seat.getBench()).getPRN());
+        assertSame(seat.getHall(), index.getHall(seat.getHall().getRoom().getRoomNumber()));
+        assertNull(index.getSeat("XX0"));
+    }
+}
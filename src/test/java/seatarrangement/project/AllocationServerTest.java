@@ -0,0 +1,117 @@
+package seatarrangement.project;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+public class AllocationServerTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private AllocationServer server;
+    private Path dir;
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Before
+    public void setUp() throws Exception {
+        dir = tmp.getRoot().toPath();
+        for (String f : new String[] { "students.csv", "buildings.csv", "subjects.csv", "invigilators.csv" }) {
+            Files.copy(Paths.get(f), dir.resolve(f));
+        }
+        server = new AllocationServer(dir, 0);
+        server.start();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop();
+    }
+
+    private HttpResponse<byte[]> get(String path) throws Exception {
+        HttpRequest req = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + path)).build();
+        return client.send(req, HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    @Test
+    public void servesTheTimetableSittings() throws Exception {
+        String map = new String(get("/allocation?date=10-06-2025&strategy=sequential").body(), "UTF-8");
+        assertTrue(map, map.startsWith("{\"sittings\":[{\"start\":\"2025-06-10T09:00\",\"end\":\"2025-06-10T12:00\","
+                + "\"rooms\":[{\"building\":1,\"room\":101,\"benches\":20,"));
+        assertTrue(map.contains("\"prn\":\"CO25001\""));
+        // Only the sitters of that slot: the first-year paper seats no third-year student
+        assertFalse(map.contains("\"year\":3"));
+
+        String one = new String(get("/seat?prn=CO25001&date=10-06-2025").body(), "UTF-8");
+        assertTrue(one, one.startsWith("{\"prn\":\"CO25001\",\"seats\":[{\"start\":\"2025-06-10T09:00\","));
+        String all = new String(get("/seat?prn=CO25001").body(), "UTF-8");
+        assertTrue(all, all.split("\"start\"").length - 1 > 1);
+        assertEquals(404, get("/seat?prn=NOPE").statusCode());
+        assertEquals(400, get("/allocation?strategy=random").statusCode());
+        assertEquals(400, get("/allocation?date=2025-06-10").statusCode());
+        assertEquals(400, get("/allocation?time=09:00").statusCode());
+
+        HttpResponse<byte[]> report = get("/report/branch.pdf?date=10-06-2025");
+        assertEquals(200, report.statusCode());
+        assertEquals("%PDF", new String(Arrays.copyOf(report.body(), 4), "US-ASCII"));
+        assertEquals(String.valueOf(report.body().length), report.headers().firstValue("Content-Length").orElse(null));
+        assertEquals(404, get("/report/common.pdf?date=01-01-2020").statusCode());
+    }
+
+    @Test
+    public void reloadsWhenASourceChanges() throws Exception {
+        assertTrue(new String(get("/health").body(), "UTF-8").contains("\"students\":498"));
+        Files.write(dir.resolve("students.csv"), "ZZ1,New Student,Civil,FE\n".getBytes(), StandardOpenOption.APPEND);
+        assertTrue(new String(get("/health").body(), "UTF-8").contains("\"students\":499"));
+        assertTrue(new String(get("/allocation").body(), "UTF-8").contains("\"prn\":\"ZZ1\""));
+    }
+
+    /**
+     * Concurrent clients mixing seat lookups, seat maps and reports all get
+     * complete answers; AllocationServerBenchmark measures their latency.
+     */
+    @Test
+    public void concurrentClientsShareTheCache() throws Exception {
+        int clients = 16;
+        int perClient = 25;
+        byte[] report = get("/report/common.pdf?date=10-06-2025").body();
+        List<Future<?>> futures = new ArrayList<>();
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                int id = c;
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < perClient; i++) {
+                        int k = id * perClient + i;
+                        String path = k % 10 == 0 ? "/report/common.pdf?date=10-06-2025"
+                                : k % 3 == 0 ? "/allocation?date=10-06-2025"
+                                : "/seat?prn=CO25" + String.format("%03d", 1 + k % 100);
+                        HttpResponse<byte[]> r = get(path);
+                        if (r.statusCode() != 200) throw new AssertionError(path + " -> " + r.statusCode());
+                        if (k % 10 == 0 && r.body().length != report.length) throw new AssertionError("partial report");
+                    }
+                    return null;
+                }));
+            }
+        }
+        for (Future<?> f : futures) f.get();
+    }
+}
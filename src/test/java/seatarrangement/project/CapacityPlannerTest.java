@@ -0,0 +1,68 @@
+package seatarrangement.project;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class CapacityPlannerTest {
+
+    private static Building building(int number, int... benches) {
+        Building b = new Building(number);
+        for (int i = 0; i < benches.length; i++) b.addRoom(new Room(number * 100 + i + 1, benches[i]));
+        return b;
+    }
+
+    @Test
+    public void opensFewestRoomsInFewestBuildingsWithLeastWaste() {
+        List<Building> campus = List.of(
+                building(1, 20, 20, 20),
+                building(2, 60, 10),
+                building(3, 45, 30, 25));
+
+        // 70 students: two rooms are needed; building 3 alone can do it (45 + 25 = 70 exactly)
+        CapacityPlanner.Plan plan = new CapacityPlanner().plan(campus, 70);
+        assertEquals(2, plan.getRoomCount());
+        assertEquals(1, plan.getBuildingCount());
+        assertEquals(3, plan.getBuildings().get(0).getBuildingNumber());
+        assertEquals(70, plan.getSeats());
+        assertEquals(0, plan.getHeadroom());
+
+        // Original rooms are left alone; the plan holds copies
+        assertTrue(campus.get(2).getRooms().get(0).getStudents().isEmpty());
+        assertNotSame(campus.get(2).getRooms().get(0), plan.getBuildings().get(0).getRooms().get(0));
+    }
+
+    @Test
+    public void countsSeatsPerBenchAndReportsShortfall() {
+        List<Building> campus = List.of(building(1, 20, 20), building(2, 20));
+
+        CapacityPlanner.Plan pairs = new CapacityPlanner(2).plan(campus, 75);
+        assertEquals(2, pairs.getRoomCount());
+        assertEquals(80, pairs.getSeats());
+        assertEquals(5, pairs.getHeadroom());
+        assertEquals(40, pairs.getBuildings().get(0).getRooms().get(0).getBenches());
+
+        CapacityPlanner.Plan tooMany = new CapacityPlanner().plan(campus, 75);
+        assertEquals(3, tooMany.getRoomCount());
+        assertEquals(15, tooMany.getShortfall());
+        assertTrue(tooMany.report().contains("SHORT by 15"));
+
+        assertEquals(0, new CapacityPlanner().plan(campus, 0).getRoomCount());
+    }
+
+    @Test
+    public void plannedRoomsSeatEverybody() {
+        ArrayList<Student> students = ExamSystemExcelPDF.readStudentsCSV("students.csv");
+        CapacityPlanner.Plan plan = new CapacityPlanner().plan(ExamSystemExcelPDF.readBuildingsCSV("buildings.csv"),
+                students.size());
+        ArrayList<ExamHall> halls = ExamSystemExcelPDF.allocateStudentsAndInvigilators(plan.getBuildings(),
+                students, new ArrayList<>());
+        int seated = 0;
+        for (ExamHall eh : halls) seated += eh.getRoom().getStudents().size();
+        assertEquals(students.size(), seated);
+        assertEquals(25, plan.getRoomCount());
+    }
+}
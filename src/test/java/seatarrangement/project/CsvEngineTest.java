@@ -0,0 +1,109 @@
+package seatarrangement.project;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class CsvEngineTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private Path write(String content) throws Exception {
+        Path p = tmp.newFile().toPath();
+        Files.write(p, content.getBytes(StandardCharsets.UTF_8));
+        return p;
+    }
+
+    private static List<List<String>> collect(CsvEngine engine, Path p) throws Exception {
+        List<List<String>> rows = new ArrayList<>();
+        engine.read(p, row -> {
+            List<String> r = new ArrayList<>();
+            for (int i = 0; i < row.size(); i++) r.add(row.getString(i));
+            rows.add(r);
+        });
+        return rows;
+    }
+
+    @Test
+    public void quotedFieldsAreUnescapedAndTrimmed() throws Exception {
+        Path p = write("h1,h2\r\n \"Sharma, Riya\" , \"say \"\"hi\"\"\"\r\nplain,  spaced  \r\n");
+        List<List<String>> rows = collect(new CsvEngine(true), p);
+        assertEquals(2, rows.size());
+        assertEquals(List.of("Sharma, Riya", "say \"hi\""), rows.get(0));
+        assertEquals(List.of("plain", "spaced"), rows.get(1));
+    }
+
+    @Test
+    public void recordsSpanningBufferRefillsSurviveTinyBuffers() throws Exception {
+        Path p = write("﻿PRN,Name\nCO25001,\"multi\nline name\"\nCO25002,last-no-newline");
+        List<List<String>> rows = collect(new CsvEngine(true, 16), p);
+        assertEquals(List.of("CO25001", "multi\nline name"), rows.get(0));
+        assertEquals(List.of("CO25002", "last-no-newline"), rows.get(1));
+    }
+
+    @Test
+    public void numericAndYearAccessorsMatchOldLoaderRules() throws Exception {
+        Path p = write("h\n42,-7,,FE,SE,TE,BE,First Year,3,x1\n");
+        new CsvEngine(true).read(p, row -> {
+            assertEquals(42, row.getInt(0, 0));
+            assertEquals(-7, row.getInt(1, 0));
+            assertEquals(5, row.getInt(2, 5));
+            assertEquals(1, row.getYear(3));
+            assertEquals(2, row.getYear(4));
+            assertEquals(3, row.getYear(5));
+            assertEquals(4, row.getYear(6));
+            assertEquals(1, row.getYear(7));
+            assertEquals(3, row.getYear(8));
+            try {
+                row.getInt(9, 0);
+                fail("expected NumberFormatException");
+            } catch (NumberFormatException expected) {
+                // ok
+            }
+        });
+    }
+
+    @Test
+    public void parallelChunksReturnRowsInFileOrder() throws Exception {
+        Path p = SyntheticData.writeStudents(tmp.newFile().toPath(), 5000);
+        ArrayList<Student> sequential = ExamSystemExcelPDF.readStudentsCSV(p.toString());
+
+        List<StudentCollector> chunks = new CsvEngine(true, 4096).readParallel(p, 4, StudentCollector::new);
+        assertTrue(chunks.size() > 1);
+        List<String> prns = new ArrayList<>();
+        for (StudentCollector c : chunks) prns.addAll(c.prns);
+
+        assertEquals(sequential.size(), prns.size());
+        for (int i = 0; i < prns.size(); i++) {
+            assertEquals(sequential.get(i).getPRN(), prns.get(i));
+        }
+    }
+
+    @Test
+    public void shippedFilesLoadAsBefore() {
+        // Two shipped rows have no name and are skipped, as they always were
+        assertEquals(498, ExamSystemExcelPDF.readStudentsCSV("students.csv").size());
+        assertEquals(5, ExamSystemExcelPDF.readBuildingsCSV("buildings.csv").size());
+        assertEquals(19, ExamSystemExcelPDF.readSubjectsCSV("subjects.csv").size());
+        // The header line repeated inside invigilators.csv is no longer taken for an invigilator
+        assertEquals(24, ExamSystemExcelPDF.readInvigilatorsCSV("invigilators.csv").size());
+    }
+
+    static final class StudentCollector implements CsvRowHandler {
+        final List<String> prns = new ArrayList<>();
+
+        @Override
+        public void onRow(CsvRow row) {
+            if (!row.isBlank()) prns.add(row.getString(0));
+        }
+    }
+}
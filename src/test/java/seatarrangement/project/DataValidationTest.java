@@ -0,0 +1,117 @@
+package seatarrangement.project;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class DataValidationTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private Path write(String name, String content) throws Exception {
+        Path p = tmp.getRoot().toPath().resolve(name);
+        Files.write(p, content.getBytes(StandardCharsets.UTF_8));
+        return p;
+    }
+
+    @Test
+    public void reportsTheKnownProblemsOfTheShippedFiles() {
+        DataValidation.Report report = new DataValidation(2).validate(Paths.get("students.csv"),
+                Paths.get("buildings.csv"), Paths.get("subjects.csv"), Paths.get("invigilators.csv"));
+
+        // The two nameless students and the stray header lines of invigilators.csv, nothing else
+        assertEquals(2, report.getErrorCount());
+        assertEquals(2, report.getWarningCount());
+        List<DataValidation.Issue> missing = report.getIssues(DataValidation.Code.MISSING_FIELD);
+        assertEquals(458, missing.get(0).getLine());
+        assertEquals("Student_Name", missing.get(0).getColumn());
+        assertEquals(1, report.getIssues(DataValidation.Code.UNEXPECTED_HEADER).get(0).getLine());
+        assertEquals(17, report.getIssues(DataValidation.Code.HEADER_ROW).get(0).getLine());
+        assertEquals(498, report.getAccepted("students.csv"));
+        assertEquals(24, report.getAccepted("invigilators.csv"));
+        assertTrue(report.toJson().contains("\"line\":17,\"column\":null,\"code\":\"HEADER_ROW\""));
+    }
+
+    @Test
+    public void findsBadRowsDuplicatesAndMissingSeatsAcrossChunks() throws Exception {
+        StringBuilder students = new StringBuilder("PRN_Number,Student_Name,Branch,Year\n");
+        for (int i = 0; i < 40; i++) students.append("CO").append(1000 + i).append(",Student ").append(i).append(",Computer,FE\n");
+        students.append("CO1003,Copy Of Three,Computer,FE\n");          // line 42
+        students.append("CO2000,Nobody,,Alumni\n");                      // line 43
+        Path s = write("students.csv", students.toString());
+        Path b = write("buildings.csv", "Building_Number,Room_Number,Benches_In_A_Class\n"
+                + "1,101,20\n"
+                + "1,102,twenty\n"                                       // line 3
+                + "2,101,15\n"                                           // line 4
+                + "2,201,10\n");
+        Path sub = write("subjects.csv", "Subject,branchType,Exam_Date,Class,Duration\n"
+                + "Maths,Common,10-06-2025 10.00,FE,3 hours\n"
+                + "Physics,Common,June 11,FE,three\n");
+        Path inv = write("invigilators.csv", "Invigilator_Name,Department\nDr. A,Computer Science\n");
+
+        // 16-byte chunks: every line is in a chunk of its own, so line numbers and duplicates cross chunks
+        for (int bufferSize : new int[] { 16, CsvEngine.DEFAULT_BUFFER_SIZE }) {
+            DataValidation.Report report = new DataValidation(4, bufferSize).validate(s, b, sub, inv);
+
+            DataValidation.Issue dup = report.getIssues(DataValidation.Code.DUPLICATE_PRN).get(0);
+            assertEquals(42, dup.getLine());
+            assertEquals("CO1003", dup.getValue());
+            assertEquals("PRN already on line 5, row skipped", dup.getMessage());
+            assertEquals(43, report.getIssues(DataValidation.Code.UNKNOWN_YEAR).get(0).getLine());
+            assertEquals(3, report.getIssues(DataValidation.Code.NOT_A_NUMBER).get(0).getLine());
+            assertEquals(4, report.getIssues(DataValidation.Code.DUPLICATE_ROOM).get(0).getLine());
+            assertEquals(3, report.getIssues(DataValidation.Code.BAD_DATE).get(0).getLine());
+            assertEquals(3, report.getIssues(DataValidation.Code.BAD_DURATION).get(0).getLine());
+
+            // 41 distinct students for 20 + 10 benches; the duplicate room does not add any
+            DataValidation.Issue over = report.getIssues(DataValidation.Code.OVER_CAPACITY).get(0);
+            assertEquals("41 students but 30 benches; 11 would not be seated", over.getMessage());
+            assertEquals(41, report.getAccepted("students.csv"));
+            assertEquals(2, report.getAccepted("buildings.csv"));
+            assertEquals(1, report.getAccepted("subjects.csv"));
+        }
+
+        // The loaders drop the non-numeric row and the repeats and keep the rest of the file
+        List<Building> buildings = ExamSystemExcelPDF.readBuildingsCSV(b.toString());
+        assertEquals(2, buildings.size());
+        assertEquals(1, buildings.get(0).getRooms().size());
+        assertEquals(1, buildings.get(1).getRooms().size());
+        assertEquals(201, buildings.get(1).getRooms().get(0).getRoomNumber());
+        List<Student> roster = ExamSystemExcelPDF.readStudentsCSV(s.toString());
+        assertEquals(41, roster.size());
+        assertEquals("Student 3", roster.get(3).getName());
+    }
+
+    @Test
+    public void loaderDropsTheSubjectsTheTimetableCannotPlace() throws Exception {
+        Path sub = write("subjects.csv", "Subject,branchType,Exam_Date,Class,Duration\n"
+                + "Maths,Common,10-06-2025 10.00,FE,3 hours\n"
+                + "Physics,Common,32-13-2025,FE,3 hours\n"                // line 3
+                + "Chemistry,Common,12-06-2025,FE,three\n");              // line 4
+        Path inv = write("invigilators.csv", "Invigilator_Name,Department\nDr. A,Computer Science\n");
+
+        DataValidation.Report report = new DataValidation(1).validate(Paths.get("students.csv"),
+                Paths.get("buildings.csv"), sub, inv);
+        assertEquals(3, report.getIssues(DataValidation.Code.BAD_DATE).get(0).getLine());
+        assertEquals(4, report.getIssues(DataValidation.Code.BAD_DURATION).get(0).getLine());
+        assertEquals(1, report.getAccepted("subjects.csv"));
+
+        // The same rows are gone from the loader, so the timetable never sees them
+        List<Subject> subjects = ExamSystemExcelPDF.readSubjectsCSV(sub.toString());
+        assertEquals(1, subjects.size());
+        assertEquals("Maths", subjects.get(0).getName());
+        List<ExamTimetable.Sitting> timetable = new ExamTimetable().schedule(
+                ExamSystemExcelPDF.readBuildingsCSV("buildings.csv"), ExamSystemExcelPDF.readStudentsCSV("students.csv"),
+                SubjectCatalog.of(subjects), ExamSystemExcelPDF.readInvigilatorsCSV(inv.toString()));
+        assertEquals(1, timetable.size());
+    }
+}
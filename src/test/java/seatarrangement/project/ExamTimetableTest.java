@@ -0,0 +1,131 @@
+package seatarrangement.project;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class ExamTimetableTest {
+
+    @Test
+    public void parsesSheetDatesAndDurations() {
+        Subject s = new Subject("Maths", "Common", "10-06-2025 0.00", 1, "3 hours");
+        assertEquals(LocalDateTime.of(2025, 6, 10, 9, 0), ExamTimetable.parseStart(s));
+        assertEquals(Duration.ofHours(3), ExamTimetable.parseDuration(s));
+
+        Subject pm = new Subject("Physics", "Common", "10-06-2025 14.30", 1, "90 minutes");
+        assertEquals(LocalDateTime.of(2025, 6, 10, 14, 30), ExamTimetable.parseStart(pm));
+        assertEquals(Duration.ofMinutes(90), ExamTimetable.parseDuration(pm));
+    }
+
+    @Test
+    public void seatsOnlyTheStudentsOfEachSlot() {
+        ArrayList<Building> buildings = ExamSystemExcelPDF.readBuildingsCSV("buildings.csv");
+        List<ExamTimetable.Sitting> timetable = new ExamTimetable().schedule(buildings,
+                ExamSystemExcelPDF.readStudentsCSV("students.csv"),
+                SubjectCatalog.of(ExamSystemExcelPDF.readSubjectsCSV("subjects.csv")),
+                ExamSystemExcelPDF.readInvigilatorsCSV("invigilators.csv"));
+
+        // Every subject in the shipped sheet has its own day
+        assertEquals(19, timetable.size());
+        ExamTimetable.Sitting maths = timetable.get(0);
+        assertEquals("Mathematics", maths.getSlot().getSubjects().get(0).getName());
+        assertEquals(498, maths.getStudentCount());
+        assertEquals(0, maths.getUnseated());
+
+        // Structural Mechanics: only the Civil students, in the first rooms, original rooms untouched
+        ExamTimetable.Sitting civil = timetable.get(9);
+        assertEquals("Structural Mechanics", civil.getSlot().getSubjects().get(0).getName());
+        assertEquals(98, civil.getStudentCount());     // the two nameless rows are Civil
+        for (ExamHall eh : civil.getHalls()) {
+            for (Student st : eh.getRoom().getStudents()) assertEquals("Civil", st.getBranch());
+        }
+        assertEquals(98, civil.getIndex().getSeatCount());
+        assertTrue(buildings.get(0).getRooms().get(0).getStudents().isEmpty());
+    }
+
+    @Test
+    public void partitionedSittingsKeepEachCohortOnConsecutiveBenches() {
+        List<ExamTimetable.Sitting> timetable = new ExamTimetable(SeatingStrategy::sequential, 2,
+                InvigilatorAssignment.DEFAULT_MAX_ROOMS_PER_DAY, PartitionedAllocation.Partitioning.COHORT).schedule(
+                ExamSystemExcelPDF.readBuildingsCSV("buildings.csv"), ExamSystemExcelPDF.readStudentsCSV("students.csv"),
+                SubjectCatalog.of(ExamSystemExcelPDF.readSubjectsCSV("subjects.csv")),
+                ExamSystemExcelPDF.readInvigilatorsCSV("invigilators.csv"));
+
+        assertEquals(19, timetable.size());
+        ExamTimetable.Sitting maths = timetable.get(0);
+        assertEquals(0, maths.getUnseated());
+        // Seat order is cohort after cohort: once a (branch, year) is left it never comes back
+        Set<String> done = new HashSet<>();
+        String current = null;
+        for (ExamHall eh : maths.getHalls()) {
+            for (Student st : eh.getRoom().getStudents()) {
+                String cohort = st.getBranch() + "/" + st.getYear();
+                if (!cohort.equals(current)) {
+                    assertTrue(cohort, done.add(cohort));
+                    current = cohort;
+                }
+            }
+        }
+    }
+
+    @Test
+    public void overlappingPapersShareOneSeating() {
+        List<Subject> subjects = Arrays.asList(
+                new Subject("A", "Common", "01-07-2025 09.00", 1, "3 hours"),
+                new Subject("B", "Civil Engineering", "01-07-2025 10.30", 1, "2 hours"),
+                new Subject("C", "Common", "01-07-2025 12.30", 1, "1 hour"),     // starts as B ends
+                new Subject("D", "Common", "01-07-2025 14.00", 1, "1 hour"));
+        List<ExamTimetable.Slot> slots = ExamTimetable.slots(subjects);
+        assertEquals(3, slots.size());
+        assertEquals(Arrays.asList(subjects.get(0), subjects.get(1)), slots.get(0).getSubjects());
+        assertEquals(LocalDateTime.of(2025, 7, 1, 9, 0), slots.get(0).getStart());
+        assertEquals(LocalDateTime.of(2025, 7, 1, 12, 30), slots.get(0).getEnd());
+
+        // A Civil student writes A and B: one seat for the 09:00 session, not two
+        List<Student> students = Arrays.asList(new Student("a", "CI1", "Civil", 1), new Student("b", "ME1", "Mechanical", 1));
+        ArrayList<Building> buildings = new ArrayList<>();
+        Building b = new Building(1);
+        b.addRoom(new Room(101, 2));
+        buildings.add(b);
+        List<ExamTimetable.Sitting> timetable = new ExamTimetable().schedule(buildings, students,
+                SubjectCatalog.of(subjects), new ArrayList<>());
+        ExamTimetable.Sitting morning = timetable.get(0);
+        assertEquals(2, morning.getStudentCount());
+        assertEquals(0, morning.getUnseated());
+        assertEquals(2, morning.getIndex().getSeatCount());
+        assertNotNull(morning.getIndex().getSeat("CI1"));
+    }
+
+    @Test
+    public void subjectsStartingTogetherShareASlot() {
+        List<Subject> subjects = Arrays.asList(
+                new Subject("A", "Civil Engineering", "01-07-2025 0.00", 1, "2 hours"),
+                new Subject("B", "Mechanical Engineering", "01-07-2025 0.00", 1, "3 hours"),
+                new Subject("C", "Common", "01-07-2025 14.00", 2, "3 hours"));
+        List<ExamTimetable.Slot> slots = ExamTimetable.slots(subjects);
+        assertEquals(2, slots.size());
+        assertEquals(2, slots.get(0).getSubjects().size());
+        assertEquals(Duration.ofHours(3), slots.get(0).getDuration());
+
+        List<Student> students = Arrays.asList(
+                new Student("a", "CI1", "Civil", 1), new Student("b", "ME1", "Mechanical", 1),
+                new Student("c", "IT1", "Information Technology", 1), new Student("d", "IT2", "Information Technology", 2));
+        ArrayList<Building> buildings = new ArrayList<>();
+        Building b = new Building(1);
+        b.addRoom(new Room(101, 10));
+        buildings.add(b);
+        List<ExamTimetable.Sitting> timetable = new ExamTimetable().schedule(buildings, students,
+                SubjectCatalog.of(subjects), new ArrayList<>());
+        assertEquals(2, timetable.get(0).getStudentCount());
+        assertEquals(1, timetable.get(1).getStudentCount());
+        assertEquals("IT2", timetable.get(1).getHalls().get(0).getRoom().getStudents().get(0).getPRN());
+    }
+}
@@ -0,0 +1,135 @@
+package seatarrangement.project;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+public class HallTicketBatchWriterTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private static AllocationIndex shippedAllocation() {
+        return shippedAllocation(SeatingStrategy.sequential());
+    }
+
+    private static AllocationIndex shippedAllocation(SeatingStrategy strategy) {
+        ArrayList<Building> buildings = ExamSystemExcelPDF.readBuildingsCSV("buildings.csv");
+        ArrayList<ExamHall> halls = ExamSystemExcelPDF.allocateStudentsAndInvigilators(buildings,
+                ExamSystemExcelPDF.readStudentsCSV("students.csv"),
+                ExamSystemExcelPDF.readInvigilatorsCSV("invigilators.csv"), strategy);
+        return AllocationIndex.build(buildings, halls);
+    }
+
+    private static long pdfCount(Path dir) throws Exception {
+        try (Stream<Path> files = Files.walk(dir)) {
+            return files.filter(p -> p.toString().endsWith(".pdf")).count();
+        }
+    }
+
+    @Test
+    public void writesShardedDoorSheetsAndSlips() throws Exception {
+        AllocationIndex index = shippedAllocation();
+        Path out = tmp.newFolder("out").toPath();
+        HallTicketBatchWriter.Result r = new HallTicketBatchWriter(out, 2, 4, HallTicketBatchWriter.Fsync.NONE).write(index);
+
+        assertEquals(25 + 498, r.getFiles());
+        assertEquals(25 + 498, pdfCount(out));
+        assertTrue(Files.exists(out.resolve("building-1").resolve("room-101").resolve("door-sheet.pdf")));
+        assertTrue(Files.exists(out.resolve("building-1").resolve("room-101").resolve("CO25001.pdf")));
+    }
+
+    @Test
+    public void rerunResumesFromCheckpoint() throws Exception {
+        AllocationIndex index = shippedAllocation();
+        Path out = tmp.newFolder("out").toPath();
+        new HallTicketBatchWriter(out, 2, 4, HallTicketBatchWriter.Fsync.PER_ROOM).write(index);
+
+        // Pretend the run died after the first ten rooms, leaving a torn checkpoint line
+        Path checkpoint = out.resolve(HallTicketBatchWriter.CHECKPOINT);
+        java.util.List<String> lines = Files.readAllLines(checkpoint, StandardCharsets.UTF_8);
+        Files.write(checkpoint, (String.join("\n", lines.subList(0, 10)) + "\n20").getBytes(StandardCharsets.UTF_8));
+
+        HallTicketBatchWriter.Result r = new HallTicketBatchWriter(out, 2, 4, HallTicketBatchWriter.Fsync.PER_FILE).write(index);
+        assertEquals(10, r.getRoomsSkipped());
+        assertEquals(15, r.getRoomsWritten());
+        assertEquals(25 + 498, pdfCount(out));
+
+        HallTicketBatchWriter.Result again = new HallTicketBatchWriter(out).write(index);
+        assertEquals(0, again.getFiles());
+        assertEquals(25, again.getRoomsSkipped());
+    }
+
+    @Test
+    public void reallocationRewritesChangedRoomsOnly() throws Exception {
+        Path out = tmp.newFolder("out").toPath();
+        new HallTicketBatchWriter(out, 2, 4, HallTicketBatchWriter.Fsync.NONE).write(shippedAllocation());
+
+        // Interleaving moves students between rooms; every room's checkpoint entry goes stale
+        AllocationIndex moved = shippedAllocation(new InterleavedSeating());
+        HallTicketBatchWriter.Result r = new HallTicketBatchWriter(out, 2, 4, HallTicketBatchWriter.Fsync.NONE).write(moved);
+        assertEquals(25, r.getRoomsWritten());
+        assertEquals(25 + 498, pdfCount(out));
+        for (ExamHall eh : moved.getHalls()) {
+            Path dir = new HallTicketBatchWriter(out).roomDir(moved.getBuildingNumber(eh.getRoom().getRoomNumber()),
+                    eh.getRoom().getRoomNumber());
+            for (Student st : eh.getRoom().getStudents()) assertTrue(Files.exists(dir.resolve(st.getPRN() + ".pdf")));
+        }
+        assertEquals(25, new HallTicketBatchWriter(out).write(moved).getRoomsSkipped());
+    }
+
+    @Test
+    public void timetableGetsADirectoryAndCheckpointPerSitting() throws Exception {
+        SubjectCatalog catalog = SubjectCatalog.of(ExamSystemExcelPDF.readSubjectsCSV("subjects.csv"));
+        java.util.List<ExamTimetable.Sitting> timetable = new ExamTimetable().schedule(
+                ExamSystemExcelPDF.readBuildingsCSV("buildings.csv"),
+                ExamSystemExcelPDF.readStudentsCSV("students.csv"), catalog, ExamSystemExcelPDF.readInvigilatorsCSV("invigilators.csv"));
+        Path out = tmp.newFolder("out").toPath();
+        HallTicketBatchWriter.Result r = new HallTicketBatchWriter(out, 2, 4, HallTicketBatchWriter.Fsync.NONE)
+                .write(timetable);
+
+        // Room 101 is used by several sittings; each keeps its own door sheet and slips
+        long rooms = 0;
+        long seated = 0;
+        for (ExamTimetable.Sitting s : timetable) {
+            rooms += s.getHalls().size();
+            for (ExamHall eh : s.getHalls()) seated += eh.getRoom().getStudents().size();
+        }
+        assertEquals(rooms + seated, r.getFiles());
+        assertEquals(rooms + seated, pdfCount(out));
+        assertTrue(Files.exists(out.resolve("2025-06-10-0900").resolve("building-1").resolve("room-101")
+                .resolve("door-sheet.pdf")));
+        assertTrue(Files.exists(out.resolve("2025-06-12-0900").resolve("building-1").resolve("room-101")
+                .resolve("CO25001.pdf")));
+        String entry = Files.readAllLines(out.resolve(HallTicketBatchWriter.CHECKPOINT)).get(0);
+        assertTrue(entry, entry.matches("\\d{4}-\\d\\d-\\d\\d-\\d{4} \\d+ [0-9a-f]{64}"));
+
+        HallTicketBatchWriter.Result again = new HallTicketBatchWriter(out).write(timetable);
+        assertEquals(0, again.getFiles());
+        assertEquals(rooms, again.getRoomsSkipped());
+    }
+
+    @Test
+    public void failedRoomFailsTheRun() throws Exception {
+        Path out = tmp.newFolder("out").toPath();
+        Files.createFile(out.resolve("building-3"));      // its rooms cannot get a directory
+
+        try {
+            new HallTicketBatchWriter(out, 2, 1, HallTicketBatchWriter.Fsync.NONE).write(shippedAllocation());
+            fail("expected the rooms of building 3 to fail");
+        } catch (java.io.IOException expected) {
+            // reported, not dropped with the finished futures
+        }
+        for (String line : Files.readAllLines(out.resolve(HallTicketBatchWriter.CHECKPOINT))) {
+            assertFalse(line, line.startsWith("30"));
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package seatarrangement.project;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class IncrementalAllocationTest {
+
+    /** Three 4-bench rooms, the first two full, the third with one student. */
+    private static ArrayList<ExamHall> halls() {
+        ArrayList<ExamHall> halls = new ArrayList<>();
+        int n = 0;
+        for (int r = 0; r < 3; r++) {
+            Room room = new Room(101 + r, 4);
+            for (int b = 0; b < (r < 2 ? 4 : 1); b++) room.addStudent(new Student("S" + n, "P" + n++, "Civil", 1));
+            halls.add(new ExamHall(room, null));
+        }
+        return halls;
+    }
+
+    @Test
+    public void removeLeavesTheBenchEmptyAndTheNextInsertTakesIt() {
+        ArrayList<ExamHall> halls = halls();
+        IncrementalAllocation alloc = new IncrementalAllocation(halls);
+
+        List<IncrementalAllocation.SeatChange> diff = alloc.removeStudent("P1");
+        assertEquals(1, diff.size());
+        assertEquals(-1, diff.get(0).getToRoom());
+        assertEquals(3, alloc.getBench("P3"));   // nobody else moves
+        assertEquals(0, alloc.getBench("P4"));
+        // The room itself lists only the seated students, in bench order
+        assertEquals(3, halls.get(0).getRoom().getStudents().size());
+        assertEquals("P2", halls.get(0).getRoom().getStudents().get(1).getPRN());
+
+        // The emptied bench is the first free one in hall order
+        List<IncrementalAllocation.SeatChange> add = alloc.addStudent(new Student("New", "PX", "Civil", 1));
+        assertEquals(1, add.size());
+        assertEquals(101, add.get(0).getToRoom());
+        assertEquals(1, add.get(0).getToBench());
+        assertEquals("PX", halls.get(0).getRoom().getStudents().get(1).getPRN());
+
+        alloc.removeStudent("P2");
+        alloc.removeStudent("P3");
+        assertEquals(2, halls.get(0).getRoom().getStudents().size());
+    }
+
+    @Test
+    public void indexReportAndExportsWorkAfterAWithdrawal() throws Exception {
+        ArrayList<ExamHall> halls = halls();
+        IncrementalAllocation alloc = new IncrementalAllocation(halls);
+        alloc.removeStudent("P1");
+        alloc.closeRoom(103);
+
+        AllocationIndex index = AllocationIndex.build(halls);
+        ByteArrayOutputStream pdf = new ByteArrayOutputStream();
+        new ParallelReportRenderer().render(pdf, halls, SubjectCatalog.of(new ArrayList<>()), "Common", false, index);
+        assertTrue(pdf.size() > 0);
+        StringWriter json = new StringWriter();
+        SeatMapJson.write(json, halls, index);
+        assertFalse(json.toString().contains("P1\""));
+
+        Path dir = Files.createTempDirectory("incremental");
+        try {
+            SeatMapExport.write(halls, index, dir.resolve("m.ndjson"), dir.resolve("m.csv"), dir.resolve("m.seats"));
+            List<String> csv = Files.readAllLines(dir.resolve("m.csv"));
+            assertEquals(1 + 8, csv.size());      // header and the eight students left
+            // P8 from the closed room took P1's bench; the export numbers benches 1-based
+            assertTrue(csv.get(2), csv.get(2).contains(",101,2,P8,"));
+            assertTrue(csv.get(3), csv.get(3).contains(",101,3,P2,"));
+        } finally {
+            for (String f : new String[] { "m.ndjson", "m.csv", "m.seats" }) Files.deleteIfExists(dir.resolve(f));
+            Files.delete(dir);
+        }
+    }
+
+    @Test
+    public void closingARoomReseatsOnlyItsStudents() {
+        ArrayList<ExamHall> halls = halls();
+        IncrementalAllocation alloc = new IncrementalAllocation(halls);
+
+        List<IncrementalAllocation.SeatChange> diff = alloc.closeRoom(102);
+        assertEquals(4, diff.size());
+        // Room 103 had three free benches, the fourth student waits
+        assertEquals(103, alloc.getRoom("P4"));
+        assertEquals(103, alloc.getRoom("P6"));
+        assertEquals(-1, alloc.getRoom("P7"));
+        assertEquals(1, alloc.getWaiting().size());
+        assertEquals(2, alloc.getHalls().size());
+        assertEquals(0, alloc.getBench("P0"));
+
+        // A withdrawal lets the waiting student in
+        diff = alloc.removeStudent("P0");
+        assertEquals(3, alloc.getBench("P3"));
+        assertEquals(101, alloc.getRoom("P7"));
+        assertEquals(0, alloc.getBench("P7"));
+        assertTrue(alloc.getWaiting().isEmpty());
+        assertEquals(2, diff.size());
+    }
+
+    @Test
+    public void shrinkingBenchesMovesOnlyTheCutOffSeats() {
+        ArrayList<ExamHall> halls = halls();
+        IncrementalAllocation alloc = new IncrementalAllocation(halls);
+
+        List<IncrementalAllocation.SeatChange> diff = alloc.changeBenches(101, 2);
+        assertEquals(2, diff.size());
+        assertEquals(103, alloc.getRoom("P2"));
+        assertEquals(103, alloc.getRoom("P3"));
+        assertEquals(1, alloc.getBench("P1"));
+        assertEquals(2, halls.get(0).getRoom().getBenches());
+
+        assertTrue(alloc.changeBenches(101, 6).isEmpty());
+        assertEquals(101, alloc.getRoom(alloc.addStudent(new Student("New", "PX", "Civil", 1)).get(0).getPrn()));
+    }
+}
@@ -0,0 +1,112 @@
+package seatarrangement.project;
+
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class InvigilatorAssignmentTest {
+
+    private static ExamHall hall(int roomNumber, String branch, int students) {
+        Room r = new Room(roomNumber, students);
+        for (int i = 0; i < students; i++) r.addStudent(new Student("S" + i, branch + roomNumber + "-" + i, branch, 1));
+        return new ExamHall(r, null);
+    }
+
+    private static InvigilatorAssignment.Session session(LocalDateTime start, int hours, ExamHall... halls) {
+        int[] buildings = new int[halls.length];
+        for (int h = 0; h < halls.length; h++) buildings[h] = halls[h].getRoom().getRoomNumber() / 100;
+        return new InvigilatorAssignment.Session(start, start.plusHours(hours), Arrays.asList(halls), buildings);
+    }
+
+    @Test
+    public void keepsStaffOutOfTheirOwnBranchWhileAnybodyElseIsFree() {
+        List<Invigilator> staff = Arrays.asList(
+                new Invigilator("Dr. A", "Civil Engineering"),
+                new Invigilator("Dr. B", "Civil Engineering"),
+                new Invigilator("Dr. C", "Computer Science"));
+        LocalDateTime nine = LocalDateTime.of(2025, 6, 10, 9, 0);
+        InvigilatorAssignment.Result r = new InvigilatorAssignment().assign(List.of(
+                session(nine, 3, hall(101, "Civil", 5), hall(102, "Civil", 5), hall(103, "Computer Science", 5))),
+                staff);
+
+        // Dr. C takes a Civil room and one Civil engineer the Computer room; the other Civil room
+        // still gets the last Civil engineer rather than nobody
+        List<ExamHall> halls = r.getHalls(0);
+        assertEquals(0, r.getUncovered());
+        assertEquals(1, r.getConflicts());
+        assertEquals("Civil Engineering", halls.get(2).getInvigilator().getDepartment());
+        assertTrue("Dr. C".equals(halls.get(0).getInvigilator().getName())
+                || "Dr. C".equals(halls.get(1).getInvigilator().getName()));
+    }
+
+    @Test
+    public void shippedDataLeavesAtMostOneRoomUncovered() {
+        ArrayList<Building> buildings = ExamSystemExcelPDF.readBuildingsCSV("buildings.csv");
+        ArrayList<Invigilator> staff = ExamSystemExcelPDF.readInvigilatorsCSV("invigilators.csv");
+        ArrayList<ExamHall> halls = ExamSystemExcelPDF.allocateStudentsAndInvigilators(buildings,
+                ExamSystemExcelPDF.readStudentsCSV("students.csv"), new ArrayList<>(), new InterleavedSeating());
+
+        // Every room mixes all branches, so nearly every pairing is a conflict; 25 rooms, 24 invigilators
+        List<ExamHall> assigned = new InvigilatorAssignment().assign(buildings, halls, staff);
+        int uncovered = 0;
+        for (ExamHall eh : assigned) if (eh.getInvigilator() == null) uncovered++;
+        assertTrue(uncovered + " uncovered", uncovered <= 1);
+    }
+
+    @Test
+    public void capsDailyLoadAndAvoidsBuildingHops() {
+        List<Invigilator> staff = Arrays.asList(
+                new Invigilator("Dr. A", "Mechanical Engineering"),
+                new Invigilator("Dr. B", "Mechanical Engineering"));
+        LocalDateTime morning = LocalDateTime.of(2025, 6, 10, 9, 0);
+        LocalDateTime afternoon = morning.withHour(14);
+        List<InvigilatorAssignment.Session> sessions = List.of(
+                session(morning, 3, hall(101, "Civil", 3), hall(201, "Civil", 3)),
+                session(afternoon, 3, hall(202, "Civil", 3), hall(102, "Civil", 3)),
+                session(afternoon.plusHours(3), 2, hall(103, "Civil", 3), hall(203, "Civil", 3)),
+                session(morning.plusDays(1), 3, hall(104, "Civil", 3)));
+
+        InvigilatorAssignment.Result r = new InvigilatorAssignment(2).assign(sessions, staff);
+
+        // Both come back in the afternoon, each to the building they were in
+        assertEquals(0, r.getHops());
+        Map<String, Integer> buildingOf = new HashMap<>();
+        for (ExamHall eh : r.getHalls(0)) buildingOf.put(eh.getInvigilator().getName(), eh.getRoom().getRoomNumber() / 100);
+        for (ExamHall eh : r.getHalls(1)) {
+            assertEquals(buildingOf.get(eh.getInvigilator().getName()).intValue(), eh.getRoom().getRoomNumber() / 100);
+        }
+        // Two rooms a day each: the evening is uncovered, the next day is not
+        assertEquals(2, r.getUncovered(2));
+        assertEquals(0, r.getUncovered(3));
+        assertEquals(2, r.getUncovered());
+        assertEquals(3, r.getMaxLoad());
+    }
+
+    @Test
+    public void shippedTimetableHasNoOwnDepartmentSupervision() {
+        List<ExamTimetable.Sitting> timetable = new ExamTimetable().schedule(
+                ExamSystemExcelPDF.readBuildingsCSV("buildings.csv"),
+                ExamSystemExcelPDF.readStudentsCSV("students.csv"),
+                SubjectCatalog.of(ExamSystemExcelPDF.readSubjectsCSV("subjects.csv")),
+                ExamSystemExcelPDF.readInvigilatorsCSV("invigilators.csv"));
+        int covered = 0;
+        for (ExamTimetable.Sitting s : timetable) {
+            for (ExamHall eh : s.getHalls()) {
+                if (eh.getInvigilator() == null) continue;
+                covered++;
+                String key = eh.getInvigilator().getDepartment().toLowerCase().split(" ")[0];
+                for (Student st : eh.getRoom().getStudents()) {
+                    assertFalse(eh.getRoom().getRoomNumber() + " " + key, st.getBranch().toLowerCase().contains(key));
+                }
+            }
+        }
+        assertTrue(covered > 0);
+    }
+}
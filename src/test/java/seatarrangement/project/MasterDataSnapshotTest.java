@@ -0,0 +1,106 @@
+package seatarrangement.project;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.Assert.*;
+
+public class MasterDataSnapshotTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private Path copy(String name) throws Exception {
+        Path p = tmp.getRoot().toPath().resolve(name);
+        Files.copy(Paths.get(name), p, StandardCopyOption.REPLACE_EXISTING);
+        return p;
+    }
+
+    private MasterDataSnapshot.Data load(Path dir) {
+        return MasterDataSnapshot.load(dir.resolve("students.csv"), dir.resolve("buildings.csv"),
+                dir.resolve("subjects.csv"), dir.resolve("invigilators.csv"), dir.resolve("data.snapshot"));
+    }
+
+    @Test
+    public void warmLoadMatchesParsedData() throws Exception {
+        for (String f : new String[] { "students.csv", "buildings.csv", "subjects.csv", "invigilators.csv" }) copy(f);
+        Path dir = tmp.getRoot().toPath();
+
+        MasterDataSnapshot.Data cold = load(dir);
+        assertFalse(cold.isFromSnapshot());
+        assertTrue(Files.exists(dir.resolve("data.snapshot")));
+
+        MasterDataSnapshot.Data warm = load(dir);
+        assertTrue(warm.isFromSnapshot());
+        assertEquals(cold.getStudents().size(), warm.getStudents().size());
+        for (int i = 0; i < cold.getStudents().size(); i++) {
+            assertEquals(cold.getStudents().prn(i), warm.getStudents().prn(i));
+            assertEquals(cold.getStudents().name(i), warm.getStudents().name(i));
+            assertEquals(cold.getStudents().branch(i), warm.getStudents().branch(i));
+            assertEquals(cold.getStudents().year(i), warm.getStudents().year(i));
+        }
+        assertEquals(5, warm.getBuildings().size());
+        assertEquals(cold.getBuildings().get(4).getRooms().get(4).getRoomNumber(),
+                warm.getBuildings().get(4).getRooms().get(4).getRoomNumber());
+        assertEquals(19, warm.getSubjects().size());
+        assertEquals("Database Management Systems", warm.getSubjects().get(18).getName());
+        assertEquals("3 hours", warm.getSubjects().get(18).getDuration());
+        assertEquals(cold.getInvigilators().size(), warm.getInvigilators().size());
+        assertEquals(cold.getInvigilators().get(3).getDepartment(), warm.getInvigilators().get(3).getDepartment());
+    }
+
+    @Test
+    public void changedSourceInvalidatesTouchedSourceDoesNot() throws Exception {
+        for (String f : new String[] { "students.csv", "buildings.csv", "subjects.csv", "invigilators.csv" }) copy(f);
+        Path dir = tmp.getRoot().toPath();
+        load(dir);
+
+        // Same bytes, new mtime: kept (and re-stamped)
+        Path buildings = dir.resolve("buildings.csv");
+        Files.setLastModifiedTime(buildings, FileTime.fromMillis(System.currentTimeMillis() + 60_000));
+        assertTrue(load(dir).isFromSnapshot());
+        assertTrue(load(dir).isFromSnapshot());
+
+        // New content: parsed again
+        Files.write(buildings, "6,601,30\n".getBytes(), java.nio.file.StandardOpenOption.APPEND);
+        MasterDataSnapshot.Data changed = load(dir);
+        assertFalse(changed.isFromSnapshot());
+        assertEquals(6, changed.getBuildings().size());
+        assertTrue(load(dir).isFromSnapshot());
+        assertEquals(6, load(dir).getBuildings().size());
+    }
+
+    @Test
+    public void duplicatesAreDroppedAndTheReportIsKept() throws Exception {
+        for (String f : new String[] { "students.csv", "buildings.csv", "subjects.csv", "invigilators.csv" }) copy(f);
+        Path dir = tmp.getRoot().toPath();
+        Files.write(dir.resolve("students.csv"), "CO25001,Second Copy,Civil,SE\n".getBytes(),
+                java.nio.file.StandardOpenOption.APPEND);
+        Files.write(dir.resolve("buildings.csv"), "6,101,40\n".getBytes(), java.nio.file.StandardOpenOption.APPEND);
+
+        MasterDataSnapshot.Data cold = load(dir);
+        assertEquals(498, cold.getStudents().size());
+        int copies = 0;
+        for (int i = 0; i < cold.getStudents().size(); i++) {
+            if (!cold.getStudents().prn(i).equals("CO25001")) continue;
+            copies++;
+            assertEquals("Jahnvi Reddy", cold.getStudents().name(i));     // the first row wins
+        }
+        assertEquals(1, copies);
+        assertEquals(5, cold.getBuildings().size());
+        assertEquals(1, cold.getValidation().getIssues(DataValidation.Code.DUPLICATE_PRN).size());
+        assertEquals(1, cold.getValidation().getIssues(DataValidation.Code.DUPLICATE_ROOM).size());
+
+        MasterDataSnapshot.Data warm = load(dir);
+        assertTrue(warm.isFromSnapshot());
+        assertEquals(498, warm.getStudents().size());
+        assertEquals(cold.getValidation().toJson(), warm.getValidation().toJson());
+    }
+}
@@ -0,0 +1,94 @@
+package seatarrangement.project;
+
+import com.itextpdf.text.pdf.PdfReader;
+import com.itextpdf.text.pdf.parser.PdfTextExtractor;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ParallelReportRendererTest {
+
+    private static String text(byte[] pdf) throws Exception {
+        PdfReader reader = new PdfReader(pdf);
+        StringBuilder sb = new StringBuilder();
+        for (int p = 1; p <= reader.getNumberOfPages(); p++) {
+            sb.append(PdfTextExtractor.getTextFromPage(reader, p)).append('\n');
+        }
+        reader.close();
+        return sb.toString();
+    }
+
+    @Test
+    public void mergedPartsKeepEveryRoomInOrder() throws Exception {
+        ArrayList<Building> buildings = ExamSystemExcelPDF.readBuildingsCSV("buildings.csv");
+        ArrayList<ExamHall> halls = ExamSystemExcelPDF.allocateStudentsAndInvigilators(buildings,
+                ExamSystemExcelPDF.readStudentsCSV("students.csv"),
+                ExamSystemExcelPDF.readInvigilatorsCSV("invigilators.csv"));
+        SubjectCatalog catalog = SubjectCatalog.of(ExamSystemExcelPDF.readSubjectsCSV("subjects.csv"));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new ParallelReportRenderer(3, 2).render(out, halls, catalog, "Common", false, null);
+        String text = text(out.toByteArray());
+
+        int last = -1;
+        for (ExamHall eh : halls) {
+            int at = text.indexOf("Room " + eh.getRoom().getRoomNumber() + " ");
+            assertTrue("room " + eh.getRoom().getRoomNumber(), at > last);
+            last = at;
+            for (Student st : eh.getRoom().getStudents()) assertTrue(text.contains(st.getPRN()));
+        }
+    }
+
+    @Test
+    public void branchReportListsOnlyMatchingStudents() throws Exception {
+        ArrayList<Building> buildings = ExamSystemExcelPDF.readBuildingsCSV("buildings.csv");
+        ArrayList<ExamHall> halls = ExamSystemExcelPDF.allocateStudentsAndInvigilators(buildings,
+                ExamSystemExcelPDF.readStudentsCSV("students.csv"), new ArrayList<>());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new ParallelReportRenderer().render(out, halls,
+                SubjectCatalog.of(ExamSystemExcelPDF.readSubjectsCSV("subjects.csv")), "Branch", true, null);
+        String text = text(out.toByteArray());
+
+        assertTrue(text.contains("Civil Engineering:"));
+        assertTrue(text.contains("Surveying"));
+        assertTrue(text.contains("CI250401"));
+        assertTrue(text.contains("IT250101"));
+    }
+
+    @Test
+    public void timetableReportsListEverySittingWithItsOwnSubjects() throws Exception {
+        SubjectCatalog catalog = SubjectCatalog.of(ExamSystemExcelPDF.readSubjectsCSV("subjects.csv"));
+        List<ExamTimetable.Sitting> timetable = new ExamTimetable().schedule(
+                ExamSystemExcelPDF.readBuildingsCSV("buildings.csv"), ExamSystemExcelPDF.readStudentsCSV("students.csv"),
+                catalog, ExamSystemExcelPDF.readInvigilatorsCSV("invigilators.csv"));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new ParallelReportRenderer().render(out, timetable, catalog, "Common", false);
+        String common = text(out.toByteArray());
+        out.reset();
+        new ParallelReportRenderer().render(out, timetable, catalog, "Branch", true);
+        String branch = text(out.toByteArray());
+
+        // Nine common sittings, ten branch ones, each under its own heading
+        assertEquals(9, common.split("Session of ", -1).length - 1);
+        assertEquals(10, branch.split("Session of ", -1).length - 1);
+        assertTrue(common.contains("Session of 10-06-2025 09:00 AM"));
+        assertFalse(common.contains("Surveying"));
+        assertFalse(branch.contains("Mathematics"));
+
+        ExamTimetable.Sitting surveying = timetable.get(10);
+        assertEquals("Surveying", surveying.getSlot().getSubjects().get(0).getName());
+        int at = branch.indexOf("Session of 30-06-2025 09:00 AM");
+        int next = branch.indexOf("Session of ", at + 1);
+        String part = branch.substring(at, next);
+        for (ExamHall eh : surveying.getHalls()) {
+            assertTrue(part.contains("Room " + eh.getRoom().getRoomNumber() + " "));
+            for (Student st : eh.getRoom().getStudents()) assertTrue(st.getPRN(), part.contains(st.getPRN()));
+        }
+    }
+}
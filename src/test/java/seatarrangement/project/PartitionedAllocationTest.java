@@ -0,0 +1,77 @@
+package seatarrangement.project;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class PartitionedAllocationTest {
+
+    private static List<String> seats(List<ExamHall> halls) {
+        List<String> out = new ArrayList<>();
+        for (ExamHall eh : halls) {
+            for (Student s : eh.getRoom().getStudents()) out.add(eh.getRoom().getRoomNumber() + ":" + s.getPRN());
+        }
+        return out;
+    }
+
+    private static List<String> run(PartitionedAllocation.Partitioning mode, int threads) {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            return seats(new PartitionedAllocation(mode, InterleavedSeating::new, pool).allocate(
+                    ExamSystemExcelPDF.readBuildingsCSV("buildings.csv"),
+                    ExamSystemExcelPDF.readStudentsCSV("students.csv"), new ArrayList<>()));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void sameSeatsForAnyNumberOfThreads() {
+        for (PartitionedAllocation.Partitioning mode : PartitionedAllocation.Partitioning.values()) {
+            List<String> one = run(mode, 1);
+            assertEquals(498, one.size());
+            assertEquals(mode.name(), one, run(mode, 4));
+            assertEquals(mode.name(), one, run(mode, 7));
+        }
+    }
+
+    @Test
+    public void buildingPartitionsKeepCohortsMixedAndCohortPartitionsKeepThemTogether() {
+        ArrayList<Building> buildings = ExamSystemExcelPDF.readBuildingsCSV("buildings.csv");
+        ArrayList<ExamHall> halls = new PartitionedAllocation(PartitionedAllocation.Partitioning.BUILDING,
+                InterleavedSeating::new).allocate(buildings, ExamSystemExcelPDF.readStudentsCSV("students.csv"),
+                new ArrayList<>());
+        // Every building gets a share of every branch, and interleaving leaves no neighbours alike
+        for (Building b : buildings) {
+            java.util.Set<String> branches = new java.util.HashSet<>();
+            for (Room r : b.getRooms()) for (Student s : r.getStudents()) branches.add(s.getBranch());
+            assertEquals(5, branches.size());
+        }
+        assertEquals(0, LocalSearchSeating.countConflicts(roomsOf(halls), 0));
+
+        buildings = ExamSystemExcelPDF.readBuildingsCSV("buildings.csv");
+        halls = new PartitionedAllocation(PartitionedAllocation.Partitioning.COHORT, SeatingStrategy::sequential)
+                .allocate(buildings, ExamSystemExcelPDF.readStudentsCSV("students.csv"), new ArrayList<>());
+        // Cohorts in order, each on consecutive benches: the same as the sequential allocator on a sorted roster
+        List<String> branchRuns = new ArrayList<>();
+        for (ExamHall eh : halls) {
+            for (Student s : eh.getRoom().getStudents()) {
+                if (branchRuns.isEmpty() || !branchRuns.get(branchRuns.size() - 1).equals(s.getBranch())) {
+                    branchRuns.add(s.getBranch());
+                }
+            }
+        }
+        assertEquals(5, branchRuns.size());
+        for (ExamHall eh : halls) assertTrue(eh.getRoom().getStudents().size() <= eh.getRoom().getBenches());
+    }
+
+    private static List<Room> roomsOf(List<ExamHall> halls) {
+        List<Room> out = new ArrayList<>();
+        for (ExamHall eh : halls) out.add(eh.getRoom());
+        return out;
+    }
+}
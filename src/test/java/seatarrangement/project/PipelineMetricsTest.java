@@ -0,0 +1,49 @@
+package seatarrangement.project;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.*;
+
+public class PipelineMetricsTest {
+
+    @After
+    public void tearDown() {
+        PipelineMetrics.reset();
+    }
+
+    @Test
+    public void disabledStagesCostNothing() {
+        // Surefire runs without -Dexamhall.metrics and without a JFR recording
+        assertFalse(PipelineMetrics.ENABLED);
+        assertSame(PipelineMetrics.begin("load.students"), PipelineMetrics.begin("allocate"));
+    }
+
+    @Test
+    public void dumpsHistogramsAndFillRatios() {
+        PipelineMetrics.add("load.students", 1_500_000, 500, 20_000, 0, 1_000_000);
+        PipelineMetrics.add("load.students", 3_000_000, 500, 20_000, 0, 1_000_000);
+        ArrayList<ExamHall> halls = new ArrayList<>();
+        Room full = new Room(101, 2);
+        full.addStudent(new Student("a", "P1", "Civil", 1));
+        full.addStudent(new Student("b", "P2", "Civil", 1));
+        halls.add(new ExamHall(full, null));
+        halls.add(new ExamHall(new Room(102, 2), null));
+        PipelineMetrics.addFill(halls);
+
+        String json = PipelineMetrics.json();
+        assertTrue(json, json.contains("\"load.students\": {\"count\": 2, \"totalNanos\": 4500000"));
+        assertTrue(json, json.contains("\"rows\": 1000"));
+        assertTrue(json, json.contains("\"p99Nanos\": 3000000"));
+        assertTrue(json, json.contains("\"fillRatio\": 0.5000"));
+        assertTrue(json, json.contains("\"0-9\": 1") && json.contains("\"100\": 1"));
+
+        String prom = PipelineMetrics.prometheus();
+        assertTrue(prom, prom.contains("examhall_stage_seconds_count{stage=\"load.students\"} 2"));
+        assertTrue(prom, prom.contains("examhall_stage_seconds_bucket{stage=\"load.students\",le=\"+Inf\"} 2"));
+        assertTrue(prom, prom.contains("examhall_stage_bytes_read_total{stage=\"load.students\"} 40000"));
+        assertTrue(prom, prom.contains("examhall_room_fill_ratio 0.5000"));
+    }
+}
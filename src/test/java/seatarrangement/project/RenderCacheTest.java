@@ -0,0 +1,107 @@
+package seatarrangement.project;
+
+import com.itextpdf.text.pdf.PdfReader;
+import com.itextpdf.text.pdf.parser.PdfTextExtractor;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class RenderCacheTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private static String text(byte[] pdf) throws Exception {
+        PdfReader reader = new PdfReader(pdf);
+        StringBuilder sb = new StringBuilder();
+        for (int p = 1; p <= reader.getNumberOfPages(); p++) {
+            sb.append(PdfTextExtractor.getTextFromPage(reader, p)).append('\n');
+        }
+        reader.close();
+        return sb.toString();
+    }
+
+    private static ArrayList<ExamHall> halls() {
+        return ExamSystemExcelPDF.allocateStudentsAndInvigilators(ExamSystemExcelPDF.readBuildingsCSV("buildings.csv"),
+                ExamSystemExcelPDF.readStudentsCSV("students.csv"),
+                ExamSystemExcelPDF.readInvigilatorsCSV("invigilators.csv"));
+    }
+
+    @Test
+    public void rerendersOnlyTheChangedRoom() throws Exception {
+        ArrayList<ExamHall> halls = halls();
+        SubjectCatalog subjects = SubjectCatalog.of(ExamSystemExcelPDF.readSubjectsCSV("subjects.csv"));
+        RenderCache cache = new RenderCache(tmp.newFolder().toPath(), Long.MAX_VALUE);
+
+        cache.render(new ByteArrayOutputStream(), halls, subjects, "Common", false, null);
+        assertEquals(0, cache.getHits());
+        assertEquals(halls.size() + 1, cache.getMisses());
+
+        ArrayList<Student> room = halls.get(2).getRoom().getStudents();
+        Student old = room.get(0);
+        room.set(0, new Student("Late Joiner", "ZZ999", old.getBranch(), old.getYear()));
+        cache.resetStatistics();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        cache.render(out, halls, subjects, "Common", false, null);
+        assertEquals(1, cache.getMisses());
+        assertEquals(halls.size(), cache.getHits());
+
+        String text = text(out.toByteArray());
+        assertTrue(text.contains("ZZ999"));
+        assertFalse(text.contains(old.getPRN() + " "));
+        int last = -1;
+        for (ExamHall eh : halls) {
+            int at = text.indexOf("Room " + eh.getRoom().getRoomNumber() + " ");
+            assertTrue("room " + eh.getRoom().getRoomNumber(), at > last);
+            last = at;
+        }
+    }
+
+    @Test
+    public void secondTimetableRunRendersNothing() throws Exception {
+        SubjectCatalog catalog = SubjectCatalog.of(ExamSystemExcelPDF.readSubjectsCSV("subjects.csv"));
+        List<ExamTimetable.Sitting> timetable = new ExamTimetable().schedule(
+                ExamSystemExcelPDF.readBuildingsCSV("buildings.csv"), ExamSystemExcelPDF.readStudentsCSV("students.csv"),
+                catalog, ExamSystemExcelPDF.readInvigilatorsCSV("invigilators.csv"));
+        RenderCache cache = new RenderCache(tmp.newFolder().toPath(), Long.MAX_VALUE);
+
+        cache.render(new ByteArrayOutputStream(), timetable, catalog, "Common", false);
+        assertTrue(cache.getMisses() > 0);
+        cache.resetStatistics();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        cache.render(out, timetable, catalog, "Common", false);
+        assertEquals(0, cache.getMisses());
+
+        // Same layout as the other renderers: one heading per common sitting
+        String text = text(out.toByteArray());
+        assertEquals(9, text.split("Session of ", -1).length - 1);
+        assertTrue(text.contains("Session of 10-06-2025 09:00 AM"));
+        assertFalse(text.contains("Surveying"));
+    }
+
+    @Test
+    public void staysWithinItsSizeBoundAcrossRestarts() throws Exception {
+        ArrayList<ExamHall> halls = halls();
+        SubjectCatalog subjects = SubjectCatalog.of(ExamSystemExcelPDF.readSubjectsCSV("subjects.csv"));
+        Path dir = tmp.newFolder().toPath();
+
+        RenderCache unbounded = new RenderCache(dir, Long.MAX_VALUE);
+        unbounded.render(new ByteArrayOutputStream(), halls, subjects, "Branch", true, null);
+        long all = unbounded.getBytes();
+        assertTrue(all > 0);
+
+        RenderCache bounded = new RenderCache(dir, all / 2);
+        assertTrue(bounded.getBytes() <= all / 2);
+        assertTrue(bounded.getFragmentCount() < unbounded.getFragmentCount());
+        bounded.render(new ByteArrayOutputStream(), halls, subjects, "Branch", true, null);
+        assertTrue(bounded.getBytes() <= all / 2);
+        assertTrue(bounded.getMisses() > 0);
+    }
+}
@@ -0,0 +1,112 @@
+package seatarrangement.project;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.Assert.*;
+
+public class SeatLookupIndexTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private static final SubjectCatalog CATALOG = SubjectCatalog.of(ExamSystemExcelPDF.readSubjectsCSV("subjects.csv"));
+
+    private Path index(List<ExamTimetable.Sitting> timetable, SubjectCatalog catalog) throws Exception {
+        Path file = tmp.getRoot().toPath().resolve("seats.idx");
+        SeatLookupIndex.write(file, timetable, catalog);
+        return file;
+    }
+
+    private static List<ExamTimetable.Sitting> timetable() {
+        return new ExamTimetable().schedule(ExamSystemExcelPDF.readBuildingsCSV("buildings.csv"),
+                ExamSystemExcelPDF.readStudentsCSV("students.csv"), CATALOG,
+                ExamSystemExcelPDF.readInvigilatorsCSV("invigilators.csv"));
+    }
+
+    @Test
+    public void answersEverySittingByPrnAlsoInBatches() throws Exception {
+        List<ExamTimetable.Sitting> timetable = timetable();
+        try (SeatLookupIndex.Lookup lookup = SeatLookupIndex.open(index(timetable, CATALOG))) {
+            int records = 0;
+            for (ExamTimetable.Sitting s : timetable) records += s.getIndex().getSeatCount();
+            assertEquals(records, lookup.size());
+
+            // Every seat of the Structural Mechanics day comes back as it was allocated
+            ExamTimetable.Sitting civil = timetable.get(9);
+            LocalDate day = civil.getSlot().getStart().toLocalDate();
+            for (ExamHall eh : civil.getHalls()) {
+                List<Student> students = eh.getRoom().getStudents();
+                for (int i = 0; i < students.size(); i++) {
+                    List<SeatLookupIndex.Seat> seats = lookup.find(students.get(i).getPRN(), day);
+                    assertEquals(1, seats.size());
+                    SeatLookupIndex.Seat seat = seats.get(0);
+                    assertEquals(eh.getRoom().getRoomNumber(), seat.getRoom());
+                    assertEquals(civil.getIndex().getBuildingNumber(seat.getRoom()), seat.getBuilding());
+                    assertEquals(i + 1, seat.getBench());
+                    assertEquals(eh.getInvigilator() == null ? null : eh.getInvigilator().getName(),
+                            seat.getInvigilator());
+                    assertEquals(List.of("Structural Mechanics"), seat.getSubjects());
+                    assertEquals(civil.getSlot().getStart(), seat.getStart());
+                }
+            }
+
+            // A Civil student sits the nine common papers and the two Civil ones, one per day
+            String prn = civil.getHalls().get(0).getRoom().getStudents().get(0).getPRN();
+            assertEquals(11, lookup.find(prn, null).size());
+            assertTrue(lookup.find(prn, LocalDate.of(2025, 7, 2)).isEmpty());
+
+            // Batches answer in query order, whatever that order is
+            List<String> queries = Arrays.asList("NOPE", prn, "", prn);
+            List<List<SeatLookupIndex.Seat>> answers = lookup.findAll(queries, day);
+            assertTrue(answers.get(0).isEmpty());
+            assertTrue(answers.get(2).isEmpty());
+            assertEquals(prn, answers.get(1).get(0).getPrn());
+            assertEquals(answers.get(1).get(0).getRoom(), answers.get(3).get(0).getRoom());
+        }
+    }
+
+    @Test
+    public void findsStudentsByTheStartOfTheirName() throws Exception {
+        Room room = new Room(101, 5);
+        for (String name : new String[] { "Anjali Rao", "Anand Iyer", "ANJALI Sharma", "Kunal Jha", "Anjali" }) {
+            room.getStudents().add(new Student(name, "P-" + name.toLowerCase(Locale.ROOT), "Civil", 1));
+        }
+        Building building = new Building(1);
+        building.addRoom(room);
+        List<Subject> surveying = List.of(new Subject("Surveying", "Civil Engineering", "10-06-2025 0.00", 1, "3 hours"));
+        ExamTimetable.Slot slot = new ExamTimetable.Slot(LocalDateTime.of(2025, 6, 10, 9, 0),
+                java.time.Duration.ofHours(3), surveying);
+        java.util.ArrayList<Building> buildings = new java.util.ArrayList<>(List.of(building));
+        java.util.ArrayList<ExamHall> halls = new java.util.ArrayList<>(List.of(new ExamHall(room, null)));
+        ExamTimetable.Sitting sitting = new ExamTimetable.Sitting(slot, buildings, halls,
+                AllocationIndex.build(buildings, halls), 5, 0, 1);
+
+        try (SeatLookupIndex.Lookup lookup = SeatLookupIndex.open(index(List.of(sitting), SubjectCatalog.of(surveying)))) {
+            LocalDate day = LocalDate.of(2025, 6, 10);
+            assertEquals(List.of("Anand Iyer", "Anjali", "Anjali Rao", "ANJALI Sharma"),
+                    names(lookup.findByName("an", day, 10)));
+            assertEquals(List.of("Anjali", "Anjali Rao", "ANJALI Sharma"), names(lookup.findByName("ANJ", day, 10)));
+            assertEquals(List.of("Anjali Rao"), names(lookup.findByName("anjali r", day, 10)));
+            assertEquals(List.of("Anjali"), names(lookup.findByName("anjali", day, 1)));
+            assertEquals(5, lookup.findByName("", day, 10).size());
+            assertTrue(lookup.findByName("anjali x", day, 10).isEmpty());
+            assertTrue(lookup.findByName("anjali rao ", day, 10).isEmpty());
+            assertTrue(lookup.findByName("an", day.plusDays(1), 10).isEmpty());
+            assertEquals(List.of("Surveying"), lookup.findByName("kunal", day, 10).get(0).getSubjects());
+            assertEquals(1, lookup.findByName("kunal", day, 10).get(0).getBuilding());
+        }
+    }
+
+    private static List<String> names(List<SeatLookupIndex.Seat> seats) {
+        return seats.stream().map(SeatLookupIndex.Seat::getName).toList();
+    }
+}
@@ -0,0 +1,137 @@
+package seatarrangement.project;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+public class SeatMapExportTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private static ArrayList<ExamHall> halls(ArrayList<Building> buildings) {
+        return ExamSystemExcelPDF.allocateStudentsAndInvigilators(buildings,
+                ExamSystemExcelPDF.readStudentsCSV("students.csv"),
+                ExamSystemExcelPDF.readInvigilatorsCSV("invigilators.csv"));
+    }
+
+    @Test
+    public void everySeatIsFoundByPrn() throws Exception {
+        ArrayList<Building> buildings = ExamSystemExcelPDF.readBuildingsCSV("buildings.csv");
+        ArrayList<ExamHall> halls = halls(buildings);
+        AllocationIndex index = AllocationIndex.build(buildings, halls);
+        Path dir = tmp.getRoot().toPath();
+        SeatMapExport.writeAll(dir, "map", halls, index);
+
+        try (SeatMapExport.Lookup lookup = SeatMapExport.Lookup.open(dir.resolve("map.seats"))) {
+            assertEquals(498, lookup.size());
+            for (ExamHall eh : halls) {
+                List<Student> students = eh.getRoom().getStudents();
+                for (int i = 0; i < students.size(); i++) {
+                    Student st = students.get(i);
+                    SeatMapExport.Seat seat = lookup.find(st.getPRN());
+                    assertNotNull(st.getPRN(), seat);
+                    assertEquals(eh.getRoom().getRoomNumber(), seat.getRoom());
+                    assertEquals(index.getBuildingNumber(seat.getRoom()), seat.getBuilding());
+                    assertEquals(i + 1, seat.getBench());
+                    assertEquals(st.getName(), seat.getName());
+                    assertEquals(st.getBranch(), seat.getBranch());
+                    assertEquals(st.getYear(), seat.getYear());
+                    assertEquals(eh.getInvigilator() == null ? null : eh.getInvigilator().getName(),
+                            seat.getInvigilator());
+                }
+            }
+            assertNull(lookup.find("NO-SUCH-PRN"));
+            assertNull(lookup.find(""));
+        }
+        assertFalse(Files.exists(dir.resolve("map.seats.part")));
+    }
+
+    @Test
+    public void textFormatsEscapeAndQuote() throws Exception {
+        Room room = new Room(101, 2);
+        room.getStudents().add(new Student("Doe, \"JJ\"", "P1", "Computer Engineering", 2));
+        room.getStudents().add(new Student("Émile \\ Ng", "P2", "IT", 3));
+        List<ExamHall> halls = List.of(new ExamHall(room, new Invigilator("Dr. A", "IT")));
+        Path dir = tmp.getRoot().toPath();
+        SeatMapExport.write(halls, null, dir.resolve("m.ndjson"), dir.resolve("m.csv"), null);
+
+        List<String> json = Files.readAllLines(dir.resolve("m.ndjson"), StandardCharsets.UTF_8);
+        assertEquals(List.of(
+                "{\"building\":-1,\"room\":101,\"bench\":1,\"prn\":\"P1\",\"name\":\"Doe, \\\"JJ\\\"\","
+                        + "\"branch\":\"Computer Engineering\",\"year\":2,\"invigilator\":\"Dr. A\"}",
+                "{\"building\":-1,\"room\":101,\"bench\":2,\"prn\":\"P2\",\"name\":\"Émile \\\\ Ng\","
+                        + "\"branch\":\"IT\",\"year\":3,\"invigilator\":\"Dr. A\"}"), json);
+        List<String> csv = Files.readAllLines(dir.resolve("m.csv"), StandardCharsets.UTF_8);
+        assertEquals(List.of("Building,Room,Bench,PRN,Name,Branch,Year,Invigilator",
+                "-1,101,1,P1,\"Doe, \"\"JJ\"\"\",Computer Engineering,2,Dr. A",
+                "-1,101,2,P2,Émile \\ Ng,IT,3,Dr. A"), csv);
+    }
+
+    @Test
+    public void failedWriteKeepsThePreviousFiles() throws Exception {
+        Path dir = tmp.getRoot().toPath();
+        Files.write(dir.resolve("m.seats"), "previous".getBytes(StandardCharsets.UTF_8));
+        Room room = new Room(101, 2);
+        room.getStudents().add(new Student("A", "P1", "IT", 1));
+        room.getStudents().add(new Student("B", null, "IT", 1));      // no PRN: the binary format cannot key it
+
+        try {
+            SeatMapExport.writeAll(dir, "m", List.of(new ExamHall(room, null)), null);
+            fail("expected the missing PRN to fail the export");
+        } catch (NullPointerException expected) {
+            // nothing published, nothing left behind
+        }
+        assertEquals("previous", new String(Files.readAllBytes(dir.resolve("m.seats")), StandardCharsets.UTF_8));
+        assertFalse(Files.exists(dir.resolve("m.ndjson")));
+        assertFalse(Files.exists(dir.resolve("m.csv")));
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    public void timetableSeatMapsAgreeWithTheLookupIndex() throws Exception {
+        SubjectCatalog catalog = SubjectCatalog.of(ExamSystemExcelPDF.readSubjectsCSV("subjects.csv"));
+        List<ExamTimetable.Sitting> timetable = new ExamTimetable().schedule(
+                ExamSystemExcelPDF.readBuildingsCSV("buildings.csv"), ExamSystemExcelPDF.readStudentsCSV("students.csv"),
+                catalog, ExamSystemExcelPDF.readInvigilatorsCSV("invigilators.csv"));
+        Path dir = tmp.getRoot().toPath().resolve("maps");
+        Files.createDirectories(dir);
+        Files.write(dir.resolve("2024-01-01-0900.csv"), new byte[0]);      // a sitting of an older timetable
+        Files.write(dir.resolve("rooms.csv"), new byte[0]);                // somebody else's file
+        SeatMapExport.writeAll(dir, timetable);
+        assertTrue(Files.exists(dir.resolve("rooms.csv")));
+        Files.delete(dir.resolve("rooms.csv"));
+        Path idx = tmp.getRoot().toPath().resolve("seats.idx");
+        SeatLookupIndex.write(idx, timetable, catalog);
+
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(timetable.size() * 3, files.count());
+        }
+        ExamTimetable.Sitting surveying = timetable.get(10);
+        try (SeatMapExport.Lookup map = SeatMapExport.Lookup.open(dir.resolve("2025-06-30-0900.seats"));
+             SeatLookupIndex.Lookup desk = SeatLookupIndex.open(idx)) {
+            assertEquals(surveying.getStudentCount() - surveying.getUnseated(), map.size());
+            for (ExamHall eh : surveying.getHalls()) {
+                for (Student st : eh.getRoom().getStudents()) {
+                    SeatMapExport.Seat door = map.find(st.getPRN());
+                    SeatLookupIndex.Seat help = desk.find(st.getPRN(), surveying.getSlot().getStart().toLocalDate()).get(0);
+                    assertEquals(help.getBuilding(), door.getBuilding());
+                    assertEquals(help.getRoom(), door.getRoom());
+                    assertEquals(help.getBench(), door.getBench());
+                    assertEquals(help.getInvigilator(), door.getInvigilator());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package seatarrangement.project;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class SeatingStrategyTest {
+
+    private static List<Room> rooms(ArrayList<Building> buildings) {
+        List<Room> rooms = new ArrayList<>();
+        for (Building b : buildings) rooms.addAll(b.getRooms());
+        return rooms;
+    }
+
+    private static Set<String> seatedPrns(List<Room> rooms) {
+        Set<String> prns = new HashSet<>();
+        for (Room r : rooms) {
+            assertTrue(r.getStudents().size() <= r.getBenches());
+            for (Student s : r.getStudents()) assertTrue(prns.add(s.getPRN()));
+        }
+        return prns;
+    }
+
+    @Test
+    public void sequentialSeatingPutsBranchesSideBySide() {
+        ArrayList<Building> buildings = ExamSystemExcelPDF.readBuildingsCSV("buildings.csv");
+        ExamSystemExcelPDF.allocateStudentsAndInvigilators(buildings,
+                ExamSystemExcelPDF.readStudentsCSV("students.csv"), new ArrayList<>());
+        assertTrue(LocalSearchSeating.countConflicts(rooms(buildings), 0) > 400);
+    }
+
+    @Test
+    public void interleavedSeatingLeavesNoSamePaperNeighbours() {
+        ArrayList<Student> students = ExamSystemExcelPDF.readStudentsCSV("students.csv");
+        ArrayList<Building> buildings = ExamSystemExcelPDF.readBuildingsCSV("buildings.csv");
+        ExamSystemExcelPDF.allocateStudentsAndInvigilators(buildings, students, new ArrayList<>(),
+                new InterleavedSeating());
+
+        assertEquals(0, LocalSearchSeating.countConflicts(rooms(buildings), 0));
+        assertEquals(students.size(), seatedPrns(rooms(buildings)).size());
+    }
+
+    @Test
+    public void localSearchRepairsGridAdjacency() {
+        ArrayList<Student> students = ExamSystemExcelPDF.readStudentsCSV("students.csv");
+        ArrayList<Building> buildings = ExamSystemExcelPDF.readBuildingsCSV("buildings.csv");
+        LocalSearchSeating solver = new LocalSearchSeating(4, 1000);
+        ExamSystemExcelPDF.allocateStudentsAndInvigilators(buildings, students, new ArrayList<>(), solver);
+
+        assertEquals(0, solver.getLastConflicts());
+        assertEquals(0, LocalSearchSeating.countConflicts(rooms(buildings), 4));
+        assertEquals(students.size(), seatedPrns(rooms(buildings)).size());
+    }
+
+    @Test
+    public void overfullCohortStopsWithinBudget() {
+        List<Student> students = new ArrayList<>();
+        for (int i = 0; i < 90; i++) students.add(new Student("A" + i, "CO" + i, "Computer Science", 1));
+        for (int i = 0; i < 10; i++) students.add(new Student("B" + i, "CI" + i, "Civil", 1));
+        List<Room> rooms = new ArrayList<>();
+        for (int r = 0; r < 5; r++) rooms.add(new Room(100 + r, 20));
+
+        LocalSearchSeating solver = new LocalSearchSeating(0, 200);
+        long t0 = System.nanoTime();
+        solver.seat(rooms, students);
+        assertTrue(System.nanoTime() - t0 < 2_000_000_000L);
+        assertEquals(100, seatedPrns(rooms).size());
+        assertEquals(solver.getLastConflicts(), LocalSearchSeating.countConflicts(rooms, 0));
+    }
+}
@@ -0,0 +1,123 @@
+package seatarrangement.project;
+
+import com.itextpdf.text.pdf.PdfReader;
+import com.itextpdf.text.pdf.parser.PdfTextExtractor;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class StreamingReportWriterTest {
+
+    /** Heap ceiling and roster size for the forked run; raise with -Dstreaming.students=1000000. */
+    private static final String HEAP = System.getProperty("streaming.xmx", "32m");
+    private static final int STUDENTS = Integer.getInteger("streaming.students", 100_000);
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void writesEveryRowAcrossFlushes() throws Exception {
+        File pdf = tmp.newFile("small.pdf");
+        long rows;
+        try (OutputStream out = new FileOutputStream(pdf)) {
+            rows = new StreamingReportWriter(7).write(out, "Common", new ArrayList<>(), syntheticHalls(500, 45));
+        }
+        assertEquals(500, rows);
+        PdfReader reader = new PdfReader(pdf.getPath());
+        assertTrue(reader.getNumberOfPages() > 5);
+        reader.close();
+    }
+
+    @Test
+    public void writesTheTimetableReportsInTheSharedLayout() throws Exception {
+        SubjectCatalog catalog = SubjectCatalog.of(ExamSystemExcelPDF.readSubjectsCSV("subjects.csv"));
+        List<ExamTimetable.Sitting> timetable = new ExamTimetable().schedule(
+                ExamSystemExcelPDF.readBuildingsCSV("buildings.csv"), ExamSystemExcelPDF.readStudentsCSV("students.csv"),
+                catalog, ExamSystemExcelPDF.readInvigilatorsCSV("invigilators.csv"));
+        File common = tmp.newFile("common.pdf");
+        File branch = tmp.newFile("branch.pdf");
+        new StreamingReportWriter().writeBoth(common.getPath(), branch.getPath(), timetable, catalog);
+
+        String text = text(branch.getPath());
+        assertEquals(10, text.split("Session of ", -1).length - 1);
+        assertTrue(text.contains("Civil Engineering:"));
+        assertFalse(text.contains("Mathematics"));
+        // Same rooms and rows as the parallel renderer prints
+        ExamTimetable.Sitting maths = timetable.get(0);
+        text = text(common.getPath());
+        assertEquals(9, text.split("Session of ", -1).length - 1);
+        for (ExamHall eh : maths.getHalls()) {
+            assertTrue(text.contains("Room " + eh.getRoom().getRoomNumber() + " "));
+            for (Student st : eh.getRoom().getStudents()) assertTrue(st.getPRN(), text.contains(st.getPRN()));
+        }
+    }
+
+    private static String text(String pdf) throws Exception {
+        PdfReader reader = new PdfReader(pdf);
+        StringBuilder sb = new StringBuilder();
+        for (int p = 1; p <= reader.getNumberOfPages(); p++) {
+            sb.append(PdfTextExtractor.getTextFromPage(reader, p)).append('\n');
+        }
+        reader.close();
+        return sb.toString();
+    }
+
+    @Test
+    public void largeRosterFitsInSmallHeap() throws Exception {
+        File pdf = tmp.newFile("large.pdf");
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        Process p = new ProcessBuilder(java, "-Xmx" + HEAP, "-cp", System.getProperty("java.class.path"),
+                StreamingReportWriterTest.class.getName(), Integer.toString(STUDENTS), pdf.getPath())
+                .redirectErrorStream(true)
+                .start();
+        String output = new String(p.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        assertEquals(output, 0, p.waitFor());
+        assertTrue(output, output.contains("rows=" + STUDENTS));
+        assertTrue(Files.size(pdf.toPath()) > 0);
+    }
+
+    /** Entry point for the forked, heap-limited JVM. */
+    public static void main(String[] args) throws Exception {
+        int students = Integer.parseInt(args[0]);
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(args[1]))) {
+            long rows = new StreamingReportWriter().write(out, "Exam Hall Allocation — Common Subjects",
+                    ExamSystemExcelPDF.readSubjectsCSV("subjects.csv"), syntheticHalls(students, 20));
+            System.out.println("rows=" + rows);
+        }
+    }
+
+    /** Halls are built on demand, so only one room is ever alive. */
+    static Iterator<ExamHall> syntheticHalls(int students, int benches) {
+        Invigilator inv = new Invigilator("Dr. Amitabh Joshi", "Civil Engineering");
+        return new Iterator<ExamHall>() {
+            int next = 0;
+            int room = 100;
+
+            @Override
+            public boolean hasNext() { return next < students; }
+
+            @Override
+            public ExamHall next() {
+                Room r = new Room(room++, benches);
+                for (int i = 0; i < benches && next < students; i++, next++) {
+                    int b = next % SyntheticData.BRANCHES.length;
+                    r.addStudent(new Student("Student " + next, SyntheticData.PREFIXES[b] + (250000 + next),
+                            SyntheticData.BRANCHES[b], 1));
+                }
+                return new ExamHall(r, inv);
+            }
+        };
+    }
+}
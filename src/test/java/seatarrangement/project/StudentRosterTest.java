@@ -0,0 +1,78 @@
+package seatarrangement.project;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class StudentRosterTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void columnsRoundTripEveryField() {
+        StudentRoster roster = StudentRoster.from(Arrays.asList(
+                new Student("Jahnvi Reddy", "CO25001", "Computer Science", 1),
+                new Student("Kunal Sethi", "CI0250401", "Civil", 2),
+                new Student("Zoë Müller", "TMP-A", "Civil", 4)));
+
+        assertEquals(3, roster.size());
+        assertEquals("CO25001", roster.prn(0));
+        assertEquals("CI0250401", roster.prn(1));   // leading zero kept
+        assertEquals("TMP-A", roster.prn(2));       // irregular PRN kept verbatim
+        assertEquals(-1, roster.prnSequence(2));
+        assertEquals("Zoë Müller", roster.name(2));
+        assertEquals(2, roster.branchCount());
+        assertEquals(roster.branchCode(1), roster.branchCode(2));
+        assertEquals(4, roster.year(2));
+    }
+
+    @Test
+    public void rosterLoaderMatchesObjectLoader() throws Exception {
+        Path file = SyntheticData.writeStudents(tmp.newFile().toPath(), 3000);
+        ArrayList<Student> objects = ExamSystemExcelPDF.readStudentsCSV(file.toString());
+        StudentRoster roster = ExamSystemExcelPDF.readStudentRoster(file.toString());
+        // 4 KB buffers: the file is read in dozens of chunks, each with its own branch dictionary
+        assertTrue(Files.size(file) > 16 * 4096);
+        StudentRoster chunked = ExamSystemExcelPDF.readStudentRoster(file.toString(), 4, 4096);
+
+        for (StudentRoster loaded : new StudentRoster[] { roster, chunked }) {
+            assertEquals(objects.size(), loaded.size());
+            StudentRoster.Cursor c = loaded.cursor();
+            while (c.next()) {
+                Student s = objects.get(c.index());
+                assertEquals(s.getPRN(), c.prn());
+                assertEquals(s.getName(), c.name());
+                assertEquals(s.getBranch(), c.branch());
+                assertEquals(s.getYear(), c.year());
+            }
+        }
+    }
+
+    @Test
+    public void rosterAllocationSeatsLikeListAllocation() {
+        ArrayList<Student> objects = ExamSystemExcelPDF.readStudentsCSV("students.csv");
+        StudentRoster roster = ExamSystemExcelPDF.readStudentRoster("students.csv");
+        ArrayList<Invigilator> invs = ExamSystemExcelPDF.readInvigilatorsCSV("invigilators.csv");
+
+        ArrayList<ExamHall> a = ExamSystemExcelPDF.allocateStudentsAndInvigilators(
+                ExamSystemExcelPDF.readBuildingsCSV("buildings.csv"), objects, invs);
+        ArrayList<ExamHall> b = ExamSystemExcelPDF.allocateStudentsAndInvigilators(
+                ExamSystemExcelPDF.readBuildingsCSV("buildings.csv"), roster, invs);
+
+        assertEquals(a.size(), b.size());
+        for (int h = 0; h < a.size(); h++) {
+            ArrayList<Student> x = a.get(h).getRoom().getStudents();
+            ArrayList<Student> y = b.get(h).getRoom().getStudents();
+            assertEquals(x.size(), y.size());
+            for (int i = 0; i < x.size(); i++) assertEquals(x.get(i).getPRN(), y.get(i).getPRN());
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package seatarrangement.project;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class SubjectCatalogTest {
+
+    @Test
+    public void compilesTheShippedSheet() {
+        List<Subject> all = ExamSystemExcelPDF.readSubjectsCSV("subjects.csv");
+        SubjectCatalog catalog = SubjectCatalog.of(all);
+
+        assertEquals(9, catalog.getCommonSubjects().size());
+        assertEquals("Mathematics", catalog.getCommonSubjects().get(0).getName());
+        assertEquals(10, catalog.getBranchOnlySubjects().size());
+        assertEquals(5, catalog.getBranchCount());
+        assertEquals("Civil Engineering", catalog.getBranchName(0));
+
+        // Every student branch of the roster resolves, and a Civil first-year writes 9 + 2 papers
+        int civil = catalog.branchOf("Civil");
+        assertEquals(0, civil);
+        for (String branch : SyntheticData.BRANCHES) assertNotEquals(branch, SubjectCatalog.NO_BRANCH, catalog.branchOf(branch));
+        BitSet papers = catalog.getPapers(civil, 1);
+        assertEquals(11, papers.cardinality());
+        assertTrue(papers.get(catalog.getSubjectId(catalog.getBranchSubjects(civil).get(1))));
+        assertFalse(catalog.writesAny(civil, 1, catalog.idsOf(catalog.getBranchSubjects(catalog.branchOf("Mechanical")))));
+        assertFalse(catalog.writesAny(civil, 2, papers));       // nothing for second years in the sheet
+    }
+
+    @Test
+    public void matchesWholeLeadingWordsOnly() {
+        SubjectCatalog catalog = SubjectCatalog.of(Arrays.asList(
+                new Subject("Maths", "Common", "01-07-2025 0.00", 1, "3 hours"),
+                new Subject("Compilers", "Computer Science", "02-07-2025 0.00", 1, "3 hours"),
+                new Subject("Microprocessors", "Computer Engineering", "03-07-2025 0.00", 1, "3 hours"),
+                new Subject("Surveying", "Civil Engineering", "04-07-2025 0.00", 1, "3 hours")));
+
+        assertEquals(0, catalog.branchOf("computer  science"));
+        assertEquals(1, catalog.branchOf("Computer Engineering"));
+        assertEquals(SubjectCatalog.NO_BRANCH, catalog.branchOf("Computer"));      // which one?
+        assertEquals(2, catalog.branchOf("Civil"));
+        assertEquals(SubjectCatalog.NO_BRANCH, catalog.branchOf("Civ"));
+        assertEquals(SubjectCatalog.NO_BRANCH, catalog.branchOf("Mechanical"));
+        // Unknown branches still write the common papers
+        assertEquals(1, catalog.getPapers(SubjectCatalog.NO_BRANCH, 1).cardinality());
+
+        assertTrue(SubjectCatalog.sameBranch("Civil Engineering", "civil"));
+        assertFalse(SubjectCatalog.sameBranch("Electronics and Telecommunication", "Electrical"));
+        assertFalse(SubjectCatalog.sameBranch("Computer Science", "Computer Engineering"));
+    }
+}
@@ -0,0 +1,67 @@
+package seatarrangement.project;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Writes rosters in the same schema as the shipped CSVs, scaled to any size.
+ * Used by the tests and the benchmark mains.
+ */
+final class SyntheticData {
+
+    static final String[] BRANCHES = {
+            "Civil", "Computer Science", "Electrical", "Information Technology", "Mechanical"
+    };
+    static final String[] PREFIXES = { "CI", "CO", "EN", "IT", "ME" };
+    static final String[] YEARS = { "FE", "SE", "TE", "BE" };
+
+    private static final String[] FIRST = {
+            "Aarav", "Jahnvi", "Kiaan", "Krishna", "Rutuja", "Karan", "Neelam", "Devendra",
+            "Aishwarya", "Raghav", "Anjali", "Pooja", "Shreya", "Ayaan", "Kunal", "Kyra"
+    };
+    private static final String[] LAST = {
+            "Reddy", "Malhotra", "Joshi", "Singh", "Patil", "Jha", "Gaur", "Rao",
+            "Desai", "Kapoor", "Sharma", "Verma", "Sethi", "Raut", "Nair", "Iyer"
+    };
+
+    private SyntheticData() { }
+
+    /** Students are written in branch blocks, like the shipped file. */
+    static Path writeStudents(Path file, int count) throws IOException {
+        try (BufferedWriter w = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            w.write("PRN_Number,Student_Name,Branch,Year\n");
+            int perBranch = (count + BRANCHES.length - 1) / BRANCHES.length;
+            for (int i = 0; i < count; i++) {
+                int b = i / perBranch;
+                w.write(PREFIXES[b]);
+                w.write(Integer.toString(250000 + i + 1));
+                w.write(',');
+                w.write(FIRST[i % FIRST.length]);
+                w.write(' ');
+                w.write(LAST[(i / FIRST.length) % LAST.length]);
+                w.write(',');
+                w.write(BRANCHES[b]);
+                w.write(',');
+                w.write(YEARS[(i / 7) % YEARS.length]);
+                w.write('\n');
+            }
+        }
+        return file;
+    }
+
+    /** Enough 20-bench rooms, five per building, to seat {@code students}. */
+    static Path writeBuildings(Path file, int students) throws IOException {
+        int rooms = (students + 19) / 20;
+        try (BufferedWriter w = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            w.write("Building_Number,Room_Number,Benches_In_A_Class\n");
+            for (int r = 0; r < rooms; r++) {
+                int building = r / 5 + 1;
+                w.write(building + "," + (building * 100 + r % 5 + 1) + ",20\n");
+            }
+        }
+        return file;
+    }
+}